@@ -1,11 +1,13 @@
 package chalmers.pimp;
 
+import chalmers.pimp.batch.PimpBatch;
 import chalmers.pimp.controller.ControllerFactory;
 import chalmers.pimp.controller.IController;
 import chalmers.pimp.model.IModel;
 import chalmers.pimp.model.ModelFactory;
 import chalmers.pimp.view.IView;
 import chalmers.pimp.view.ViewFactory;
+import java.util.Arrays;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
@@ -15,12 +17,18 @@ import javafx.stage.Stage;
 public final class PimpApp extends Application {
 
   /**
-   * Launches the application.
+   * Launches the application, or runs batch scripts without a user interface if the first
+   * argument is {@code --batch}.
    *
    * @param args the command line arguments.
+   * @see PimpBatch
    */
   public static void main(String[] args) {
-    Application.launch();
+    if ((args.length > 0) && args[0].equals("--batch")) {
+      PimpBatch.main(Arrays.copyOfRange(args, 1, args.length));
+    } else {
+      Application.launch();
+    }
   }
 
   @Override
@@ -36,6 +44,7 @@ public final class PimpApp extends Application {
     controller.centerViewport();
     model.notifyColorUpdateListeners();
 
+    view.startRenderLoop();
     view.repaint();
   }
 }
\ No newline at end of file
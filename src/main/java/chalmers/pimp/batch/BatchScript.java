@@ -0,0 +1,460 @@
+package chalmers.pimp.batch;
+
+import chalmers.pimp.model.IModel;
+import chalmers.pimp.model.ModelFactory;
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
+import chalmers.pimp.model.color.ColorFactory;
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.color.IColor;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.service.Document;
+import chalmers.pimp.service.DocumentService;
+import chalmers.pimp.service.ImageExportService;
+import chalmers.pimp.service.ImageImportService;
+import chalmers.pimp.util.FileUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The {@code BatchScript} class represents a parsed batch script, i.e. a sequence of layer
+ * operations that are applied to a new model. Every line of a script contains one operation,
+ * followed by its arguments, separated by whitespace. Empty lines and lines starting with {@code
+ * #} are ignored. Relative paths are resolved against the directory of the script.
+ *
+ * <p>The following operations are supported, where layer indices are depth indices and colors
+ * are written as {@code #RRGGBB} or {@code #AARRGGBB}.
+ * <ul>
+ *   <li>{@code open <file>} replaces the layers and the size with those of a document.</li>
+ *   <li>{@code size <width> <height>} sets the size of the exported images and documents.</li>
+ *   <li>{@code import <file> [name]} imports an image as a new raster layer.</li>
+ *   <li>{@code rectangle <x> <y> <width> <height> [color]} adds a new rectangle layer.</li>
+ *   <li>{@code select <index>} selects a layer.</li>
+ *   <li>{@code move <dx> <dy>} moves the selected layer.</li>
+ *   <li>{@code rotate <degrees>} rotates the selected layer.</li>
+ *   <li>{@code show <index>} and {@code hide <index>} change the visibility of a layer.</li>
+ *   <li>{@code rename <index> <name>} renames a layer.</li>
+ *   <li>{@code depth <index> <dz>} changes the depth index of a layer.</li>
+ *   <li>{@code remove <index>} removes a layer.</li>
+ *   <li>{@code export <file>} exports the visible layers as a PNG image.</li>
+ *   <li>{@code save <file>} saves the layers as a document.</li>
+ * </ul>
+ */
+final class BatchScript {
+
+  /**
+   * The {@code IOperation} interface specifies a single operation of a batch script.
+   */
+  private interface IOperation {
+
+    /**
+     * Applies the operation.
+     *
+     * @param context the context of the running script.
+     * @throws IOException if an image couldn't be read or written.
+     */
+    void apply(Context context) throws IOException;
+  }
+
+  private final Path file;
+  private final List<Integer> lineNumbers;
+  private final List<IOperation> operations;
+
+  /**
+   * @param file the file that contains the script.
+   */
+  private BatchScript(Path file) {
+    this.file = file;
+    lineNumbers = new ArrayList<>();
+    operations = new ArrayList<>();
+  }
+
+  /**
+   * Reads and parses the supplied batch script file.
+   *
+   * @param file the file that contains the script.
+   * @return the parsed script.
+   * @throws NullPointerException     if the supplied file is {@code null}.
+   * @throws IOException              if the file couldn't be read.
+   * @throws IllegalArgumentException if the script is malformed.
+   */
+  static BatchScript parse(Path file) throws IOException {
+    Objects.requireNonNull(file);
+    return parse(file, Files.readAllLines(file));
+  }
+
+  /**
+   * Parses the supplied lines of a batch script.
+   *
+   * @param file  the file that the script belongs to, used to resolve relative paths.
+   * @param lines the lines of the script.
+   * @return the parsed script.
+   * @throws NullPointerException     if any arguments are {@code null}.
+   * @throws IllegalArgumentException if the script is malformed.
+   */
+  static BatchScript parse(Path file, List<String> lines) {
+    Objects.requireNonNull(file);
+    Objects.requireNonNull(lines);
+
+    var script = new BatchScript(file);
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i).strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+
+      try {
+        script.operations.add(parseOperation(line.split("\\s+")));
+        script.lineNumbers.add(i + 1);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(script.describe(i + 1) + e.getMessage(), e);
+      }
+    }
+    return script;
+  }
+
+  /**
+   * Parses a single operation.
+   *
+   * @param words the words of the line that contains the operation.
+   * @return the parsed operation.
+   * @throws IllegalArgumentException if the operation is malformed.
+   */
+  private static IOperation parseOperation(String[] words) {
+    String[] args = Arrays.copyOfRange(words, 1, words.length);
+    switch (words[0]) {
+      case "open": {
+        ensureArguments(args, 1, 1);
+        return context -> context.openDocument(args[0]);
+      }
+      case "save": {
+        ensureArguments(args, 1, 1);
+        return context -> context.saveDocument(args[0]);
+      }
+      case "size": {
+        ensureArguments(args, 2, 2);
+        int width = parsePositive(args[0]);
+        int height = parsePositive(args[1]);
+        return context -> context.setSize(width, height);
+      }
+      case "import": {
+        ensureArguments(args, 1, Integer.MAX_VALUE);
+        String name = (args.length > 1) ? join(args, 1) : null;
+        return context -> context.importImage(args[0], name);
+      }
+      case "rectangle": {
+        ensureArguments(args, 4, 5);
+        int x = parseInt(args[0]);
+        int y = parseInt(args[1]);
+        int width = parsePositive(args[2]);
+        int height = parsePositive(args[3]);
+        IColor color = (args.length > 4) ? parseColor(args[4]) : Colors.BLACK;
+        return context -> context.model
+            .addLayer(LayerFactory.createRectangle(x, y, width, height, color));
+      }
+      case "select": {
+        ensureArguments(args, 1, 1);
+        int index = parseInt(args[0]);
+        return context -> context.model.selectLayer(context.ensureValidLayer(index));
+      }
+      case "move": {
+        ensureArguments(args, 2, 2);
+        int dx = parseInt(args[0]);
+        int dy = parseInt(args[1]);
+        return context -> context.ensureActiveLayer().moveActiveLayer(dx, dy);
+      }
+      case "rotate": {
+        ensureArguments(args, 1, 1);
+        int degrees = parseInt(args[0]);
+        return context -> context.ensureActiveLayer().rotateActiveLayer(degrees);
+      }
+      case "show":
+      case "hide": {
+        ensureArguments(args, 1, 1);
+        int index = parseInt(args[0]);
+        boolean isVisible = words[0].equals("show");
+        return context -> context.model
+            .setLayerVisibility(context.ensureValidLayer(index), isVisible);
+      }
+      case "rename": {
+        ensureArguments(args, 2, Integer.MAX_VALUE);
+        int index = parseInt(args[0]);
+        String name = join(args, 1);
+        return context -> context.model.setLayerName(context.ensureValidLayer(index), name);
+      }
+      case "depth": {
+        ensureArguments(args, 2, 2);
+        int index = parseInt(args[0]);
+        int dz = parseInt(args[1]);
+        return context -> context.model.changeLayerDepthIndex(context.ensureValidLayer(index), dz);
+      }
+      case "remove": {
+        ensureArguments(args, 1, 1);
+        int index = parseInt(args[0]);
+        return context -> context.model.removeLayer(context.ensureValidLayer(index));
+      }
+      case "export": {
+        ensureArguments(args, 1, 1);
+        return context -> context.export(args[0]);
+      }
+      default:
+        throw new IllegalArgumentException("Unknown operation: " + words[0]);
+    }
+  }
+
+  /**
+   * Ensures that the amount of supplied arguments is within the specified range.
+   *
+   * @param args the arguments of an operation.
+   * @param min  the min amount of arguments.
+   * @param max  the max amount of arguments.
+   * @throws IllegalArgumentException if the amount of arguments is out of range.
+   */
+  private static void ensureArguments(String[] args, int min, int max) {
+    if ((args.length < min) || (args.length > max)) {
+      throw new IllegalArgumentException("Wrong amount of arguments: " + args.length);
+    }
+  }
+
+  /**
+   * Joins the supplied words with single spaces, starting at the specified word.
+   *
+   * @param words the words that will be joined.
+   * @param from  the index of the first word.
+   * @return the joined words.
+   */
+  private static String join(String[] words, int from) {
+    return String.join(" ", Arrays.copyOfRange(words, from, words.length));
+  }
+
+  /**
+   * Parses the supplied integer.
+   *
+   * @param word the word that contains the integer.
+   * @return the parsed integer.
+   * @throws IllegalArgumentException if the word isn't an integer.
+   */
+  private static int parseInt(String word) {
+    try {
+      return Integer.parseInt(word);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not an integer: " + word, e);
+    }
+  }
+
+  /**
+   * Parses the supplied positive integer.
+   *
+   * @param word the word that contains the integer.
+   * @return the parsed integer.
+   * @throws IllegalArgumentException if the word isn't a positive integer.
+   */
+  private static int parsePositive(String word) {
+    int value = parseInt(word);
+    if (value < 1) {
+      throw new IllegalArgumentException("Not a positive integer: " + word);
+    }
+    return value;
+  }
+
+  /**
+   * Parses the supplied color, written as {@code #RRGGBB} or {@code #AARRGGBB}.
+   *
+   * @param word the word that contains the color.
+   * @return the parsed color.
+   * @throws IllegalArgumentException if the word isn't a color.
+   */
+  private static IColor parseColor(String word) {
+    if (!word.startsWith("#") || ((word.length() != 7) && (word.length() != 9))) {
+      throw new IllegalArgumentException("Not a color: " + word);
+    }
+
+    try {
+      int argb = Integer.parseUnsignedInt(word.substring(1), 16);
+      if (word.length() == 7) {
+        argb |= 0xFF000000;
+      }
+      return ColorFactory.createColorFromArgb(argb);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a color: " + word, e);
+    }
+  }
+
+  /**
+   * Returns a prefix that describes the location of the specified line in the script.
+   *
+   * @param lineNumber the line number, starting at 1.
+   * @return a description of the location of the line.
+   */
+  private String describe(int lineNumber) {
+    return file + ":" + lineNumber + ": ";
+  }
+
+  /**
+   * Runs the script on a new model, and returns the images and documents that were written.
+   *
+   * @return the paths of the written images and documents.
+   * @throws IOException              if an image couldn't be read or written.
+   * @throws IllegalArgumentException if an operation couldn't be applied.
+   */
+  List<Path> run() throws IOException {
+    var context = new Context(file.toAbsolutePath().getParent());
+
+    for (int i = 0; i < operations.size(); i++) {
+      try {
+        operations.get(i).apply(context);
+      } catch (IOException e) {
+        throw new IOException(describe(lineNumbers.get(i)) + e.getMessage(), e);
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException(describe(lineNumbers.get(i)) + e.getMessage(), e);
+      }
+    }
+
+    return Collections.unmodifiableList(context.exports);
+  }
+
+  /**
+   * Returns the amount of operations in the script.
+   *
+   * @return the amount of operations in the script.
+   */
+  int getAmountOfOperations() {
+    return operations.size();
+  }
+
+  /**
+   * Returns the file that contains the script.
+   *
+   * @return the file that contains the script.
+   */
+  Path getFile() {
+    return file;
+  }
+
+  /**
+   * The {@code Context} class represents the state of a running script.
+   */
+  private static final class Context {
+
+    private final IModel model;
+    private final Path directory;
+    private final List<Path> exports;
+    private int width;
+    private int height;
+
+    /**
+     * @param directory the directory that relative paths are resolved against.
+     */
+    Context(Path directory) {
+      this.directory = directory;
+      model = ModelFactory.createModel();
+      exports = new ArrayList<>();
+      width = model.getWidth();
+      height = model.getHeight();
+    }
+
+    /**
+     * Sets the size of the exported images.
+     *
+     * @param width  the width of the exported images.
+     * @param height the height of the exported images.
+     */
+    void setSize(int width, int height) {
+      this.width = width;
+      this.height = height;
+    }
+
+    /**
+     * Replaces the layers and the size of the model with those of a document.
+     *
+     * @param path the path of the document.
+     * @throws IOException if the document couldn't be read.
+     */
+    void openDocument(String path) throws IOException {
+      Document document = DocumentService.openDocument(directory.resolve(path));
+      model.setDocument(document.getWidth(), document.getHeight(), document.getLayers());
+      setSize(document.getWidth(), document.getHeight());
+    }
+
+    /**
+     * Saves the layers of the model as a document.
+     *
+     * @param path the path of the document.
+     * @throws IOException if the document couldn't be written.
+     */
+    void saveDocument(String path) throws IOException {
+      Path documentFile = directory.resolve(path);
+      DocumentService.saveDocument(width, height, model.getLayers(), documentFile, progress -> {
+      });
+      exports.add(documentFile);
+    }
+
+    /**
+     * Imports an image as a new raster layer.
+     *
+     * @param path the path of the image.
+     * @param name the name of the layer; {@code null} if the file name should be used.
+     * @throws IOException if the image couldn't be read.
+     */
+    void importImage(String path, String name) throws IOException {
+      Path imageFile = directory.resolve(path);
+      IRasterData rasterData = ImageImportService.importRasterData(imageFile.toFile(),
+          progress -> {
+          });
+
+      String layerName = (name != null) ? name : FileUtils.getSimpleFileName(imageFile.toFile());
+      model.addLayer(LayerFactory.createRasterLayer(rasterData, layerName));
+    }
+
+    /**
+     * Exports the visible layers as a PNG image.
+     *
+     * @param path the path of the exported image.
+     * @throws IOException if the image couldn't be written.
+     */
+    void export(String path) throws IOException {
+      Path imageFile = directory.resolve(path);
+      ImageExportService.exportPng(width, height, model.getLayers(), imageFile, progress -> {
+      });
+      exports.add(imageFile);
+    }
+
+    /**
+     * Ensures that the model has an active layer.
+     *
+     * @return the model.
+     * @throws IllegalStateException if there is no active layer.
+     */
+    IModel ensureActiveLayer() {
+      if (!model.hasActiveLayer()) {
+        throw new IllegalStateException("No layer is selected");
+      }
+      return model;
+    }
+
+    /**
+     * Ensures that the supplied index is associated with a layer.
+     *
+     * @param index the layer depth index that will be checked.
+     * @return the supplied index.
+     * @throws IndexOutOfBoundsException if there is no layer associated with the index.
+     */
+    int ensureValidLayer(int index) {
+      int amountOfLayers = 0;
+      for (IReadOnlyLayer ignored : model.getLayers()) {
+        amountOfLayers++;
+      }
+
+      if ((index < 0) || (index >= amountOfLayers)) {
+        throw new IndexOutOfBoundsException("No layer at index: " + index);
+      }
+      return index;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package chalmers.pimp.batch;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The {@code PimpBatch} class represents the entry point for the headless batch mode of the Pimp
+ * application. Every supplied batch script is run on a model of its own, and the scripts are run
+ * in parallel on a fixed amount of threads. No JavaFX stage is ever created.
+ *
+ * <p>Usage: {@code --batch [--threads <amount>] <script>...}
+ *
+ * @see BatchScript
+ */
+public final class PimpBatch {
+
+  private PimpBatch() {
+  }
+
+  /**
+   * Runs the batch scripts specified by the supplied command line arguments, and exits. The exit
+   * status is 0 if all scripts succeeded, 1 if any script failed, and 2 if the arguments are
+   * invalid.
+   *
+   * @param args the command line arguments, without the leading {@code --batch}.
+   */
+  public static void main(String[] args) {
+    System.setProperty("java.awt.headless", "true");
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    List<Path> scripts = new ArrayList<>();
+    try {
+      for (int i = 0; i < args.length; i++) {
+        if (args[i].equals("--threads") && ((i + 1) < args.length)) {
+          threads = Integer.parseInt(args[++i]);
+        } else {
+          scripts.add(Path.of(args[i]));
+        }
+      }
+    } catch (NumberFormatException e) {
+      threads = 0;
+    }
+
+    if (scripts.isEmpty() || (threads < 1)) {
+      System.err.println("Usage: --batch [--threads <amount>] <script>...");
+      System.exit(2);
+    }
+
+    int failures = run(scripts, threads, System.out, System.err);
+    System.exit((failures == 0) ? 0 : 1);
+  }
+
+  /**
+   * Runs the supplied batch scripts in parallel, and waits for all of them to finish. The outcome
+   * of every script is reported in the order that the scripts were supplied.
+   *
+   * @param scripts the batch script files that will be run.
+   * @param threads the amount of threads that the scripts are run on.
+   * @param out     the stream that successful scripts are reported to.
+   * @param err     the stream that failed scripts are reported to.
+   * @return the amount of scripts that failed.
+   * @throws NullPointerException     if any references are {@code null}.
+   * @throws IllegalArgumentException if the amount of threads is less than 1.
+   */
+  static int run(List<Path> scripts, int threads, PrintStream out, PrintStream err) {
+    Objects.requireNonNull(scripts);
+    Objects.requireNonNull(out);
+    Objects.requireNonNull(err);
+    if (threads < 1) {
+      throw new IllegalArgumentException("Invalid amount of threads: " + threads);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<Path>>> results = new ArrayList<>(scripts.size());
+      for (Path script : scripts) {
+        Objects.requireNonNull(script);
+        results.add(executor.submit(() -> BatchScript.parse(script).run()));
+      }
+
+      int failures = 0;
+      for (int i = 0; i < scripts.size(); i++) {
+        try {
+          List<Path> exports = results.get(i).get();
+          out.println(scripts.get(i) + ": wrote " + exports.size() + " file(s)");
+        } catch (ExecutionException e) {
+          err.println(scripts.get(i) + ": failed: " + e.getCause().getMessage());
+          failures++;
+        }
+      }
+      return failures;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return scripts.size();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,5 @@
+/**
+ * The {@code batch} package contains the headless batch mode of the Pimp application, which runs
+ * scripted sequences of layer operations without a user interface.
+ */
+package chalmers.pimp.batch;
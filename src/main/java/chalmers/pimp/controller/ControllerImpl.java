@@ -8,13 +8,27 @@ import chalmers.pimp.model.canvas.layer.LayerFactory;
 import chalmers.pimp.model.pixeldata.IRasterData;
 import chalmers.pimp.model.tools.ITool;
 import chalmers.pimp.model.tools.ToolFactory;
+import chalmers.pimp.service.AutosaveDirectory;
+import chalmers.pimp.service.AutosaveService;
+import chalmers.pimp.service.AutosaveService.Baseline;
+import chalmers.pimp.service.Document;
+import chalmers.pimp.service.DocumentSaveTask;
+import chalmers.pimp.service.DocumentService;
 import chalmers.pimp.service.ImageExportService;
+import chalmers.pimp.service.ImageExportTask;
+import chalmers.pimp.service.ImageImportTask;
 import chalmers.pimp.service.MouseStatusCreationService;
 import chalmers.pimp.util.Resources;
 import chalmers.pimp.view.IView;
 import chalmers.pimp.view.renderer.RendererFactory;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.input.MouseEvent;
@@ -25,9 +39,33 @@ import javafx.stage.Stage;
  */
 final class ControllerImpl implements IController {
 
+  /**
+   * The max amount of images that are imported or exported at the same time.
+   */
+  private static final int BACKGROUND_THREADS =
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
   private final IModel model;
   private final IView view;
   private final Stage stage;
+  private final PimpEditorPane pane;
+
+  /**
+   * The executor that imports and exports images in the background. Several images are decoded in
+   * parallel.
+   */
+  private final ExecutorService backgroundExecutor;
+
+  /**
+   * The directory that contains the autosave journal of this instance, and the journals left over
+   * from previous instances; {@code null} if the directory couldn't be opened.
+   */
+  private final AutosaveDirectory autosaveDirectory;
+
+  /**
+   * The service that appends the changes of the document to the autosave journal.
+   */
+  private final AutosaveService autosaveService;
 
   /**
    * @param model the associated model instance.
@@ -41,13 +79,32 @@ final class ControllerImpl implements IController {
     this.view = Objects.requireNonNull(view);
     this.stage = Objects.requireNonNull(stage);
 
-    var pane = new PimpEditorPane(model, this);
+    backgroundExecutor = Executors.newFixedThreadPool(BACKGROUND_THREADS, runnable -> {
+      var thread = new Thread(runnable, "pimp-background");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    pane = new PimpEditorPane(model, this);
     IRenderer renderer = RendererFactory.createFXRenderer(pane.getGraphics());
     view.setRenderer(renderer);
     model.setRenderer(renderer);
 
     prepareStage(new Scene(pane, 800, 600));
     selectRasterPen();
+
+    AutosaveDirectory directory = null;
+    Path journal;
+    try {
+      directory = AutosaveDirectory.open(AutosaveDirectory.getDefaultDirectory());
+      journal = directory.getJournal();
+    } catch (IOException e) {
+      System.err.println("Failed to open the autosave directory! Exception: " + e);
+      journal = Files.createTempFile("pimp-autosave-", ".journal");
+    }
+    autosaveDirectory = directory;
+    autosaveService = AutosaveService.start(model, journal, Platform::runLater,
+        AutosaveService.DEFAULT_DELAY);
   }
 
   /**
@@ -156,23 +213,105 @@ final class ControllerImpl implements IController {
 
   @Override
   public void openImageChooser() {
-    try {
-      var imageChooser = new ImageChooser();
+    var imageChooser = new ImageChooser();
+    for (File file : imageChooser.openDialog(stage)) {
+      importImage(file);
+    }
+  }
 
-      IRasterData rasterData = imageChooser.openDialog(stage);
-      if (rasterData == null) {
-        return;
-      }
-      String pixelDataName = imageChooser.getMostRecentFileName();
+  /**
+   * Imports the supplied image file on a background thread. The imported image is added as a new
+   * layer once the import has finished, unless the import is cancelled.
+   *
+   * @param file the image file that will be imported.
+   */
+  private void importImage(File file) {
+    var task = new ImageImportTask(file);
 
-      model.addLayer(LayerFactory.createRasterLayer(rasterData, pixelDataName));
-    } catch (Exception e) {
-      System.err.println("Failed to import image! Exception: " + e);
-    }
+    task.setOnSucceeded(event -> {
+      IRasterData rasterData = task.getValue();
+      model.addLayer(LayerFactory.createRasterLayer(rasterData, task.getImageName()));
+    });
+    task.setOnFailed(event -> {
+      System.err.println("Failed to import image! Exception: " + task.getException());
+    });
+
+    pane.showTaskProgress(task, "Importing " + task.getImageName());
+    backgroundExecutor.execute(task);
   }
 
   @Override
   public void exportImage() {
-    ImageExportService.exportImage(model.getWidth(), model.getHeight(), model.getLayers());
+    File file = ImageExportService.showExportDialog(stage);
+    if (file == null) {
+      return; // simply return if the user doesn't want to save the content
+    }
+
+    var task = new ImageExportTask(model.getWidth(), model.getHeight(), model.getLayers(), file);
+    task.setOnFailed(event -> {
+      System.err.println("Failed to export image! Exception: " + task.getException());
+    });
+
+    pane.showTaskProgress(task, "Exporting " + file.getName());
+    backgroundExecutor.execute(task);
+  }
+
+  @Override
+  public void openDocument() {
+    File file = DocumentService.showOpenDialog(stage);
+    if (file == null) {
+      return;
+    }
+
+    try {
+      Document document = DocumentService.openDocument(file.toPath());
+      model.setDocument(document.getWidth(), document.getHeight(), document.getLayers());
+      centerViewport();
+      autosaveService.rebase(file.toPath(), autosaveService.createBaseline());
+    } catch (IOException e) {
+      System.err.println("Failed to open document! Exception: " + e);
+    }
+  }
+
+  @Override
+  public void saveDocument() {
+    File file = DocumentService.showSaveDialog(stage);
+    if (file == null) {
+      return;
+    }
+
+    var task = new DocumentSaveTask(model.getWidth(), model.getHeight(), model.getLayers(), file);
+    Baseline baseline = autosaveService.createBaseline();
+    task.setOnSucceeded(event -> autosaveService.rebase(file.toPath(), baseline));
+    task.setOnFailed(event -> {
+      System.err.println("Failed to save document! Exception: " + task.getException());
+    });
+
+    pane.showTaskProgress(task, "Saving " + file.getName());
+    backgroundExecutor.execute(task);
+  }
+
+  @Override
+  public void recoverAutosave() {
+    if (autosaveDirectory == null) {
+      return;
+    }
+
+    try {
+      Path leftover = autosaveDirectory.findLeftoverJournal();
+      if (leftover == null) {
+        return;
+      }
+
+      Document document = AutosaveService.recover(leftover);
+      model.setDocument(document.getWidth(), document.getHeight(), document.getLayers());
+      centerViewport();
+
+      // The recovered document replaces the document that the journal may be based on
+      autosaveService.restart();
+      autosaveDirectory.deleteLeftoverJournal(leftover);
+    } catch (IOException e) {
+      System.err.println("Failed to recover autosave! Exception: " + e);
+    }
   }
-}
\ No newline at end of file
+}
@@ -112,4 +112,23 @@ public interface IController {
    * dialog. This method has no effect if the save operation fails.
    */
   void exportImage();
+
+  /**
+   * Opens a file chooser dialog, which allows the user to open a document. If a document is
+   * selected, it replaces the contents of the model.
+   */
+  void openDocument();
+
+  /**
+   * Opens a file chooser dialog, which allows the user to save the contents of the model as a
+   * document. The document is saved in the background.
+   */
+  void saveDocument();
+
+  /**
+   * Recovers the document that was autosaved by the most recent session of the application that is
+   * no longer running, and replaces the contents of the model with it. This method has no effect
+   * if there is nothing to recover.
+   */
+  void recoverAutosave();
 }
\ No newline at end of file
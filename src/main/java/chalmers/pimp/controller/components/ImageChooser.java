@@ -1,13 +1,9 @@
 package chalmers.pimp.controller.components;
 
-import chalmers.pimp.model.pixeldata.IRasterData;
-import chalmers.pimp.service.ImageImportService;
-import chalmers.pimp.service.RasterDataService;
-import chalmers.pimp.util.FileUtils;
 import java.io.File;
-import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
-import javafx.scene.image.Image;
 import javafx.stage.FileChooser;
 import javafx.stage.Window;
 
@@ -18,7 +14,6 @@ import javafx.stage.Window;
 public final class ImageChooser {
 
   private final FileChooser fileChooser;
-  private String mostRecentFileName;
 
   public ImageChooser() {
     fileChooser = new FileChooser();
@@ -26,47 +21,24 @@ public final class ImageChooser {
 
     var filter = new FileChooser.ExtensionFilter("Images", "*.jpg", "*.png");
     fileChooser.getExtensionFilters().add(filter);
-    mostRecentFileName = "No file name created";
   }
 
   /**
-   * Attempts to let the user choose an existing image and subsequently import it.
+   * Lets the user choose one or more existing images to import.
    *
    * @param window the parent window that will contain the dialog.
-   * @return a pixel data instance, that represents the existing image; {@code null} if no file was
-   * selected.
-   * @throws IOException          if an image cannot be loaded.
+   * @return the selected image files; an empty list if no file was selected.
    * @throws NullPointerException if the supplied window is {@code null}.
    */
-  public IRasterData openDialog(Window window) throws IOException {
+  public List<File> openDialog(Window window) {
     Objects.requireNonNull(window);
 
-    File file = fileChooser.showOpenDialog(window);
-    if (file == null) {
+    List<File> files = fileChooser.showOpenMultipleDialog(window);
+    if (files == null) {
       System.out.println("No image file was selected!");
-      return null;
+      return Collections.emptyList();
     }
-    setMostRecentFileName(file);
 
-    Image image = ImageImportService.importImage(file);
-    return RasterDataService.createPixelDataCopy(image);
-  }
-
-  /**
-   * Returns the most recent file name for an imported file, without extension.
-   *
-   * @return then name of the most recent file.
-   */
-  public String getMostRecentFileName() {
-    return mostRecentFileName;
-  }
-
-  /**
-   * Sets the recentFileName for this ImageChooser, based on the supplied {@code File}.
-   *
-   * @param mostRecentFileName the {@code File} from which the name comes from.
-   */
-  private void setMostRecentFileName(File mostRecentFileName) {
-    this.mostRecentFileName = FileUtils.getSimpleFileName(mostRecentFileName);
+    return files;
   }
 }
@@ -6,9 +6,14 @@ import chalmers.pimp.model.viewport.IReadOnlyViewport;
 import chalmers.pimp.util.Resources;
 import java.io.IOException;
 import java.util.Objects;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.HBox;
 
 /**
  * The {@code InfoPane} class represents the bottom pane displaying interesting data about the
@@ -38,6 +43,9 @@ final class InfoPane extends AnchorPane implements IModelSizeListener {
   private Label layerHeight;
   @FXML
   private Label layerRotation;
+  @FXML
+  @SuppressWarnings("unused")
+  private HBox taskBox;
 
   /**
    * @throws IOException if the associated FXML-file cannot be loaded.
@@ -123,4 +131,33 @@ final class InfoPane extends AnchorPane implements IModelSizeListener {
   void setLayerRotationLabel(int rotation) {
     layerRotation.setText(String.valueOf(rotation));
   }
+
+  /**
+   * Displays the progress of the supplied task, along with a button that cancels it. The progress
+   * is removed from the pane when the task is done.
+   *
+   * @param task        the task whose progress will be displayed.
+   * @param description a short description of the task.
+   * @throws NullPointerException if any arguments are {@code null}.
+   */
+  void addTaskProgress(Task<?> task, String description) {
+    Objects.requireNonNull(task);
+    Objects.requireNonNull(description);
+
+    var progressBar = new ProgressBar();
+    progressBar.progressProperty().bind(task.progressProperty());
+
+    var cancelButton = new Button("Cancel");
+    cancelButton.setOnAction(event -> task.cancel());
+
+    var item = new HBox(5, new Label(description), progressBar, cancelButton);
+    item.setAlignment(Pos.CENTER_LEFT);
+    taskBox.getChildren().add(item);
+
+    task.runningProperty().addListener((observable, wasRunning, isRunning) -> {
+      if (task.isDone()) {
+        taskBox.getChildren().remove(item);
+      }
+    });
+  }
 }
@@ -2,33 +2,68 @@ package chalmers.pimp.controller.components;
 
 import chalmers.pimp.controller.ControllerUtils;
 import chalmers.pimp.model.IModel;
+import chalmers.pimp.model.canvas.LayerChange;
 import chalmers.pimp.model.canvas.LayerUpdateEvent;
-import chalmers.pimp.model.canvas.layer.ILayer;
 import chalmers.pimp.model.canvas.layer.ILayerUpdateListener;
 import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
-import chalmers.pimp.service.LayerImageService;
+import chalmers.pimp.service.LayerThumbnailCache;
 import chalmers.pimp.util.Resources;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 
 /**
  * The {@code LayerItemContainerPane} class contains layer items that represent layers found in the
- * model.
+ * model. The layer items are displayed by a virtualized list, so only the visible rows have layer
+ * item panes, which are reused as the list is scrolled. The rows are updated according to the
+ * changes described by layer update events, so only the rows of changed layers are touched, and
+ * the layer previews are cached thumbnails that are created in the background.
  *
  * @see LayerItemPane
  */
 final class LayerItemContainerPane extends AnchorPane implements ILayerUpdateListener {
 
+  /**
+   * The max width and height of the layer previews.
+   */
+  private static final int PREVIEW_SIZE = 64;
+
+  /**
+   * The height of a row in the layer list, i.e. a layer item pane and the spacing below it.
+   */
+  private static final double ROW_HEIGHT = 85;
+
+  /**
+   * The executor that creates the layer previews, shared by all layer item container panes.
+   */
+  private static final Executor PREVIEW_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+    var thread = new Thread(runnable, "pimp-thumbnails");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
   private final IModel model;
+  private final LayerThumbnailCache thumbnailCache;
+  private IReadOnlyLayer selectedLayer;
   @FXML
   @SuppressWarnings("unused")
   private AnchorPane emptyLayerPane;
   @FXML
   @SuppressWarnings("unused")
-  private VBox layerItemVBox;
+  private ListView<LayerItem> layerListView;
 
   /**
    * @param model the associated model instance.
@@ -37,30 +72,209 @@ final class LayerItemContainerPane extends AnchorPane implements ILayerUpdateLis
    */
   LayerItemContainerPane(IModel model) throws IOException {
     this.model = Objects.requireNonNull(model);
+    thumbnailCache = new LayerThumbnailCache(PREVIEW_SIZE, PREVIEW_EXECUTOR, Platform::runLater);
     ControllerUtils.makeController(this, Resources.find(getClass(), "layer_pane.fxml"));
+
+    layerListView.setFixedCellSize(ROW_HEIGHT);
+    layerListView.setCellFactory(listView -> new LayerItemCell());
   }
 
   @Override
   public void layersUpdated(LayerUpdateEvent event) {
-    layerItemVBox.getChildren().clear();
+    ObservableList<LayerItem> items = layerListView.getItems();
+    IReadOnlyLayer activeLayer = model.getActiveLayer();
 
     if (event.getAmountOfLayers() == 0) {
+      thumbnailCache.retainAll(event.getLayers());
+      items.clear();
+      selectedLayer = null;
       emptyLayerPane.toFront();
       return;
     }
-
     emptyLayerPane.toBack();
-    for (IReadOnlyLayer layer : event.getLayers()) {
-      try {
-        var layerItemPane = new LayerItemPane(model, layer.getDepthIndex());
 
-        ILayer layerCopy = event.getCopyOfLayer(layer.getDepthIndex());
-        layerItemPane.setImage(LayerImageService.getLayerImage(layerCopy));
+    if (event.isFullUpdate() || !applyChanges(event)) {
+      thumbnailCache.retainAll(event.getLayers());
+
+      List<LayerItem> updatedItems = new ArrayList<>(event.getAmountOfLayers());
+      for (IReadOnlyLayer layer : event.getLayers()) {
+        updatedItems.add(new LayerItem(layer, layer == activeLayer));
+      }
+      Collections.reverse(updatedItems); // The topmost layer is displayed first
+      items.setAll(updatedItems);
+    } else if (selectedLayer != activeLayer) {
+      updateRow(selectedLayer);
+      updateRow(activeLayer);
+    }
+    selectedLayer = activeLayer;
+  }
+
+  /**
+   * Applies the changes described by the supplied event to the layer items. Only the rows of the
+   * changed layers are updated.
+   *
+   * @param event the layer update event.
+   * @return {@code true} if the changes were applied; {@code false} if the layer items don't match
+   * the changes, in which case the layer items must be recreated.
+   */
+  private boolean applyChanges(LayerUpdateEvent event) {
+    ObservableList<LayerItem> items = layerListView.getItems();
+    Set<IReadOnlyLayer> changedLayers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    for (LayerChange change : event.getChanges()) {
+      IReadOnlyLayer layer = change.getLayer();
+      int row;
+      switch (change.getType()) {
+        case INSERTED:
+          row = items.size() - change.getIndex();
+          if ((row < 0) || (row > items.size())) {
+            return false;
+          }
+          items.add(row, new LayerItem(layer, false));
+          changedLayers.add(layer);
+          break;
+        case REMOVED:
+          row = getRow(change.getIndex());
+          if ((row < 0) || (items.get(row).layer != layer)) {
+            return false;
+          }
+          items.remove(row);
+          thumbnailCache.remove(layer);
+          changedLayers.remove(layer);
+          break;
+        case MOVED:
+          row = getRow(change.getIndex());
+          if ((row < 0) || (items.get(row).layer != layer)) {
+            return false;
+          }
+          LayerItem item = items.remove(row);
+          items.add(items.size() - change.getTargetIndex(), item);
+          break;
+        default:
+          changedLayers.add(layer);
+          break;
+      }
+    }
+
+    if (items.size() != event.getAmountOfLayers()) {
+      return false;
+    }
+    for (IReadOnlyLayer layer : changedLayers) {
+      updateRow(layer);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the row of the layer list that displays the layer with the supplied depth index.
+   *
+   * @param depthIndex the depth index of the layer.
+   * @return the row of the layer; -1 if the depth index is out-of-bounds.
+   */
+  private int getRow(int depthIndex) {
+    int size = layerListView.getItems().size();
+    return ((depthIndex >= 0) && (depthIndex < size)) ? (size - 1 - depthIndex) : -1;
+  }
 
-        layerItemVBox.getChildren().add(0, layerItemPane);
+  /**
+   * Updates the row that displays the supplied layer, if the displayed state of the layer has
+   * changed. This method has no effect if the layer isn't displayed.
+   *
+   * @param layer the layer whose row will be updated, may be {@code null}.
+   */
+  private void updateRow(IReadOnlyLayer layer) {
+    if (layer == null) {
+      return;
+    }
+
+    ObservableList<LayerItem> items = layerListView.getItems();
+    int row = getRow(layer.getDepthIndex());
+    if ((row >= 0) && (items.get(row).layer == layer)) {
+      var item = new LayerItem(layer, layer == model.getActiveLayer());
+
+      // Replacing an item only updates the cell that displays it, if the row is visible
+      if (!item.isEquivalentTo(items.get(row))) {
+        items.set(row, item);
+      }
+    }
+  }
+
+  /**
+   * The {@code LayerItemCell} class is a cell of the layer list, which displays its layer item
+   * with a layer item pane that is created once per cell.
+   */
+  private final class LayerItemCell extends ListCell<LayerItem> {
+
+    private final LayerItemPane pane;
+
+    private LayerItemCell() {
+      LayerItemPane layerItemPane = null;
+      try {
+        layerItemPane = new LayerItemPane(model);
       } catch (Exception e) {
         System.out.println("Failed to create layer item pane! Exception: " + e);
       }
+      pane = layerItemPane;
+    }
+
+    @Override
+    protected void updateItem(LayerItem item, boolean isEmpty) {
+      super.updateItem(item, isEmpty);
+
+      if (isEmpty || (item == null) || (pane == null)) {
+        setGraphic(null);
+        return;
+      }
+
+      pane.setLayer(item.layer, item.isSelected);
+      pane.setImage(null);
+      thumbnailCache.requestThumbnail(item.layer, image -> {
+        if (getItem() == item) {
+          pane.setImage(image);
+        }
+      });
+      setGraphic(pane);
+    }
+  }
+
+  /**
+   * The {@code LayerItem} class represents the state of a layer that is displayed by a row of the
+   * layer list.
+   */
+  private static final class LayerItem {
+
+    private final IReadOnlyLayer layer;
+    private final String name;
+    private final boolean isVisible;
+    private final boolean isSelected;
+    private final long contentVersion;
+    private final long transformVersion;
+
+    /**
+     * @param layer      the layer.
+     * @param isSelected {@code true} if the layer is the active layer.
+     */
+    private LayerItem(IReadOnlyLayer layer, boolean isSelected) {
+      this.layer = layer;
+      this.isSelected = isSelected;
+      name = layer.getName();
+      isVisible = layer.isVisible();
+      contentVersion = layer.getContentVersion();
+      transformVersion = layer.getTransformVersion();
+    }
+
+    /**
+     * Indicates whether or not the supplied layer item displays the same state as this layer
+     * item.
+     *
+     * @param item the layer item that will be compared to this layer item.
+     * @return {@code true} if the layer items display the same state; {@code false} otherwise.
+     */
+    private boolean isEquivalentTo(LayerItem item) {
+      return (item.layer == layer) && Objects.equals(item.name, name)
+          && (item.isVisible == isVisible) && (item.isSelected == isSelected)
+          && (item.contentVersion == contentVersion)
+          && (item.transformVersion == transformVersion);
     }
   }
 }
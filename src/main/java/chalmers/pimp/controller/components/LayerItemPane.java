@@ -29,9 +29,9 @@ import javafx.scene.layout.AnchorPane;
 
 /**
  * The {@code LayerItemPane} class represents a "layer item pane", which contains information about
- * a specific layer in the model. Instances of this class are designed to be disposed upon layer
- * model updates. In other words, instances of the {@code LayerItemPane} class are meant to be
- * short-lived.
+ * a specific layer in the model. Instances of this class are reused by the cells of the layer list,
+ * which bind them to the layer that they currently display, so the associated FXML file is only
+ * loaded once per cell.
  *
  * @see LayerItemContainerPane
  */
@@ -53,7 +53,7 @@ final class LayerItemPane extends AnchorPane {
   }
 
   private final IModel model;
-  private final int associatedLayerIndex;
+  private IReadOnlyLayer associatedLayer;
   @FXML
   @SuppressWarnings("unused")
   private Label layerName;
@@ -83,29 +83,53 @@ final class LayerItemPane extends AnchorPane {
   private Button renameButton;
 
   /**
-   * @param model                the associated model instance.
-   * @param associatedLayerIndex the layer depth index of the associated layer in the model.
+   * Creates a layer item pane that isn't associated with a layer, see {@link
+   * #setLayer(IReadOnlyLayer, boolean)}.
+   *
+   * @param model the associated model instance.
    * @throws IOException          if the associated FXML file cannot be found.
-   * @throws NullPointerException if any references are {@code null}.
+   * @throws NullPointerException if the supplied model is {@code null}.
    */
-  LayerItemPane(IModel model, int associatedLayerIndex) throws IOException {
+  LayerItemPane(IModel model) throws IOException {
     this.model = Objects.requireNonNull(model);
-    this.associatedLayerIndex = associatedLayerIndex;
+    associatedLayer = null;
 
     ControllerUtils.makeController(this, Resources.find(getClass(), "layer_item.fxml"));
 
-    layerName.setText(model.getLayerName(associatedLayerIndex));
+    layerName.setContextMenu(contextMenu);
 
-    IReadOnlyLayer activeLayer = model.getActiveLayer();
-    if ((activeLayer != null) && (activeLayer.getDepthIndex() == associatedLayerIndex)) {
-      standardPane.setStyle("-fx-background-color: -selected-color;");
-    }
+    addListeners();
+  }
+
+  /**
+   * Associates this layer item pane with the supplied layer, and displays its state. The layer
+   * item pane keeps operating on the layer if its depth index changes. The preview isn't updated,
+   * see {@link #setImage(Image)}.
+   *
+   * @param layer      the layer that will be displayed.
+   * @param isSelected {@code true} if the layer is the active layer; {@code false} otherwise.
+   * @throws NullPointerException if the supplied layer is {@code null}.
+   */
+  void setLayer(IReadOnlyLayer layer, boolean isSelected) {
+    associatedLayer = Objects.requireNonNull(layer);
+
+    layerName.setText(layer.getName());
+    standardPane.setStyle(isSelected ? "-fx-background-color: -selected-color;" : "");
+    standardPane.toFront();
 
+    toggleButton.setSelected(layer.isVisible());
     updateVisibilityHint();
 
-    layerName.setContextMenu(contextMenu);
+    setPreviewTransform(layer.getRotation(), layer.getAlpha());
+  }
 
-    addListeners();
+  /**
+   * Returns the current depth index of the associated layer.
+   *
+   * @return the depth index of the associated layer; -1 if there is no associated layer.
+   */
+  private int getAssociatedLayerIndex() {
+    return (associatedLayer != null) ? associatedLayer.getDepthIndex() : -1;
   }
 
   /**
@@ -146,10 +170,10 @@ final class LayerItemPane extends AnchorPane {
       WritableImage image = snapshot(snapshotParams, null);
 
       dragBoard.setDragView(image);
-      model.selectLayer(associatedLayerIndex);
+      model.selectLayer(getAssociatedLayerIndex());
 
       var content = new ClipboardContent();
-      content.putString(String.valueOf(associatedLayerIndex));
+      content.putString(String.valueOf(getAssociatedLayerIndex()));
       dragBoard.setContent(content);
     }
     event.consume();
@@ -170,7 +194,7 @@ final class LayerItemPane extends AnchorPane {
 
       if (model.hasActiveLayer()) {
         IReadOnlyLayer activeLayer = model.getActiveLayer();
-        int dz = associatedLayerIndex - originDepth;
+        int dz = getAssociatedLayerIndex() - originDepth;
         model.changeLayerDepthIndex(activeLayer.getDepthIndex(), dz);
         success = true;
       }
@@ -206,7 +230,7 @@ final class LayerItemPane extends AnchorPane {
    * Updates the state of the layer visibility hint.
    */
   private void updateVisibilityHint() {
-    if (model.isLayerVisible(associatedLayerIndex)) {
+    if (model.isLayerVisible(getAssociatedLayerIndex())) {
       imageView.setImage(EYE_OPEN_IMAGE);
     } else {
       imageView.setImage(EYE_CLOSED_IMAGE);
@@ -227,13 +251,13 @@ final class LayerItemPane extends AnchorPane {
    * Makes the layer associated with the layer item pane selected.
    */
   private void selectLayer() {
-    model.selectLayer(associatedLayerIndex);
+    model.selectLayer(getAssociatedLayerIndex());
   }
 
   @FXML
   @SuppressWarnings("unused")
   private void toggleVisibility() {
-    model.setLayerVisibility(associatedLayerIndex, toggleButton.isSelected());
+    model.setLayerVisibility(getAssociatedLayerIndex(), toggleButton.isSelected());
     updateVisibilityHint();
   }
 
@@ -242,28 +266,28 @@ final class LayerItemPane extends AnchorPane {
   private void updateLayerName() {
     String temp = layerName.getText();
     if (temp.isEmpty()) {
-      layerName.setText(model.getLayerName(associatedLayerIndex));
+      layerName.setText(model.getLayerName(getAssociatedLayerIndex()));
     } else {
-      model.setLayerName(associatedLayerIndex, layerName.getText());
+      model.setLayerName(getAssociatedLayerIndex(), layerName.getText());
     }
   }
 
   @FXML
   @SuppressWarnings("unused")
   private void decreaseZIndex() {
-    model.changeLayerDepthIndex(associatedLayerIndex, -1);
+    model.changeLayerDepthIndex(getAssociatedLayerIndex(), -1);
   }
 
   @FXML
   @SuppressWarnings("unused")
   private void increaseZIndex() {
-    model.changeLayerDepthIndex(associatedLayerIndex, 1);
+    model.changeLayerDepthIndex(getAssociatedLayerIndex(), 1);
   }
 
   @FXML
   @SuppressWarnings("unused")
   private void removeLayer() {
-    model.removeLayer(associatedLayerIndex);
+    model.removeLayer(getAssociatedLayerIndex());
   }
 
   /**
@@ -275,6 +299,17 @@ final class LayerItemPane extends AnchorPane {
     layerPreview.setImage(image);
   }
 
+  /**
+   * Rotates the layer preview and sets its opacity, in accordance with the associated layer.
+   *
+   * @param rotation the rotation of the layer, in degrees.
+   * @param alpha    the alpha value of the layer.
+   */
+  private void setPreviewTransform(int rotation, double alpha) {
+    layerPreview.setRotate(rotation);
+    layerPreview.setOpacity(alpha);
+  }
+
   @FXML
   private void renameLayer() {
     renamePane.toFront();
@@ -284,7 +319,7 @@ final class LayerItemPane extends AnchorPane {
 
   @FXML
   private void setName() {
-    model.setLayerName(associatedLayerIndex, renameField.getText());
+    model.setLayerName(getAssociatedLayerIndex(), renameField.getText());
     layerName.setText(renameField.getText());
     standardPane.toFront();
     requestFocus();
@@ -8,6 +8,7 @@ import chalmers.pimp.util.AnchorPanes;
 import chalmers.pimp.util.Resources;
 import java.io.IOException;
 import java.util.Objects;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.AnchorPane;
@@ -18,6 +19,7 @@ import javafx.scene.layout.AnchorPane;
 public final class PimpEditorPane extends AnchorPane {
 
   private final CanvasPane canvasPane;
+  private final InfoPane infoPane;
   @FXML
   @SuppressWarnings("unused")
   private AnchorPane topAnchorPane;
@@ -70,7 +72,7 @@ public final class PimpEditorPane extends AnchorPane {
     });
 
     // Info pane (DOWN)
-    var infoPane = new InfoPane();
+    infoPane = new InfoPane();
     bottomAnchorPane.getChildren().add(infoPane);
     AnchorPanes.setZeroAnchors(infoPane);
 
@@ -129,4 +131,15 @@ public final class PimpEditorPane extends AnchorPane {
   public GraphicsContext getGraphics() {
     return canvasPane.getGraphics();
   }
+
+  /**
+   * Displays the progress of the supplied background task, until it is done.
+   *
+   * @param task        the task whose progress will be displayed.
+   * @param description a short description of the task.
+   * @throws NullPointerException if any arguments are {@code null}.
+   */
+  public void showTaskProgress(Task<?> task, String description) {
+    infoPane.addTaskProgress(task, description);
+  }
 }
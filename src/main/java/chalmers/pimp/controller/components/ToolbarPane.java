@@ -78,6 +78,24 @@ final class ToolbarPane extends AnchorPane implements IUndoRedoListener {
     controller.exportImage();
   }
 
+  @FXML
+  @SuppressWarnings("unused")
+  private void openDocument() {
+    controller.openDocument();
+  }
+
+  @FXML
+  @SuppressWarnings("unused")
+  private void saveDocument() {
+    controller.saveDocument();
+  }
+
+  @FXML
+  @SuppressWarnings("unused")
+  private void recoverAutosave() {
+    controller.recoverAutosave();
+  }
+
   @Override
   public void undoRedoStateChanged(UndoRedoEvent event) {
     undoButton.setDisable(!event.isUndoable());
@@ -21,6 +21,25 @@ public interface IModel extends IChangeable, IMementoTarget<ModelMemento> {
    */
   void notifyCanvasUpdateListeners();
 
+  /**
+   * Begins a transaction. Until the transaction is committed, the canvas and layer update
+   * listeners aren't notified, and all updates are merged into a single notification of each kind,
+   * so that compound operations only cause a single repaint. Transactions may be nested, in which
+   * case the listeners are notified when the outermost transaction is committed.
+   *
+   * @see #commitTransaction()
+   */
+  void beginTransaction();
+
+  /**
+   * Commits the current transaction, and notifies the listeners of the deferred updates if it's
+   * the outermost transaction.
+   *
+   * @throws IllegalStateException if there is no transaction.
+   * @see #beginTransaction()
+   */
+  void commitTransaction();
+
   /**
    * Adds a canvas update listener to the model.
    *
@@ -106,6 +125,20 @@ public interface IModel extends IChangeable, IMementoTarget<ModelMemento> {
    */
   int getHeight();
 
+  /**
+   * Replaces the size and all layers of the model, e.g. when a document is opened. The topmost
+   * layer is made the active layer, and the undo history is cleared. All canvas, layer and model
+   * size listeners are notified.
+   *
+   * @param width  the new width of the model canvas.
+   * @param height the new height of the model canvas.
+   * @param layers the new layers, from the bottom to the top.
+   * @throws IllegalArgumentException if the supplied width/height aren't greater than zero.
+   * @throws NullPointerException     if the supplied iterable or any of its layers are {@code
+   *                                  null}.
+   */
+  void setDocument(int width, int height, Iterable<? extends ILayer> layers);
+
   /**
    * Returns a copy of the current viewport.
    *
@@ -139,6 +172,23 @@ public interface IModel extends IChangeable, IMementoTarget<ModelMemento> {
    */
   void stopMovingActiveLayer();
 
+  /**
+   * Sets the distance between two successive dabs of subsequent strokes, as a percentage of the
+   * diameter of the stroke. A smaller spacing results in smoother strokes, at the cost of more
+   * work per stroke.
+   *
+   * @param spacing the spacing of strokes, as a percentage of the diameter.
+   * @throws IllegalArgumentException if the supplied spacing is less than 1.
+   */
+  void setStrokeSpacing(int spacing);
+
+  /**
+   * Returns the distance between two successive dabs of strokes, as a percentage of the diameter.
+   *
+   * @return the spacing of strokes, as a percentage of the diameter.
+   */
+  int getStrokeSpacing();
+
   /**
    * Starts a stroke.
    *
@@ -213,16 +263,17 @@ public interface IModel extends IChangeable, IMementoTarget<ModelMemento> {
 
   /**
    * Sets the name of an indexed layer. This method has no effect if the supplied index isn't
-   * associated with a layer.
+   * associated with a layer. The renaming can be undone.
    *
    * @param layerIndex the index for the layer.
    * @param layerName  the new name for the layer.
+   * @throws NullPointerException if the supplied name is {@code null}.
    */
   void setLayerName(int layerIndex, String layerName);
 
   /**
    * Sets the visibility property value for the supplied layer.  This method has no effect if the
-   * supplied index isn't associated with a layer.
+   * supplied index isn't associated with a layer. The change of visibility can be undone.
    *
    * @param layerIndex the {@code int} index of the layer which will have it's visibility changed.
    * @param isVisible  {@code true} if the layer should be visible; {@code false} otherwise.
@@ -330,6 +381,15 @@ public interface IModel extends IChangeable, IMementoTarget<ModelMemento> {
    */
   String getLayerName(int layerIndex);
 
+  /**
+   * Sets the preview, which is drawn on top of all layers until it's cleared. The preview is used
+   * by tools to display a layer that is being created, e.g. a shape that is being dragged out. All
+   * canvas update listeners are notified when the preview changes.
+   *
+   * @param preview the preview that will be drawn; {@code null} if the preview should be cleared.
+   */
+  void setPreview(IDrawable preview);
+
   /**
    * Returns the models renderer.
    *
@@ -66,6 +66,22 @@ public interface IRenderer {
    */
   void endTransform();
 
+  /**
+   * Restricts all subsequent rendering to the specified rectangle, until the clip is reset. Setting
+   * a new clip replaces any previous clip.
+   *
+   * @param x      the zero-indexed x coordinate of the clip rectangle.
+   * @param y      the zero-indexed y coordinate of the clip rectangle.
+   * @param width  the width of the clip rectangle.
+   * @param height the height of the clip rectangle.
+   */
+  void setClip(int x, int y, int width, int height);
+
+  /**
+   * Removes the current clip, if there is one, making the entire rendering target drawable again.
+   */
+  void resetClip();
+
   /**
    * Sets the transparency alpha value. 1 is no transparency, 0 is completely transparent.
    *
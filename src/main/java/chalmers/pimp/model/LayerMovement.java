@@ -1,7 +1,5 @@
 package chalmers.pimp.model;
 
-import java.util.Objects;
-
 /**
  * The {@code LayerMovement} class is useful when moving a layer instance. It's designed to be used
  * by the model <b>during</b> the time the user is moving a layer. After the user is done, an
@@ -11,12 +9,13 @@ import java.util.Objects;
  */
 public final class LayerMovement {
 
-  private ModelMemento memento;
   private boolean isFinished;
   private int prevX;
   private int prevY;
   private int dx;
   private int dy;
+  private int startX;
+  private int startY;
   private int endX;
   private int endY;
 
@@ -28,18 +27,13 @@ public final class LayerMovement {
    * Starts the layer movement. This method has no effect if the {@link LayerMovement#stop()} method
    * has been called on the layer movement instance.
    *
-   * @param x       the current x-coordinate of the layer.
-   * @param y       the current y-coordinate of the layer.
-   * @param memento a model memento instance that represents the state of the model before the
-   *                movement has begun.
-   * @throws NullPointerException if the supplied model memento is {@code null}.
+   * @param x the current x-coordinate of the layer.
+   * @param y the current y-coordinate of the layer.
    */
-  void start(int x, int y, ModelMemento memento) {
-    Objects.requireNonNull(memento);
+  void start(int x, int y) {
     if (!isFinished) {
       prevX = x;
       prevY = y;
-      this.memento = Objects.requireNonNull(memento);
     }
   }
 
@@ -62,7 +56,7 @@ public final class LayerMovement {
 
   /**
    * Stops the layer movement. Invoking this method will render future calls to the {@link
-   * LayerMovement#start(int, int, ModelMemento)} and {@link LayerMovement#update(int, int)} methods
+   * LayerMovement#start(int, int)} and {@link LayerMovement#update(int, int)} methods
    * useless.
    */
   void stop() {
@@ -92,14 +86,39 @@ public final class LayerMovement {
   }
 
   /**
-   * Returns the model memento instance that represents the state of the model just before the layer
-   * movement begun.
+   * Returns the x-coordinate of the layer, before the movement begun.
+   *
+   * @return the x-coordinate of the layer, before the movement begun.
+   */
+  public int getStartX() {
+    return startX;
+  }
+
+  /**
+   * Sets the value of the property for the x-coordinate of the layer before the movement begun.
+   *
+   * @param startX the value of the property for the initial x-coordinate of the layer.
+   */
+  void setStartX(int startX) {
+    this.startX = startX;
+  }
+
+  /**
+   * Returns the y-coordinate of the layer, before the movement begun.
+   *
+   * @return the y-coordinate of the layer, before the movement begun.
+   */
+  public int getStartY() {
+    return startY;
+  }
+
+  /**
+   * Sets the value of the property for the y-coordinate of the layer before the movement begun.
    *
-   * @return the model memento instance that represents the state of the model just before the layer
-   * movement begun.
+   * @param startY the value of the property for the initial y-coordinate of the layer.
    */
-  public ModelMemento getModelMemento() {
-    return memento;
+  void setStartY(int startY) {
+    this.startY = startY;
   }
 
   /**
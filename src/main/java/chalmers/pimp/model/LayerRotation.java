@@ -13,7 +13,6 @@ import java.util.Objects;
  */
 public final class LayerRotation {
 
-  private ModelMemento memento;
   private boolean isFinished;
   private Point rotationAnchorPoint;
   private int mouseStartDegree;
@@ -32,18 +31,13 @@ public final class LayerRotation {
    * @param rotationAnchorPoint the center point for the layer to rotate.
    * @param baseDegree          the start rotation for the layer before the rotation has started.
    * @param mouseStartPoint     the start position of the mouse.
-   * @param memento             a model memento instance that represents the state of the model
-   *                            before the rotation has begun.
-   * @throws NullPointerException if the supplied model memento is {@code null}.
+   * @throws NullPointerException if any of the supplied points are {@code null}.
    */
-  void start(Point rotationAnchorPoint, int baseDegree, Point mouseStartPoint,
-      ModelMemento memento) {
-    Objects.requireNonNull(memento);
+  void start(Point rotationAnchorPoint, int baseDegree, Point mouseStartPoint) {
     Objects.requireNonNull(rotationAnchorPoint);
     Objects.requireNonNull(mouseStartPoint);
     if (!isFinished) {
       this.rotationAnchorPoint = rotationAnchorPoint;
-      this.memento = Objects.requireNonNull(memento);
       //The new rotation is added to the old rotation of this layer, think of it as a mouse pad. Same movement can be repeated several times and add movement to the mouse position.
       this.baseDegree = baseDegree;
       currentDegree = baseDegree;
@@ -95,7 +89,7 @@ public final class LayerRotation {
 
   /**
    * Stops the layer rotation. Invoking this method will render future calls to the {@link
-   * LayerMovement#start(int, int, ModelMemento)} and {@link LayerMovement#update(int, int)} methods
+   * LayerMovement#start(int, int)} and {@link LayerMovement#update(int, int)} methods
    * useless.
    */
   void stop() {
@@ -103,14 +97,12 @@ public final class LayerRotation {
   }
 
   /**
-   * Returns the model memento instance that represents the state of the model just before the layer
-   * rotation begun.
+   * Returns the rotation of the layer, before the rotation begun.
    *
-   * @return the model memento instance that represents the state of the model just before the layer
-   * rotation begun.
+   * @return the initial rotation of the layer, in degrees.
    */
-  public ModelMemento getModelMemento() {
-    return memento;
+  public int getBaseDegree() {
+    return baseDegree;
   }
 
   /**
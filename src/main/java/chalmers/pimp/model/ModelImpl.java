@@ -3,9 +3,11 @@ package chalmers.pimp.model;
 import static chalmers.pimp.model.command.CommandFactory.createAddLayerCommand;
 import static chalmers.pimp.model.command.CommandFactory.createChangeColorCommand;
 import static chalmers.pimp.model.command.CommandFactory.createChangeLayerDepthCommand;
+import static chalmers.pimp.model.command.CommandFactory.createChangeLayerVisibilityCommand;
 import static chalmers.pimp.model.command.CommandFactory.createLayerSelectionCommand;
 import static chalmers.pimp.model.command.CommandFactory.createMoveCommand;
 import static chalmers.pimp.model.command.CommandFactory.createRemoveLayerCommand;
+import static chalmers.pimp.model.command.CommandFactory.createRenameLayerCommand;
 import static chalmers.pimp.model.command.CommandFactory.createRotateCommand;
 import static chalmers.pimp.model.command.CommandFactory.createStrokeCommand;
 
@@ -40,12 +42,14 @@ final class ModelImpl implements IModel {
   private final ICanvas canvas;
   private final IViewportModel viewportModel;
   private final IColorModel colorModel;
-  private final ModelSizeListenerComposite modelSizeListeners; // Not used as of yet
+  private final ModelSizeListenerComposite modelSizeListeners;
 
   private IRenderer renderer;
+  private IDrawable preview;
   private LayerMovement layerMovement;
   private LayerRotation layerRotation;
   private Stroke stroke;
+  private int strokeSpacing;
   private ITool selectedTool;
 
   private int width;
@@ -62,6 +66,7 @@ final class ModelImpl implements IModel {
     height = 600;
 
     stroke = null;
+    strokeSpacing = Stroke.DEFAULT_SPACING;
     colorModel = ColorModelFactory.createColorModel();
     colorModel.addColorChangeListener(canvas);
     addLayerUpdateListener(colorModel);
@@ -76,11 +81,31 @@ final class ModelImpl implements IModel {
     return selectedTool != null;
   }
 
+  /**
+   * Indicates whether or not the supplied index is associated with a layer.
+   *
+   * @param layerIndex the layer depth index that will be checked.
+   * @return {@code true} if the index is associated with a layer; {@code false} otherwise.
+   */
+  private boolean isValidLayerIndex(int layerIndex) {
+    return (layerIndex >= 0) && (layerIndex < canvas.getAmountOfLayers());
+  }
+
   @Override
   public void notifyCanvasUpdateListeners() {
     canvas.notifyCanvasUpdateListeners();
   }
 
+  @Override
+  public void beginTransaction() {
+    canvas.beginTransaction();
+  }
+
+  @Override
+  public void commitTransaction() {
+    canvas.commitTransaction();
+  }
+
   @Override
   public void addCanvasUpdateListener(ICanvasUpdateListener listener) {
     canvas.addCanvasUpdateListener(listener);
@@ -107,6 +132,17 @@ final class ModelImpl implements IModel {
     for (IDrawable drawable : getLayers()) {
       drawable.draw(renderer, viewportModel.getViewport());
     }
+    if (preview != null) {
+      preview.draw(renderer, viewportModel.getViewport());
+    }
+  }
+
+  @Override
+  public void setPreview(IDrawable preview) {
+    if ((this.preview != null) || (preview != null)) {
+      this.preview = preview;
+      notifyCanvasUpdateListeners();
+    }
   }
 
   @Override
@@ -143,6 +179,21 @@ final class ModelImpl implements IModel {
     return height;
   }
 
+  @Override
+  public void setDocument(int width, int height, Iterable<? extends ILayer> layers) {
+    if ((width < 1) || (height < 1)) {
+      throw new IllegalArgumentException("Invalid width or height!");
+    }
+
+    this.width = width;
+    this.height = height;
+
+    canvas.setLayers(layers);
+    commandManager.clear();
+
+    modelSizeListeners.sizeUpdated(width, height);
+  }
+
   @Override
   public IReadOnlyViewport getViewport() {
     return viewportModel.getViewport();
@@ -152,7 +203,9 @@ final class ModelImpl implements IModel {
   public void startMovingActiveLayer(int x, int y) {
     if (hasActiveLayer()) {
       layerMovement = new LayerMovement();
-      layerMovement.start(x, y, createSnapShot());
+      layerMovement.start(x, y);
+      layerMovement.setStartX(canvas.getActiveLayer().getX());
+      layerMovement.setStartY(canvas.getActiveLayer().getY());
     }
   }
 
@@ -176,17 +229,30 @@ final class ModelImpl implements IModel {
     layerMovement.setEndX(canvas.getActiveLayer().getX());
     layerMovement.setEndY(canvas.getActiveLayer().getY());
 
-    ICommand cmd = createMoveCommand(canvas, this, getActiveLayer().getDepthIndex(), layerMovement);
+    ICommand cmd = createMoveCommand(canvas, getActiveLayer().getDepthIndex(), layerMovement);
     commandManager.insertCommand(cmd);
     layerMovement = null;
   }
 
+  @Override
+  public void setStrokeSpacing(int spacing) {
+    if (spacing < 1) {
+      throw new IllegalArgumentException("Invalid stroke spacing: " + spacing);
+    }
+    strokeSpacing = spacing;
+  }
+
+  @Override
+  public int getStrokeSpacing() {
+    return strokeSpacing;
+  }
+
   @Override
   public void startStroke(IPixel pixel, int diameter, IColor color) {
     Objects.requireNonNull(pixel);
     Objects.requireNonNull(color);
 
-    stroke = new Stroke(createSnapShot(), diameter, color);
+    stroke = new Stroke(canvas, diameter, color, strokeSpacing);
     updateStroke(pixel);
   }
 
@@ -196,7 +262,6 @@ final class ModelImpl implements IModel {
     if (stroke != null) {
       stroke.add(pixel);
       stroke.updatePixels(canvas, pixel);
-      notifyCanvasUpdateListeners();
     }
   }
 
@@ -208,7 +273,7 @@ final class ModelImpl implements IModel {
       stroke.updatePixels(canvas, pixel);
 
       // We don't need to explicitly execute the created command, the effect is already present
-      ICommand cmd = createStrokeCommand(canvas, this, stroke);
+      ICommand cmd = createStrokeCommand(canvas, stroke);
 
       commandManager.insertCommand(cmd);
       stroke = null;
@@ -217,25 +282,35 @@ final class ModelImpl implements IModel {
 
   @Override
   public void addLayer(ILayer layer) {
-    ICommand cmd = createAddLayerCommand(canvas, this, layer);
-    cmd.execute();
+    canvas.beginTransaction();
+    try {
+      ICommand cmd = createAddLayerCommand(canvas, layer);
+      cmd.execute();
 
-    commandManager.insertCommand(cmd);
-    notifyCanvasUpdateListeners();
+      commandManager.insertCommand(cmd);
+      notifyCanvasUpdateListeners();
+    } finally {
+      canvas.commitTransaction();
+    }
   }
 
   @Override
   public void removeLayer(int layerIndex) {
-    ICommand cmd = createRemoveLayerCommand(canvas, this, layerIndex);
-    cmd.execute();
+    canvas.beginTransaction();
+    try {
+      ICommand cmd = createRemoveLayerCommand(canvas, layerIndex);
+      cmd.execute();
 
-    commandManager.insertCommand(cmd);
-    notifyCanvasUpdateListeners();
+      commandManager.insertCommand(cmd);
+      notifyCanvasUpdateListeners();
+    } finally {
+      canvas.commitTransaction();
+    }
   }
 
   @Override
   public void selectLayer(int layerIndex) {
-    ICommand cmd = createLayerSelectionCommand(canvas, this, layerIndex);
+    ICommand cmd = createLayerSelectionCommand(canvas, layerIndex);
     cmd.execute();
 
     commandManager.insertCommand(cmd);
@@ -243,7 +318,7 @@ final class ModelImpl implements IModel {
 
   @Override
   public void changeLayerDepthIndex(int layerIndex, int dz) {
-    ICommand cmd = createChangeLayerDepthCommand(canvas, this, layerIndex, dz);
+    ICommand cmd = createChangeLayerDepthCommand(canvas, layerIndex, dz);
     cmd.execute();
 
     commandManager.insertCommand(cmd);
@@ -256,12 +331,27 @@ final class ModelImpl implements IModel {
 
   @Override
   public void setLayerName(int layerIndex, String layerName) {
-    canvas.setLayerName(layerIndex, layerName);
+    Objects.requireNonNull(layerName);
+    if (!isValidLayerIndex(layerIndex) || layerName.equals(canvas.getLayerName(layerIndex))) {
+      return;
+    }
+
+    ICommand cmd = createRenameLayerCommand(canvas, layerIndex, layerName);
+    cmd.execute();
+
+    commandManager.insertCommand(cmd);
   }
 
   @Override
   public void setLayerVisibility(int layerIndex, boolean isVisible) {
-    canvas.setLayerVisibility(layerIndex, isVisible);
+    if (!isValidLayerIndex(layerIndex) || (isVisible == canvas.isLayerVisible(layerIndex))) {
+      return;
+    }
+
+    ICommand cmd = createChangeLayerVisibilityCommand(canvas, layerIndex, isVisible);
+    cmd.execute();
+
+    commandManager.insertCommand(cmd);
   }
 
   @Override
@@ -277,7 +367,7 @@ final class ModelImpl implements IModel {
 
       Point centerPoint = canvas.getActiveLayer().getCenterPoint();
       int rotation = canvas.getActiveLayer().getRotation();
-      layerRotation.start(centerPoint, rotation, point, createSnapShot());
+      layerRotation.start(centerPoint, rotation, point);
     }
   }
 
@@ -299,7 +389,7 @@ final class ModelImpl implements IModel {
     }
     layerRotation.stop();
     int id = getActiveLayer().getDepthIndex();
-    ICommand cmd = createRotateCommand(canvas, this, id, layerRotation);
+    ICommand cmd = createRotateCommand(canvas, id, layerRotation);
     commandManager.insertCommand(cmd);
     layerRotation = null;
   }
@@ -334,10 +424,15 @@ final class ModelImpl implements IModel {
   @Override
   public void selectedToolReleased(MouseStatus mouseStatus) {
     Objects.requireNonNull(mouseStatus);
-    if (hasSelectedTool()) {
-      selectedTool.released(mouseStatus);
+    canvas.beginTransaction();
+    try {
+      if (hasSelectedTool()) {
+        selectedTool.released(mouseStatus);
+      }
+      canvas.notifyLayerUpdateListeners();
+    } finally {
+      canvas.commitTransaction();
     }
-    canvas.notifyLayerUpdateListeners();
   }
 
   @Override
@@ -379,7 +474,7 @@ final class ModelImpl implements IModel {
   public void setSelectedColor(IColor color) {
     Objects.requireNonNull(color);
 
-    ICommand cmd = createChangeColorCommand(colorModel, this, color);
+    ICommand cmd = createChangeColorCommand(colorModel, color);
     cmd.execute();
     commandManager.insertCommand(cmd);
   }
@@ -414,11 +509,25 @@ final class ModelImpl implements IModel {
 
   @Override
   public void undo() {
-    commandManager.undo();
+    canvas.beginTransaction();
+    try {
+      commandManager.undo();
+      notifyCanvasUpdateListeners();
+      canvas.notifyLayerUpdateListeners();
+    } finally {
+      canvas.commitTransaction();
+    }
   }
 
   @Override
   public void redo() {
-    commandManager.redo();
+    canvas.beginTransaction();
+    try {
+      commandManager.redo();
+      notifyCanvasUpdateListeners();
+      canvas.notifyLayerUpdateListeners();
+    } finally {
+      canvas.commitTransaction();
+    }
   }
 }
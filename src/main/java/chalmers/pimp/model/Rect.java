@@ -0,0 +1,166 @@
+package chalmers.pimp.model;
+
+import java.util.Objects;
+
+/**
+ * The {@code Rect} class represents an axis-aligned rectangular area, e.g. the area of the canvas
+ * that was affected by an edit. A rectangle with a width or height that is less than or equal to
+ * zero is considered to be empty. The rectangle is immutable.
+ */
+public final class Rect implements IArea {
+
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+
+  /**
+   * Creates and returns a new rectangle.
+   *
+   * @param x      the x coordinate of the upper left corner.
+   * @param y      the y coordinate of the upper left corner.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   */
+  public Rect(int x, int y, int width, int height) {
+    this.x = x;
+    this.y = y;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Returns the x coordinate of the upper left corner of the rectangle.
+   *
+   * @return the x coordinate of the upper left corner of the rectangle.
+   */
+  public int getX() {
+    return x;
+  }
+
+  /**
+   * Returns the y coordinate of the upper left corner of the rectangle.
+   *
+   * @return the y coordinate of the upper left corner of the rectangle.
+   */
+  public int getY() {
+    return y;
+  }
+
+  /**
+   * Returns the x coordinate of the right edge of the rectangle (exclusive).
+   *
+   * @return the x coordinate of the right edge of the rectangle.
+   */
+  public int getMaxX() {
+    return x + width;
+  }
+
+  /**
+   * Returns the y coordinate of the bottom edge of the rectangle (exclusive).
+   *
+   * @return the y coordinate of the bottom edge of the rectangle.
+   */
+  public int getMaxY() {
+    return y + height;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Indicates whether or not the rectangle is empty, i.e. if it doesn't cover any area.
+   *
+   * @return {@code true} if the rectangle is empty; {@code false} otherwise.
+   */
+  public boolean isEmpty() {
+    return (width <= 0) || (height <= 0);
+  }
+
+  /**
+   * Returns the smallest rectangle that contains both this rectangle and the supplied rectangle.
+   * Empty rectangles don't contribute to the union.
+   *
+   * @param rect the other rectangle.
+   * @return the union of the two rectangles.
+   * @throws NullPointerException if the supplied rectangle is {@code null}.
+   */
+  public Rect union(Rect rect) {
+    Objects.requireNonNull(rect);
+    if (rect.isEmpty()) {
+      return this;
+    } else if (isEmpty()) {
+      return rect;
+    }
+
+    int minX = Math.min(x, rect.x);
+    int minY = Math.min(y, rect.y);
+    int maxX = Math.max(getMaxX(), rect.getMaxX());
+    int maxY = Math.max(getMaxY(), rect.getMaxY());
+
+    return new Rect(minX, minY, maxX - minX, maxY - minY);
+  }
+
+  /**
+   * Returns the area that is covered by both this rectangle and the supplied rectangle. The
+   * returned rectangle is empty if the rectangles don't overlap.
+   *
+   * @param rect the other rectangle.
+   * @return the intersection of the two rectangles.
+   * @throws NullPointerException if the supplied rectangle is {@code null}.
+   */
+  public Rect intersection(Rect rect) {
+    Objects.requireNonNull(rect);
+
+    int minX = Math.max(x, rect.x);
+    int minY = Math.max(y, rect.y);
+    int maxX = Math.min(getMaxX(), rect.getMaxX());
+    int maxY = Math.min(getMaxY(), rect.getMaxY());
+
+    return new Rect(minX, minY, Math.max(0, maxX - minX), Math.max(0, maxY - minY));
+  }
+
+  /**
+   * Returns a copy of the rectangle that has been moved by the supplied offsets.
+   *
+   * @param dx the x-axis offset.
+   * @param dy the y-axis offset.
+   * @return a translated copy of the rectangle.
+   */
+  public Rect translate(int dx, int dy) {
+    return new Rect(x + dx, y + dy, width, height);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(x, y, width, height);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof Rect)) {
+      return false;
+    }
+    if (obj == this) {
+      return true;
+    }
+
+    var rect = (Rect) obj;
+
+    return (rect.x == x) && (rect.y == y) && (rect.width == width) && (rect.height == height);
+  }
+
+  @Override
+  public String toString() {
+    String id = getClass().getSimpleName() + "@" + Integer.toHexString(hashCode());
+    String state = "X: " + x + ", Y: " + y + ", Width: " + width + ", Height: " + height;
+    return "(" + id + " | " + state + ")";
+  }
+}
@@ -1,35 +1,77 @@
 package chalmers.pimp.model;
 
 import chalmers.pimp.model.canvas.ICanvas;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
 import chalmers.pimp.model.color.IColor;
+import chalmers.pimp.model.pixeldata.DabMask;
 import chalmers.pimp.model.pixeldata.IPixel;
-import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
+import chalmers.pimp.model.pixeldata.IRasterSnapshot;
 import chalmers.pimp.model.pixeldata.RasterDataFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 /**
- * The {@code Stroke} class represents a mouse stroke that affects pixels in some way.
+ * The {@code Stroke} class represents a mouse stroke that affects pixels in some way. A stroke
+ * keeps a snapshot of the pixels of the affected raster layer, as they were before the stroke
+ * began. The area of every dab is captured by the snapshot right before the dab is stamped, so the
+ * snapshot only holds the pixels that the stroke actually touches.
  */
 public final class Stroke {
 
+  /**
+   * The default distance between two successive dabs, as a percentage of the diameter.
+   */
+  public static final int DEFAULT_SPACING = 25;
+
   private final List<IPixel> pixels;
-  private final ModelMemento modelMemento;
-  private final int diameter;
+  private final int layerDepthIndex;
+  private final DabMask dab;
   private final IColor color;
+  private final StrokeInterpolator interpolator;
+  private IRasterSnapshot before;
+  private int amountOfDabs;
 
   /**
-   * @param modelMemento the model memento object, that represents the current model state.
-   * @param diameter     the diameter of the stroke, in pixels.
-   * @param color        the color that will be used.
-   * @throws NullPointerException if any arguments are {@code null}.
+   * @param canvas   the canvas whose active layer will be affected by the stroke.
+   * @param diameter the diameter of the stroke, in pixels.
+   * @param color    the color that will be used.
+   * @throws NullPointerException     if any arguments are {@code null}.
+   * @throws IllegalArgumentException if the supplied diameter is less than 1.
+   */
+  Stroke(ICanvas canvas, int diameter, IColor color) {
+    this(canvas, diameter, color, DEFAULT_SPACING);
+  }
+
+  /**
+   * @param canvas   the canvas whose active layer will be affected by the stroke.
+   * @param diameter the diameter of the stroke, in pixels.
+   * @param color    the color that will be used.
+   * @param spacing  the distance between two successive dabs, as a percentage of the diameter.
+   * @throws NullPointerException     if any arguments are {@code null}.
+   * @throws IllegalArgumentException if the supplied diameter or spacing is less than 1.
    */
-  Stroke(ModelMemento modelMemento, int diameter, IColor color) {
-    this.modelMemento = Objects.requireNonNull(modelMemento);
-    this.diameter = diameter;
+  Stroke(ICanvas canvas, int diameter, IColor color, int spacing) {
+    Objects.requireNonNull(canvas);
     this.color = Objects.requireNonNull(color);
+    if (spacing < 1) {
+      throw new IllegalArgumentException("Invalid spacing: " + spacing);
+    }
+    dab = new DabMask(diameter);
+    interpolator = new StrokeInterpolator(StrokeInterpolator.computeSpacing(diameter, spacing),
+        dab);
     pixels = new ArrayList<>(10);
+
+    IReadOnlyLayer layer = canvas.getActiveLayer();
+    if (layer instanceof IRasterLayer) {
+      layerDepthIndex = layer.getDepthIndex();
+      before = RasterDataFactory.createRasterSnapshot(((IRasterLayer) layer).getPixelData());
+    } else {
+      layerDepthIndex = -1;
+      before = null;
+    }
   }
 
   /**
@@ -44,7 +86,9 @@ public final class Stroke {
   }
 
   /**
-   * Updates the state of the pixels in the model.
+   * Updates the state of the pixels in the model, by continuing the stroke to the supplied pixel.
+   * The circular dab of the stroke is stamped into the active layer at evenly spaced positions
+   * along the line from the previous pixel.
    *
    * @param canvas the associated model instance.
    * @param pixel  the pixel affected by the stroke.
@@ -53,21 +97,57 @@ public final class Stroke {
   public void updatePixels(ICanvas canvas, IPixel pixel) {
     Objects.requireNonNull(canvas);
     Objects.requireNonNull(pixel);
-    Objects.requireNonNull(color);
+    interpolator.addPoint(pixel.getX(), pixel.getY(), (x, y) -> {
+      captureDab(canvas, x, y);
+      canvas.stampActiveLayer(dab, x, y, color);
+      amountOfDabs++;
+    });
+  }
+
+  /**
+   * Captures the pixels of the active layer that are about to be covered by a dab.
+   *
+   * @param canvas  the canvas that the stroke is performed on.
+   * @param centerX the x-coordinate of the center of the dab, in canvas coordinates.
+   * @param centerY the y-coordinate of the center of the dab, in canvas coordinates.
+   */
+  private void captureDab(ICanvas canvas, int centerX, int centerY) {
+    IReadOnlyLayer layer = canvas.getActiveLayer();
+    if ((before != null) && (layer instanceof IRasterLayer)) {
+      int x = centerX - layer.getX() - dab.getOffset();
+      int y = centerY - layer.getY() - dab.getOffset();
+      before.capture(((IRasterLayer) layer).getPixelData(), x, y, dab.getDiameter(),
+          dab.getDiameter());
+    }
+  }
 
-    IRasterData pixels = RasterDataFactory.createRasterData(diameter, diameter, color);
+  /**
+   * Finishes the stroke and returns a raster delta that describes the pixels that were affected by
+   * the stroke. The copy of the pixels from before the stroke is released by this method, so
+   * subsequent calls return {@code null}.
+   *
+   * @param canvas the canvas that the stroke was performed on.
+   * @return a raster delta that describes the stroke; {@code null} if no raster layer was affected.
+   * @throws NullPointerException if the supplied canvas is {@code null}.
+   */
+  public IRasterDelta finish(ICanvas canvas) {
+    Objects.requireNonNull(canvas);
+    if (before == null) {
+      return null;
+    }
 
-    int radius = (int) (diameter / 2.0);
-    canvas.setActiveLayerPixels(pixel.getX() - radius, pixel.getY() - radius, pixels);
+    IRasterDelta delta = canvas.createLayerDelta(layerDepthIndex, before);
+    before = null;
+    return delta;
   }
 
   /**
-   * Returns the model memento associated with this stroke.
+   * Returns the layer depth index of the raster layer affected by this stroke.
    *
-   * @return the model memento associated with this stroke.
+   * @return the layer depth index of the affected layer; {@code -1} if no raster layer is affected.
    */
-  public ModelMemento getModelMemento() {
-    return modelMemento;
+  public int getLayerDepthIndex() {
+    return layerDepthIndex;
   }
 
   /**
@@ -79,6 +159,24 @@ public final class Stroke {
     return pixels;
   }
 
+  /**
+   * Returns the amount of origin pixels contained in this stroke.
+   *
+   * @return the amount of pixels contained in this stroke.
+   */
+  public int getAmountOfPixels() {
+    return pixels.size();
+  }
+
+  /**
+   * Returns the amount of dabs that have been stamped by this stroke.
+   *
+   * @return the amount of dabs that have been stamped by this stroke.
+   */
+  public int getAmountOfDabs() {
+    return amountOfDabs;
+  }
+
   /**
    * Returns the color of the stroke.
    *
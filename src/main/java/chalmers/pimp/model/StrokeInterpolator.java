@@ -0,0 +1,155 @@
+package chalmers.pimp.model;
+
+import chalmers.pimp.model.pixeldata.DabMask;
+import java.util.Objects;
+
+/**
+ * The {@code StrokeInterpolator} class converts the points of a stroke into the positions of the
+ * dabs that make up the stroke. Dabs are emitted along the straight lines between successive
+ * points, at a fixed distance from each other, regardless of how far apart the points are. This
+ * means that fast strokes don't leave gaps, and that slow strokes don't stamp the same pixels over
+ * and over again. A dab whose mask is fully covered by the most recently emitted dabs isn't
+ * emitted at all, e.g. when a stroke doubles back or jitters in place, so that a stroke doesn't
+ * stamp pixels that it has just covered again.
+ */
+final class StrokeInterpolator {
+
+  /**
+   * The {@code IDabConsumer} interface specifies objects that receive the dabs of a stroke.
+   */
+  interface IDabConsumer {
+
+    /**
+     * Invoked for every emitted dab.
+     *
+     * @param x the x-coordinate of the center of the dab.
+     * @param y the y-coordinate of the center of the dab.
+     */
+    void dab(int x, int y);
+  }
+
+  /**
+   * The amount of recently emitted dabs that are checked for covering a new dab.
+   */
+  static final int RECENT_DABS = 8;
+
+  private final double spacing;
+  private final DabMask dab;
+  private final int[] recentX;
+  private final int[] recentY;
+  private int amountOfRecentDabs;
+  private int nextRecentDab;
+  private double currentX;
+  private double currentY;
+  private double distanceToNextDab;
+  private boolean hasStarted;
+
+  /**
+   * Creates an interpolator for dabs of a single pixel, which only skips dabs at the same position
+   * as a recent dab.
+   *
+   * @param spacing the distance between two successive dabs, in pixels.
+   * @throws IllegalArgumentException if the supplied spacing is less than 1.
+   */
+  StrokeInterpolator(double spacing) {
+    this(spacing, new DabMask(1));
+  }
+
+  /**
+   * @param spacing the distance between two successive dabs, in pixels.
+   * @param dab     the mask of the dabs, used to skip dabs that are covered by recent dabs.
+   * @throws NullPointerException     if the supplied mask is {@code null}.
+   * @throws IllegalArgumentException if the supplied spacing is less than 1.
+   */
+  StrokeInterpolator(double spacing, DabMask dab) {
+    if (!(spacing >= 1)) {
+      throw new IllegalArgumentException("Invalid spacing: " + spacing);
+    }
+    this.spacing = spacing;
+    this.dab = Objects.requireNonNull(dab);
+    recentX = new int[RECENT_DABS];
+    recentY = new int[RECENT_DABS];
+  }
+
+  /**
+   * Computes the distance between two successive dabs, for a brush with the supplied diameter.
+   *
+   * @param diameter       the diameter of the brush, in pixels.
+   * @param spacingPercent the spacing, as a percentage of the diameter.
+   * @return the distance between two successive dabs, in pixels, at least 1.
+   */
+  static double computeSpacing(int diameter, int spacingPercent) {
+    return Math.max(1.0, (diameter * spacingPercent) / 100.0);
+  }
+
+  /**
+   * Emits a dab at the supplied position, unless it's fully covered by the recent dabs.
+   *
+   * @param x        the x-coordinate of the dab.
+   * @param y        the y-coordinate of the dab.
+   * @param consumer the consumer of the dab.
+   */
+  private void emit(double x, double y, IDabConsumer consumer) {
+    hasStarted = true;
+
+    int dabX = (int) Math.round(x);
+    int dabY = (int) Math.round(y);
+    if (dab.isCoveredBy(dabX, dabY, recentX, recentY, amountOfRecentDabs)) {
+      return;
+    }
+
+    consumer.dab(dabX, dabY);
+    recentX[nextRecentDab] = dabX;
+    recentY[nextRecentDab] = dabY;
+    nextRecentDab = (nextRecentDab + 1) % RECENT_DABS;
+    amountOfRecentDabs = Math.min(amountOfRecentDabs + 1, RECENT_DABS);
+  }
+
+  /**
+   * Adds a point to the stroke. The first point always emits a dab, subsequent points emit dabs
+   * along the line from the previous point.
+   *
+   * @param x        the x-coordinate of the point.
+   * @param y        the y-coordinate of the point.
+   * @param consumer the consumer of the emitted dabs.
+   * @throws NullPointerException if the supplied consumer is {@code null}.
+   */
+  void addPoint(int x, int y, IDabConsumer consumer) {
+    Objects.requireNonNull(consumer);
+
+    if (!hasStarted) {
+      currentX = x;
+      currentY = y;
+      distanceToNextDab = spacing;
+      emit(x, y, consumer);
+      return;
+    }
+
+    double dx = x - currentX;
+    double dy = y - currentY;
+    double length = Math.sqrt((dx * dx) + (dy * dy));
+    if (length == 0) {
+      return;
+    }
+
+    double distance = distanceToNextDab;
+    while (distance <= length) {
+      double t = distance / length;
+      emit(currentX + (dx * t), currentY + (dy * t), consumer);
+      distance += spacing;
+    }
+
+    distanceToNextDab = distance - length;
+    currentX = x;
+    currentY = y;
+  }
+
+  /**
+   * Returns the distance between two successive dabs.
+   *
+   * @return the distance between two successive dabs, in pixels.
+   */
+  double getSpacing() {
+    return spacing;
+  }
+}
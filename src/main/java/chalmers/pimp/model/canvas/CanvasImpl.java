@@ -1,10 +1,15 @@
 package chalmers.pimp.model.canvas;
 
+import chalmers.pimp.model.Rect;
 import chalmers.pimp.model.canvas.layer.ILayer;
 import chalmers.pimp.model.canvas.layer.ILayerUpdateListener;
 import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import chalmers.pimp.model.canvas.layer.LayerType;
 import chalmers.pimp.model.color.IColor;
+import chalmers.pimp.model.pixeldata.DabMask;
 import chalmers.pimp.model.pixeldata.IPixel;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
+import chalmers.pimp.model.pixeldata.IRasterSnapshot;
 import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 import java.util.Objects;
 
@@ -17,6 +22,9 @@ final class CanvasImpl implements ICanvas {
 
   private final CanvasUpdateListenerComposite canvasUpdateListeners;
   private LayerManager layerManager;
+  private int transactionDepth;
+  private boolean isCanvasUpdatePending;
+  private Rect pendingArea;
 
   CanvasImpl() {
     canvasUpdateListeners = new CanvasUpdateListenerComposite();
@@ -35,9 +43,50 @@ final class CanvasImpl implements ICanvas {
     layerManager = new LayerManager(canvas.layerManager);
   }
 
+  /**
+   * Returns the area of the canvas that is covered by the supplied layer. This method only
+   * computes the area of unrotated raster layers, since the bounds of other layers can't be
+   * determined exactly.
+   *
+   * @param layer the layer whose area will be computed, may be {@code null}.
+   * @return the area covered by the supplied layer; {@code null} if the area is unknown.
+   */
+  private static Rect getLayerArea(IReadOnlyLayer layer) {
+    if ((layer == null)
+        || (layer.getLayerType() != LayerType.RASTER)
+        || ((layer.getRotation() % 360) != 0)) {
+      return null;
+    }
+    return new Rect(layer.getX(), layer.getY(), layer.getWidth(), layer.getHeight());
+  }
+
+  /**
+   * Returns the union of the supplied areas, where a {@code null} area represents the entire
+   * canvas.
+   *
+   * @param first  the first area, may be {@code null}.
+   * @param second the second area, may be {@code null}.
+   * @return the union of the supplied areas; {@code null} if either area is {@code null}.
+   */
+  private static Rect union(Rect first, Rect second) {
+    return ((first == null) || (second == null)) ? null : first.union(second);
+  }
+
   @Override
   public void notifyCanvasUpdateListeners() {
-    canvasUpdateListeners.canvasUpdated();
+    notifyCanvasUpdateListeners(null);
+  }
+
+  @Override
+  public void notifyCanvasUpdateListeners(Rect area) {
+    if (transactionDepth == 0) {
+      canvasUpdateListeners.canvasUpdated(area);
+    } else if (isCanvasUpdatePending) {
+      pendingArea = union(pendingArea, area);
+    } else {
+      isCanvasUpdatePending = true;
+      pendingArea = area;
+    }
   }
 
   @Override
@@ -45,6 +94,30 @@ final class CanvasImpl implements ICanvas {
     layerManager.notifyListeners();
   }
 
+  @Override
+  public void beginTransaction() {
+    if (transactionDepth == 0) {
+      layerManager.setNotificationsDeferred(true);
+    }
+    transactionDepth++;
+  }
+
+  @Override
+  public void commitTransaction() {
+    if (transactionDepth == 0) {
+      throw new IllegalStateException("There is no transaction to commit");
+    }
+
+    transactionDepth--;
+    if (transactionDepth == 0) {
+      layerManager.setNotificationsDeferred(false);
+      if (isCanvasUpdatePending) {
+        isCanvasUpdatePending = false;
+        notifyCanvasUpdateListeners(pendingArea);
+      }
+    }
+  }
+
   @Override
   public void addCanvasUpdateListener(ICanvasUpdateListener listener) {
     canvasUpdateListeners.add(listener);
@@ -62,9 +135,22 @@ final class CanvasImpl implements ICanvas {
   }
 
   @Override
-  public void removeLayer(int layerIndex) {
-    layerManager.removeLayer(layerIndex);
+  public void insertLayer(int layerIndex, ILayer layer) {
+    layerManager.insertLayer(layerIndex, layer);
+    notifyCanvasUpdateListeners();
+  }
+
+  @Override
+  public void setLayers(Iterable<? extends ILayer> layers) {
+    layerManager.setLayers(layers);
+    notifyCanvasUpdateListeners();
+  }
+
+  @Override
+  public ILayer removeLayer(int layerIndex) {
+    ILayer removedLayer = layerManager.removeLayer(layerIndex);
     notifyCanvasUpdateListeners();
+    return removedLayer;
   }
 
   @Override
@@ -80,8 +166,9 @@ final class CanvasImpl implements ICanvas {
 
   @Override
   public void moveActiveLayer(int dx, int dy) {
+    Rect before = getLayerArea(getActiveLayer());
     layerManager.moveActiveLayer(dx, dy);
-    notifyCanvasUpdateListeners();
+    notifyCanvasUpdateListeners(union(before, getLayerArea(getActiveLayer())));
   }
 
   @Override
@@ -92,7 +179,7 @@ final class CanvasImpl implements ICanvas {
   @Override
   public void setLayerVisibility(int layerIndex, boolean isVisible) {
     layerManager.setLayerVisibility(layerIndex, isVisible);
-    notifyCanvasUpdateListeners();
+    notifyCanvasUpdateListeners(getLayerArea(layerManager.getLayer(layerIndex)));
   }
 
   @Override
@@ -103,25 +190,90 @@ final class CanvasImpl implements ICanvas {
   @Override
   public void setActiveLayerPixel(IPixel pixel) {
     layerManager.setActiveLayerPixel(pixel);
-    notifyCanvasUpdateListeners();
+
+    Rect layerArea = getLayerArea(getActiveLayer());
+    if (layerArea != null) {
+      var pixelArea = new Rect(pixel.getX(), pixel.getY(), 1, 1);
+      notifyCanvasUpdateListeners(
+          pixelArea.translate(layerArea.getX(), layerArea.getY()).intersection(layerArea));
+    } else {
+      notifyCanvasUpdateListeners();
+    }
   }
 
   @Override
   public void setActiveLayerPixels(int x, int y, IReadOnlyRasterData pixelData) {
     layerManager.setActiveLayerPixels(x, y, pixelData);
-    notifyCanvasUpdateListeners();
+    notifyActiveLayerUpdated(new Rect(x, y, pixelData.getWidth(), pixelData.getHeight()));
+  }
+
+  @Override
+  public void blendActiveLayerPixels(int x, int y, IReadOnlyRasterData pixelData) {
+    layerManager.blendActiveLayerPixels(x, y, pixelData);
+    notifyActiveLayerUpdated(new Rect(x, y, pixelData.getWidth(), pixelData.getHeight()));
+  }
+
+  @Override
+  public void fillActiveLayerRect(int x, int y, int width, int height, IColor color) {
+    Objects.requireNonNull(color);
+    layerManager.fillActiveLayerRect(x, y, width, height, color.toArgb());
+    notifyActiveLayerUpdated(new Rect(x, y, width, height));
+  }
+
+  @Override
+  public void stampActiveLayer(DabMask dab, int centerX, int centerY, IColor color) {
+    Objects.requireNonNull(color);
+    layerManager.stampActiveLayer(dab, centerX, centerY, color.toArgb());
+
+    int x = centerX - dab.getOffset();
+    int y = centerY - dab.getOffset();
+    notifyActiveLayerUpdated(new Rect(x, y, dab.getDiameter(), dab.getDiameter()));
+  }
+
+  /**
+   * Notifies all canvas update listeners that the supplied area of the active layer has been
+   * updated. The full canvas is reported as updated if the area of the active layer is unknown.
+   *
+   * @param area the updated area, in canvas coordinates.
+   */
+  private void notifyActiveLayerUpdated(Rect area) {
+    Rect layerArea = getLayerArea(getActiveLayer());
+    if (layerArea != null) {
+      notifyCanvasUpdateListeners(area.intersection(layerArea));
+    } else {
+      notifyCanvasUpdateListeners();
+    }
+  }
+
+  @Override
+  public IRasterDelta createLayerDelta(int layerIndex, IRasterSnapshot before) {
+    return layerManager.createLayerDelta(layerIndex, before);
+  }
+
+  @Override
+  public void applyLayerDelta(int layerIndex, IRasterDelta delta) {
+    layerManager.applyLayerDelta(layerIndex, delta);
+    notifyCanvasUpdateListeners(getLayerArea(layerManager.getLayer(layerIndex)));
+  }
+
+  @Override
+  public void revertLayerDelta(int layerIndex, IRasterDelta delta) {
+    layerManager.revertLayerDelta(layerIndex, delta);
+    notifyCanvasUpdateListeners(getLayerArea(layerManager.getLayer(layerIndex)));
   }
 
   @Override
   public void setActiveLayerX(int x) {
+    Rect before = getLayerArea(getActiveLayer());
     layerManager.setActiveLayerX(x);
-    notifyCanvasUpdateListeners();
+    notifyCanvasUpdateListeners(union(before, getLayerArea(getActiveLayer())));
   }
 
   @Override
   public void setActiveLayerY(int y) {
+    Rect before = getLayerArea(getActiveLayer());
     layerManager.setActiveLayerY(y);
-    notifyCanvasUpdateListeners();
+    notifyCanvasUpdateListeners(union(before, getLayerArea(getActiveLayer())));
   }
 
   @Override
@@ -163,7 +315,9 @@ final class CanvasImpl implements ICanvas {
   @Override
   public void restore(CanvasMemento memento) {
     Objects.requireNonNull(memento);
-    layerManager = memento.getLayerManager();
+    // The memento is copied, so that it's unaffected by later changes and can be restored again
+    layerManager = new LayerManager(memento.getLayerManager());
+    layerManager.setNotificationsDeferred(transactionDepth > 0);
 
     notifyCanvasUpdateListeners();
     notifyLayerUpdateListeners();
@@ -1,6 +1,7 @@
 package chalmers.pimp.model.canvas;
 
 import chalmers.pimp.model.AbstractComposite;
+import chalmers.pimp.model.Rect;
 import java.util.Objects;
 
 /**
@@ -28,9 +29,9 @@ final class CanvasUpdateListenerComposite extends AbstractComposite<ICanvasUpdat
   }
 
   @Override
-  public void canvasUpdated() {
+  public void canvasUpdated(Rect area) {
     for (ICanvasUpdateListener listener : this) {
-      listener.canvasUpdated();
+      listener.canvasUpdated(area);
     }
   }
 }
\ No newline at end of file
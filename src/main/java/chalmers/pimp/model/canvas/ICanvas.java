@@ -1,12 +1,16 @@
 package chalmers.pimp.model.canvas;
 
 import chalmers.pimp.model.IMementoTarget;
+import chalmers.pimp.model.Rect;
 import chalmers.pimp.model.canvas.layer.ILayer;
 import chalmers.pimp.model.canvas.layer.ILayerUpdateListener;
 import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
 import chalmers.pimp.model.color.IColor;
 import chalmers.pimp.model.color.colormodel.IColorChangeListener;
+import chalmers.pimp.model.pixeldata.DabMask;
 import chalmers.pimp.model.pixeldata.IPixel;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
+import chalmers.pimp.model.pixeldata.IRasterSnapshot;
 import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 
 /**
@@ -21,16 +25,44 @@ import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 public interface ICanvas extends IMementoTarget<CanvasMemento>, Cloneable, IColorChangeListener {
 
   /**
-   * Notifies all registered canvas update listeners.
+   * Notifies all registered canvas update listeners that the entire canvas has been updated.
    */
   void notifyCanvasUpdateListeners();
 
   /**
-   * Notifies all registered layer update listener. Beware that this method doesn't trigger a very
-   * informative event.
+   * Notifies all registered canvas update listeners that the supplied area of the canvas has been
+   * updated.
+   *
+   * @param area the affected area, in canvas coordinates; {@code null} if the entire canvas should
+   *             be considered to be updated.
+   */
+  void notifyCanvasUpdateListeners(Rect area);
+
+  /**
+   * Notifies all registered layer update listeners of the changes of the layers since the previous
+   * notification.
    */
   void notifyLayerUpdateListeners();
 
+  /**
+   * Begins a transaction. Until the transaction is committed, the canvas and layer update
+   * listeners aren't notified of any updates. Transactions may be nested, in which case the
+   * listeners are notified when the outermost transaction is committed.
+   *
+   * @see #commitTransaction()
+   */
+  void beginTransaction();
+
+  /**
+   * Commits the current transaction. If it's the outermost transaction, the layer update listeners
+   * are notified of all layer changes with a single event, and then the canvas update listeners are
+   * notified of the union of all updated areas, if anything was updated during the transaction.
+   *
+   * @throws IllegalStateException if there is no transaction.
+   * @see #beginTransaction()
+   */
+  void commitTransaction();
+
   /**
    * Adds a canvas update listener to the canvas. This method has no effect if the supplied listener
    * has already been added.
@@ -60,13 +92,36 @@ public interface ICanvas extends IMementoTarget<CanvasMemento>, Cloneable, IColo
    */
   void addLayer(ILayer layer);
 
+  /**
+   * Inserts a layer at the specified depth index and makes it the active layer. The layers at and
+   * above the specified depth index are shifted one step up. This method has no effect if the
+   * supplied layer is already contained within the canvas, or if the index is out-of-bounds.
+   *
+   * @param layerIndex the depth index that the inserted layer will have, in the range [0, amount
+   *                   of layers].
+   * @param layer      the layer that will be inserted, may not be {@code null}.
+   * @throws NullPointerException if the supplied layer is {@code null}.
+   */
+  void insertLayer(int layerIndex, ILayer layer);
+
+  /**
+   * Replaces all layers of the canvas with the supplied layers, e.g. when a document is opened. The
+   * topmost layer is made the active layer. Note! Do <b>not</b> keep and use the supplied
+   * references to the layers.
+   *
+   * @param layers the new layers, from the bottom to the top.
+   * @throws NullPointerException if the supplied iterable or any of its layers are {@code null}.
+   */
+  void setLayers(Iterable<? extends ILayer> layers);
+
   /**
    * Removes the layer associated with the supplied depth index. This method has no effect if the
    * supplied index is out-of-bounds.
    *
    * @param layerIndex the index of the layer that will be removed.
+   * @return the removed layer; {@code null} if no layer was removed.
    */
-  void removeLayer(int layerIndex);
+  ILayer removeLayer(int layerIndex);
 
   /**
    * Makes the layer associated with the supplied index active. This method has no effect if the
@@ -139,6 +194,73 @@ public interface ICanvas extends IMementoTarget<CanvasMemento>, Cloneable, IColo
    */
   void setActiveLayerPixels(int x, int y, IReadOnlyRasterData pixelData);
 
+  /**
+   * Draws a group of pixels on top of the active layer, blending them according to their alpha
+   * values. This method has no effect if the active layer isn't a raster layer.
+   *
+   * @param x         the start x-coordinate.
+   * @param y         the start y-coordinate.
+   * @param pixelData the pixel data that contains all of the pixels.
+   * @throws NullPointerException if the supplied pixel data is {@code null}.
+   */
+  void blendActiveLayerPixels(int x, int y, IReadOnlyRasterData pixelData);
+
+  /**
+   * Sets all pixels of the active layer in the specified rectangle to the supplied color. This
+   * method has no effect if the active layer isn't a raster layer.
+   *
+   * @param x      the x-coordinate of the upper left corner, in canvas coordinates.
+   * @param y      the y-coordinate of the upper left corner, in canvas coordinates.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @param color  the color of the pixels.
+   * @throws NullPointerException if the supplied color is {@code null}.
+   */
+  void fillActiveLayerRect(int x, int y, int width, int height, IColor color);
+
+  /**
+   * Stamps the supplied dab into the active layer, setting all pixels covered by the dab to the
+   * supplied color. This method has no effect if the active layer isn't a raster layer.
+   *
+   * @param dab     the dab that will be stamped.
+   * @param centerX the x-coordinate of the center of the dab, in canvas coordinates.
+   * @param centerY the y-coordinate of the center of the dab, in canvas coordinates.
+   * @param color   the color of the dab.
+   * @throws NullPointerException if any arguments are {@code null}.
+   */
+  void stampActiveLayer(DabMask dab, int centerX, int centerY, IColor color);
+
+  /**
+   * Creates and returns a raster delta that describes how the pixels of the raster layer associated
+   * with the supplied depth index differ from the supplied snapshot.
+   *
+   * @param layerIndex the depth index of the raster layer.
+   * @param before     the snapshot of the pixels of the layer before an edit.
+   * @return a raster delta; {@code null} if there is no raster layer at the supplied index.
+   * @throws NullPointerException if the supplied snapshot is {@code null}.
+   */
+  IRasterDelta createLayerDelta(int layerIndex, IRasterSnapshot before);
+
+  /**
+   * Applies the supplied raster delta to the raster layer associated with the supplied depth index.
+   * This method has no effect if there is no raster layer at the supplied index.
+   *
+   * @param layerIndex the depth index of the raster layer.
+   * @param delta      the raster delta that will be applied.
+   * @throws NullPointerException if the supplied delta is {@code null}.
+   */
+  void applyLayerDelta(int layerIndex, IRasterDelta delta);
+
+  /**
+   * Reverts the supplied raster delta on the raster layer associated with the supplied depth index.
+   * This method has no effect if there is no raster layer at the supplied index.
+   *
+   * @param layerIndex the depth index of the raster layer.
+   * @param delta      the raster delta that will be reverted.
+   * @throws NullPointerException if the supplied delta is {@code null}.
+   */
+  void revertLayerDelta(int layerIndex, IRasterDelta delta);
+
   /**
    * Sets the x-coordinate of the currently active layer. This method has no effect if there is no
    * active layer.
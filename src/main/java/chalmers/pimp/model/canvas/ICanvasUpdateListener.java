@@ -1,5 +1,7 @@
 package chalmers.pimp.model.canvas;
 
+import chalmers.pimp.model.Rect;
+
 /**
  * The {@code ICanvasUpdateListener} interface specifies object that may listen for updates of the
  * canvas.
@@ -7,7 +9,12 @@ package chalmers.pimp.model.canvas;
 public interface ICanvasUpdateListener {
 
   /**
-   * Invoked when the canvas has been updated.
+   * Invoked when the canvas has been updated. The supplied area describes which part of the canvas
+   * that was affected by the update, in canvas coordinates, which makes it possible to only redraw
+   * the damaged part of the canvas.
+   *
+   * @param area the area of the canvas that was affected by the update; {@code null} if the entire
+   *             canvas should be considered to be updated.
    */
-  void canvasUpdated();
-}
\ No newline at end of file
+  void canvasUpdated(Rect area);
+}
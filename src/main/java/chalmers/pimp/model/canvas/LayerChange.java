@@ -0,0 +1,250 @@
+package chalmers.pimp.model.canvas;
+
+import chalmers.pimp.model.Rect;
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import java.util.Objects;
+
+/**
+ * The {@code LayerChange} class represents a single change of the layers of a layer manager, which
+ * is described by a layer update event. Layer changes are immutable.
+ *
+ * @see LayerUpdateEvent#getChanges()
+ */
+public final class LayerChange {
+
+  private final Type type;
+  private final IReadOnlyLayer layer;
+  private final int index;
+  private final int targetIndex;
+  private final Property property;
+  private final Rect area;
+
+  /**
+   * @param type        the type of the change.
+   * @param layer       the changed layer.
+   * @param index       the depth index of the layer, or -1.
+   * @param targetIndex the depth index that the layer was moved to, or -1.
+   * @param property    the changed property, may be {@code null}.
+   * @param area        the changed area, may be {@code null}.
+   */
+  private LayerChange(Type type, IReadOnlyLayer layer, int index, int targetIndex,
+      Property property, Rect area) {
+    this.type = type;
+    this.layer = Objects.requireNonNull(layer);
+    this.index = index;
+    this.targetIndex = targetIndex;
+    this.property = property;
+    this.area = area;
+  }
+
+  /**
+   * Creates a change that represents a layer that was inserted at the supplied depth index.
+   *
+   * @param index the depth index of the inserted layer.
+   * @param layer the inserted layer.
+   * @return a layer change.
+   * @throws NullPointerException if the supplied layer is {@code null}.
+   */
+  static LayerChange inserted(int index, IReadOnlyLayer layer) {
+    return new LayerChange(Type.INSERTED, layer, index, -1, null, null);
+  }
+
+  /**
+   * Creates a change that represents a layer that was removed from the supplied depth index.
+   *
+   * @param index the depth index that the layer had before it was removed.
+   * @param layer the removed layer.
+   * @return a layer change.
+   * @throws NullPointerException if the supplied layer is {@code null}.
+   */
+  static LayerChange removed(int index, IReadOnlyLayer layer) {
+    return new LayerChange(Type.REMOVED, layer, index, -1, null, null);
+  }
+
+  /**
+   * Creates a change that represents a layer that was moved from one depth index to another. The
+   * layers in between are shifted by one step towards the original depth index of the layer.
+   *
+   * @param index       the depth index that the layer had before it was moved.
+   * @param targetIndex the depth index of the layer after it was moved.
+   * @param layer       the moved layer.
+   * @return a layer change.
+   * @throws NullPointerException if the supplied layer is {@code null}.
+   */
+  static LayerChange moved(int index, int targetIndex, IReadOnlyLayer layer) {
+    return new LayerChange(Type.MOVED, layer, index, targetIndex, null, null);
+  }
+
+  /**
+   * Creates a change that represents a property of a layer that was changed.
+   *
+   * @param layer    the changed layer.
+   * @param property the changed property.
+   * @return a layer change.
+   * @throws NullPointerException if any arguments are {@code null}.
+   */
+  static LayerChange propertyChanged(IReadOnlyLayer layer, Property property) {
+    return new LayerChange(Type.PROPERTY_CHANGED, layer, -1, -1, Objects.requireNonNull(property),
+        null);
+  }
+
+  /**
+   * Creates a change that represents pixels of a raster layer that were changed.
+   *
+   * @param layer the changed layer.
+   * @param area  the changed area, in the coordinates of the layer.
+   * @return a layer change.
+   * @throws NullPointerException if any arguments are {@code null}.
+   */
+  static LayerChange pixelsChanged(IReadOnlyLayer layer, Rect area) {
+    return new LayerChange(Type.PIXELS_CHANGED, layer, -1, -1, null, Objects.requireNonNull(area));
+  }
+
+  /**
+   * Indicates whether or not this change and the supplied change affect the same property, or the
+   * pixels, of the same layer, in which case they can be merged.
+   *
+   * @param change the other change.
+   * @return {@code true} if the changes can be merged; {@code false} otherwise.
+   */
+  boolean isMergeableWith(LayerChange change) {
+    boolean isSameKind = (type == Type.PROPERTY_CHANGED) || (type == Type.PIXELS_CHANGED);
+    return isSameKind && (change.type == type) && (change.layer == layer)
+        && (change.property == property);
+  }
+
+  /**
+   * Merges this change with the supplied mergeable change.
+   *
+   * @param change the change that will be merged with this change.
+   * @return a change that covers both changes.
+   * @see #isMergeableWith(LayerChange)
+   */
+  LayerChange merge(LayerChange change) {
+    return (type == Type.PIXELS_CHANGED) ? pixelsChanged(layer, area.union(change.area)) : this;
+  }
+
+  /**
+   * Returns the type of this change.
+   *
+   * @return the type of this change.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Returns the layer that was changed.
+   *
+   * @return the layer that was changed.
+   */
+  public IReadOnlyLayer getLayer() {
+    return layer;
+  }
+
+  /**
+   * Returns the depth index of an inserted layer, or the depth index that a removed or moved layer
+   * had before the change.
+   *
+   * @return the depth index of the layer; -1 for property and pixel changes.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the depth index that a moved layer was moved to.
+   *
+   * @return the new depth index of a moved layer; -1 for all other changes.
+   */
+  public int getTargetIndex() {
+    return targetIndex;
+  }
+
+  /**
+   * Returns the property that was changed.
+   *
+   * @return the changed property; {@code null} for all changes but property changes.
+   */
+  public Property getProperty() {
+    return property;
+  }
+
+  /**
+   * Returns the area of the layer whose pixels were changed, in the coordinates of the layer.
+   *
+   * @return the changed area; {@code null} for all changes but pixel changes.
+   */
+  public Rect getArea() {
+    return area;
+  }
+
+  @Override
+  public String toString() {
+    String id = getClass().getSimpleName() + "@" + Integer.toHexString(hashCode());
+    String state = "Type: " + type + ", Layer: " + layer.getName() + ", Index: " + index
+        + ", Target index: " + targetIndex + ", Property: " + property + ", Area: " + area;
+    return "(" + id + " | " + state + ")";
+  }
+
+  /**
+   * The {@code Type} enum provides values that represent the different kinds of layer changes.
+   */
+  public enum Type {
+    /**
+     * A layer was inserted, which shifts the layers above it up by one step.
+     */
+    INSERTED,
+
+    /**
+     * A layer was removed, which shifts the layers above it down by one step.
+     */
+    REMOVED,
+
+    /**
+     * A layer was moved to another depth index.
+     */
+    MOVED,
+
+    /**
+     * A property of a layer was changed.
+     */
+    PROPERTY_CHANGED,
+
+    /**
+     * Pixels of a raster layer were changed.
+     */
+    PIXELS_CHANGED
+  }
+
+  /**
+   * The {@code Property} enum provides values that represent the properties of layers that are
+   * reported by property changes.
+   */
+  public enum Property {
+    /**
+     * The name of the layer.
+     */
+    NAME,
+
+    /**
+     * The visibility of the layer.
+     */
+    VISIBILITY,
+
+    /**
+     * The position of the layer.
+     */
+    POSITION,
+
+    /**
+     * The rotation of the layer.
+     */
+    ROTATION,
+
+    /**
+     * The color of a colorable layer.
+     */
+    COLOR
+  }
+}
@@ -1,5 +1,7 @@
 package chalmers.pimp.model.canvas;
 
+import chalmers.pimp.model.Rect;
+import chalmers.pimp.model.canvas.LayerChange.Property;
 import chalmers.pimp.model.canvas.layer.IColorable;
 import chalmers.pimp.model.canvas.layer.ILayer;
 import chalmers.pimp.model.canvas.layer.ILayerUpdateListener;
@@ -7,10 +9,11 @@ import chalmers.pimp.model.canvas.layer.IRasterLayer;
 import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
 import chalmers.pimp.model.color.IColor;
 import chalmers.pimp.model.color.colormodel.IColorChangeListener;
+import chalmers.pimp.model.pixeldata.DabMask;
 import chalmers.pimp.model.pixeldata.IPixel;
-import chalmers.pimp.model.pixeldata.IReadOnlyPixel;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
+import chalmers.pimp.model.pixeldata.IRasterSnapshot;
 import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
-import chalmers.pimp.model.pixeldata.PixelFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -24,16 +27,26 @@ final class LayerManager implements IColorChangeListener {
 
   private final LayerUpdateListenerComposite layerUpdateListeners;
   private final List<ILayer> layers;
+  private final List<LayerChange> pendingChanges;
   private ILayer activeLayer;
+  private boolean isFullUpdatePending;
+  private IReadOnlyLayer pendingAddedLayer;
+  private IReadOnlyLayer pendingRemovedLayer;
+  private IReadOnlyLayer pendingSelectedLayer;
+  private boolean isSelectionUpdatePending;
+  private boolean isDeferred;
+  private boolean isEventPending;
 
   LayerManager() {
     layerUpdateListeners = new LayerUpdateListenerComposite();
     layers = new ArrayList<>(10);
+    pendingChanges = new ArrayList<>();
     activeLayer = null;
+    isFullUpdatePending = false;
   }
 
   /**
-   * Creates a copy of the supplied layer manager.
+   * Creates a copy of the supplied layer manager. The first event of the copy is a full update.
    *
    * @param layerManager the layer manager that will be copied.
    * @throws NullPointerException if the supplied layer manager is {@code null}.
@@ -51,6 +64,8 @@ final class LayerManager implements IColorChangeListener {
     }
 
     layerUpdateListeners = new LayerUpdateListenerComposite(layerManager.layerUpdateListeners);
+    pendingChanges = new ArrayList<>();
+    isFullUpdatePending = true;
   }
 
   /**
@@ -94,11 +109,113 @@ final class LayerManager implements IColorChangeListener {
   }
 
   /**
-   * Notifies all registered layer update listeners. Beware that this method doesn't trigger a very
-   * informative event.
+   * Records the supplied change, which will be described by the next event. The change is merged
+   * with a pending change of the same property, or the pixels, of the same layer, if there is one.
+   *
+   * @param change the change that will be recorded.
+   */
+  private void recordChange(LayerChange change) {
+    for (int i = pendingChanges.size() - 1; i >= 0; i--) {
+      LayerChange pendingChange = pendingChanges.get(i);
+      if (pendingChange.isMergeableWith(change)) {
+        pendingChanges.set(i, pendingChange.merge(change));
+        return;
+      }
+    }
+    pendingChanges.add(change);
+  }
+
+  /**
+   * Records a change of the pixels of the supplied raster layer. Nothing is recorded if the
+   * supplied area is outside of the layer.
+   *
+   * @param layer the changed raster layer.
+   * @param area  the changed area, in the coordinates of the layer.
+   */
+  private void recordPixelChange(IRasterLayer layer, Rect area) {
+    Rect changedArea = area.intersection(new Rect(0, 0, layer.getWidth(), layer.getHeight()));
+    if (!changedArea.isEmpty()) {
+      recordChange(LayerChange.pixelsChanged(layer, changedArea));
+    }
+  }
+
+  /**
+   * Creates an event that describes the pending changes, and clears them.
+   *
+   * @return a layer update event.
+   */
+  private LayerUpdateEvent createEvent() {
+    var event = new LayerUpdateEvent(layers);
+    event.setChanges(new ArrayList<>(pendingChanges));
+    event.setFullUpdate(isFullUpdatePending);
+    event.setAddedLayer(pendingAddedLayer);
+    event.setRemovedLayer(pendingRemovedLayer);
+    event.setSelectionUpdated(isSelectionUpdatePending);
+
+    if (pendingSelectedLayer != null) {
+      int index = pendingSelectedLayer.getDepthIndex();
+      if (inBounds(index) && (layers.get(index) == pendingSelectedLayer)) {
+        event.setSelectedLayer(index);
+      }
+    }
+
+    for (LayerChange change : pendingChanges) {
+      if (change.getProperty() == Property.VISIBILITY) {
+        event.setVisibilityUpdated(true);
+      }
+    }
+
+    pendingChanges.clear();
+    isFullUpdatePending = false;
+    pendingAddedLayer = null;
+    pendingRemovedLayer = null;
+    pendingSelectedLayer = null;
+    isSelectionUpdatePending = false;
+    return event;
+  }
+
+  /**
+   * Notifies all registered layer update listeners of the pending changes, unless notifications
+   * are deferred, in which case the listeners are notified once they are resumed.
+   */
+  private void fireEvent() {
+    if (isDeferred) {
+      isEventPending = true;
+    } else {
+      isEventPending = false;
+      layerUpdateListeners.layersUpdated(createEvent());
+    }
+  }
+
+  /**
+   * Defers or resumes the notifications of the layer update listeners. While notifications are
+   * deferred, all changes are collected, and the listeners are notified of them with a single
+   * event once notifications are resumed, if any notifications were deferred.
+   *
+   * @param isDeferred {@code true} if notifications should be deferred; {@code false} if they
+   *                   should be resumed.
+   */
+  void setNotificationsDeferred(boolean isDeferred) {
+    this.isDeferred = isDeferred;
+    if (!isDeferred && isEventPending) {
+      fireEvent();
+    }
+  }
+
+  /**
+   * Marks all layers as changed, so that the next event is a full update. This method does
+   * <b>not</b> cause any listener notifications.
+   */
+  void invalidate() {
+    isFullUpdatePending = true;
+  }
+
+  /**
+   * Notifies all registered layer update listeners of the changes that have been made since the
+   * previous notification.
    */
   void notifyListeners() {
-    layerUpdateListeners.layersUpdated(new LayerUpdateEvent(layers));
+    fireEvent();
   }
 
   /**
@@ -132,11 +249,12 @@ final class LayerManager implements IColorChangeListener {
         return;
       }
 
-      layers.add(layerIndex + dz, layers.remove(layerIndex));
+      ILayer layer = layers.remove(layerIndex);
+      layers.add(layerIndex + dz, layer);
       resetDepthValues();
+      recordChange(LayerChange.moved(layerIndex, layerIndex + dz, layer));
 
-      var event = new LayerUpdateEvent(layers);
-      layerUpdateListeners.layersUpdated(event);
+      fireEvent();
     }
   }
 
@@ -150,11 +268,10 @@ final class LayerManager implements IColorChangeListener {
     if (inBounds(index)) {
       activeLayer = layers.get(index);
 
-      var event = new LayerUpdateEvent(layers);
-      event.setSelectedLayer(index);
-      event.setSelectionUpdated(true);
+      pendingSelectedLayer = activeLayer;
+      isSelectionUpdatePending = true;
 
-      layerUpdateListeners.layersUpdated(event);
+      fireEvent();
     }
   }
 
@@ -172,24 +289,79 @@ final class LayerManager implements IColorChangeListener {
       layers.add(layer);
 
       resetDepthValues();
+      recordChange(LayerChange.inserted(layer.getDepthIndex(), layer));
+
+      activeLayer = layer;
+
+      pendingAddedLayer = layer;
+      isSelectionUpdatePending = true;
+
+      fireEvent();
+    }
+  }
+
+  /**
+   * Inserts a layer at the supplied index and makes it the active layer. This method has no effect
+   * if the supplied layer is already contained within the manager, or if the index is
+   * out-of-bounds.
+   *
+   * @param index the index that the layer will be inserted at, in the range [0, amount of layers].
+   * @param layer the layer that will be inserted, may not be {@code null}.
+   * @throws NullPointerException if the supplied layer is {@code null}.
+   */
+  void insertLayer(int index, ILayer layer) {
+    ILayer match = findMatch(layer);
+    if ((match == null) && (index >= 0) && (index <= layers.size())) {
+      layers.add(index, layer);
+
+      resetDepthValues();
+      recordChange(LayerChange.inserted(index, layer));
 
       activeLayer = layer;
 
-      var event = new LayerUpdateEvent(layers);
-      event.setAddedLayer(layer);
-      event.setSelectionUpdated(true);
+      pendingAddedLayer = layer;
+      isSelectionUpdatePending = true;
 
-      layerUpdateListeners.layersUpdated(event);
+      fireEvent();
     }
   }
 
+  /**
+   * Replaces all layers in the manager with the supplied layers, and makes the topmost layer the
+   * active layer. The listeners are notified once, regardless of the amount of layers.
+   *
+   * @param newLayers the new layers, from the bottom to the top.
+   * @throws NullPointerException if the supplied iterable or any of its layers are {@code null}.
+   */
+  void setLayers(Iterable<? extends ILayer> newLayers) {
+    Objects.requireNonNull(newLayers);
+
+    List<ILayer> replacement = new ArrayList<>();
+    for (ILayer layer : newLayers) {
+      replacement.add(Objects.requireNonNull(layer));
+    }
+
+    layers.clear();
+    layers.addAll(replacement);
+    resetDepthValues();
+
+    activeLayer = layers.isEmpty() ? null : layers.get(layers.size() - 1);
+
+    pendingChanges.clear();
+    isFullUpdatePending = true;
+    isSelectionUpdatePending = true;
+
+    fireEvent();
+  }
+
   /**
    * Removes the layer associated with the supplied index. This method has no effect if the supplied
    * index is out-of-bounds.
    *
    * @param index the index of the layer that will be removed.
+   * @return the removed layer; {@code null} if no layer was removed.
    */
-  void removeLayer(int index) {
+  ILayer removeLayer(int index) {
     if (inBounds(index)) {
 
       boolean removedLayerWasActive = hasActiveLayer() && (index == activeLayer.getDepthIndex());
@@ -201,13 +373,15 @@ final class LayerManager implements IColorChangeListener {
       ILayer removedLayer = layers.remove(index);
 
       resetDepthValues();
+      recordChange(LayerChange.removed(index, removedLayer));
 
-      var event = new LayerUpdateEvent(layers);
-      event.setSelectionUpdated(true);
-      event.setRemovedLayer(removedLayer);
+      pendingRemovedLayer = removedLayer;
+      isSelectionUpdatePending = true;
 
-      layerUpdateListeners.layersUpdated(event);
+      fireEvent();
+      return removedLayer;
     }
+    return null;
   }
 
   /**
@@ -236,6 +410,7 @@ final class LayerManager implements IColorChangeListener {
     if (hasActiveLayer()) {
       if (activeLayer instanceof IRasterLayer) {
         ((IRasterLayer) activeLayer).setPixel(pixel);
+        recordPixelChange((IRasterLayer) activeLayer, new Rect(pixel.getX(), pixel.getY(), 1, 1));
       }
     }
   }
@@ -252,19 +427,135 @@ final class LayerManager implements IColorChangeListener {
   void setActiveLayerPixels(int x, int y, IReadOnlyRasterData pixelData) {
     Objects.requireNonNull(pixelData);
 
-    if (!hasActiveLayer()) {
-      return;
+    if (activeLayer instanceof IRasterLayer) {
+      int dx = x - activeLayer.getX();
+      int dy = y - activeLayer.getY();
+      ((IRasterLayer) activeLayer).copyRegion(pixelData, dx, dy);
+      recordPixelChange((IRasterLayer) activeLayer,
+          new Rect(dx, dy, pixelData.getWidth(), pixelData.getHeight()));
+    }
+  }
+
+  /**
+   * Draws a group of pixels on top of the active layer, blending them according to their alpha
+   * values. This method has no effect if the active layer isn't a raster layer.
+   *
+   * @param x         the start x-coordinate.
+   * @param y         the start y-coordinate.
+   * @param pixelData the pixel data that contains all of the pixels.
+   * @throws NullPointerException if the supplied pixel data is {@code null}.
+   */
+  void blendActiveLayerPixels(int x, int y, IReadOnlyRasterData pixelData) {
+    Objects.requireNonNull(pixelData);
+    if (activeLayer instanceof IRasterLayer) {
+      int dx = x - activeLayer.getX();
+      int dy = y - activeLayer.getY();
+      ((IRasterLayer) activeLayer).blitWithAlpha(pixelData, dx, dy);
+      recordPixelChange((IRasterLayer) activeLayer,
+          new Rect(dx, dy, pixelData.getWidth(), pixelData.getHeight()));
     }
+  }
 
-    int dx = x - activeLayer.getX();
-    int dy = y - activeLayer.getY();
+  /**
+   * Sets all pixels of the active layer in the specified rectangle to the same color. This method
+   * has no effect if the active layer isn't a raster layer.
+   *
+   * @param x      the x-coordinate of the upper left corner, in canvas coordinates.
+   * @param y      the y-coordinate of the upper left corner, in canvas coordinates.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @param argb   the packed ARGB color of the pixels.
+   */
+  void fillActiveLayerRect(int x, int y, int width, int height, int argb) {
+    if (activeLayer instanceof IRasterLayer) {
+      int dx = x - activeLayer.getX();
+      int dy = y - activeLayer.getY();
+      ((IRasterLayer) activeLayer).fillRect(dx, dy, width, height, argb);
+      recordPixelChange((IRasterLayer) activeLayer, new Rect(dx, dy, width, height));
+    }
+  }
 
-    for (Iterable<? extends IReadOnlyPixel> row : pixelData.getPixels()) {
-      for (IReadOnlyPixel pixel : row) {
-        if (activeLayer instanceof IRasterLayer) {
-          ((IRasterLayer) activeLayer).setPixel(PixelFactory.createPixelWithOffset(pixel, dx, dy));
-        }
-      }
+  /**
+   * Stamps the supplied dab into the active layer. This method has no effect if the active layer
+   * isn't a raster layer.
+   *
+   * @param dab     the dab that will be stamped.
+   * @param centerX the x-coordinate of the center of the dab, in canvas coordinates.
+   * @param centerY the y-coordinate of the center of the dab, in canvas coordinates.
+   * @param argb    the packed ARGB color of the dab.
+   * @throws NullPointerException if the supplied dab is {@code null}.
+   */
+  void stampActiveLayer(DabMask dab, int centerX, int centerY, int argb) {
+    Objects.requireNonNull(dab);
+    if (activeLayer instanceof IRasterLayer) {
+      int x = centerX - activeLayer.getX();
+      int y = centerY - activeLayer.getY();
+      ((IRasterLayer) activeLayer).stampDab(dab, x, y, argb);
+      recordPixelChange((IRasterLayer) activeLayer, new Rect(x - dab.getOffset(),
+          y - dab.getOffset(), dab.getDiameter(), dab.getDiameter()));
+    }
+  }
+
+  /**
+   * Returns the raster layer associated with the supplied index.
+   *
+   * @param index the index of the layer.
+   * @return the raster layer at the supplied index; {@code null} if there is no such raster layer.
+   */
+  private IRasterLayer getRasterLayer(int index) {
+    if (inBounds(index) && (layers.get(index) instanceof IRasterLayer)) {
+      return (IRasterLayer) layers.get(index);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Creates a raster delta that describes how the pixels of the raster layer associated with the
+   * supplied index differ from the supplied snapshot.
+   *
+   * @param index  the index of the raster layer.
+   * @param before the snapshot of the pixels of the layer before an edit.
+   * @return a raster delta; {@code null} if there is no raster layer at the supplied index.
+   * @throws NullPointerException if the supplied snapshot is {@code null}.
+   */
+  IRasterDelta createLayerDelta(int index, IRasterSnapshot before) {
+    Objects.requireNonNull(before);
+    IRasterLayer layer = getRasterLayer(index);
+    return (layer != null) ? layer.createDelta(before) : null;
+  }
+
+  /**
+   * Applies the supplied raster delta to the raster layer associated with the supplied index. This
+   * method has no effect if there is no raster layer at the supplied index.
+   *
+   * @param index the index of the raster layer.
+   * @param delta the raster delta that will be applied.
+   * @throws NullPointerException if the supplied delta is {@code null}.
+   */
+  void applyLayerDelta(int index, IRasterDelta delta) {
+    Objects.requireNonNull(delta);
+    IRasterLayer layer = getRasterLayer(index);
+    if (layer != null) {
+      layer.applyDelta(delta);
+      recordPixelChange(layer, delta.getBounds());
+    }
+  }
+
+  /**
+   * Reverts the supplied raster delta on the raster layer associated with the supplied index. This
+   * method has no effect if there is no raster layer at the supplied index.
+   *
+   * @param index the index of the raster layer.
+   * @param delta the raster delta that will be reverted.
+   * @throws NullPointerException if the supplied delta is {@code null}.
+   */
+  void revertLayerDelta(int index, IRasterDelta delta) {
+    Objects.requireNonNull(delta);
+    IRasterLayer layer = getRasterLayer(index);
+    if (layer != null) {
+      layer.revertDelta(delta);
+      recordPixelChange(layer, delta.getBounds());
     }
   }
 
@@ -277,6 +568,7 @@ final class LayerManager implements IColorChangeListener {
   void moveActiveLayer(int dx, int dy) {
     if (hasActiveLayer()) {
       activeLayer.move(dx, dy);
+      recordChange(LayerChange.propertyChanged(activeLayer, Property.POSITION));
     }
   }
 
@@ -288,6 +580,7 @@ final class LayerManager implements IColorChangeListener {
   void rotateActiveLayer(int alpha) {
     if (hasActiveLayer()) {
       activeLayer.setRotation(alpha);
+      recordChange(LayerChange.propertyChanged(activeLayer, Property.ROTATION));
     }
   }
 
@@ -300,6 +593,7 @@ final class LayerManager implements IColorChangeListener {
   void setActiveLayerX(int x) {
     if (hasActiveLayer()) {
       activeLayer.setX(x);
+      recordChange(LayerChange.propertyChanged(activeLayer, Property.POSITION));
     }
   }
 
@@ -312,6 +606,7 @@ final class LayerManager implements IColorChangeListener {
   void setActiveLayerY(int y) {
     if (hasActiveLayer()) {
       activeLayer.setY(y);
+      recordChange(LayerChange.propertyChanged(activeLayer, Property.POSITION));
     }
   }
 
@@ -325,13 +620,14 @@ final class LayerManager implements IColorChangeListener {
   void setLayerVisibility(int index, boolean isVisible) {
     if (inBounds(index)) {
       layers.get(index).setVisible(isVisible);
+      recordChange(LayerChange.propertyChanged(layers.get(index), Property.VISIBILITY));
     }
   }
 
   /**
    * Sets the name of the layer associated with the supplied depth index. This method has no effect
    * if the supplied index isn't associated with a layer. Invoking this method doesn't trigger any
-   * events.
+   * events, the change is described by the next event.
    *
    * @param index the depth index of the layer that will be renamed.
    * @param name  the new name of the layer, may not be {@code null}.
@@ -341,6 +637,7 @@ final class LayerManager implements IColorChangeListener {
     Objects.requireNonNull(name);
     if (inBounds(index)) {
       layers.get(index).setName(name);
+      recordChange(LayerChange.propertyChanged(layers.get(index), Property.NAME));
     }
   }
 
@@ -398,6 +695,7 @@ final class LayerManager implements IColorChangeListener {
     var layer = getActiveLayer();
     if (layer instanceof IColorable) {
       ((IColorable) layer).setColor(color);
+      recordChange(LayerChange.propertyChanged(layer, Property.COLOR));
       notifyListeners();
     }
   }
@@ -420,6 +718,17 @@ final class LayerManager implements IColorChangeListener {
     return activeLayer;
   }
 
+  /**
+   * Returns the layer associated with the supplied index.
+   *
+   * @param index the index of the desired layer.
+   * @return the layer associated with the supplied index; {@code null} if the index is
+   * out-of-bounds.
+   */
+  IReadOnlyLayer getLayer(int index) {
+    return inBounds(index) ? layers.get(index) : null;
+  }
+
   /**
    * Returns all of the layers present in the manager.
    *
@@ -2,11 +2,14 @@ package chalmers.pimp.model.canvas;
 
 import chalmers.pimp.model.canvas.layer.ILayer;
 import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 /**
- * The {@code LayerUpdateEvent} class represents the state of a layer update event.
+ * The {@code LayerUpdateEvent} class represents the state of a layer update event. An event
+ * describes the changes of the layers since the previous event, see {@link #getChanges()}, unless
+ * it's a full update, in which case any layer may have changed.
  */
 public final class LayerUpdateEvent {
 
@@ -16,6 +19,8 @@ public final class LayerUpdateEvent {
   private IReadOnlyLayer addedLayer;
   private boolean visibilityUpdated;
   private boolean selectionUpdated;
+  private List<LayerChange> changes;
+  private boolean isFullUpdate;
 
   /**
    * @param layers all of the layers contained in the model.
@@ -29,6 +34,28 @@ public final class LayerUpdateEvent {
     addedLayer = null;
     visibilityUpdated = false;
     selectionUpdated = false;
+    changes = Collections.emptyList();
+    isFullUpdate = false;
+  }
+
+  /**
+   * Sets the changes that are described by the event. By default, the event describes no changes.
+   *
+   * @param changes the changes, in the order in which they were made.
+   * @throws NullPointerException if the supplied list is {@code null}.
+   */
+  void setChanges(List<LayerChange> changes) {
+    this.changes = Collections.unmodifiableList(changes);
+  }
+
+  /**
+   * Sets the value of the property that indicates whether or not the event is a full update. By
+   * default, this property is set to {@code false}.
+   *
+   * @param isFullUpdate {@code true} if all layers may have changed; {@code false} otherwise.
+   */
+  void setFullUpdate(boolean isFullUpdate) {
+    this.isFullUpdate = isFullUpdate;
   }
 
   /**
@@ -109,6 +136,28 @@ public final class LayerUpdateEvent {
     return removedLayer != null;
   }
 
+  /**
+   * Returns the changes of the layers since the previous event, in the order in which they were
+   * made. Changes to the same property, or the pixels, of a layer are merged into a single change.
+   * The changes are incomplete if the event is a full update.
+   *
+   * @return the changes of the layers since the previous event.
+   * @see #isFullUpdate()
+   */
+  public List<LayerChange> getChanges() {
+    return changes;
+  }
+
+  /**
+   * Indicates whether or not the event is a full update, e.g. because all layers were replaced.
+   * Listeners should treat all layers as changed if this is the case.
+   *
+   * @return {@code true} if all layers may have changed; {@code false} otherwise.
+   */
+  public boolean isFullUpdate() {
+    return isFullUpdate;
+  }
+
   /**
    * Returns the amount of layers associated with this layer update event. This corresponds to the
    * amount of layers in the model.
@@ -5,6 +5,7 @@ import chalmers.pimp.model.Point;
 import chalmers.pimp.model.color.IColor;
 import chalmers.pimp.model.viewport.IReadOnlyViewport;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.BiPredicate;
@@ -101,6 +102,16 @@ final class Doodle implements IDoodleLayer, IColorable {
     return layerDelegate.getAlpha();
   }
 
+  @Override
+  public long getContentVersion() {
+    return layerDelegate.getContentVersion();
+  }
+
+  @Override
+  public long getTransformVersion() {
+    return layerDelegate.getTransformVersion();
+  }
+
   @Override
   public int getWidth() {
     //Returns a list of the values returned from getX() for each item in points
@@ -239,6 +250,7 @@ final class Doodle implements IDoodleLayer, IColorable {
   public void addPoint(Point p) {
     Objects.requireNonNull(p);
     points.add(p);
+    layerDelegate.incrementContentVersion();
   }
 
   @Override
@@ -246,6 +258,7 @@ final class Doodle implements IDoodleLayer, IColorable {
     for (Point po : points) {
       if (po.distance(p) <= threshold) {
         points.remove(po);
+        layerDelegate.incrementContentVersion();
       }
     }
   }
@@ -258,5 +271,16 @@ final class Doodle implements IDoodleLayer, IColorable {
   @Override
   public void setColor(IColor color) {
     this.color = Objects.requireNonNull(color);
+    layerDelegate.incrementContentVersion();
+  }
+
+  @Override
+  public List<Point> getPoints() {
+    return Collections.unmodifiableList(points);
+  }
+
+  @Override
+  public int getLineWidth() {
+    return lineWidth;
   }
 }
@@ -1,6 +1,7 @@
 package chalmers.pimp.model.canvas.layer;
 
 import chalmers.pimp.model.Point;
+import java.util.List;
 
 /**
  * The {@code IDoodleLayer} is a subinterface of {@code ILayer} and extends its functionality
@@ -26,5 +27,18 @@ public interface IDoodleLayer extends ILayer {
    * @throws NullPointerException if the specified point is {@code null}
    */
   void removePoint(Point p, double threshold);
-}
 
+  /**
+   * Returns the points of the doodle, relative to the position of the doodle.
+   *
+   * @return an unmodifiable list of the points of the doodle.
+   */
+  List<Point> getPoints();
+
+  /**
+   * Returns the width of the lines that are drawn between the points.
+   *
+   * @return the width of the lines.
+   */
+  int getLineWidth();
+}
@@ -1,6 +1,9 @@
 package chalmers.pimp.model.canvas.layer;
 
+import chalmers.pimp.model.pixeldata.DabMask;
 import chalmers.pimp.model.pixeldata.IPixel;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
+import chalmers.pimp.model.pixeldata.IRasterSnapshot;
 import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 
 /**
@@ -20,10 +23,103 @@ public interface IRasterLayer extends ILayer {
    */
   void setPixel(IPixel pixel);
 
+  /**
+   * Stamps the supplied dab into the pixels of this layer. The parts of the dab that are outside of
+   * the layer are ignored.
+   *
+   * @param dab     the dab that will be stamped.
+   * @param centerX the x-coordinate of the center of the dab, relative to the layer.
+   * @param centerY the y-coordinate of the center of the dab, relative to the layer.
+   * @param argb    the packed ARGB color of the dab.
+   * @throws NullPointerException if the supplied dab is {@code null}.
+   */
+  void stampDab(DabMask dab, int centerX, int centerY, int argb);
+
+  /**
+   * Sets all pixels in the specified rectangle to the same color. The parts of the rectangle that
+   * are outside of the layer are ignored.
+   *
+   * @param x      the x-coordinate of the upper left corner, relative to the layer.
+   * @param y      the y-coordinate of the upper left corner, relative to the layer.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @param argb   the packed ARGB color of the pixels.
+   */
+  void fillRect(int x, int y, int width, int height, int argb);
+
+  /**
+   * Copies the supplied raster data into the pixels of this layer, replacing the existing pixels.
+   * The parts of the raster data that are outside of the layer are ignored.
+   *
+   * @param source the raster data that will be copied.
+   * @param x      the x-coordinate that the raster data will be copied to, relative to the layer.
+   * @param y      the y-coordinate that the raster data will be copied to, relative to the layer.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  void copyRegion(IReadOnlyRasterData source, int x, int y);
+
+  /**
+   * Draws the supplied raster data on top of the pixels of this layer, blending the pixels
+   * according to their alpha values. The parts of the raster data that are outside of the layer
+   * are ignored.
+   *
+   * @param source the raster data that will be drawn.
+   * @param x      the x-coordinate that the raster data will be drawn at, relative to the layer.
+   * @param y      the y-coordinate that the raster data will be drawn at, relative to the layer.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  void blitWithAlpha(IReadOnlyRasterData source, int x, int y);
+
   /**
    * Returns a pixel representation of this layer, which is read-only.
    *
    * @return a pixel representation of this layer.
    */
   IReadOnlyRasterData getPixelData();
+
+  /**
+   * Returns the thumbnail that this layer was created with, as long as its pixels haven't been
+   * loaded. Layers that are opened from a document load their pixels the first time that they are
+   * needed, the thumbnail can be used to preview such layers without loading their pixels.
+   *
+   * @return a downscaled version of the pixels of this layer; {@code null} if the pixels have been
+   * loaded, or if there is no thumbnail.
+   */
+  IReadOnlyRasterData getThumbnail();
+
+  /**
+   * Indicates whether or not the pixels of this layer have been loaded. Unlike {@link
+   * IRasterLayer#getPixelData()}, this method never loads the pixels.
+   *
+   * @return {@code true} if the pixels have been loaded; {@code false} otherwise.
+   */
+  boolean isLoaded();
+
+  /**
+   * Creates and returns a raster delta that describes how the pixels of this layer differ from the
+   * supplied snapshot.
+   *
+   * @param before the snapshot of the pixels of this layer before an edit.
+   * @return a raster delta that describes the edit.
+   * @throws NullPointerException     if the supplied snapshot is {@code null}.
+   * @throws IllegalArgumentException if the supplied snapshot doesn't have the same size as this
+   *                                  layer.
+   */
+  IRasterDelta createDelta(IRasterSnapshot before);
+
+  /**
+   * Applies the supplied raster delta to the pixels of this layer.
+   *
+   * @param delta the raster delta that will be applied.
+   * @throws NullPointerException if the supplied delta is {@code null}.
+   */
+  void applyDelta(IRasterDelta delta);
+
+  /**
+   * Reverts the supplied raster delta on the pixels of this layer.
+   *
+   * @param delta the raster delta that will be reverted.
+   * @throws NullPointerException if the supplied delta is {@code null}.
+   */
+  void revertDelta(IRasterDelta delta);
 }
@@ -85,6 +85,26 @@ public interface IReadOnlyLayer extends IDrawable, Cloneable {
    */
   int getHeight();
 
+  /**
+   * Returns the content version of the layer, which is incremented whenever the contents of the
+   * layer are modified, e.g. its pixels, points or color. The version is independent of the
+   * position, rotation, alpha, name, visibility and depth index of the layer. Copies of a layer
+   * start at the version of the copied layer, so versions should only be compared for the same
+   * layer instance.
+   *
+   * @return the content version of the layer.
+   */
+  long getContentVersion();
+
+  /**
+   * Returns the transform version of the layer, which is incremented whenever the position,
+   * rotation or alpha value of the layer changes. Copies of a layer start at the version of the
+   * copied layer, so versions should only be compared for the same layer instance.
+   *
+   * @return the transform version of the layer.
+   */
+  long getTransformVersion();
+
   /**
    * Returns a copy of the layer.
    *
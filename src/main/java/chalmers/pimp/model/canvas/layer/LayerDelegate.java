@@ -24,6 +24,8 @@ final class LayerDelegate {
   private int rotationDegrees;
   private double alpha;
   private int depthIndex;
+  private long contentVersion;
+  private long transformVersion;
 
   /**
    * @param layerType the layer type that will be used by the layer delegate.
@@ -57,6 +59,46 @@ final class LayerDelegate {
     isVisible = layerDelegate.isVisible;
     rotationDegrees = layerDelegate.rotationDegrees;
     alpha = layerDelegate.alpha;
+    contentVersion = layerDelegate.contentVersion;
+    transformVersion = layerDelegate.transformVersion;
+  }
+
+  /**
+   * Returns the content version of the layer, see {@link IReadOnlyLayer#getContentVersion()}.
+   *
+   * @return the content version of the layer.
+   */
+  long getContentVersion() {
+    return contentVersion;
+  }
+
+  /**
+   * Increments the content version of the layer. Should be invoked by the layer whenever its
+   * contents are modified.
+   */
+  void incrementContentVersion() {
+    contentVersion++;
+  }
+
+  /**
+   * Returns the transform version of the layer, see {@link IReadOnlyLayer#getTransformVersion()}.
+   *
+   * @return the transform version of the layer.
+   */
+  long getTransformVersion() {
+    return transformVersion;
+  }
+
+  /**
+   * Replaces the position of the layer, and increments the transform version if it changed.
+   *
+   * @param position the new position of the layer.
+   */
+  private void setPosition(Point position) {
+    if ((position.getX() != this.position.getX()) || (position.getY() != this.position.getY())) {
+      transformVersion++;
+    }
+    this.position = position;
   }
 
   /**
@@ -66,8 +108,7 @@ final class LayerDelegate {
    * @param dy the y-axis offset, may be negative.
    */
   void move(int dx, int dy) {
-    position = position.addX(dx);
-    position = position.addY(dy);
+    setPosition(position.addX(dx).addY(dy));
   }
 
   /**
@@ -123,7 +164,7 @@ final class LayerDelegate {
    * @param x the new x-coordinate of the layer's point.
    */
   void setX(int x) {
-    position = position.setX(x);
+    setPosition(position.setX(x));
   }
 
   /**
@@ -141,7 +182,7 @@ final class LayerDelegate {
    * @param y the new y-coordinate of the layer's point.
    */
   void setY(int y) {
-    position = position.setY(y);
+    setPosition(position.setY(y));
   }
 
   /**
@@ -163,6 +204,9 @@ final class LayerDelegate {
     if (temp < 0) {
       temp = 360 + temp;
     }
+    if (temp != this.rotationDegrees) {
+      transformVersion++;
+    }
     this.rotationDegrees = temp;
   }
 
@@ -181,6 +225,9 @@ final class LayerDelegate {
    * @param alpha the new alpha.
    */
   void setAlpha(double alpha) {
+    if (Double.compare(alpha, this.alpha) != 0) {
+      transformVersion++;
+    }
     this.alpha = alpha;
   }
 
@@ -3,6 +3,8 @@ package chalmers.pimp.model.canvas.layer;
 import chalmers.pimp.model.color.Colors;
 import chalmers.pimp.model.color.IColor;
 import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IRasterDataLoader;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 
 /**
  * The {@code LayerFactory} class is a factory for creating instances of the {@code ILayer}
@@ -50,6 +52,30 @@ public final class LayerFactory {
     return new Raster(rasterData, name);
   }
 
+  /**
+   * Creates and returns a raster layer whose raster data is loaded by the supplied loader, the
+   * first time that the pixels of the layer are drawn, edited or read. Copies of the created layer
+   * share the loaded raster data until they are modified, so the raster data is loaded only once.
+   *
+   * @param width     the width of the raster data that will be loaded.
+   * @param height    the height of the raster data that will be loaded.
+   * @param loader    the loader that loads the raster data.
+   * @param thumbnail a downscaled version of the raster data, which is returned by {@link
+   *                  IRasterLayer#getThumbnail()} until the raster data is loaded, may be {@code
+   *                  null}.
+   * @param name      the name of the layer.
+   * @return a raster layer that loads its raster data lazily.
+   * @throws NullPointerException      if the supplied loader or name is {@code null}.
+   * @throws IndexOutOfBoundsException if the supplied dimensions aren't greater than zero.
+   */
+  public static ILayer createRasterLayer(int width, int height, IRasterDataLoader loader,
+      IReadOnlyRasterData thumbnail, String name) {
+    if ((width < 1) || (height < 1)) {
+      throw new IndexOutOfBoundsException("Invalid raster size: " + width + "x" + height);
+    }
+    return new Raster(new RasterSource(width, height, loader, thumbnail), name);
+  }
+
   /**
    * Creates and returns a layer that is a rectangle.
    *
@@ -2,21 +2,42 @@ package chalmers.pimp.model.canvas.layer;
 
 import chalmers.pimp.model.IRenderer;
 import chalmers.pimp.model.Point;
+import chalmers.pimp.model.pixeldata.DabMask;
 import chalmers.pimp.model.pixeldata.IPixel;
 import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
+import chalmers.pimp.model.pixeldata.IRasterSnapshot;
 import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 import chalmers.pimp.model.pixeldata.RasterDataFactory;
 import chalmers.pimp.model.viewport.IReadOnlyViewport;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * The {@code Raster} class is an implementation of the {@code IRasterLayer} interface that
  * represents a layer that contains an arbitrary collection of pixels.
+ *
+ * <p>The pixels of a raster may be loaded lazily from a {@link RasterSource}, in which case they
+ * are loaded the first time that they are drawn, edited or read. Until then, only the size and the
+ * thumbnail of the raster are available.
+ *
+ * <p>Copies of a raster share its pixels, which makes copies cheap, e.g. when layers are exported,
+ * saved or stored by commands. Shared pixels are never modified, so they can safely be read by
+ * other threads. A raster that is edited while its pixels are shared switches to a copy of them
+ * first, which continues the version and the changed regions of the shared pixels. The rasters
+ * that share pixels are only weakly referenced, so once the other rasters have been discarded, a
+ * raster edits its pixels in place again.
  */
 final class Raster implements IRasterLayer {
 
   private final LayerDelegate layerDelegate;
-  private final IRasterData rasterData;
+  private final int width;
+  private final int height;
+  private volatile IRasterData rasterData;
+  private RasterSource source;
+  private SharedPixels sharedPixels;
 
   /**
    * @param width  the width of the raster.
@@ -26,6 +47,8 @@ final class Raster implements IRasterLayer {
     layerDelegate = new LayerDelegate(LayerType.RASTER);
     layerDelegate.setName("Raster");
     rasterData = RasterDataFactory.createRasterData(width, height);
+    this.width = rasterData.getWidth();
+    this.height = rasterData.getHeight();
   }
 
   /**
@@ -36,6 +59,8 @@ final class Raster implements IRasterLayer {
    */
   Raster(IRasterData rasterData) {
     this.rasterData = Objects.requireNonNull(rasterData);
+    width = rasterData.getWidth();
+    height = rasterData.getHeight();
     layerDelegate = new LayerDelegate(LayerType.RASTER);
     layerDelegate.setName("Import");
   }
@@ -49,29 +74,158 @@ final class Raster implements IRasterLayer {
    */
   Raster(IRasterData rasterData, String pixelDataName) {
     this.rasterData = Objects.requireNonNull(rasterData);
+    width = rasterData.getWidth();
+    height = rasterData.getHeight();
     layerDelegate = new LayerDelegate(LayerType.RASTER);
     layerDelegate.setName(Objects.requireNonNull(pixelDataName));
   }
 
   /**
-   * Creates a copy of the supplied raster instance.
+   * Creates a raster whose pixels are loaded from the supplied source, when they are first needed.
+   *
+   * @param source the source of the pixels.
+   * @param name   the name of the new raster.
+   * @throws NullPointerException if any references are {@code null}.
+   */
+  Raster(RasterSource source, String name) {
+    this.source = Objects.requireNonNull(source);
+    width = source.getWidth();
+    height = source.getHeight();
+    layerDelegate = new LayerDelegate(LayerType.RASTER);
+    layerDelegate.setName(Objects.requireNonNull(name));
+  }
+
+  /**
+   * Creates a copy of the supplied raster instance. The copy shares the pixels of the supplied
+   * raster. If the pixels of the supplied raster haven't been loaded yet, the copy shares the
+   * source of the pixels instead.
    *
    * @param raster the raster that will be copied.
    * @throws NullPointerException if the supplied raster is {@code null}.
    */
   private Raster(Raster raster) {
     Objects.requireNonNull(raster);
-    rasterData = RasterDataFactory.createRasterData(raster.rasterData);
+    synchronized (raster) {
+      if (raster.rasterData != null) {
+        if (raster.sharedPixels == null) {
+          raster.sharedPixels = new SharedPixels(raster);
+        }
+        rasterData = raster.rasterData;
+        sharedPixels = raster.sharedPixels;
+        sharedPixels.add(this);
+      } else {
+        source = raster.source;
+      }
+    }
+    width = raster.width;
+    height = raster.height;
     layerDelegate = new LayerDelegate(raster.layerDelegate);
   }
 
+  /**
+   * Returns the pixels of this raster, loading them from the source if necessary. The returned
+   * pixels may be shared with other rasters, and must not be modified.
+   *
+   * @return the pixels of this raster.
+   * @throws java.io.UncheckedIOException if the pixels couldn't be loaded.
+   */
+  private IRasterData getRasterData() {
+    IRasterData pixels = rasterData;
+    if (pixels == null) {
+      synchronized (this) {
+        if (rasterData == null) {
+          rasterData = RasterDataFactory.createRasterData(source.load());
+          source = null;
+        }
+        pixels = rasterData;
+      }
+    }
+    return pixels;
+  }
+
+  /**
+   * Returns the pixels of this raster for editing. The pixels are loaded from the source if
+   * necessary. If the pixels are shared with another raster, this raster switches to a copy of
+   * them, so that no other raster is affected by the edit.
+   *
+   * @return the pixels of this raster, which aren't shared with any other raster.
+   * @throws java.io.UncheckedIOException if the pixels couldn't be loaded.
+   */
+  private IRasterData getWritableRasterData() {
+    getRasterData();
+    synchronized (this) {
+      if ((sharedPixels != null) && sharedPixels.remove(this)) {
+        rasterData = RasterDataFactory.createTrackedCopy(rasterData);
+      }
+      sharedPixels = null;
+      return rasterData;
+    }
+  }
+
   @Override
   public void setPixel(IPixel pixel) {
-    rasterData.setPixel(pixel);
+    getWritableRasterData().setPixel(pixel);
+    layerDelegate.incrementContentVersion();
+  }
+
+  @Override
+  public void stampDab(DabMask dab, int centerX, int centerY, int argb) {
+    Objects.requireNonNull(dab);
+    dab.stamp(getWritableRasterData(), centerX, centerY, argb);
+    layerDelegate.incrementContentVersion();
+  }
+
+  @Override
+  public void fillRect(int x, int y, int width, int height, int argb) {
+    getWritableRasterData().fillRect(x, y, width, height, argb);
+    layerDelegate.incrementContentVersion();
+  }
+
+  @Override
+  public void copyRegion(IReadOnlyRasterData source, int x, int y) {
+    getWritableRasterData().copyRegion(source, 0, 0, source.getWidth(), source.getHeight(), x, y);
+    layerDelegate.incrementContentVersion();
+  }
+
+  @Override
+  public void blitWithAlpha(IReadOnlyRasterData source, int x, int y) {
+    getWritableRasterData().blitWithAlpha(source, 0, 0, source.getWidth(), source.getHeight(), x,
+        y);
+    layerDelegate.incrementContentVersion();
   }
 
+  @Override
   public IReadOnlyRasterData getPixelData() {
-    return rasterData;
+    return getRasterData();
+  }
+
+  @Override
+  public synchronized IReadOnlyRasterData getThumbnail() {
+    return (source != null) ? source.getThumbnail() : null;
+  }
+
+  @Override
+  public boolean isLoaded() {
+    return rasterData != null;
+  }
+
+  @Override
+  public IRasterDelta createDelta(IRasterSnapshot before) {
+    return before.createDelta(getRasterData());
+  }
+
+  @Override
+  public void applyDelta(IRasterDelta delta) {
+    Objects.requireNonNull(delta);
+    delta.apply(getWritableRasterData());
+    layerDelegate.incrementContentVersion();
+  }
+
+  @Override
+  public void revertDelta(IRasterDelta delta) {
+    Objects.requireNonNull(delta);
+    delta.revert(getWritableRasterData());
+    layerDelegate.incrementContentVersion();
   }
 
   @Override
@@ -119,14 +273,24 @@ final class Raster implements IRasterLayer {
     return layerDelegate.getAlpha();
   }
 
+  @Override
+  public long getContentVersion() {
+    return layerDelegate.getContentVersion();
+  }
+
+  @Override
+  public long getTransformVersion() {
+    return layerDelegate.getTransformVersion();
+  }
+
   @Override
   public int getWidth() {
-    return rasterData.getWidth();
+    return width;
   }
 
   @Override
   public int getHeight() {
-    return rasterData.getHeight();
+    return height;
   }
 
   @Override
@@ -177,7 +341,7 @@ final class Raster implements IRasterLayer {
 
       int drawX = viewport.getTranslatedX(getX());
       int drawY = viewport.getTranslatedY(getY());
-      renderer.drawImage(rasterData, drawX, drawY);
+      renderer.drawImage(getRasterData(), drawX, drawY);
 
       renderer.endTransform();
     }
@@ -185,7 +349,7 @@ final class Raster implements IRasterLayer {
 
   @Override
   public int hashCode() {
-    return Objects.hash(layerDelegate, rasterData);
+    return Objects.hash(layerDelegate, getRasterData());
   }
 
   @Override
@@ -199,16 +363,56 @@ final class Raster implements IRasterLayer {
 
     var raster = (Raster) object;
 
-    return layerDelegate.equals(raster.layerDelegate) && rasterData.equals(raster.rasterData);
+    return layerDelegate.equals(raster.layerDelegate)
+        && getRasterData().equals(raster.getRasterData());
   }
 
   @Override
   public IRasterLayer clone() {
-    try {
-      var clone = (Raster) super.clone();
-      return new Raster(clone);
-    } catch (Exception e) {
-      throw new IllegalStateException(e);
+    // Both rasters must know that the pixels are shared, so this raster is copied directly
+    return new Raster(this);
+  }
+
+  /**
+   * The {@code SharedPixels} class keeps track of the rasters that share the same pixels. The
+   * rasters are weakly referenced, so that discarded rasters don't count as sharing the pixels.
+   */
+  private static final class SharedPixels {
+
+    private final List<WeakReference<Raster>> rasters;
+
+    /**
+     * @param raster the raster whose pixels are shared.
+     */
+    private SharedPixels(Raster raster) {
+      rasters = new ArrayList<>(2);
+      rasters.add(new WeakReference<>(raster));
+    }
+
+    /**
+     * Adds the supplied raster to the rasters that share the pixels. Discarded rasters are removed
+     * along the way.
+     *
+     * @param raster the raster that shares the pixels.
+     */
+    private synchronized void add(Raster raster) {
+      rasters.removeIf(reference -> reference.get() == null);
+      rasters.add(new WeakReference<>(raster));
+    }
+
+    /**
+     * Removes the supplied raster from the rasters that share the pixels, e.g. because it's about
+     * to edit them. Discarded rasters are removed along the way.
+     *
+     * @param raster the raster that stops sharing the pixels.
+     * @return {@code true} if any other raster still shares the pixels; {@code false} otherwise.
+     */
+    private synchronized boolean remove(Raster raster) {
+      rasters.removeIf(reference -> {
+        Raster other = reference.get();
+        return (other == null) || (other == raster);
+      });
+      return !rasters.isEmpty();
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package chalmers.pimp.model.canvas.layer;
+
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IRasterDataLoader;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * The {@code RasterSource} class represents the pixels of a raster layer that haven't been loaded
+ * yet. A raster source is shared by a raster and all of its copies, so that the pixels are only
+ * loaded once, regardless of which copy is accessed first. The pixels are loaded at most once, and
+ * the loader is released afterwards.
+ */
+final class RasterSource {
+
+  private final int width;
+  private final int height;
+  private final IReadOnlyRasterData thumbnail;
+  private IRasterDataLoader loader;
+  private IRasterData rasterData;
+
+  /**
+   * @param width     the width of the pixels that will be loaded.
+   * @param height    the height of the pixels that will be loaded.
+   * @param loader    the loader that loads the pixels.
+   * @param thumbnail a downscaled version of the pixels, may be {@code null}.
+   * @throws NullPointerException if the supplied loader is {@code null}.
+   */
+  RasterSource(int width, int height, IRasterDataLoader loader, IReadOnlyRasterData thumbnail) {
+    this.width = width;
+    this.height = height;
+    this.loader = Objects.requireNonNull(loader);
+    this.thumbnail = thumbnail;
+  }
+
+  /**
+   * Returns the pixels, loading them if they haven't been loaded yet. The returned raster data is
+   * shared by all rasters that use this source, and must be copied before it's modified.
+   *
+   * @return the loaded pixels.
+   * @throws UncheckedIOException if the pixels couldn't be loaded, or if the loaded pixels don't
+   *                              have the expected size.
+   */
+  synchronized IReadOnlyRasterData load() {
+    if (rasterData == null) {
+      try {
+        IRasterData loaded = loader.load();
+        if ((loaded.getWidth() != width) || (loaded.getHeight() != height)) {
+          throw new IOException("Unexpected raster size: " + loaded.getWidth() + "x"
+              + loaded.getHeight());
+        }
+        rasterData = loaded;
+        loader = null;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return rasterData;
+  }
+
+  /**
+   * Returns the width of the pixels.
+   *
+   * @return the width of the pixels.
+   */
+  int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the pixels.
+   *
+   * @return the height of the pixels.
+   */
+  int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns a downscaled version of the pixels, which is available without loading the pixels.
+   *
+   * @return the thumbnail of the pixels; {@code null} if there is no thumbnail.
+   */
+  IReadOnlyRasterData getThumbnail() {
+    return thumbnail;
+  }
+}
@@ -98,6 +98,16 @@ final class Rectangle implements ILayer, IColorable {
     return layerDelegate.getAlpha();
   }
 
+  @Override
+  public long getContentVersion() {
+    return layerDelegate.getContentVersion();
+  }
+
+  @Override
+  public long getTransformVersion() {
+    return layerDelegate.getTransformVersion();
+  }
+
   @Override
   public int getWidth() {
     return width;
@@ -205,5 +215,6 @@ final class Rectangle implements ILayer, IColorable {
   @Override
   public void setColor(IColor color) {
     this.color = Objects.requireNonNull(color);
+    layerDelegate.incrementContentVersion();
   }
 }
@@ -43,4 +43,15 @@ public final class ColorFactory {
   public static IColor createColor(int red, int green, int blue) {
     return new ColorImpl(red, green, blue, IColor.MAX_VALUE);
   }
-}
+
+  /**
+   * Creates and returns a color based on the supplied packed ARGB value. The alpha component is
+   * expected to occupy the most significant byte.
+   *
+   * @param argb the packed ARGB value, with eight bits per component.
+   * @return a color specified by the supplied packed ARGB value.
+   */
+  public static IColor createColorFromArgb(int argb) {
+    return new ColorImpl((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, (argb >>> 24));
+  }
+}
\ No newline at end of file
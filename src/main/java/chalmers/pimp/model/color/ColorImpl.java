@@ -170,6 +170,11 @@ final class ColorImpl implements IColor {
     return getPercentage(alpha);
   }
 
+  @Override
+  public int toArgb() {
+    return (alpha << 24) | (red << 16) | (green << 8) | blue;
+  }
+
   @Override
   public int hashCode() {
     return Objects.hash(red, green, blue, alpha);
@@ -155,4 +155,12 @@ public interface IColor {
    * @return the alpha percentage.
    */
   double getAlphaPercentage();
-}
+
+  /**
+   * Returns this color packed into a single integer in the ARGB order, with eight bits per
+   * component. The alpha component occupies the most significant byte.
+   *
+   * @return this color packed into a single ARGB integer.
+   */
+  int toArgb();
+}
\ No newline at end of file
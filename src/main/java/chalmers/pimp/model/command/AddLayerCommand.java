@@ -1,43 +1,53 @@
 package chalmers.pimp.model.command;
 
-import chalmers.pimp.model.IMementoTarget;
-import chalmers.pimp.model.ModelMemento;
 import chalmers.pimp.model.canvas.ICanvas;
 import chalmers.pimp.model.canvas.layer.ILayer;
 import java.util.Objects;
 
 /**
- * The {@code AddLayerCommand} class is a subclass of {@code AbstractCommand} that represents the
- * action of adding a layer.
+ * The {@code AddLayerCommand} class is an implementation of the {@code ICommand} interface that
+ * represents the action of adding a layer. The command is reverted by removing the added layer and
+ * restoring the previous layer selection.
  *
- * @see AbstractCommand
  * @see ICommand
  */
-final class AddLayerCommand extends AbstractCommand {
+final class AddLayerCommand implements ICommand {
 
   private final ICanvas canvas;
   private final ILayer layer;
+  private int layerIndex;
+  private int previousActiveLayerIndex;
 
   /**
-   * @param canvas        the associated canvas instance.
-   * @param mementoTarget the memento target that will be used.
-   * @param layer         the layer that will be added.
+   * @param canvas the associated canvas instance.
+   * @param layer  the layer that will be added.
    * @throws NullPointerException if any references are {@code null}.
    */
-  AddLayerCommand(ICanvas canvas, IMementoTarget<ModelMemento> mementoTarget, ILayer layer) {
-    super(mementoTarget);
+  AddLayerCommand(ICanvas canvas, ILayer layer) {
     this.canvas = Objects.requireNonNull(canvas);
     this.layer = Objects.requireNonNull(layer);
   }
 
   @Override
   public void execute() {
-    updateModelMemento();
+    previousActiveLayerIndex = CommandUtils.getActiveLayerIndex(canvas);
+    layerIndex = canvas.getAmountOfLayers();
     canvas.addLayer(layer.clone());
   }
 
+  @Override
+  public void revert() {
+    canvas.removeLayer(layerIndex);
+    canvas.selectLayer(previousActiveLayerIndex);
+  }
+
   @Override
   public String getName() {
     return "Add Layer";
   }
-}
\ No newline at end of file
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE + CommandUtils.sizeOf(layer);
+  }
+}
@@ -1,43 +1,67 @@
 package chalmers.pimp.model.command;
 
-import chalmers.pimp.model.IMementoTarget;
-import chalmers.pimp.model.ModelMemento;
 import chalmers.pimp.model.color.IColor;
 import chalmers.pimp.model.color.colormodel.IColorModel;
 import java.util.Objects;
 
 /**
- * The {@code ChangeColorCommand} class represents the action of changing the canvas color.
+ * The {@code ChangeColorCommand} class is an implementation of the {@code ICommand} interface that
+ * represents the action of changing the color. Consecutive color changes can be merged, e.g. while
+ * a color is being picked.
  *
- * @see AbstractCommand
  * @see ICommand
  */
-final class ChangeColorCommand extends AbstractCommand {
+final class ChangeColorCommand implements IMergeableCommand {
 
   private final IColorModel colorModel;
-  private final IColor color;
+  private IColor color;
+  private IColor previousColor;
 
   /**
-   * @param colorModel    the representation of the color in the model.
-   * @param mementoTarget the memento target that will be used.
-   * @param color         the mew color.
+   * @param colorModel the representation of the color in the model.
+   * @param color      the mew color.
    * @throws NullPointerException if any references are {@code null}.
    */
-  ChangeColorCommand(IColorModel colorModel, IMementoTarget<ModelMemento> mementoTarget,
-      IColor color) {
-    super(mementoTarget);
+  ChangeColorCommand(IColorModel colorModel, IColor color) {
     this.colorModel = Objects.requireNonNull(colorModel);
     this.color = Objects.requireNonNull(color);
   }
 
   @Override
   public void execute() {
-    updateModelMemento();
+    previousColor = colorModel.getColor();
     colorModel.setColor(color);
   }
 
+  @Override
+  public void revert() {
+    if (previousColor != null) {
+      colorModel.setColor(previousColor);
+    }
+  }
+
+  @Override
+  public boolean canMergeWith(ICommand command) {
+    Objects.requireNonNull(command);
+    return (command instanceof ChangeColorCommand)
+        && (((ChangeColorCommand) command).colorModel == colorModel);
+  }
+
+  @Override
+  public void mergeWith(ICommand command) {
+    if (!canMergeWith(command)) {
+      throw new IllegalArgumentException("Cannot merge with command: " + command.getName());
+    }
+    color = ((ChangeColorCommand) command).color;
+  }
+
   @Override
   public String getName() {
     return "Change color";
   }
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE;
+  }
 }
@@ -1,46 +1,64 @@
 package chalmers.pimp.model.command;
 
-import chalmers.pimp.model.IMementoTarget;
-import chalmers.pimp.model.ModelMemento;
 import chalmers.pimp.model.canvas.ICanvas;
 import java.util.Objects;
 
 /**
- * The {@code ChangeLayerDepthCommand} class is a subclass of {@code AbstractCommand} that
- * represents the action of rearranging the z-order a layer.
+ * The {@code ChangeLayerDepthCommand} class is an implementation of the {@code ICommand} interface
+ * that represents the action of changing the z-value of a layer. The command is reverted by moving
+ * the layer back by the same offset.
  *
- * @see AbstractCommand
  * @see ICommand
  */
-final class ChangeLayerDepthCommand extends AbstractCommand {
+final class ChangeLayerDepthCommand implements ICommand {
 
   private final ICanvas canvas;
   private final int baseDepthIndex;
   private final int dz;
+  private boolean isApplied;
 
   /**
    * @param canvas         the associated canvas instance.
-   * @param mementoTarget  the memento target that will be used.
    * @param baseDepthIndex the layer depth index of the layer that will be "moved".
    * @param dz             the delta z value (the offset), may be either negative or positive.
    * @throws NullPointerException if any references are {@code null}.
    */
-  ChangeLayerDepthCommand(ICanvas canvas, IMementoTarget<ModelMemento> mementoTarget,
-      int baseDepthIndex, int dz) {
-    super(mementoTarget);
+  ChangeLayerDepthCommand(ICanvas canvas, int baseDepthIndex, int dz) {
     this.canvas = Objects.requireNonNull(canvas);
     this.baseDepthIndex = baseDepthIndex;
     this.dz = dz;
   }
 
+  /**
+   * Indicates whether or not the supplied index is associated with a layer in the canvas.
+   *
+   * @param index the index that will be checked.
+   * @return {@code true} if the index is in bounds; {@code false} otherwise.
+   */
+  private boolean inBounds(int index) {
+    return (index >= 0) && (index < canvas.getAmountOfLayers());
+  }
+
   @Override
   public void execute() {
-    updateModelMemento();
+    isApplied = (dz != 0) && inBounds(baseDepthIndex) && inBounds(baseDepthIndex + dz);
     canvas.changeDepthIndex(baseDepthIndex, dz);
   }
 
+  @Override
+  public void revert() {
+    if (isApplied) {
+      canvas.changeDepthIndex(baseDepthIndex + dz, -dz);
+    }
+  }
+
   @Override
   public String getName() {
     return "Rearranged Layers";
   }
-}
\ No newline at end of file
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE;
+  }
+}
@@ -0,0 +1,51 @@
+package chalmers.pimp.model.command;
+
+import chalmers.pimp.model.canvas.ICanvas;
+import java.util.Objects;
+
+/**
+ * The {@code ChangeLayerVisibilityCommand} class is an implementation of the {@code ICommand}
+ * interface that represents the action of showing or hiding a layer.
+ *
+ * @see ICommand
+ */
+final class ChangeLayerVisibilityCommand implements ICommand {
+
+  private final ICanvas canvas;
+  private final int layerDepthIndex;
+  private final boolean isVisible;
+  private boolean wasVisible;
+
+  /**
+   * @param canvas          the associated canvas instance.
+   * @param layerDepthIndex the layer depth index of the affected layer.
+   * @param isVisible       {@code true} if the layer should be visible; {@code false} otherwise.
+   * @throws NullPointerException if any references are {@code null}.
+   */
+  ChangeLayerVisibilityCommand(ICanvas canvas, int layerDepthIndex, boolean isVisible) {
+    this.canvas = Objects.requireNonNull(canvas);
+    this.layerDepthIndex = layerDepthIndex;
+    this.isVisible = isVisible;
+  }
+
+  @Override
+  public void execute() {
+    wasVisible = canvas.isLayerVisible(layerDepthIndex);
+    canvas.setLayerVisibility(layerDepthIndex, isVisible);
+  }
+
+  @Override
+  public void revert() {
+    canvas.setLayerVisibility(layerDepthIndex, wasVisible);
+  }
+
+  @Override
+  public String getName() {
+    return isVisible ? "Show Layer" : "Hide Layer";
+  }
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE;
+  }
+}
@@ -1,9 +1,7 @@
 package chalmers.pimp.model.command;
 
-import chalmers.pimp.model.IMementoTarget;
 import chalmers.pimp.model.LayerMovement;
 import chalmers.pimp.model.LayerRotation;
-import chalmers.pimp.model.ModelMemento;
 import chalmers.pimp.model.Stroke;
 import chalmers.pimp.model.canvas.ICanvas;
 import chalmers.pimp.model.canvas.layer.ILayer;
@@ -24,118 +22,129 @@ public final class CommandFactory {
   /**
    * Creates and returns a command that represents the action of performing a pixel stroke.
    *
-   * @param canvas        the associated canvas instance.
-   * @param mementoTarget the memento target that will be used.
-   * @param stroke        the stroke instance that describes the stroke.
+   * @param canvas the associated canvas instance.
+   * @param stroke the stroke instance that describes the stroke, will be finished by this method.
    * @return a command that represents the action of performing a pixel stroke.
    * @throws NullPointerException if any references are {@code null}.
    */
-  public static ICommand createStrokeCommand(ICanvas canvas,
-      IMementoTarget<ModelMemento> mementoTarget, Stroke stroke) {
-    return new StrokeCommand(canvas, mementoTarget, stroke);
+  public static ICommand createStrokeCommand(ICanvas canvas, Stroke stroke) {
+    return new StrokeCommand(canvas, stroke);
   }
 
   /**
    * Creates and returns a command that represents the action of moving a layer.
    *
    * @param canvas          the associated canvas instance.
-   * @param mementoTarget   the memento target that will be used.
    * @param layerDepthIndex the layer depth index of the affected layer.
    * @param movement        the layer movement instance that describes the movement.
    * @return a command that represents the action of moving a layer.
    * @throws NullPointerException if any references are {@code null}.
    */
-  public static ICommand createMoveCommand(ICanvas canvas,
-      IMementoTarget<ModelMemento> mementoTarget, int layerDepthIndex, LayerMovement movement) {
-    return new MoveCommand(canvas, mementoTarget, layerDepthIndex, movement);
+  public static ICommand createMoveCommand(ICanvas canvas, int layerDepthIndex,
+      LayerMovement movement) {
+    return new MoveCommand(canvas, layerDepthIndex, movement);
   }
 
   /**
    * Creates and returns a command that represents the action of rotating a layer.
    *
    * @param canvas          the associated canvas instance.
-   * @param mementoTarget   the memento target that will be used.
    * @param layerDepthIndex the layer depth index of the affected layer.
    * @param rotate          the layer rotate instance that describes the rotation.
    * @return a command that represents the action of rotating a layer.
    * @throws NullPointerException if any references are {@code null}.
    */
-  public static ICommand createRotateCommand(ICanvas canvas,
-      IMementoTarget<ModelMemento> mementoTarget, int layerDepthIndex, LayerRotation rotate) {
-    return new RotateCommand(canvas, mementoTarget, layerDepthIndex, rotate);
+  public static ICommand createRotateCommand(ICanvas canvas, int layerDepthIndex,
+      LayerRotation rotate) {
+    return new RotateCommand(canvas, layerDepthIndex, rotate);
   }
 
   /**
    * Creates and returns a command that represents the action of adding a layer.
    *
-   * @param canvas        the associated canvas instance.
-   * @param mementoTarget the memento target that will be used.
-   * @param layer         the layer that will be added.
+   * @param canvas the associated canvas instance.
+   * @param layer  the layer that will be added.
    * @return a command that represents the action of adding a layer.
    * @throws NullPointerException if any references are {@code null}.
    */
-  public static ICommand createAddLayerCommand(ICanvas canvas,
-      IMementoTarget<ModelMemento> mementoTarget, ILayer layer) {
-    return new AddLayerCommand(canvas, mementoTarget, layer);
+  public static ICommand createAddLayerCommand(ICanvas canvas, ILayer layer) {
+    return new AddLayerCommand(canvas, layer);
   }
 
   /**
    * Creates and returns a command that represents the action of removing a layer.
    *
    * @param canvas          the associated canvas instance.
-   * @param mementoTarget   the memento target that will be used.
    * @param layerDepthIndex the layer depth index of the layer that will be removed.
    * @return a command that represents the action of removing a layer.
    * @throws NullPointerException if any references are {@code null}.
    */
-  public static ICommand createRemoveLayerCommand(ICanvas canvas,
-      IMementoTarget<ModelMemento> mementoTarget, int layerDepthIndex) {
-    return new RemoveLayerCommand(canvas, mementoTarget, layerDepthIndex);
+  public static ICommand createRemoveLayerCommand(ICanvas canvas, int layerDepthIndex) {
+    return new RemoveLayerCommand(canvas, layerDepthIndex);
   }
 
   /**
    * Creates and returns a command that represents the action of selecting a command.
    *
    * @param canvas           the associated canvas instance.
-   * @param mementoTarget    the memento target that will be used.
    * @param targetLayerIndex the layer depth index of the layer that will be selected.
    * @return a command that represents the action of selecting a command.
    * @throws NullPointerException if any references are {@code null}.
    */
-  public static ICommand createLayerSelectionCommand(ICanvas canvas,
-      IMementoTarget<ModelMemento> mementoTarget, int targetLayerIndex) {
-    return new LayerSelectionCommand(canvas, mementoTarget, targetLayerIndex);
+  public static ICommand createLayerSelectionCommand(ICanvas canvas, int targetLayerIndex) {
+    return new LayerSelectionCommand(canvas, targetLayerIndex);
   }
 
   /**
    * Creates and returns a command that represents the action of changing the z-value of a layer.
    *
    * @param canvas         the associated canvas instance.
-   * @param mementoTarget  the memento target that will be used.
    * @param baseDepthIndex the layer depth index of the layer that will be "moved".
    * @param dz             the delta z value (the offset), may be either negative or positive.
    * @return a command that represents the action of changing the z-value of a layer.
    * @throws NullPointerException if any references are {@code null}.
    */
-  public static ICommand createChangeLayerDepthCommand(ICanvas canvas,
-      IMementoTarget<ModelMemento> mementoTarget, int baseDepthIndex, int dz) {
-    return new ChangeLayerDepthCommand(canvas, mementoTarget, baseDepthIndex, dz);
+  public static ICommand createChangeLayerDepthCommand(ICanvas canvas, int baseDepthIndex, int dz) {
+    return new ChangeLayerDepthCommand(canvas, baseDepthIndex, dz);
   }
 
   /**
    * Creates and returns a command that represents the action of changing the color.
    *
-   * @param mementoTarget the memento target that will be used.
-   * @param colorModel    the color model.
-   * @param color         the new color.
+   * @param colorModel the color model.
+   * @param color      the new color.
    * @return a command that represents the action of changing the color.
    * @throws NullPointerException if any references are {@code null}.
    */
-  public static ICommand createChangeColorCommand(
-      IColorModel colorModel,
-      IMementoTarget<ModelMemento> mementoTarget,
-      IColor color
-  ) {
-    return new ChangeColorCommand(colorModel, mementoTarget, color);
+  public static ICommand createChangeColorCommand(IColorModel colorModel, IColor color) {
+    return new ChangeColorCommand(colorModel, color);
   }
-}
\ No newline at end of file
+
+  /**
+   * Creates and returns a command that represents the action of renaming a layer.
+   *
+   * @param canvas          the associated canvas instance.
+   * @param layerDepthIndex the layer depth index of the layer that will be renamed.
+   * @param name            the new name of the layer.
+   * @return a command that represents the action of renaming a layer.
+   * @throws NullPointerException if any references are {@code null}.
+   */
+  public static ICommand createRenameLayerCommand(ICanvas canvas, int layerDepthIndex,
+      String name) {
+    return new RenameLayerCommand(canvas, layerDepthIndex, name);
+  }
+
+  /**
+   * Creates and returns a command that represents the action of showing or hiding a layer.
+   *
+   * @param canvas          the associated canvas instance.
+   * @param layerDepthIndex the layer depth index of the affected layer.
+   * @param isVisible       {@code true} if the layer should be visible; {@code false} otherwise.
+   * @return a command that represents the action of showing or hiding a layer.
+   * @throws NullPointerException if any references are {@code null}.
+   */
+  public static ICommand createChangeLayerVisibilityCommand(ICanvas canvas, int layerDepthIndex,
+      boolean isVisible) {
+    return new ChangeLayerVisibilityCommand(canvas, layerDepthIndex, isVisible);
+  }
+}
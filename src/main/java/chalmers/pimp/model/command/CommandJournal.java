@@ -0,0 +1,249 @@
+package chalmers.pimp.model.command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The {@code CommandJournal} class is a temporary file, used by the command manager to move the
+ * state of old commands out of the heap. All data is compressed before it's written. The space of
+ * released entries is reused by later entries, and the file is truncated when its tail is released,
+ * so the file doesn't grow when commands are repeatedly loaded and offloaded. The file is created
+ * when the first entry is stored, and is deleted when the journal is closed or when the
+ * application exits.
+ *
+ * @see CommandManager
+ */
+final class CommandJournal {
+
+  private final Path directory;
+
+  /**
+   * The released regions of the file, mapped from their offsets to their lengths. Adjacent
+   * regions are always coalesced, and the tail of the file is never free.
+   */
+  private final TreeMap<Long, Long> freeRegions;
+  private FileChannel channel;
+  private long size;
+
+  /**
+   * @param directory the directory in which the journal file will be created.
+   * @throws NullPointerException if the supplied directory is {@code null}.
+   */
+  CommandJournal(Path directory) {
+    this.directory = Objects.requireNonNull(directory);
+    freeRegions = new TreeMap<>();
+  }
+
+  /**
+   * Returns the channel of the journal file, creating the file if necessary.
+   *
+   * @return the channel of the journal file.
+   * @throws IOException if the file couldn't be created.
+   */
+  private FileChannel getChannel() throws IOException {
+    if (channel == null) {
+      Path file = Files.createTempFile(directory, "pimp-history", ".journal");
+      file.toFile().deleteOnExit();
+      channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+          StandardOpenOption.DELETE_ON_CLOSE);
+    }
+    return channel;
+  }
+
+  /**
+   * Allocates a region of the supplied length in the file. The first released region that is large
+   * enough is reused, otherwise the region is appended to the file.
+   *
+   * @param length the length of the region.
+   * @return the offset of the allocated region.
+   */
+  private long allocate(int length) {
+    for (Map.Entry<Long, Long> region : freeRegions.entrySet()) {
+      if (region.getValue() >= length) {
+        long offset = region.getKey();
+        freeRegions.remove(offset);
+        if (region.getValue() > length) {
+          freeRegions.put(offset + length, region.getValue() - length);
+        }
+        return offset;
+      }
+    }
+
+    long offset = size;
+    size += length;
+    return offset;
+  }
+
+  /**
+   * Compresses the supplied data and stores it in the journal.
+   *
+   * @param data the data that will be stored.
+   * @return an entry that can be used to load the data.
+   * @throws NullPointerException if the supplied data is {@code null}.
+   * @throws UncheckedIOException if the data couldn't be written.
+   */
+  Entry store(byte[] data) {
+    Objects.requireNonNull(data);
+
+    var deflater = new Deflater(Deflater.BEST_SPEED);
+    deflater.setInput(data);
+    deflater.finish();
+
+    var compressed = new byte[Math.max(64, data.length / 2)];
+    int length = 0;
+    while (!deflater.finished()) {
+      if (length == compressed.length) {
+        var grown = new byte[compressed.length * 2];
+        System.arraycopy(compressed, 0, grown, 0, length);
+        compressed = grown;
+      }
+      length += deflater.deflate(compressed, length, compressed.length - length);
+    }
+    deflater.end();
+
+    try {
+      FileChannel fileChannel = getChannel();
+      long offset = allocate(length);
+      var buffer = ByteBuffer.wrap(compressed, 0, length);
+      try {
+        while (buffer.hasRemaining()) {
+          fileChannel.write(buffer, offset + buffer.position());
+        }
+      } catch (IOException e) {
+        release(new Entry(offset, length, data.length));
+        throw e;
+      }
+      return new Entry(offset, length, data.length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Releases the space of the supplied entry, so that it can be reused by other entries. The entry
+   * must not be used after this method has been invoked, and it must only be released once.
+   *
+   * @param entry the entry that will be released.
+   * @throws NullPointerException if the supplied entry is {@code null}.
+   */
+  void release(Entry entry) {
+    Objects.requireNonNull(entry);
+
+    long offset = entry.offset;
+    long end = offset + entry.compressedLength;
+
+    Map.Entry<Long, Long> previous = freeRegions.floorEntry(offset);
+    if ((previous != null) && ((previous.getKey() + previous.getValue()) == offset)) {
+      offset = previous.getKey();
+      freeRegions.remove(offset);
+    }
+
+    Long next = freeRegions.remove(end);
+    if (next != null) {
+      end += next;
+    }
+
+    if (end == size) {
+      size = offset;
+      try {
+        channel.truncate(size);
+      } catch (IOException e) {
+        // The file will be truncated the next time around
+      }
+    } else {
+      freeRegions.put(offset, end - offset);
+    }
+  }
+
+  /**
+   * Loads and decompresses the data associated with the supplied entry.
+   *
+   * @param entry the entry of the data.
+   * @return the stored data.
+   * @throws NullPointerException if the supplied entry is {@code null}.
+   * @throws UncheckedIOException if the data couldn't be read.
+   */
+  byte[] load(Entry entry) {
+    Objects.requireNonNull(entry);
+    try {
+      var buffer = ByteBuffer.allocate(entry.compressedLength);
+      while (buffer.hasRemaining()) {
+        if (getChannel().read(buffer, entry.offset + buffer.position()) < 0) {
+          throw new IOException("Unexpected end of journal");
+        }
+      }
+
+      var inflater = new Inflater();
+      inflater.setInput(buffer.array());
+      var data = new byte[entry.length];
+      int length = 0;
+      while ((length < data.length) && !inflater.finished()) {
+        length += inflater.inflate(data, length, data.length - length);
+      }
+      inflater.end();
+      return data;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (DataFormatException e) {
+      throw new UncheckedIOException(new IOException(e));
+    }
+  }
+
+  /**
+   * Discards all of the entries in the journal. Previously returned entries must not be used after
+   * this method has been invoked.
+   */
+  void clear() {
+    try {
+      if (channel != null) {
+        channel.truncate(0);
+      }
+      size = 0;
+      freeRegions.clear();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the current size of the journal file, including the space of released entries that
+   * hasn't been reused yet.
+   *
+   * @return the size of the journal, in bytes.
+   */
+  long getSize() {
+    return size;
+  }
+
+  /**
+   * The {@code Entry} class represents the location of some data stored in the journal.
+   */
+  static final class Entry {
+
+    private final long offset;
+    private final int compressedLength;
+    private final int length;
+
+    /**
+     * @param offset           the offset of the data in the journal file.
+     * @param compressedLength the length of the compressed data.
+     * @param length           the length of the uncompressed data.
+     */
+    private Entry(long offset, int compressedLength, int length) {
+      this.offset = offset;
+      this.compressedLength = compressedLength;
+      this.length = length;
+    }
+  }
+}
@@ -2,29 +2,85 @@ package chalmers.pimp.model.command;
 
 import chalmers.pimp.model.IChangeable;
 import chalmers.pimp.model.IUndoRedoListener;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.io.UncheckedIOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.function.LongSupplier;
 
 /**
  * The {@code CommandManager} class is responsible for handling instances of the {@link ICommand}
  * interface and tracking them in undo and redo stacks.
+ *
+ * <p>The history is bounded by a memory budget rather than by an amount of commands. When the
+ * commands in the undo and redo stacks use more heap memory than the budget allows, the state of
+ * the oldest commands is compressed and moved to a temporary journal file, from which it's loaded
+ * back when the commands are undone or redone. If there is nothing left to offload, the oldest
+ * commands are discarded. The journal is bounded by a disk budget in the same way, the oldest
+ * commands are discarded when the journal grows larger than the budget allows.
+ *
+ * <p>Mergeable commands that are inserted in quick succession are merged into a single entry, see
+ * {@link IMergeableCommand}, so that continuous edits such as picking a color don't flood the
+ * history.
  */
 public final class CommandManager implements IChangeable {
 
   /**
-   * The maximum amount of commands in either the undo or redo stack.
+   * The default memory budget of the history, 64 MB. Can be overridden with the {@code
+   * pimp.history.budget} system property.
    */
-  private static final int THRESHOLD = 25;
+  public static final long DEFAULT_BYTE_BUDGET = 64L * 1024 * 1024;
+
+  /**
+   * The default disk budget of the history, 256 MB. Can be overridden with the {@code
+   * pimp.history.diskBudget} system property.
+   */
+  public static final long DEFAULT_DISK_BUDGET = 256L * 1024 * 1024;
+
+  /**
+   * The max amount of time between two commands that are merged, in nanoseconds.
+   */
+  static final long MERGE_WINDOW = 1_000_000_000L;
 
   private final Deque<ICommand> undoDeque;
   private final Deque<ICommand> redoDeque;
   private final UndoRedoListenerComposite undoRedoListeners;
+  private final CommandJournal journal;
+  private final LongSupplier clock;
+  private ICommand lastInsertedCommand;
+  private long lastInsertTime;
+  private long byteBudget;
+  private long diskBudget;
 
   public CommandManager() {
-    undoDeque = new ArrayDeque<>(THRESHOLD);
-    redoDeque = new ArrayDeque<>(THRESHOLD);
+    this(Long.getLong("pimp.history.budget", DEFAULT_BYTE_BUDGET));
+    setDiskBudget(Long.getLong("pimp.history.diskBudget", DEFAULT_DISK_BUDGET));
+  }
+
+  /**
+   * @param byteBudget the max amount of heap memory that the history may use, in bytes.
+   * @throws IllegalArgumentException if the supplied budget is negative.
+   */
+  public CommandManager(long byteBudget) {
+    this(byteBudget, System::nanoTime);
+  }
+
+  /**
+   * @param byteBudget the max amount of heap memory that the history may use, in bytes.
+   * @param clock      the clock that times the insertions of commands, in nanoseconds.
+   * @throws NullPointerException     if the supplied clock is {@code null}.
+   * @throws IllegalArgumentException if the supplied budget is negative.
+   */
+  CommandManager(long byteBudget, LongSupplier clock) {
+    this.clock = Objects.requireNonNull(clock);
+    undoDeque = new ArrayDeque<>();
+    redoDeque = new ArrayDeque<>();
     undoRedoListeners = new UndoRedoListenerComposite();
+    journal = new CommandJournal(RasterDataFactory.getScratchDirectory());
+    diskBudget = DEFAULT_DISK_BUDGET;
+    setByteBudget(byteBudget);
   }
 
   /**
@@ -51,30 +107,263 @@ public final class CommandManager implements IChangeable {
   }
 
   /**
-   * Ensures that the supplied deque doesn't supercede the value of {@link
-   * CommandManager#THRESHOLD}.
+   * Returns the amount of heap memory currently used by the commands in the history.
+   *
+   * @return the approximate size of the history, in bytes.
+   */
+  long getSizeInBytes() {
+    long size = 0;
+    for (ICommand command : undoDeque) {
+      size += command.getSizeInBytes();
+    }
+    for (ICommand command : redoDeque) {
+      size += command.getSizeInBytes();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the oldest command in the supplied deque that can be offloaded.
+   *
+   * @param deque the deque that will be searched.
+   * @return the oldest offloadable command; {@code null} if there is no such command.
+   */
+  private IOffloadableCommand findOffloadable(Deque<ICommand> deque) {
+    Iterator<ICommand> iterator = deque.descendingIterator();
+    while (iterator.hasNext()) {
+      ICommand command = iterator.next();
+      if ((command instanceof IOffloadableCommand)
+          && ((IOffloadableCommand) command).canOffload()) {
+        return (IOffloadableCommand) command;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Releases the state that the supplied command has stored in the journal, if any.
+   *
+   * @param command the command that has been discarded.
+   */
+  private void release(ICommand command) {
+    if (command instanceof IOffloadableCommand) {
+      ((IOffloadableCommand) command).release();
+    }
+  }
+
+  /**
+   * Discards all of the commands in the supplied deque.
+   *
+   * @param deque the deque that will be cleared.
+   */
+  private void discardAll(Deque<ICommand> deque) {
+    for (ICommand command : deque) {
+      release(command);
+    }
+    deque.clear();
+  }
+
+  /**
+   * Discards the oldest command in the history. Commands in the undo stack are discarded before
+   * the ones in the redo stack, but the most recent undoable command is always kept.
+   *
+   * @return the discarded command; {@code null} if there was nothing to discard.
+   */
+  private ICommand discardOldest() {
+    ICommand command;
+    if (undoDeque.size() > 1) {
+      command = undoDeque.removeLast();
+    } else if (!redoDeque.isEmpty()) {
+      command = redoDeque.removeLast();
+    } else {
+      return null;
+    }
+    release(command);
+    return command;
+  }
+
+  /**
+   * Ensures that the history doesn't use more memory than the budget allows. The oldest commands
+   * are offloaded to the journal first, the redo stack is only used when the undo stack doesn't
+   * contain any offloadable commands. The oldest commands are discarded if offloading isn't enough,
+   * or if the journal exceeds the disk budget, but the most recent undoable command is always
+   * kept.
+   */
+  private void ensureBudget() {
+    long size = getSizeInBytes();
+    while (size > byteBudget) {
+      IOffloadableCommand command = findOffloadable(undoDeque);
+      if (command == null) {
+        command = findOffloadable(redoDeque);
+      }
+
+      if (command != null) {
+        try {
+          long before = command.getSizeInBytes();
+          command.offload(journal);
+          size -= before - command.getSizeInBytes();
+          continue;
+        } catch (UncheckedIOException e) {
+          // The journal isn't available, fall back to discarding commands
+        }
+      }
+
+      ICommand discarded = discardOldest();
+      if (discarded == null) {
+        break;
+      }
+      size -= discarded.getSizeInBytes();
+    }
+
+    while (journal.getSize() > diskBudget) {
+      if (discardOldest() == null) {
+        break;
+      }
+    }
+    clearJournalIfUnused();
+  }
+
+  /**
+   * Indicates whether or not the supplied deque contains commands with state in the journal.
    *
    * @param deque the deque that will be checked.
-   * @throws NullPointerException if any arguments are {@code null}.
+   * @return {@code true} if the deque contains offloaded commands; {@code false} otherwise.
+   */
+  private boolean hasOffloadedCommands(Deque<ICommand> deque) {
+    for (ICommand command : deque) {
+      if ((command instanceof IOffloadableCommand)
+          && ((IOffloadableCommand) command).isOffloaded()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Clears the journal if none of the commands in the history has state stored in it.
    */
-  private void ensureSize(Deque<?> deque) {
-    Objects.requireNonNull(deque);
-    while (deque.size() > THRESHOLD) {
-      deque.removeLast();
+  private void clearJournalIfUnused() {
+    if (journal.getSize() == 0) {
+      return;
+    }
+
+    if (hasOffloadedCommands(undoDeque) || hasOffloadedCommands(redoDeque)) {
+      return;
+    }
+
+    try {
+      journal.clear();
+    } catch (UncheckedIOException e) {
+      // The journal will be cleared the next time around
     }
   }
 
+  /**
+   * Sets the max amount of heap memory that the history may use. Old commands are offloaded or
+   * discarded immediately, if the history exceeds the new budget.
+   *
+   * @param byteBudget the new memory budget of the history, in bytes.
+   * @throws IllegalArgumentException if the supplied budget is negative.
+   */
+  public void setByteBudget(long byteBudget) {
+    if (byteBudget < 0) {
+      throw new IllegalArgumentException("Negative budget: " + byteBudget);
+    }
+    this.byteBudget = byteBudget;
+    ensureBudget();
+  }
+
+  /**
+   * Returns the max amount of heap memory that the history may use.
+   *
+   * @return the memory budget of the history, in bytes.
+   */
+  public long getByteBudget() {
+    return byteBudget;
+  }
+
+  /**
+   * Sets the max amount of disk space that the journal of the history may use. Old commands are
+   * discarded immediately, if the journal exceeds the new budget.
+   *
+   * @param diskBudget the new disk budget of the history, in bytes.
+   * @throws IllegalArgumentException if the supplied budget is negative.
+   */
+  public void setDiskBudget(long diskBudget) {
+    if (diskBudget < 0) {
+      throw new IllegalArgumentException("Negative budget: " + diskBudget);
+    }
+    this.diskBudget = diskBudget;
+    ensureBudget();
+  }
+
+  /**
+   * Returns the max amount of disk space that the journal of the history may use.
+   *
+   * @return the disk budget of the history, in bytes.
+   */
+  public long getDiskBudget() {
+    return diskBudget;
+  }
+
+  /**
+   * Returns the current size of the journal of the history.
+   *
+   * @return the size of the journal, in bytes.
+   */
+  long getJournalSize() {
+    return journal.getSize();
+  }
+
+  /**
+   * Indicates whether or not the supplied command should be merged into the most recently inserted
+   * command, which must still be the next undoable command.
+   *
+   * @param command the command that is being inserted.
+   * @param time    the time of the insertion, in nanoseconds.
+   * @return {@code true} if the command should be merged; {@code false} otherwise.
+   */
+  private boolean shouldMerge(ICommand command, long time) {
+    ICommand previous = undoDeque.peek();
+    return (previous != null) && (previous == lastInsertedCommand)
+        && ((time - lastInsertTime) <= MERGE_WINDOW) && (previous instanceof IMergeableCommand)
+        && ((IMergeableCommand) previous).canMergeWith(command);
+  }
+
   /**
    * Adds the supplied command to the command manager. Invoking this method clears the redo stack.
+   * The command is merged into the previously inserted command instead, if both are mergeable and
+   * were inserted in quick succession, without any undo or redo in between.
    *
    * @param command the command that will be added.
    * @throws NullPointerException if any arguments are {@code null}.
    */
   public void insertCommand(ICommand command) {
     Objects.requireNonNull(command);
-    ensureSize(undoDeque);
-    undoDeque.push(command);
-    redoDeque.clear();
+
+    long time = clock.getAsLong();
+    if (shouldMerge(command, time)) {
+      ((IMergeableCommand) undoDeque.peek()).mergeWith(command);
+    } else {
+      undoDeque.push(command);
+    }
+    lastInsertedCommand = undoDeque.peek();
+    lastInsertTime = time;
+
+    discardAll(redoDeque);
+    ensureBudget();
+
+    notifyUndoRedoListeners();
+  }
+
+  /**
+   * Removes all commands from the undo and redo stacks, e.g. when a document is opened.
+   */
+  public void clear() {
+    lastInsertedCommand = null;
+    discardAll(undoDeque);
+    discardAll(redoDeque);
+    clearJournalIfUnused();
 
     notifyUndoRedoListeners();
   }
@@ -128,11 +417,12 @@ public final class CommandManager implements IChangeable {
   @Override
   public void undo() {
     if (isUndoable()) {
+      lastInsertedCommand = null;
       ICommand command = undoDeque.pop();
       command.revert();
 
       redoDeque.push(command);
-      ensureSize(redoDeque);
+      ensureBudget();
 
       notifyUndoRedoListeners();
     }
@@ -141,11 +431,12 @@ public final class CommandManager implements IChangeable {
   @Override
   public void redo() {
     if (isRedoable()) {
+      lastInsertedCommand = null;
       ICommand command = redoDeque.pop();
       command.execute();
 
       undoDeque.push(command);
-      ensureSize(undoDeque);
+      ensureBudget();
 
       notifyUndoRedoListeners();
     }
@@ -0,0 +1,47 @@
+package chalmers.pimp.model.command;
+
+import chalmers.pimp.model.canvas.ICanvas;
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import java.util.Objects;
+
+/**
+ * The {@code CommandUtils} class provides utilities shared by the implementations of the {@code
+ * ICommand} interface.
+ *
+ * @see ICommand
+ */
+final class CommandUtils {
+
+  /**
+   * The approximate amount of heap memory used by a command that doesn't store any pixels.
+   */
+  static final long BASE_SIZE = 64;
+
+  private CommandUtils() {
+  }
+
+  /**
+   * Returns the approximate amount of heap memory used by the pixels of the supplied layer.
+   *
+   * @param layer the layer, may be {@code null}.
+   * @return the approximate size of the pixels of the layer, in bytes.
+   */
+  static long sizeOf(IReadOnlyLayer layer) {
+    if (layer == null) {
+      return 0;
+    }
+    return (long) layer.getWidth() * layer.getHeight() * Integer.BYTES;
+  }
+
+  /**
+   * Returns the depth index of the active layer of the supplied canvas.
+   *
+   * @param canvas the canvas that will be queried.
+   * @return the depth index of the active layer; {@code -1} if there is no active layer.
+   * @throws NullPointerException if the supplied canvas is {@code null}.
+   */
+  static int getActiveLayerIndex(ICanvas canvas) {
+    Objects.requireNonNull(canvas);
+    return canvas.hasActiveLayer() ? canvas.getActiveLayer().getDepthIndex() : -1;
+  }
+}
@@ -24,4 +24,12 @@ public interface ICommand {
    * @return the name of this command.
    */
   String getName();
+
+  /**
+   * Returns the approximate amount of heap memory used by this command. The returned value is used
+   * to keep the undo and redo history within its memory budget.
+   *
+   * @return the approximate size of this command, in bytes.
+   */
+  long getSizeInBytes();
 }
\ No newline at end of file
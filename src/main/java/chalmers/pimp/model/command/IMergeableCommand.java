@@ -0,0 +1,34 @@
+package chalmers.pimp.model.command;
+
+/**
+ * The {@code IMergeableCommand} interface specifies commands that are able to absorb a later
+ * command of the same kind, e.g. consecutive edits of the same property of the same target. The
+ * command manager merges such commands when they are inserted in quick succession, so that they
+ * occupy a single entry in the history.
+ *
+ * @see ICommand
+ * @see CommandManager#insertCommand(ICommand)
+ */
+interface IMergeableCommand extends ICommand {
+
+  /**
+   * Indicates whether or not the supplied command, which was executed right after this command,
+   * can be merged into this command.
+   *
+   * @param command the later command.
+   * @return {@code true} if the commands can be merged; {@code false} otherwise.
+   * @throws NullPointerException if the supplied command is {@code null}.
+   */
+  boolean canMergeWith(ICommand command);
+
+  /**
+   * Merges the supplied command into this command. Afterwards, executing this command has the
+   * effect of executing both commands, and reverting it reverts both commands.
+   *
+   * @param command the later command, which must be mergeable with this command.
+   * @throws NullPointerException     if the supplied command is {@code null}.
+   * @throws IllegalArgumentException if the supplied command can't be merged into this command.
+   * @see #canMergeWith(ICommand)
+   */
+  void mergeWith(ICommand command);
+}
@@ -0,0 +1,43 @@
+package chalmers.pimp.model.command;
+
+/**
+ * The {@code IOffloadableCommand} interface specifies commands that are able to move their state
+ * out of the heap, into a command journal. An offloaded command must transparently load its state
+ * back when it's executed or reverted, and release its entry in the journal once it's loaded.
+ *
+ * @see ICommand
+ * @see CommandJournal
+ */
+interface IOffloadableCommand extends ICommand {
+
+  /**
+   * Moves the state of the command into the supplied journal. This method has no effect if the
+   * command is already offloaded.
+   *
+   * @param journal the journal that the state will be stored in.
+   * @throws NullPointerException          if the supplied journal is {@code null}.
+   * @throws java.io.UncheckedIOException if the state couldn't be stored.
+   */
+  void offload(CommandJournal journal);
+
+  /**
+   * Indicates whether or not the command currently has state in the heap that can be offloaded.
+   *
+   * @return {@code true} if the command can be offloaded; {@code false} otherwise.
+   */
+  boolean canOffload();
+
+  /**
+   * Indicates whether or not the state of the command currently resides in a command journal.
+   *
+   * @return {@code true} if the command is offloaded; {@code false} otherwise.
+   */
+  boolean isOffloaded();
+
+  /**
+   * Releases the state that the command has stored in a command journal, because the command has
+   * been discarded. The command must not be executed or reverted after this method has been
+   * invoked. This method has no effect if the command isn't offloaded.
+   */
+  void release();
+}
@@ -1,55 +1,92 @@
 package chalmers.pimp.model.command;
 
-import chalmers.pimp.model.IMementoTarget;
 import chalmers.pimp.model.LayerMovement;
-import chalmers.pimp.model.ModelMemento;
 import chalmers.pimp.model.canvas.ICanvas;
 import java.util.Objects;
 
 /**
- * The {@code MoveCommand} class is a subclass of {@code AbstractCommand} that represents the action
- * of moving a layer (by changing its x- and y-coordinates).
+ * The {@code MoveCommand} class is an implementation of the {@code ICommand} interface that
+ * represents the action of moving a layer. Consecutive moves of the same layer can be merged.
  *
- * @see AbstractCommand
  * @see ICommand
  */
-final class MoveCommand extends AbstractCommand {
+final class MoveCommand implements IMergeableCommand {
 
   private final ICanvas canvas;
   private final int layerDepthIndex;
-  private final int x;
-  private final int y;
+  private final int startX;
+  private final int startY;
+  private int x;
+  private int y;
 
   /**
    * @param canvas          the associated canvas instance.
-   * @param mementoTarget   the memento target that will be used.
    * @param layerDepthIndex the layer depth index of the affected layer.
    * @param movement        the layer movement instance that describes the movement.
    * @throws NullPointerException if any references are {@code null}.
    */
-  MoveCommand(ICanvas canvas, IMementoTarget<ModelMemento> mementoTarget, int layerDepthIndex,
-      LayerMovement movement) {
-    super(mementoTarget);
+  MoveCommand(ICanvas canvas, int layerDepthIndex, LayerMovement movement) {
     this.canvas = Objects.requireNonNull(canvas);
     this.layerDepthIndex = layerDepthIndex;
     Objects.requireNonNull(movement);
 
+    startX = movement.getStartX();
+    startY = movement.getStartY();
     x = movement.getEndX();
     y = movement.getEndY();
-    setModelMemento(movement.getModelMemento());
   }
 
   @Override
   public void execute() {
-    updateModelMemento();
+    canvas.beginTransaction();
+    try {
+      canvas.selectLayer(layerDepthIndex);
+      canvas.setActiveLayerX(x);
+      canvas.setActiveLayerY(y);
+    } finally {
+      canvas.commitTransaction();
+    }
+  }
+
+  @Override
+  public void revert() {
+    canvas.beginTransaction();
+    try {
+      canvas.selectLayer(layerDepthIndex);
+      canvas.setActiveLayerX(startX);
+      canvas.setActiveLayerY(startY);
+    } finally {
+      canvas.commitTransaction();
+    }
+  }
 
-    canvas.selectLayer(layerDepthIndex);
-    canvas.setActiveLayerX(x);
-    canvas.setActiveLayerY(y);
+  @Override
+  public boolean canMergeWith(ICommand command) {
+    Objects.requireNonNull(command);
+    if (command instanceof MoveCommand) {
+      var move = (MoveCommand) command;
+      return (move.canvas == canvas) && (move.layerDepthIndex == layerDepthIndex);
+    }
+    return false;
+  }
+
+  @Override
+  public void mergeWith(ICommand command) {
+    if (!canMergeWith(command)) {
+      throw new IllegalArgumentException("Cannot merge with command: " + command.getName());
+    }
+    var move = (MoveCommand) command;
+    x = move.x;
+    y = move.y;
   }
 
   @Override
   public String getName() {
     return "Move Layer";
   }
-}
\ No newline at end of file
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE;
+  }
+}
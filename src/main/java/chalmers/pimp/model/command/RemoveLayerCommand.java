@@ -1,43 +1,54 @@
 package chalmers.pimp.model.command;
 
-import chalmers.pimp.model.IMementoTarget;
-import chalmers.pimp.model.ModelMemento;
 import chalmers.pimp.model.canvas.ICanvas;
+import chalmers.pimp.model.canvas.layer.ILayer;
 import java.util.Objects;
 
 /**
- * The {@code RemoveLayerCommand} class is a subclass of {@code AbstractCommand} that represents the
- * action of removing a layer.
+ * The {@code RemoveLayerCommand} class is an implementation of the {@code ICommand} interface that
+ * represents the action of removing a layer. The removed layer is kept by the command, so that it
+ * can be inserted at its previous depth index when the command is reverted.
  *
- * @see AbstractCommand
  * @see ICommand
  */
-final class RemoveLayerCommand extends AbstractCommand {
+final class RemoveLayerCommand implements ICommand {
 
   private final ICanvas canvas;
   private final int layerDepthIndex;
+  private ILayer removedLayer;
+  private int previousActiveLayerIndex;
 
   /**
    * @param canvas          the associated canvas instance.
-   * @param mementoTarget   the memento target that will be used.
    * @param layerDepthIndex the layer depth index of the layer that will be removed.
    * @throws NullPointerException if any references are {@code null}.
    */
-  RemoveLayerCommand(ICanvas canvas, IMementoTarget<ModelMemento> mementoTarget,
-      int layerDepthIndex) {
-    super(mementoTarget);
+  RemoveLayerCommand(ICanvas canvas, int layerDepthIndex) {
     this.canvas = Objects.requireNonNull(canvas);
     this.layerDepthIndex = layerDepthIndex;
   }
 
   @Override
   public void execute() {
-    updateModelMemento();
-    canvas.removeLayer(layerDepthIndex);
+    previousActiveLayerIndex = CommandUtils.getActiveLayerIndex(canvas);
+    removedLayer = canvas.removeLayer(layerDepthIndex);
+  }
+
+  @Override
+  public void revert() {
+    if (removedLayer != null) {
+      canvas.insertLayer(layerDepthIndex, removedLayer);
+      canvas.selectLayer(previousActiveLayerIndex);
+    }
   }
 
   @Override
   public String getName() {
     return "Remove Layer";
   }
-}
\ No newline at end of file
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE + CommandUtils.sizeOf(removedLayer);
+  }
+}
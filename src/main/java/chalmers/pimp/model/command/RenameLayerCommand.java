@@ -0,0 +1,53 @@
+package chalmers.pimp.model.command;
+
+import chalmers.pimp.model.canvas.ICanvas;
+import java.util.Objects;
+
+/**
+ * The {@code RenameLayerCommand} class is an implementation of the {@code ICommand} interface that
+ * represents the action of renaming a layer.
+ *
+ * @see ICommand
+ */
+final class RenameLayerCommand implements ICommand {
+
+  private final ICanvas canvas;
+  private final int layerDepthIndex;
+  private final String name;
+  private String previousName;
+
+  /**
+   * @param canvas          the associated canvas instance.
+   * @param layerDepthIndex the layer depth index of the layer that will be renamed.
+   * @param name            the new name of the layer.
+   * @throws NullPointerException if any references are {@code null}.
+   */
+  RenameLayerCommand(ICanvas canvas, int layerDepthIndex, String name) {
+    this.canvas = Objects.requireNonNull(canvas);
+    this.layerDepthIndex = layerDepthIndex;
+    this.name = Objects.requireNonNull(name);
+  }
+
+  @Override
+  public void execute() {
+    previousName = canvas.getLayerName(layerDepthIndex);
+    canvas.setLayerName(layerDepthIndex, name);
+  }
+
+  @Override
+  public void revert() {
+    if (previousName != null) {
+      canvas.setLayerName(layerDepthIndex, previousName);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "Rename Layer";
+  }
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE;
+  }
+}
@@ -1,52 +1,85 @@
 package chalmers.pimp.model.command;
 
-import chalmers.pimp.model.IMementoTarget;
 import chalmers.pimp.model.LayerRotation;
-import chalmers.pimp.model.ModelMemento;
 import chalmers.pimp.model.canvas.ICanvas;
 import java.util.Objects;
 
 /**
- * The {@code RotateCommand} class is a subclass of {@code AbstractCommand} that represents the
- * action of rotating a layer (by some degree).
+ * The {@code RotateCommand} class is an implementation of the {@code ICommand} interface that
+ * represents the action of rotating a layer. Consecutive rotations of the same layer can be
+ * merged.
  *
- * @see AbstractCommand
  * @see ICommand
  */
-final class RotateCommand extends AbstractCommand {
+final class RotateCommand implements IMergeableCommand {
 
   private final ICanvas canvas;
   private final int layerDepthIndex;
-  private final int angle;
+  private final int baseAngle;
+  private int angle;
 
   /**
    * @param canvas          the associated canvas instance.
-   * @param mementoTarget   the memento target that will be used.
    * @param layerDepthIndex the layer depth index of the affected layer.
-   * @param movement        the layer movement instance that describes the movement.
+   * @param rotation        the layer rotation instance that describes the rotation.
    * @throws NullPointerException if any references are {@code null}.
    */
-  RotateCommand(ICanvas canvas, IMementoTarget<ModelMemento> mementoTarget, int layerDepthIndex,
-      LayerRotation movement) {
-    super(mementoTarget);
+  RotateCommand(ICanvas canvas, int layerDepthIndex, LayerRotation rotation) {
     this.canvas = Objects.requireNonNull(canvas);
     this.layerDepthIndex = layerDepthIndex;
-    Objects.requireNonNull(movement);
+    Objects.requireNonNull(rotation);
 
-    angle = movement.getCurrentDegree();
-    setModelMemento(movement.getModelMemento());
+    baseAngle = rotation.getBaseDegree();
+    angle = rotation.getCurrentDegree();
   }
 
   @Override
   public void execute() {
-    updateModelMemento();
+    canvas.beginTransaction();
+    try {
+      canvas.selectLayer(layerDepthIndex);
+      canvas.setActiveLayerRotation(angle);
+    } finally {
+      canvas.commitTransaction();
+    }
+  }
+
+  @Override
+  public void revert() {
+    canvas.beginTransaction();
+    try {
+      canvas.selectLayer(layerDepthIndex);
+      canvas.setActiveLayerRotation(baseAngle);
+    } finally {
+      canvas.commitTransaction();
+    }
+  }
 
-    canvas.selectLayer(layerDepthIndex);
-    canvas.setActiveLayerRotation(angle);
+  @Override
+  public boolean canMergeWith(ICommand command) {
+    Objects.requireNonNull(command);
+    if (command instanceof RotateCommand) {
+      var rotation = (RotateCommand) command;
+      return (rotation.canvas == canvas) && (rotation.layerDepthIndex == layerDepthIndex);
+    }
+    return false;
+  }
+
+  @Override
+  public void mergeWith(ICommand command) {
+    if (!canMergeWith(command)) {
+      throw new IllegalArgumentException("Cannot merge with command: " + command.getName());
+    }
+    angle = ((RotateCommand) command).angle;
   }
 
   @Override
   public String getName() {
     return "Rotate Layer";
   }
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE;
+  }
 }
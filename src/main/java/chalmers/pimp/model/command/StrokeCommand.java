@@ -1,44 +1,82 @@
 package chalmers.pimp.model.command;
 
-import chalmers.pimp.model.IMementoTarget;
-import chalmers.pimp.model.ModelMemento;
 import chalmers.pimp.model.Stroke;
 import chalmers.pimp.model.canvas.ICanvas;
-import chalmers.pimp.model.pixeldata.IPixel;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
 
 /**
- * The {@code StrokeCommand} class is a subclass of {@code AbstractCommand} that represents the
- * action of performing a stroke with a pixel-based "pen" tool.
+ * The {@code StrokeCommand} class is an implementation of the {@code ICommand} interface that
+ * represents the action of performing a pixel stroke. Only the pixels affected by the stroke are
+ * stored, in the form of a raster delta. The raster delta can be offloaded to a command journal,
+ * in which case it's loaded back when the command is executed or reverted.
  *
- * @see AbstractCommand
  * @see ICommand
+ * @see IRasterDelta
  */
-final class StrokeCommand extends AbstractCommand {
+final class StrokeCommand implements IOffloadableCommand {
 
   private final ICanvas canvas;
-  private final Stroke stroke;
+  private final int layerDepthIndex;
+  private IRasterDelta delta;
+  private CommandJournal journal;
+  private CommandJournal.Entry entry;
 
   /**
-   * @param canvas        the associated canvas instance.
-   * @param mementoTarget the memento target that will be used.
-   * @param stroke        the stroke instance that describes the stroke.
+   * Creates a stroke command for a stroke that has already been performed. Invoking this
+   * constructor finishes the supplied stroke.
+   *
+   * @param canvas the associated canvas instance.
+   * @param stroke the stroke instance that describes the stroke.
    * @throws NullPointerException if any references are {@code null}.
    */
-  StrokeCommand(ICanvas canvas, IMementoTarget<ModelMemento> mementoTarget, Stroke stroke) {
-    super(mementoTarget);
+  StrokeCommand(ICanvas canvas, Stroke stroke) {
     this.canvas = Objects.requireNonNull(canvas);
-    this.stroke = Objects.requireNonNull(stroke);
+    Objects.requireNonNull(stroke);
 
-    setModelMemento(stroke.getModelMemento());
+    layerDepthIndex = stroke.getLayerDepthIndex();
+    delta = stroke.finish(canvas);
+  }
+
+  /**
+   * Returns the raster delta of the stroke, loading it from the journal if it has been offloaded.
+   *
+   * @return the raster delta of the stroke; {@code null} if no raster layer was affected.
+   * @throws UncheckedIOException if the delta couldn't be loaded.
+   */
+  private IRasterDelta getDelta() {
+    if (entry != null) {
+      byte[] data = journal.load(entry);
+      try (var input = new DataInputStream(new ByteArrayInputStream(data))) {
+        delta = RasterDataFactory.readRasterDelta(input);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      release();
+    }
+    return delta;
   }
 
   @Override
   public void execute() {
-    updateModelMemento();
+    IRasterDelta rasterDelta = getDelta();
+    if (rasterDelta != null) {
+      canvas.applyLayerDelta(layerDepthIndex, rasterDelta);
+    }
+  }
 
-    for (IPixel pixel : stroke.getPixels()) {
-      stroke.updatePixels(canvas, pixel);
+  @Override
+  public void revert() {
+    IRasterDelta rasterDelta = getDelta();
+    if (rasterDelta != null) {
+      canvas.revertLayerDelta(layerDepthIndex, rasterDelta);
     }
   }
 
@@ -46,4 +84,48 @@ final class StrokeCommand extends AbstractCommand {
   public String getName() {
     return "Stroke";
   }
-}
\ No newline at end of file
+
+  @Override
+  public long getSizeInBytes() {
+    long size = CommandUtils.BASE_SIZE;
+    return (delta != null) ? size + delta.getSizeInBytes() : size;
+  }
+
+  @Override
+  public void offload(CommandJournal journal) {
+    Objects.requireNonNull(journal);
+    if (delta == null) {
+      return;
+    }
+
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new DataOutputStream(bytes)) {
+      RasterDataFactory.writeRasterDelta(delta, output);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    entry = journal.store(bytes.toByteArray());
+    this.journal = journal;
+    delta = null;
+  }
+
+  @Override
+  public boolean canOffload() {
+    return delta != null;
+  }
+
+  @Override
+  public boolean isOffloaded() {
+    return entry != null;
+  }
+
+  @Override
+  public void release() {
+    if (entry != null) {
+      journal.release(entry);
+      journal = null;
+      entry = null;
+    }
+  }
+}
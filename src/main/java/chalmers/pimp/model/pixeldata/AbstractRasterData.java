@@ -0,0 +1,340 @@
+package chalmers.pimp.model.pixeldata;
+
+import chalmers.pimp.model.color.ColorFactory;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code AbstractRasterData} class is a partial implementation of the {@code IRasterData}
+ * interface, intended for raster data that stores its pixels as packed ARGB integers. Pixel objects
+ * are only created when they are explicitly requested through {@link
+ * AbstractRasterData#getPixel(int, int)} or {@link AbstractRasterData#getPixels()}.
+ *
+ * @see IRasterData
+ */
+abstract class AbstractRasterData implements IRasterData {
+
+  private final int width;
+  private final int height;
+  private final ChangeTracker changeTracker;
+
+  /**
+   * @param width  the amount of pixels in width.
+   * @param height the amount of pixels in height.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero.
+   */
+  AbstractRasterData(int width, int height) {
+    RasterDataUtils.ensureValidDimensions(width, height);
+    this.width = width;
+    this.height = height;
+    changeTracker = new ChangeTracker(width, height);
+  }
+
+  /**
+   * Returns the packed ARGB value of the specified pixel. The supplied coordinates are assumed to
+   * be valid.
+   *
+   * @param x the x-coordinate of the pixel, zero-indexed.
+   * @param y the y-coordinate of the pixel, zero-indexed.
+   * @return the packed ARGB value of the pixel.
+   */
+  abstract int read(int x, int y);
+
+  /**
+   * Sets the packed ARGB value of the specified pixel. The supplied coordinates are assumed to be
+   * valid.
+   *
+   * @param x    the x-coordinate of the pixel, zero-indexed.
+   * @param y    the y-coordinate of the pixel, zero-indexed.
+   * @param argb the new packed ARGB value of the pixel.
+   */
+  abstract void write(int x, int y, int argb);
+
+  /**
+   * Sets a horizontal run of pixels to the same color. The supplied run is assumed to be valid and
+   * not empty. Subclasses are encouraged to override this method with a bulk implementation.
+   *
+   * @param x      the x-coordinate of the first pixel in the run.
+   * @param y      the y-coordinate of the run.
+   * @param length the amount of pixels in the run.
+   * @param argb   the new packed ARGB value of the pixels.
+   */
+  void fill(int x, int y, int length, int argb) {
+    for (int i = 0; i < length; i++) {
+      write(x + i, y, argb);
+    }
+  }
+
+  /**
+   * Sets a horizontal run of pixels to the packed ARGB values in the supplied array. The supplied
+   * run and array range are assumed to be valid. Subclasses are encouraged to override this method
+   * with a bulk implementation.
+   *
+   * @param x      the x-coordinate of the first pixel in the run.
+   * @param y      the y-coordinate of the run.
+   * @param source the array that contains the new pixel values.
+   * @param offset the index of the first pixel value in the array.
+   * @param length the amount of pixels in the run.
+   */
+  void write(int x, int y, int[] source, int offset, int length) {
+    for (int i = 0; i < length; i++) {
+      write(x + i, y, source[offset + i]);
+    }
+  }
+
+  /**
+   * Records that the specified region has been modified, without going through {@link
+   * AbstractRasterData#setArgb(int, int, int)}. The supplied region is assumed to be valid.
+   *
+   * @param x      the x-coordinate of the upper left corner of the region.
+   * @param y      the y-coordinate of the upper left corner of the region.
+   * @param width  the width of the region.
+   * @param height the height of the region.
+   */
+  final void markChanged(int x, int y, int width, int height) {
+    changeTracker.markChanged(x, y, width, height);
+  }
+
+  /**
+   * Replaces the recorded changes and the version of this raster data with those of the supplied
+   * raster data, which must have the same size. Used to continue the history of raster data that
+   * has been copied.
+   *
+   * @param rasterData the raster data whose changes will be copied.
+   */
+  final void copyChanges(AbstractRasterData rasterData) {
+    changeTracker.copyFrom(rasterData.changeTracker, rasterData);
+  }
+
+  /**
+   * Forgets all changes that have been recorded, so that the version of this raster data is 0.
+   * Used by copy constructors that fill the pixels through the regular write methods.
+   */
+  final void clearChanges() {
+    changeTracker.clear();
+  }
+
+  /**
+   * Indicates whether or not the specified coordinate is valid (within the bounds of this raster
+   * data).
+   *
+   * @param x the x-coordinate that will be checked (zero-indexed).
+   * @param y the y-coordinate that will be checked (zero-indexed).
+   * @return {@code true} if the supplied coordinate is invalid; {@code false} otherwise.
+   */
+  final boolean isBadCoordinate(int x, int y) {
+    return (x < 0) || (y < 0) || (x >= width) || (y >= height);
+  }
+
+  /**
+   * Check if the specified coordinate is valid, throws an exception otherwise.
+   *
+   * @param x the x-coordinate that will be checked (zero-indexed).
+   * @param y the y-coordinate that will be checked (zero-indexed).
+   * @throws IndexOutOfBoundsException if the supplied coordinate is out-of-bounds.
+   */
+  private void ensureInRange(int x, int y) {
+    if (isBadCoordinate(x, y)) {
+      throw new IndexOutOfBoundsException("Bad coordinate: (" + x + ", " + y + ")");
+    }
+  }
+
+  /**
+   * Returns a lazy view of the pixels in the specified row.
+   *
+   * @param y the index of the row.
+   * @return a lazy view of the pixels in the specified row.
+   */
+  private Iterable<IReadOnlyPixel> getRow(int y) {
+    return () -> IntStream.range(0, width).mapToObj(x -> getPixel(x, y)).iterator();
+  }
+
+  @Override
+  public final void setPixel(IPixel pixel) {
+    Objects.requireNonNull(pixel);
+    setArgb(pixel.getX(), pixel.getY(), pixel.getColor().toArgb());
+  }
+
+  @Override
+  public final void setArgb(int x, int y, int argb) {
+    if (!isBadCoordinate(x, y)) {
+      write(x, y, argb);
+      changeTracker.markChanged(x, y);
+    }
+  }
+
+  @Override
+  public final void fillRow(int x, int y, int length, int argb) {
+    if ((y < 0) || (y >= height) || (length <= 0)) {
+      return;
+    }
+
+    int from = Math.max(0, x);
+    int to = (int) Math.min(width, (long) x + length);
+    if (from < to) {
+      fill(from, y, to - from, argb);
+      changeTracker.markChanged(from, y, to - from, 1);
+    }
+  }
+
+  @Override
+  public final void fillRect(int x, int y, int width, int height, int argb) {
+    int fromX = Math.max(0, x);
+    int fromY = Math.max(0, y);
+    int toX = (int) Math.min(this.width, (long) x + width);
+    int toY = (int) Math.min(this.height, (long) y + height);
+    if ((fromX >= toX) || (fromY >= toY)) {
+      return;
+    }
+
+    for (int row = fromY; row < toY; row++) {
+      fill(fromX, row, toX - fromX, argb);
+    }
+    changeTracker.markChanged(fromX, fromY, toX - fromX, toY - fromY);
+  }
+
+  @Override
+  public final void writeRegion(int x, int y, int width, int height, int[] source, int offset,
+      int scanlineStride) {
+    RasterDataUtils.ensureValidRegion(this.width, this.height, x, y, width, height, source,
+        offset, scanlineStride);
+    if ((width == 0) || (height == 0)) {
+      return;
+    }
+
+    for (int row = 0; row < height; row++) {
+      write(x, y + row, source, offset + (row * scanlineStride), width);
+    }
+    changeTracker.markChanged(x, y, width, height);
+  }
+
+  @Override
+  public final void writeRow(int y, int[] argb) {
+    writeRegion(0, y, width, 1, argb, 0, width);
+  }
+
+  @Override
+  public final void copyRegion(IReadOnlyRasterData source, int srcX, int srcY, int width,
+      int height, int dstX, int dstY) {
+    transferRegion(source, srcX, srcY, width, height, dstX, dstY, false);
+  }
+
+  @Override
+  public final void blitWithAlpha(IReadOnlyRasterData source, int srcX, int srcY, int width,
+      int height, int dstX, int dstY) {
+    transferRegion(source, srcX, srcY, width, height, dstX, dstY, true);
+  }
+
+  /**
+   * Copies or blends a region of the supplied raster data into this raster data, one row at a
+   * time. The region is clipped against the bounds of both the source and this raster data. Rows
+   * are buffered, and visited bottom-up when the source is this raster data and the region moves
+   * downwards, so that overlapping regions are copied correctly.
+   *
+   * @param source the raster data that the pixels will be read from.
+   * @param srcX   the x-coordinate of the upper left corner of the region in the source.
+   * @param srcY   the y-coordinate of the upper left corner of the region in the source.
+   * @param width  the width of the region.
+   * @param height the height of the region.
+   * @param dstX   the x-coordinate of the upper left corner of the region in this raster data.
+   * @param dstY   the y-coordinate of the upper left corner of the region in this raster data.
+   * @param blend  {@code true} if the pixels should be blended; {@code false} if they should be
+   *               replaced.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  private void transferRegion(IReadOnlyRasterData source, int srcX, int srcY, int width,
+      int height, int dstX, int dstY, boolean blend) {
+    Objects.requireNonNull(source);
+
+    // The clipped region, relative to the upper left corner of the unclipped region
+    long left = Math.max(0, Math.max(-(long) srcX, -(long) dstX));
+    long top = Math.max(0, Math.max(-(long) srcY, -(long) dstY));
+    long right = Math.min(width,
+        Math.min((long) source.getWidth() - srcX, (long) this.width - dstX));
+    long bottom = Math.min(height,
+        Math.min((long) source.getHeight() - srcY, (long) this.height - dstY));
+    if ((left >= right) || (top >= bottom)) {
+      return;
+    }
+
+    int fromX = (int) (srcX + left);
+    int toX = (int) (dstX + left);
+    int span = (int) (right - left);
+    int rows = (int) (bottom - top);
+
+    int[] row = new int[span];
+    int[] below = blend ? new int[span] : null;
+    boolean isBottomUp = (source == this) && (dstY > srcY);
+    for (int i = 0; i < rows; i++) {
+      int rowOffset = (int) top + (isBottomUp ? (rows - 1 - i) : i);
+      int fromY = srcY + rowOffset;
+      int toY = dstY + rowOffset;
+
+      source.readRegion(fromX, fromY, span, 1, row, 0, span);
+      if (blend) {
+        readRegion(toX, toY, span, 1, below, 0, span);
+        for (int col = 0; col < span; col++) {
+          row[col] = RasterDataUtils.blend(row[col], below[col]);
+        }
+      }
+      write(toX, toY, row, 0, span);
+    }
+    changeTracker.markChanged(toX, (int) (dstY + top), span, rows);
+  }
+
+  @Override
+  public final Iterable<? extends Iterable<? extends IReadOnlyPixel>> getPixels() {
+    Iterable<Iterable<IReadOnlyPixel>> rows =
+        () -> IntStream.range(0, height).mapToObj(this::getRow).iterator();
+    return rows;
+  }
+
+  @Override
+  public final IReadOnlyPixel getPixel(int x, int y) {
+    return new PixelImpl(x, y, ColorFactory.createColorFromArgb(getArgb(x, y)));
+  }
+
+  @Override
+  public final int getArgb(int x, int y) {
+    ensureInRange(x, y);
+    return read(x, y);
+  }
+
+  @Override
+  public void readRegion(int x, int y, int width, int height, int[] destination, int offset,
+      int scanlineStride) {
+    RasterDataUtils.ensureValidRegion(this.width, this.height, x, y, width, height, destination,
+        offset, scanlineStride);
+    for (int row = 0; row < height; row++) {
+      int rowOffset = offset + (row * scanlineStride);
+      for (int col = 0; col < width; col++) {
+        destination[rowOffset + col] = read(x + col, y + row);
+      }
+    }
+  }
+
+  @Override
+  public final long getVersion() {
+    return changeTracker.getVersion();
+  }
+
+  @Override
+  public final boolean continues(IReadOnlyRasterData rasterData, long version) {
+    return (rasterData == this) || changeTracker.continues(rasterData, version);
+  }
+
+  @Override
+  public final void visitChangedRegions(long version, IRegionConsumer consumer) {
+    changeTracker.visitChangedRegions(version, consumer);
+  }
+
+  @Override
+  public final int getWidth() {
+    return width;
+  }
+
+  @Override
+  public final int getHeight() {
+    return height;
+  }
+}
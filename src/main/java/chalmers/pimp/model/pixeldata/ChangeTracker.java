@@ -0,0 +1,157 @@
+package chalmers.pimp.model.pixeldata;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The {@code ChangeTracker} class keeps track of which parts of a raster data instance have been
+ * modified. The raster is divided into square cells, and every cell remembers the version of the
+ * raster data when it was last written to. This makes it possible for any amount of consumers to
+ * find the regions that have changed since they last synchronized with the raster data, without
+ * the raster data having to know about the consumers.
+ */
+final class ChangeTracker {
+
+  /**
+   * The width and height of a single cell, in pixels.
+   */
+  static final int CELL_SIZE = 64;
+
+  private static final int CELL_SHIFT = 6;
+
+  private final int width;
+  private final int height;
+  private final int columns;
+  private final long[] cellVersions;
+  private long version;
+  private WeakReference<Object> origin;
+  private long originVersion;
+
+  /**
+   * @param width  the width of the tracked raster data.
+   * @param height the height of the tracked raster data.
+   */
+  ChangeTracker(int width, int height) {
+    this.width = width;
+    this.height = height;
+    columns = (width + CELL_SIZE - 1) >> CELL_SHIFT;
+    int rows = (height + CELL_SIZE - 1) >> CELL_SHIFT;
+    cellVersions = new long[columns * rows];
+  }
+
+  /**
+   * Marks the specified pixel as changed. The supplied coordinates are assumed to be valid.
+   *
+   * @param x the x-coordinate of the pixel.
+   * @param y the y-coordinate of the pixel.
+   */
+  void markChanged(int x, int y) {
+    cellVersions[((y >> CELL_SHIFT) * columns) + (x >> CELL_SHIFT)] = ++version;
+  }
+
+  /**
+   * Marks the specified region as changed. The supplied region is assumed to be valid and not
+   * empty.
+   *
+   * @param x      the x-coordinate of the upper left corner of the region.
+   * @param y      the y-coordinate of the upper left corner of the region.
+   * @param width  the width of the region.
+   * @param height the height of the region.
+   */
+  void markChanged(int x, int y, int width, int height) {
+    version++;
+
+    int lastColumn = (x + width - 1) >> CELL_SHIFT;
+    int lastRow = (y + height - 1) >> CELL_SHIFT;
+    for (int row = y >> CELL_SHIFT; row <= lastRow; row++) {
+      for (int col = x >> CELL_SHIFT; col <= lastColumn; col++) {
+        cellVersions[(row * columns) + col] = version;
+      }
+    }
+  }
+
+  /**
+   * Replaces the recorded changes and the version with those of the supplied change tracker, which
+   * must track raster data of the same size. The tracked raster data is then considered to
+   * continue the supplied origin, as of the current version of the supplied change tracker.
+   *
+   * @param tracker the change tracker whose changes will be copied.
+   * @param origin  the raster data tracked by the supplied change tracker.
+   */
+  void copyFrom(ChangeTracker tracker, Object origin) {
+    System.arraycopy(tracker.cellVersions, 0, cellVersions, 0, cellVersions.length);
+    version = tracker.version;
+    this.origin = new WeakReference<>(origin);
+    originVersion = tracker.version;
+  }
+
+  /**
+   * Indicates whether or not the recorded changes contain all changes of the supplied origin after
+   * the specified version, i.e. if the changes were copied from the origin at that version or
+   * later.
+   *
+   * @param origin       the raster data that the changes may have been copied from.
+   * @param sinceVersion the version of the origin.
+   * @return {@code true} if the changes continue the origin; {@code false} otherwise.
+   */
+  boolean continues(Object origin, long sinceVersion) {
+    return (this.origin != null) && (this.origin.get() == origin)
+        && (sinceVersion <= originVersion);
+  }
+
+  /**
+   * Forgets all recorded changes, and resets the version to 0.
+   */
+  void clear() {
+    version = 0;
+    Arrays.fill(cellVersions, 0);
+  }
+
+  /**
+   * Returns the current version, which is increased every time that a change is recorded.
+   *
+   * @return the current version.
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Supplies all regions that have changed after the specified version to the supplied consumer.
+   * Horizontally adjacent cells that have changed are merged into a single region.
+   *
+   * @param sinceVersion the version that the regions will be compared to.
+   * @param consumer     the consumer that will receive the changed regions.
+   * @throws NullPointerException if the supplied consumer is {@code null}.
+   */
+  void visitChangedRegions(long sinceVersion, IRegionConsumer consumer) {
+    Objects.requireNonNull(consumer);
+    if (sinceVersion >= version) {
+      return;
+    }
+
+    int rows = cellVersions.length / columns;
+    for (int row = 0; row < rows; row++) {
+      int y = row << CELL_SHIFT;
+      int regionHeight = Math.min(CELL_SIZE, height - y);
+
+      int col = 0;
+      while (col < columns) {
+        if (cellVersions[(row * columns) + col] <= sinceVersion) {
+          col++;
+          continue;
+        }
+
+        int first = col;
+        while ((col < columns) && (cellVersions[(row * columns) + col] > sinceVersion)) {
+          col++;
+        }
+
+        int x = first << CELL_SHIFT;
+        int regionWidth = Math.min(col << CELL_SHIFT, width) - x;
+        consumer.accept(x, y, regionWidth, regionHeight);
+      }
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package chalmers.pimp.model.pixeldata;
+
+import java.util.Objects;
+
+/**
+ * The {@code DabMask} class represents the circular footprint of a brush, which is stamped into
+ * raster data for every point of a stroke. The mask is precomputed as one horizontal run of pixels
+ * per row, which means that stamping an opaque dab doesn't allocate any objects and only requires
+ * one bulk fill per row. Translucent dabs are blended on top of the pixels below, one run at a
+ * time. The mask is immutable.
+ *
+ * @see IRasterData#fillRow(int, int, int, int)
+ */
+public final class DabMask {
+
+  private final int diameter;
+  private final int[] rowStarts;
+  private final int[] rowLengths;
+
+  /**
+   * Creates a circular dab mask with the supplied diameter.
+   *
+   * @param diameter the diameter of the dab, in pixels.
+   * @throws IllegalArgumentException if the supplied diameter is less than 1.
+   */
+  public DabMask(int diameter) {
+    if (diameter < 1) {
+      throw new IllegalArgumentException("Invalid diameter: " + diameter);
+    }
+    this.diameter = diameter;
+    rowStarts = new int[diameter];
+    rowLengths = new int[diameter];
+
+    // A pixel is covered if its center is inside of the circle
+    final double radius = diameter / 2.0;
+    for (int row = 0; row < diameter; row++) {
+      double dy = (row + 0.5) - radius;
+      double halfWidth = Math.sqrt(Math.max(0, (radius * radius) - (dy * dy)));
+
+      int first = Math.max(0, (int) Math.ceil(radius - halfWidth - 0.5));
+      int last = Math.min(diameter - 1, (int) Math.floor(radius + halfWidth - 0.5));
+
+      rowStarts[row] = first;
+      rowLengths[row] = Math.max(0, (last - first) + 1);
+    }
+  }
+
+  /**
+   * Returns the offset between the center of the dab and its upper left corner, along both axes.
+   *
+   * @return the offset between the center of the dab and its upper left corner.
+   */
+  public int getOffset() {
+    return diameter / 2;
+  }
+
+  /**
+   * Stamps the dab into the supplied raster data. An opaque color replaces the covered pixels,
+   * while a translucent color is blended on top of them using the source-over operator, just like
+   * {@link IRasterData#blitWithAlpha(IReadOnlyRasterData, int, int, int, int, int, int)}. The
+   * parts of the dab that are out-of-bounds are ignored.
+   *
+   * @param rasterData the raster data that the dab will be stamped into.
+   * @param centerX    the x-coordinate of the center of the dab.
+   * @param centerY    the y-coordinate of the center of the dab.
+   * @param argb       the packed ARGB color of the dab.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  public void stamp(IRasterData rasterData, int centerX, int centerY, int argb) {
+    final int x = centerX - getOffset();
+    final int y = centerY - getOffset();
+
+    final int firstRow = Math.max(0, -y);
+    final int lastRow = Math.min(diameter, rasterData.getHeight() - y);
+
+    final int alpha = argb >>> 24;
+    if (alpha == 0xFF) {
+      for (int row = firstRow; row < lastRow; row++) {
+        rasterData.fillRow(x + rowStarts[row], y + row, rowLengths[row], argb);
+      }
+    } else if (alpha != 0) {
+      blend(rasterData, x, y, firstRow, lastRow, argb);
+    }
+  }
+
+  /**
+   * Blends the supplied translucent color on top of the covered pixels of the specified rows. Each
+   * run is clipped against the bounds of the raster data, read, blended and written back at once.
+   *
+   * @param rasterData the raster data that the dab will be stamped into.
+   * @param x          the x-coordinate of the upper left corner of the dab.
+   * @param y          the y-coordinate of the upper left corner of the dab.
+   * @param firstRow   the first row of the dab that will be stamped.
+   * @param lastRow    the row after the last row of the dab that will be stamped.
+   * @param argb       the packed ARGB color of the dab.
+   */
+  private void blend(IRasterData rasterData, int x, int y, int firstRow, int lastRow, int argb) {
+    final int[] run = new int[diameter];
+    for (int row = firstRow; row < lastRow; row++) {
+      int first = Math.max(0, x + rowStarts[row]);
+      int last = Math.min(rasterData.getWidth(), x + rowStarts[row] + rowLengths[row]);
+      int length = last - first;
+      if (length > 0) {
+        rasterData.readRegion(first, y + row, length, 1, run, 0, length);
+        for (int i = 0; i < length; i++) {
+          run[i] = RasterDataUtils.blend(argb, run[i]);
+        }
+        rasterData.writeRegion(first, y + row, length, 1, run, 0, length);
+      }
+    }
+  }
+
+  /**
+   * Indicates whether or not the specified pixel of the dab is covered by the circle.
+   *
+   * @param x the x-coordinate of the pixel, relative to the upper left corner of the dab.
+   * @param y the y-coordinate of the pixel, relative to the upper left corner of the dab.
+   * @return {@code true} if the pixel is covered; {@code false} otherwise.
+   */
+  public boolean covers(int x, int y) {
+    if ((y < 0) || (y >= diameter)) {
+      return false;
+    }
+    return (x >= rowStarts[y]) && (x < (rowStarts[y] + rowLengths[y]));
+  }
+
+  /**
+   * Indicates whether or not every pixel of a dab centered at the specified position is also
+   * covered by at least one of the supplied dabs, which all use this mask. Stamping an opaque dab
+   * that is fully covered by dabs of the same color doesn't change any pixels.
+   *
+   * @param centerX  the x-coordinate of the center of the dab.
+   * @param centerY  the y-coordinate of the center of the dab.
+   * @param centersX the x-coordinates of the centers of the covering dabs.
+   * @param centersY the y-coordinates of the centers of the covering dabs.
+   * @param count    the amount of covering dabs.
+   * @return {@code true} if the dab is fully covered; {@code false} otherwise.
+   * @throws NullPointerException if any of the supplied arrays are {@code null}.
+   */
+  public boolean isCoveredBy(int centerX, int centerY, int[] centersX, int[] centersY, int count) {
+    Objects.requireNonNull(centersX);
+    Objects.requireNonNull(centersY);
+
+    for (int row = 0; row < diameter; row++) {
+      int covered = centerX + rowStarts[row];
+      final int end = covered + rowLengths[row];
+
+      // Extends the covered part of the row until no covering run continues it
+      boolean isExtended = true;
+      while ((covered < end) && isExtended) {
+        isExtended = false;
+        for (int i = 0; i < count; i++) {
+          int otherRow = (centerY + row) - centersY[i];
+          if ((otherRow >= 0) && (otherRow < diameter)) {
+            int start = centersX[i] + rowStarts[otherRow];
+            int otherEnd = start + rowLengths[otherRow];
+            if ((start <= covered) && (covered < otherEnd)) {
+              covered = otherEnd;
+              isExtended = true;
+            }
+          }
+        }
+      }
+
+      if (covered < end) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the diameter of the dab.
+   *
+   * @return the diameter of the dab, in pixels.
+   */
+  public int getDiameter() {
+    return diameter;
+  }
+}
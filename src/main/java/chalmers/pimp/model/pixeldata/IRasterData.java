@@ -14,4 +14,101 @@ public interface IRasterData extends IReadOnlyRasterData {
    * @throws NullPointerException if the supplied pixel is {@code null}.
    */
   void setPixel(IPixel pixel);
+
+  /**
+   * Sets the color of a specific pixel, supplied as a packed ARGB integer. This method has no
+   * effect if the supplied coordinates are out-of-bounds.
+   *
+   * @param x    the x-coordinate of the pixel, zero-indexed.
+   * @param y    the y-coordinate of the pixel, zero-indexed.
+   * @param argb the new packed ARGB value of the pixel.
+   */
+  void setArgb(int x, int y, int argb);
+
+  /**
+   * Sets a horizontal run of pixels to the same color, supplied as a packed ARGB integer. The parts
+   * of the run that are out-of-bounds are ignored.
+   *
+   * @param x      the x-coordinate of the first pixel in the run, zero-indexed.
+   * @param y      the y-coordinate of the run, zero-indexed.
+   * @param length the amount of pixels in the run.
+   * @param argb   the new packed ARGB value of the pixels.
+   */
+  void fillRow(int x, int y, int length, int argb);
+
+  /**
+   * Sets all pixels in the specified rectangle to the same color, supplied as a packed ARGB
+   * integer. The parts of the rectangle that are out-of-bounds are ignored.
+   *
+   * @param x      the x-coordinate of the upper left corner of the rectangle.
+   * @param y      the y-coordinate of the upper left corner of the rectangle.
+   * @param width  the width of the rectangle.
+   * @param height the height of the rectangle.
+   * @param argb   the new packed ARGB value of the pixels.
+   */
+  void fillRect(int x, int y, int width, int height, int argb);
+
+  /**
+   * Sets the pixels of the specified region to the packed ARGB values in the supplied array. This
+   * is the inverse of {@link IReadOnlyRasterData#readRegion(int, int, int, int, int[], int, int)}.
+   *
+   * @param x              the x-coordinate of the upper left corner of the region.
+   * @param y              the y-coordinate of the upper left corner of the region.
+   * @param width          the width of the region.
+   * @param height         the height of the region.
+   * @param source         the array that contains the new pixel values.
+   * @param offset         the index of the first pixel in the array.
+   * @param scanlineStride the distance between the start of two consecutive rows in the array.
+   * @throws NullPointerException      if the supplied array is {@code null}.
+   * @throws IndexOutOfBoundsException if the region isn't contained in this raster data, or if the
+   *                                   array is too small for the region.
+   */
+  void writeRegion(int x, int y, int width, int height, int[] source, int offset,
+      int scanlineStride);
+
+  /**
+   * Sets an entire row of pixels to the packed ARGB values in the supplied array.
+   *
+   * @param y    the index of the row, zero-indexed.
+   * @param argb the new packed ARGB values of the row, at least as many as the width.
+   * @throws NullPointerException      if the supplied array is {@code null}.
+   * @throws IndexOutOfBoundsException if the row is out-of-bounds, or if the array is shorter than
+   *                                   the width.
+   */
+  void writeRow(int y, int[] argb);
+
+  /**
+   * Copies a region of the supplied raster data into this raster data, replacing the pixels at the
+   * destination. The parts of the region that are out-of-bounds in either the source or the
+   * destination are ignored. The source may be this raster data, in which case the source and
+   * destination regions may overlap.
+   *
+   * @param source the raster data that the pixels will be copied from.
+   * @param srcX   the x-coordinate of the upper left corner of the region in the source.
+   * @param srcY   the y-coordinate of the upper left corner of the region in the source.
+   * @param width  the width of the region.
+   * @param height the height of the region.
+   * @param dstX   the x-coordinate that the upper left corner of the region will be copied to.
+   * @param dstY   the y-coordinate that the upper left corner of the region will be copied to.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  void copyRegion(IReadOnlyRasterData source, int srcX, int srcY, int width, int height, int dstX,
+      int dstY);
+
+  /**
+   * Draws a region of the supplied raster data on top of this raster data, blending the pixels
+   * according to their alpha values (source-over). Otherwise, this method behaves like {@link
+   * IRasterData#copyRegion(IReadOnlyRasterData, int, int, int, int, int, int)}.
+   *
+   * @param source the raster data that the pixels will be drawn from.
+   * @param srcX   the x-coordinate of the upper left corner of the region in the source.
+   * @param srcY   the y-coordinate of the upper left corner of the region in the source.
+   * @param width  the width of the region.
+   * @param height the height of the region.
+   * @param dstX   the x-coordinate that the upper left corner of the region will be drawn at.
+   * @param dstY   the y-coordinate that the upper left corner of the region will be drawn at.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  void blitWithAlpha(IReadOnlyRasterData source, int srcX, int srcY, int width, int height,
+      int dstX, int dstY);
 }
@@ -0,0 +1,18 @@
+package chalmers.pimp.model.pixeldata;
+
+import java.io.IOException;
+
+/**
+ * The {@code IRasterDataLoader} interface specifies objects that load raster data on demand, e.g.
+ * from a document file. Loaders are used to defer reading pixels until they are actually needed.
+ */
+public interface IRasterDataLoader {
+
+  /**
+   * Loads the raster data.
+   *
+   * @return the loaded raster data.
+   * @throws IOException if the raster data couldn't be loaded.
+   */
+  IRasterData load() throws IOException;
+}
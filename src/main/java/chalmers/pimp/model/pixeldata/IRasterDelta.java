@@ -0,0 +1,55 @@
+package chalmers.pimp.model.pixeldata;
+
+import chalmers.pimp.model.Rect;
+
+/**
+ * The {@code IRasterDelta} interface specifies objects that describe the change of the pixels of a
+ * raster data instance, caused by some kind of edit. A raster delta only stores the affected
+ * pixels, both before and after the edit, which makes it possible to both revert and reapply the
+ * edit.
+ *
+ * @see RasterDataFactory#createRasterDelta(IReadOnlyRasterData, IRasterData)
+ */
+public interface IRasterDelta {
+
+  /**
+   * Restores the affected pixels of the supplied raster data to their state before the edit.
+   *
+   * @param rasterData the raster data that will be reverted.
+   * @throws NullPointerException     if the supplied raster data is {@code null}.
+   * @throws IllegalArgumentException if the supplied raster data isn't compatible with the delta.
+   */
+  void revert(IRasterData rasterData);
+
+  /**
+   * Sets the affected pixels of the supplied raster data to their state after the edit.
+   *
+   * @param rasterData the raster data that the edit will be applied to.
+   * @throws NullPointerException     if the supplied raster data is {@code null}.
+   * @throws IllegalArgumentException if the supplied raster data isn't compatible with the delta.
+   */
+  void apply(IRasterData rasterData);
+
+  /**
+   * Indicates whether or not the delta is empty, i.e. if the edit didn't affect any pixels.
+   *
+   * @return {@code true} if the delta is empty; {@code false} otherwise.
+   */
+  boolean isEmpty();
+
+  /**
+   * Returns the bounds of the pixels affected by the delta, i.e. the area that changes when the
+   * delta is reverted or applied. The bounds may be larger than the changed pixels, but never
+   * smaller.
+   *
+   * @return the bounds of the affected pixels; an empty rectangle if the delta is empty.
+   */
+  Rect getBounds();
+
+  /**
+   * Returns the approximate amount of heap memory used by the delta.
+   *
+   * @return the approximate size of the delta, in bytes.
+   */
+  long getSizeInBytes();
+}
@@ -0,0 +1,40 @@
+package chalmers.pimp.model.pixeldata;
+
+/**
+ * The {@code IRasterSnapshot} interface specifies objects that remember the pixels of a raster
+ * data instance as they were before an edit, so that a raster delta can be created once the edit
+ * is finished. A snapshot only has to hold the pixels that are affected by the edit, which is why
+ * every region must be captured before it's modified.
+ *
+ * @see RasterDataFactory#createRasterSnapshot(IReadOnlyRasterData)
+ */
+public interface IRasterSnapshot {
+
+  /**
+   * Captures the pixels of the specified region of the supplied raster data, unless they have
+   * already been captured. This method must be invoked before the region is modified. The parts
+   * of the region that are out-of-bounds are ignored.
+   *
+   * @param rasterData the raster data that is about to be modified.
+   * @param x          the x-coordinate of the upper left corner of the region.
+   * @param y          the y-coordinate of the upper left corner of the region.
+   * @param width      the width of the region.
+   * @param height     the height of the region.
+   * @throws NullPointerException     if the supplied raster data is {@code null}.
+   * @throws IllegalArgumentException if the supplied raster data doesn't have the same size as
+   *                                  the snapshot.
+   */
+  void capture(IReadOnlyRasterData rasterData, int x, int y, int width, int height);
+
+  /**
+   * Creates and returns a raster delta that describes how the supplied raster data differs from
+   * the snapshot.
+   *
+   * @param after the raster data that represents the state after the edit.
+   * @return a raster delta that can be used to revert and reapply the edit.
+   * @throws NullPointerException     if the supplied raster data is {@code null}.
+   * @throws IllegalArgumentException if the supplied raster data doesn't have the same size as
+   *                                  the snapshot.
+   */
+  IRasterDelta createDelta(IRasterData after);
+}
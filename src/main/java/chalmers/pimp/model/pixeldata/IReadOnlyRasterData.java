@@ -23,6 +23,72 @@ public interface IReadOnlyRasterData {
    */
   IReadOnlyPixel getPixel(int x, int y);
 
+  /**
+   * Returns the color of a specific pixel, packed into a single ARGB integer. Unlike {@link
+   * IReadOnlyRasterData#getPixel(int, int)}, this method never allocates any objects.
+   *
+   * @param x the x-coordinate of the pixel, zero-indexed.
+   * @param y the y-coordinate of the pixel, zero-indexed.
+   * @return the packed ARGB value of the pixel.
+   * @throws IndexOutOfBoundsException if the given coordinates is out of range.
+   */
+  int getArgb(int x, int y);
+
+  /**
+   * Copies a rectangular region of this raster data into the supplied array, as packed ARGB
+   * integers. The pixel at ({@code x + i}, {@code y + j}) is stored at the index {@code offset + (j
+   * * scanlineStride) + i} in the supplied array.
+   *
+   * @param x              the x-coordinate of the upper left corner of the region.
+   * @param y              the y-coordinate of the upper left corner of the region.
+   * @param width          the width of the region.
+   * @param height         the height of the region.
+   * @param destination    the array that the ARGB values will be copied to.
+   * @param offset         the index of the first pixel in the supplied array.
+   * @param scanlineStride the distance between the start of two consecutive rows in the array.
+   * @throws NullPointerException      if the supplied array is {@code null}.
+   * @throws IndexOutOfBoundsException if the region isn't contained in this raster data, or if the
+   *                                   supplied array is too small.
+   */
+  void readRegion(int x, int y, int width, int height, int[] destination, int offset,
+      int scanlineStride);
+
+  /**
+   * Returns the current version of this raster data. The version is increased every time that the
+   * pixels are modified, which makes it possible to cheaply detect whether or not the pixels have
+   * changed since they were last observed.
+   *
+   * @return the current version of this raster data.
+   */
+  long getVersion();
+
+  /**
+   * Indicates whether or not this raster data continues the history of the supplied raster data,
+   * as observed at the specified version. This is the case for the raster data itself, and for
+   * copies created by {@link RasterDataFactory#createTrackedCopy(IReadOnlyRasterData)} at that
+   * version or later. If so, the regions of the supplied raster data that had changed after the
+   * specified version are also supplied by {@link #visitChangedRegions(long, IRegionConsumer)}.
+   *
+   * @param rasterData the raster data that was observed, may be {@code null}.
+   * @param version    the version of the raster data when it was observed.
+   * @return {@code true} if this raster data continues the history of the supplied raster data;
+   * {@code false} otherwise.
+   */
+  boolean continues(IReadOnlyRasterData rasterData, long version);
+
+  /**
+   * Supplies the regions of this raster data that have been modified after the specified version
+   * to the supplied consumer. The regions are conservative, i.e. they may contain unchanged pixels,
+   * but every changed pixel is guaranteed to be contained in one of the regions. Nothing is
+   * supplied if the specified version is the current version.
+   *
+   * @param version  the version that the regions will be compared to.
+   * @param consumer the consumer that will receive the changed regions.
+   * @throws NullPointerException if the supplied consumer is {@code null}.
+   * @see IReadOnlyRasterData#getVersion()
+   */
+  void visitChangedRegions(long version, IRegionConsumer consumer);
+
   /**
    * Returns the width of this pixel data instance. The width is equivalent to the amount of pixels
    * when counted horizontally.
@@ -0,0 +1,20 @@
+package chalmers.pimp.model.pixeldata;
+
+/**
+ * The {@code IRegionConsumer} interface specifies objects that accept rectangular regions of a
+ * raster data instance.
+ *
+ * @see IReadOnlyRasterData#visitChangedRegions(long, IRegionConsumer)
+ */
+public interface IRegionConsumer {
+
+  /**
+   * Invoked for every supplied region.
+   *
+   * @param x      the x-coordinate of the upper left corner of the region.
+   * @param y      the y-coordinate of the upper left corner of the region.
+   * @param width  the width of the region.
+   * @param height the height of the region.
+   */
+  void accept(int x, int y, int width, int height);
+}
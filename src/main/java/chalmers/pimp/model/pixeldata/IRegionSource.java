@@ -0,0 +1,26 @@
+package chalmers.pimp.model.pixeldata;
+
+/**
+ * The {@code IRegionSource} interface specifies objects that supply the pixels of rectangular
+ * regions as packed ARGB integers, e.g. a decoded image. Raster data can be filled from a region
+ * source by letting the source write directly into the arrays that back the raster data.
+ *
+ * @see RasterDataFactory#createRasterData(int, int, IRegionSource)
+ */
+public interface IRegionSource {
+
+  /**
+   * Writes the packed ARGB values of the specified region to the supplied array. The region is
+   * always contained in the bounds of the raster data that is being filled.
+   *
+   * @param x              the x-coordinate of the upper left corner of the region.
+   * @param y              the y-coordinate of the upper left corner of the region.
+   * @param width          the width of the region.
+   * @param height         the height of the region.
+   * @param destination    the array that the pixel values will be written to.
+   * @param offset         the index of the first pixel in the array.
+   * @param scanlineStride the distance between the start of two consecutive rows in the array.
+   */
+  void read(int x, int y, int width, int height, int[] destination, int offset,
+      int scanlineStride);
+}
@@ -0,0 +1,202 @@
+package chalmers.pimp.model.pixeldata;
+
+import chalmers.pimp.model.color.IColor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The {@code MappedRasterData} class is an implementation of the {@code IRasterData} interface that
+ * stores its pixels as packed ARGB integers in a memory-mapped scratch file, outside of the Java
+ * heap. The operating system pages the pixels in and out on demand, which makes it possible to
+ * work with canvases that wouldn't fit in the heap.
+ *
+ * <p>Since a single mapping is limited to {@code Integer.MAX_VALUE} bytes, the pixels are split
+ * into chunks of whole rows, where each chunk is backed by its own mapping. The scratch file is
+ * removed as soon as the mappings have been created, so no files are left behind when the raster
+ * data is discarded.
+ *
+ * @see IRasterData
+ * @see AbstractRasterData
+ */
+final class MappedRasterData extends AbstractRasterData {
+
+  /**
+   * The max amount of bytes in a single mapped chunk.
+   */
+  static final long MAX_CHUNK_BYTES = 1L << 30;
+
+  private final IntBuffer[] chunks;
+  private final int rowsPerChunk;
+
+  /**
+   * Creates a mapped raster data instance with fully transparent pixels.
+   *
+   * @param width            the amount of pixels in width.
+   * @param height           the amount of pixels in height.
+   * @param scratchDirectory the directory in which the scratch file will be created.
+   * @throws NullPointerException      if the supplied directory is {@code null}.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero.
+   * @throws UncheckedIOException      if the scratch file couldn't be created or mapped.
+   */
+  MappedRasterData(int width, int height, Path scratchDirectory) {
+    this(width, height, scratchDirectory, MAX_CHUNK_BYTES);
+  }
+
+  /**
+   * Creates a mapped raster data instance with fully transparent pixels, that uses chunks of at
+   * most the specified size. At least one row is always stored in each chunk.
+   *
+   * @param width            the amount of pixels in width.
+   * @param height           the amount of pixels in height.
+   * @param scratchDirectory the directory in which the scratch file will be created.
+   * @param chunkBytes       the max amount of bytes in a single chunk.
+   * @throws NullPointerException      if the supplied directory is {@code null}.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero.
+   * @throws UncheckedIOException      if the scratch file couldn't be created or mapped.
+   */
+  MappedRasterData(int width, int height, Path scratchDirectory, long chunkBytes) {
+    super(width, height);
+    Objects.requireNonNull(scratchDirectory);
+
+    long rowBytes = (long) width * Integer.BYTES;
+    long maxRows = Math.min(chunkBytes, MAX_CHUNK_BYTES) / rowBytes;
+    rowsPerChunk = (int) Math.max(1, Math.min(height, maxRows));
+    chunks = new IntBuffer[(height + rowsPerChunk - 1) / rowsPerChunk];
+
+    try {
+      Path file = Files.createTempFile(scratchDirectory, "pimp-raster", ".tmp");
+      try (var channel = FileChannel.open(file, StandardOpenOption.READ,
+          StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+        for (int i = 0; i < chunks.length; i++) {
+          int rows = Math.min(rowsPerChunk, height - (i * rowsPerChunk));
+          long position = i * rowsPerChunk * rowBytes;
+          chunks[i] = channel.map(MapMode.READ_WRITE, position, rows * rowBytes)
+              .order(ByteOrder.nativeOrder())
+              .asIntBuffer();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Creates a mapped raster data instance where all pixels have the supplied color.
+   *
+   * @param width            the amount of pixels in width.
+   * @param height           the amount of pixels in height.
+   * @param color            the color of the pixels.
+   * @param scratchDirectory the directory in which the scratch file will be created.
+   * @throws NullPointerException      if any arguments are {@code null}.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero.
+   * @throws UncheckedIOException      if the scratch file couldn't be created or mapped.
+   */
+  MappedRasterData(int width, int height, IColor color, Path scratchDirectory) {
+    this(width, height, scratchDirectory);
+
+    int[] row = new int[width];
+    Arrays.fill(row, color.toArgb());
+    for (int y = 0; y < height; y++) {
+      writeRow(y, row);
+    }
+  }
+
+  /**
+   * Creates a copy of the supplied raster data instance.
+   *
+   * @param rasterData       the raster data instance that will be copied.
+   * @param scratchDirectory the directory in which the scratch file will be created.
+   * @throws NullPointerException if any arguments are {@code null}.
+   * @throws UncheckedIOException if the scratch file couldn't be created or mapped.
+   */
+  MappedRasterData(IReadOnlyRasterData rasterData, Path scratchDirectory) {
+    this(rasterData.getWidth(), rasterData.getHeight(), scratchDirectory);
+
+    int[] row = new int[getWidth()];
+    for (int y = 0; y < getHeight(); y++) {
+      rasterData.readRegion(0, y, getWidth(), 1, row, 0, getWidth());
+      writeRow(y, row);
+    }
+    clearChanges();
+  }
+
+  /**
+   * Returns the index of the specified pixel in the chunk that contains it.
+   *
+   * @param x the x-coordinate of the pixel.
+   * @param y the y-coordinate of the pixel.
+   * @return the index of the pixel in its chunk.
+   */
+  private int indexOf(int x, int y) {
+    return ((y % rowsPerChunk) * getWidth()) + x;
+  }
+
+  @Override
+  int read(int x, int y) {
+    return chunks[y / rowsPerChunk].get(indexOf(x, y));
+  }
+
+  @Override
+  void write(int x, int y, int argb) {
+    chunks[y / rowsPerChunk].put(indexOf(x, y), argb);
+  }
+
+  @Override
+  void write(int x, int y, int[] source, int offset, int length) {
+    IntBuffer view = chunks[y / rowsPerChunk].duplicate();
+    view.position(indexOf(x, y));
+    view.put(source, offset, length);
+  }
+
+  @Override
+  public void readRegion(int x, int y, int width, int height, int[] destination, int offset,
+      int scanlineStride) {
+    RasterDataUtils.ensureValidRegion(getWidth(), getHeight(), x, y, width, height, destination,
+        offset, scanlineStride);
+    for (int row = 0; row < height; row++) {
+      IntBuffer view = chunks[(y + row) / rowsPerChunk].duplicate();
+      view.position(indexOf(x, y + row));
+      view.get(destination, offset + (row * scanlineStride), width);
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getWidth(), getHeight());
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof MappedRasterData)) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    var rasterData = (MappedRasterData) object;
+    if ((getWidth() != rasterData.getWidth()) || (getHeight() != rasterData.getHeight())) {
+      return false;
+    }
+
+    int[] row = new int[getWidth()];
+    int[] otherRow = new int[getWidth()];
+    for (int y = 0; y < getHeight(); y++) {
+      readRegion(0, y, getWidth(), 1, row, 0, getWidth());
+      rasterData.readRegion(0, y, getWidth(), 1, otherRow, 0, getWidth());
+      if (!Arrays.equals(row, otherRow)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,136 @@
+package chalmers.pimp.model.pixeldata;
+
+import chalmers.pimp.model.color.IColor;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The {@code PackedRasterData} class is an implementation of the {@code IRasterData} interface that
+ * stores all of its pixels in a single array of packed ARGB integers.
+ *
+ * @see IRasterData
+ * @see AbstractRasterData
+ */
+final class PackedRasterData extends AbstractRasterData {
+
+  /**
+   * The max amount of pixels that can be stored in a single array.
+   */
+  static final long MAX_PIXELS = Integer.MAX_VALUE - 8;
+
+  private final int[] argb;
+
+  /**
+   * Creates a packed raster data instance with fully transparent pixels.
+   *
+   * @param width  the amount of pixels in width.
+   * @param height the amount of pixels in height.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero, or if
+   *                                   the raster is too large to fit in a single array.
+   */
+  PackedRasterData(int width, int height) {
+    super(width, height);
+    if (((long) width * height) > MAX_PIXELS) {
+      throw new IndexOutOfBoundsException("Too many pixels: (" + width + "x" + height + ")");
+    }
+    argb = new int[width * height];
+  }
+
+  /**
+   * Creates a packed raster data instance where all pixels have the supplied color.
+   *
+   * @param width  the amount of pixels in width.
+   * @param height the amount of pixels in height.
+   * @param color  the color of the pixels.
+   * @throws NullPointerException      if the provided color is {@code null}.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero, or if
+   *                                   the raster is too large to fit in a single array.
+   */
+  PackedRasterData(int width, int height, IColor color) {
+    this(width, height);
+    Arrays.fill(argb, color.toArgb());
+  }
+
+  /**
+   * Creates a copy of the supplied raster data instance.
+   *
+   * @param rasterData the raster data instance that will be copied.
+   * @throws NullPointerException      if the supplied raster data is {@code null}.
+   * @throws IndexOutOfBoundsException if the supplied raster data is too large to fit in a single
+   *                                   array.
+   */
+  PackedRasterData(IReadOnlyRasterData rasterData) {
+    this(rasterData.getWidth(), rasterData.getHeight());
+    rasterData.readRegion(0, 0, getWidth(), getHeight(), argb, 0, getWidth());
+  }
+
+  /**
+   * Creates a packed raster data instance, whose pixels are read from the supplied source. The
+   * source writes directly into the array that backs the raster data.
+   *
+   * @param width  the amount of pixels in width.
+   * @param height the amount of pixels in height.
+   * @param source the source of the pixels.
+   * @throws NullPointerException      if the supplied source is {@code null}.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero, or if
+   *                                   the raster is too large to fit in a single array.
+   */
+  PackedRasterData(int width, int height, IRegionSource source) {
+    this(width, height);
+    Objects.requireNonNull(source);
+    source.read(0, 0, width, height, argb, 0, width);
+  }
+
+  @Override
+  int read(int x, int y) {
+    return argb[(y * getWidth()) + x];
+  }
+
+  @Override
+  void write(int x, int y, int argb) {
+    this.argb[(y * getWidth()) + x] = argb;
+  }
+
+  @Override
+  void fill(int x, int y, int length, int argb) {
+    int from = (y * getWidth()) + x;
+    Arrays.fill(this.argb, from, from + length, argb);
+  }
+
+  @Override
+  void write(int x, int y, int[] source, int offset, int length) {
+    System.arraycopy(source, offset, argb, (y * getWidth()) + x, length);
+  }
+
+  @Override
+  public void readRegion(int x, int y, int width, int height, int[] destination, int offset,
+      int scanlineStride) {
+    RasterDataUtils.ensureValidRegion(getWidth(), getHeight(), x, y, width, height, destination,
+        offset, scanlineStride);
+    for (int row = 0; row < height; row++) {
+      int srcPos = ((y + row) * getWidth()) + x;
+      System.arraycopy(argb, srcPos, destination, offset + (row * scanlineStride), width);
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getWidth(), getHeight(), Arrays.hashCode(argb));
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof PackedRasterData)) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    var rasterData = (PackedRasterData) object;
+
+    return (getWidth() == rasterData.getWidth())
+        && (getHeight() == rasterData.getHeight())
+        && Arrays.equals(argb, rasterData.argb);
+  }
+}
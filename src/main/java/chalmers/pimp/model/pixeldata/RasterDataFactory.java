@@ -1,6 +1,13 @@
 package chalmers.pimp.model.pixeldata;
 
 import chalmers.pimp.model.color.IColor;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.Objects;
 
 /**
  * The {@code RasterDataFactory} class is a factory for creating instances of the {@code
@@ -10,11 +17,92 @@ import chalmers.pimp.model.color.IColor;
  */
 public final class RasterDataFactory {
 
+  /**
+   * The raster data type that is used when no type is explicitly requested.
+   */
+  public static final RasterDataType DEFAULT_TYPE = RasterDataType.TILED;
+
+  /**
+   * The default amount of pixels above which raster data is stored off-heap, 64 megapixels (256
+   * MB). Can be overridden with the {@code pimp.raster.mappedThreshold} system property.
+   */
+  public static final long DEFAULT_MAPPED_THRESHOLD = 64L * 1024 * 1024;
+
+  /**
+   * The max amount of pixels that are buffered at a time, when raster data is filled in bands.
+   */
+  private static final int MAX_BAND_PIXELS = 1 << 20;
+
+  private static final byte TILED_DELTA = 1;
+  private static final byte REGION_DELTA = 2;
+
+  private static long mappedThreshold = Long.getLong("pimp.raster.mappedThreshold",
+      DEFAULT_MAPPED_THRESHOLD);
+  private static Path scratchDirectory = Path.of(System.getProperty("pimp.raster.scratchDir",
+      System.getProperty("java.io.tmpdir")));
+
   private RasterDataFactory() {
   }
 
   /**
-   * Creates and returns a raster data instance.
+   * Sets the amount of pixels above which raster data is automatically stored in memory-mapped
+   * scratch files, instead of on the Java heap.
+   *
+   * @param threshold the new threshold, in pixels.
+   * @throws IllegalArgumentException if the supplied threshold is negative.
+   */
+  public static void setMappedThreshold(long threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Negative threshold: " + threshold);
+    }
+    mappedThreshold = threshold;
+  }
+
+  /**
+   * Returns the amount of pixels above which raster data is automatically stored in
+   * memory-mapped scratch files.
+   *
+   * @return the amount of pixels above which raster data is stored off-heap.
+   */
+  public static long getMappedThreshold() {
+    return mappedThreshold;
+  }
+
+  /**
+   * Sets the directory in which the scratch files of memory-mapped raster data are created.
+   *
+   * @param directory the new scratch directory.
+   * @throws NullPointerException if the supplied directory is {@code null}.
+   */
+  public static void setScratchDirectory(Path directory) {
+    scratchDirectory = Objects.requireNonNull(directory);
+  }
+
+  /**
+   * Returns the directory in which the scratch files of memory-mapped raster data are created.
+   *
+   * @return the scratch directory.
+   */
+  public static Path getScratchDirectory() {
+    return scratchDirectory;
+  }
+
+  /**
+   * Indicates whether or not raster data of the specified size should be stored off-heap.
+   *
+   * @param width  the width of the raster data.
+   * @param height the height of the raster data.
+   * @return {@code true} if the raster data should be memory-mapped; {@code false} otherwise.
+   */
+  private static boolean shouldBeMapped(int width, int height) {
+    long pixels = (long) width * height;
+    return (pixels > mappedThreshold) || (pixels > PackedRasterData.MAX_PIXELS);
+  }
+
+  /**
+   * Creates and returns a raster data instance, that uses the default raster data type {@link
+   * RasterDataFactory#DEFAULT_TYPE}. Raster data with more pixels than the mapped threshold is
+   * stored off-heap instead.
    *
    * @param width  the width of the raster data instance.
    * @param height the height of the raster data instance.
@@ -22,7 +110,35 @@ public final class RasterDataFactory {
    * @throws IndexOutOfBoundsException if width or height isn't greater than 1.
    */
   public static IRasterData createRasterData(int width, int height) {
-    return new RasterDataImpl(width, height);
+    RasterDataType type = shouldBeMapped(width, height) ? RasterDataType.MAPPED : DEFAULT_TYPE;
+    return createRasterData(type, width, height);
+  }
+
+  /**
+   * Creates and returns a raster data instance of the specified type. All pixels in the created
+   * raster data are fully transparent.
+   *
+   * @param type   the raster data type that determines how the pixels are stored.
+   * @param width  the width of the raster data instance.
+   * @param height the height of the raster data instance.
+   * @return a raster data instance.
+   * @throws NullPointerException      if the supplied type is {@code null}.
+   * @throws IndexOutOfBoundsException if width or height isn't greater than 1.
+   * @throws java.io.UncheckedIOException if a memory-mapped scratch file couldn't be created.
+   */
+  public static IRasterData createRasterData(RasterDataType type, int width, int height) {
+    switch (type) {
+      case OBJECT:
+        return new RasterDataImpl(width, height);
+      case PACKED:
+        return new PackedRasterData(width, height);
+      case TILED:
+        return new TiledRasterData(width, height);
+      case MAPPED:
+        return new MappedRasterData(width, height, scratchDirectory);
+      default:
+        throw new IllegalArgumentException("Unknown raster data type: " + type);
+    }
   }
 
   /**
@@ -35,17 +151,298 @@ public final class RasterDataFactory {
    * @throws IndexOutOfBoundsException if width or height isn't greater than 1.
    */
   public static IRasterData createRasterData(int width, int height, IColor color) {
-    return new RasterDataImpl(width, height, color);
+    if (shouldBeMapped(width, height)) {
+      return new MappedRasterData(width, height, color, scratchDirectory);
+    }
+    return new TiledRasterData(width, height, color);
+  }
+
+  /**
+   * Creates and returns a raster data instance, whose pixels are read from the supplied source.
+   * The raster data type is selected in the same way as by {@link
+   * RasterDataFactory#createRasterData(int, int)}. Heap-allocated raster data lets the source
+   * write directly into its backing arrays, which avoids any intermediate copies.
+   *
+   * @param width  the width of the raster data instance.
+   * @param height the height of the raster data instance.
+   * @param source the source of the pixels.
+   * @return a raster data instance that contains the pixels of the source.
+   * @throws NullPointerException      if the supplied source is {@code null}.
+   * @throws IndexOutOfBoundsException if width or height isn't greater than 1.
+   * @throws java.io.UncheckedIOException if a memory-mapped scratch file couldn't be created.
+   */
+  public static IRasterData createRasterData(int width, int height, IRegionSource source) {
+    RasterDataType type = shouldBeMapped(width, height) ? RasterDataType.MAPPED : DEFAULT_TYPE;
+    return createRasterData(type, width, height, source);
   }
 
   /**
-   * Creates and returns a raster data instance that is a copy of the supplied raster data.
+   * Creates and returns a raster data instance of the specified type, whose pixels are read from
+   * the supplied source.
+   *
+   * @param type   the raster data type that determines how the pixels are stored.
+   * @param width  the width of the raster data instance.
+   * @param height the height of the raster data instance.
+   * @param source the source of the pixels.
+   * @return a raster data instance that contains the pixels of the source.
+   * @throws NullPointerException      if any arguments are {@code null}.
+   * @throws IndexOutOfBoundsException if width or height isn't greater than 1.
+   * @throws java.io.UncheckedIOException if a memory-mapped scratch file couldn't be created.
+   */
+  public static IRasterData createRasterData(RasterDataType type, int width, int height,
+      IRegionSource source) {
+    Objects.requireNonNull(source);
+    switch (type) {
+      case PACKED:
+        return new PackedRasterData(width, height, source);
+      case TILED:
+        return new TiledRasterData(width, height, source);
+      default:
+        IRasterData rasterData = createRasterData(type, width, height);
+        copyRows(source, rasterData);
+        return rasterData;
+    }
+  }
+
+  /**
+   * Copies all pixels of the supplied source into the supplied raster data, in bands of rows.
+   *
+   * @param source     the source of the pixels.
+   * @param rasterData the raster data that the pixels will be written to.
+   */
+  private static void copyRows(IRegionSource source, IRasterData rasterData) {
+    final int width = rasterData.getWidth();
+    final int height = rasterData.getHeight();
+    final int bandHeight = Math.max(1, Math.min(height, MAX_BAND_PIXELS / width));
+    final int[] band = new int[width * bandHeight];
+
+    for (int y = 0; y < height; y += bandHeight) {
+      int rows = Math.min(bandHeight, height - y);
+      source.read(0, y, width, rows, band, 0, width);
+      rasterData.writeRegion(0, y, width, rows, band, 0, width);
+    }
+  }
+
+  /**
+   * Creates and returns a raster data instance that is a copy of the supplied raster data. The
+   * created copy stores its pixels in the same way as the supplied raster data. Copies of tiled
+   * raster data share their tiles with the original, until either of them is modified. A copy
+   * starts at version 0, without any changed regions.
    *
    * @param rasterData the raster data that will be copied.
    * @return a raster data instance that is a copy of the supplied raster data.
    * @throws NullPointerException if the supplied raster data is {@code null}.
    */
-  public static IRasterData createRasterData(IRasterData rasterData) {
-    return new RasterDataImpl(rasterData);
+  public static IRasterData createRasterData(IReadOnlyRasterData rasterData) {
+    if (rasterData instanceof RasterDataImpl) {
+      return new RasterDataImpl(rasterData);
+    } else if (rasterData instanceof TiledRasterData) {
+      return new TiledRasterData((TiledRasterData) rasterData);
+    } else if (rasterData instanceof MappedRasterData) {
+      return new MappedRasterData(rasterData, scratchDirectory);
+    } else {
+      return new PackedRasterData(rasterData);
+    }
+  }
+
+  /**
+   * Creates and returns a copy of the supplied raster data, like {@link
+   * RasterDataFactory#createRasterData(IReadOnlyRasterData)}, except that the copy continues the
+   * version and the changed regions of the supplied raster data. This makes it possible to replace
+   * raster data with a copy, without consumers of the changed regions missing any changes.
+   *
+   * @param rasterData the raster data that will be copied.
+   * @return a raster data instance that is a copy of the supplied raster data.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  public static IRasterData createTrackedCopy(IReadOnlyRasterData rasterData) {
+    IRasterData copy = createRasterData(rasterData);
+    if (rasterData instanceof AbstractRasterData) {
+      ((AbstractRasterData) copy).copyChanges((AbstractRasterData) rasterData);
+    } else if (rasterData instanceof RasterDataImpl) {
+      ((RasterDataImpl) copy).copyChanges((RasterDataImpl) rasterData);
+    }
+    return copy;
+  }
+
+  /**
+   * Creates and returns a raster delta that describes the difference between the two supplied
+   * raster data instances. The delta only stores the pixels that differ, so its size scales with
+   * the extent of the edit, rather than with the size of the raster data. Raster data that
+   * shares tiles with a copy, see {@link RasterDataFactory#createRasterData(IReadOnlyRasterData)},
+   * is compared tile by tile.
+   *
+   * @param before the raster data that represents the state before the edit.
+   * @param after  the raster data that represents the state after the edit.
+   * @return a raster delta that can be used to revert and reapply the edit.
+   * @throws NullPointerException     if any arguments are {@code null}.
+   * @throws IllegalArgumentException if the raster data instances don't have the same size.
+   */
+  public static IRasterDelta createRasterDelta(IReadOnlyRasterData before, IRasterData after) {
+    Objects.requireNonNull(before);
+    Objects.requireNonNull(after);
+
+    if ((before.getWidth() != after.getWidth()) || (before.getHeight() != after.getHeight())) {
+      throw new IllegalArgumentException("Raster data sizes differ!");
+    }
+
+    if ((before instanceof TiledRasterData) && (after instanceof TiledRasterData)) {
+      return new TiledRasterDelta((TiledRasterData) before, (TiledRasterData) after);
+    } else {
+      return new RegionRasterDelta(before, after);
+    }
+  }
+
+  /**
+   * Creates and returns a snapshot of the supplied raster data, which can be used to create a
+   * raster delta once an edit is finished. Snapshots of tiled raster data share their tiles with
+   * the original. Other snapshots only copy the regions that are captured before they're modified,
+   * so that the cost of a snapshot scales with the size of the edit rather than the raster data.
+   *
+   * @param rasterData the raster data that is about to be edited.
+   * @return a snapshot of the supplied raster data.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  public static IRasterSnapshot createRasterSnapshot(IReadOnlyRasterData rasterData) {
+    Objects.requireNonNull(rasterData);
+    if (rasterData instanceof TiledRasterData) {
+      return new TiledRasterSnapshot((TiledRasterData) rasterData);
+    } else {
+      return new RegionRasterSnapshot(rasterData);
+    }
+  }
+
+  /**
+   * Writes the supplied raster delta to the supplied output, so that it can be read back with
+   * {@link RasterDataFactory#readRasterDelta(DataInput)}.
+   *
+   * @param delta  the raster delta that will be written.
+   * @param output the output that the delta will be written to.
+   * @throws NullPointerException     if any arguments are {@code null}.
+   * @throws IllegalArgumentException if the delta wasn't created by this factory.
+   * @throws IOException              if the delta couldn't be written.
+   */
+  public static void writeRasterDelta(IRasterDelta delta, DataOutput output) throws IOException {
+    Objects.requireNonNull(delta);
+    Objects.requireNonNull(output);
+
+    if (delta instanceof TiledRasterDelta) {
+      output.writeByte(TILED_DELTA);
+      ((TiledRasterDelta) delta).write(output);
+    } else if (delta instanceof RegionRasterDelta) {
+      output.writeByte(REGION_DELTA);
+      ((RegionRasterDelta) delta).write(output);
+    } else {
+      throw new IllegalArgumentException("Unknown raster delta: " + delta);
+    }
+  }
+
+  /**
+   * Reads a raster delta that was written with {@link
+   * RasterDataFactory#writeRasterDelta(IRasterDelta, DataOutput)}.
+   *
+   * @param input the input that the delta will be read from.
+   * @return the read raster delta.
+   * @throws NullPointerException if the supplied input is {@code null}.
+   * @throws IOException          if the delta couldn't be read.
+   */
+  public static IRasterDelta readRasterDelta(DataInput input) throws IOException {
+    byte type = input.readByte();
+    switch (type) {
+      case TILED_DELTA:
+        return new TiledRasterDelta(input);
+      case REGION_DELTA:
+        return new RegionRasterDelta(input);
+      default:
+        throw new IOException("Unknown raster delta type: " + type);
+    }
+  }
+
+  /**
+   * Writes the pixels of the supplied raster data to the supplied output, so that they can be read
+   * back with {@link RasterDataFactory#readRasterData(DataInput)}. The pixels are written tile by
+   * tile, and fully transparent tiles are skipped, so the size of the output scales with the
+   * painted area of the raster data.
+   *
+   * @param rasterData the raster data that will be written.
+   * @param output     the output that the raster data will be written to.
+   * @throws NullPointerException if any arguments are {@code null}.
+   * @throws IOException          if the raster data couldn't be written.
+   */
+  public static void writeRasterData(IReadOnlyRasterData rasterData, DataOutput output)
+      throws IOException {
+    Objects.requireNonNull(rasterData);
+    Objects.requireNonNull(output);
+
+    final int width = rasterData.getWidth();
+    final int height = rasterData.getHeight();
+    final int tileSize = TiledRasterData.TILE_SIZE;
+    output.writeInt(width);
+    output.writeInt(height);
+
+    int[] tile = new int[tileSize * tileSize];
+    ByteBuffer bytes = ByteBuffer.allocate(tile.length * Integer.BYTES);
+    for (int tileY = 0; tileY < height; tileY += tileSize) {
+      for (int tileX = 0; tileX < width; tileX += tileSize) {
+        int tileWidth = Math.min(tileSize, width - tileX);
+        int tileHeight = Math.min(tileSize, height - tileY);
+        int length = tileWidth * tileHeight;
+        rasterData.readRegion(tileX, tileY, tileWidth, tileHeight, tile, 0, tileWidth);
+
+        boolean isEmpty = true;
+        for (int i = 0; (i < length) && isEmpty; i++) {
+          isEmpty = (tile[i] == 0);
+        }
+
+        output.writeBoolean(!isEmpty);
+        if (!isEmpty) {
+          bytes.clear();
+          bytes.asIntBuffer().put(tile, 0, length);
+          output.write(bytes.array(), 0, length * Integer.BYTES);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads raster data that was written with {@link
+   * RasterDataFactory#writeRasterData(IReadOnlyRasterData, DataOutput)}. The created raster data
+   * uses the same type as {@link RasterDataFactory#createRasterData(int, int)}, and tiles that
+   * were skipped are never allocated.
+   *
+   * @param input the input that the raster data will be read from.
+   * @return the read raster data.
+   * @throws NullPointerException if the supplied input is {@code null}.
+   * @throws IOException          if the raster data couldn't be read.
+   */
+  public static IRasterData readRasterData(DataInput input) throws IOException {
+    final int width = input.readInt();
+    final int height = input.readInt();
+    final int tileSize = TiledRasterData.TILE_SIZE;
+    if ((width < 1) || (height < 1)) {
+      throw new IOException("Invalid raster data size: " + width + "x" + height);
+    }
+
+    IRasterData rasterData = createRasterData(width, height);
+
+    int[] tile = new int[tileSize * tileSize];
+    byte[] bytes = new byte[tile.length * Integer.BYTES];
+    IntBuffer ints = ByteBuffer.wrap(bytes).asIntBuffer();
+    for (int tileY = 0; tileY < height; tileY += tileSize) {
+      for (int tileX = 0; tileX < width; tileX += tileSize) {
+        if (!input.readBoolean()) {
+          continue;
+        }
+
+        int tileWidth = Math.min(tileSize, width - tileX);
+        int tileHeight = Math.min(tileSize, height - tileY);
+        int length = tileWidth * tileHeight;
+        input.readFully(bytes, 0, length * Integer.BYTES);
+        ints.clear();
+        ints.get(tile, 0, length);
+        rasterData.writeRegion(tileX, tileY, tileWidth, tileHeight, tile, 0, tileWidth);
+      }
+    }
+    return rasterData;
   }
 }
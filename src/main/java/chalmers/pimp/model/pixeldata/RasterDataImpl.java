@@ -1,5 +1,6 @@
 package chalmers.pimp.model.pixeldata;
 
+import chalmers.pimp.model.color.ColorFactory;
 import chalmers.pimp.model.color.IColor;
 import java.util.ArrayList;
 import java.util.List;
@@ -10,18 +11,11 @@ import java.util.Objects;
  */
 final class RasterDataImpl implements IRasterData {
 
-  /**
-   * The max width of the matrix.
-   */
-  private static final int MAX_WIDTH = 100_000;
-  /**
-   * The max height of the matrix.
-   */
-  private static final int MAX_HEIGHT = 100_000;
   /**
    * A matrix of pixels with a List containing Lists (rows).
    */
   private final List<List<IPixel>> pixels;
+  private final ChangeTracker changeTracker;
 
   /**
    * Creates a PixelData with the given width (amount of pixels horizontally) and height (amount of
@@ -32,11 +26,9 @@ final class RasterDataImpl implements IRasterData {
    * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero.
    */
   RasterDataImpl(int width, int height) {
-    if ((width <= 0) || (width > MAX_WIDTH) || (height <= 0) || (height > MAX_HEIGHT)) {
-      throw new IndexOutOfBoundsException("Bad dimensions: (" + width + "x" + height + ")");
-    } else {
-      pixels = createPixelDataMatrix(width, height);
-    }
+    RasterDataUtils.ensureValidDimensions(width, height);
+    pixels = createPixelDataMatrix(width, height);
+    changeTracker = new ChangeTracker(width, height);
   }
 
   /**
@@ -51,11 +43,9 @@ final class RasterDataImpl implements IRasterData {
    */
   RasterDataImpl(int width, int height, IColor color) {
     Objects.requireNonNull(color);
-    if ((width <= 0) || (width > MAX_WIDTH) || (height <= 0) || (height > MAX_HEIGHT)) {
-      throw new IndexOutOfBoundsException("Bad dimensions: (" + width + "x" + height + ")");
-    } else {
-      pixels = createPixelDataMatrix(width, height, color);
-    }
+    RasterDataUtils.ensureValidDimensions(width, height);
+    pixels = createPixelDataMatrix(width, height, color);
+    changeTracker = new ChangeTracker(width, height);
   }
 
   /**
@@ -64,15 +54,17 @@ final class RasterDataImpl implements IRasterData {
    * @param rasterData the pixel data instance that will be copied.
    * @throws NullPointerException if the supplied pixel data is {@code null}.
    */
-  RasterDataImpl(IRasterData rasterData) {
+  RasterDataImpl(IReadOnlyRasterData rasterData) {
     Objects.requireNonNull(rasterData);
     pixels = createPixelDataMatrix(rasterData.getWidth(), rasterData.getHeight());
+    changeTracker = new ChangeTracker(rasterData.getWidth(), rasterData.getHeight());
 
     for (Iterable<? extends IReadOnlyPixel> pixelRow : rasterData.getPixels()) {
       for (IReadOnlyPixel pixel : pixelRow) {
         setPixel(PixelFactory.createPixel(pixel));
       }
     }
+    changeTracker.clear();
   }
 
   /**
@@ -152,6 +144,103 @@ final class RasterDataImpl implements IRasterData {
     Objects.requireNonNull(pixel);
     if (!isBadCoordinate(pixel.getX(), pixel.getY())) {
       pixels.get(pixel.getY()).set(pixel.getX(), pixel);
+      changeTracker.markChanged(pixel.getX(), pixel.getY());
+    }
+  }
+
+  @Override
+  public void setArgb(int x, int y, int argb) {
+    if (!isBadCoordinate(x, y)) {
+      pixels.get(y).set(x, new PixelImpl(x, y, ColorFactory.createColorFromArgb(argb)));
+      changeTracker.markChanged(x, y);
+    }
+  }
+
+  @Override
+  public void fillRow(int x, int y, int length, int argb) {
+    int to = (int) Math.min(getWidth(), (long) x + length);
+    for (int col = Math.max(0, x); col < to; col++) {
+      setArgb(col, y, argb);
+    }
+  }
+
+  @Override
+  public void fillRect(int x, int y, int width, int height, int argb) {
+    int to = (int) Math.min(getHeight(), (long) y + height);
+    for (int row = Math.max(0, y); row < to; row++) {
+      fillRow(x, row, width, argb);
+    }
+  }
+
+  @Override
+  public void writeRegion(int x, int y, int width, int height, int[] source, int offset,
+      int scanlineStride) {
+    RasterDataUtils.ensureValidRegion(getWidth(), getHeight(), x, y, width, height, source,
+        offset, scanlineStride);
+    for (int row = 0; row < height; row++) {
+      int rowOffset = offset + (row * scanlineStride);
+      for (int col = 0; col < width; col++) {
+        setArgb(x + col, y + row, source[rowOffset + col]);
+      }
+    }
+  }
+
+  @Override
+  public void writeRow(int y, int[] argb) {
+    writeRegion(0, y, getWidth(), 1, argb, 0, getWidth());
+  }
+
+  @Override
+  public void copyRegion(IReadOnlyRasterData source, int srcX, int srcY, int width, int height,
+      int dstX, int dstY) {
+    transferRegion(source, srcX, srcY, width, height, dstX, dstY, false);
+  }
+
+  @Override
+  public void blitWithAlpha(IReadOnlyRasterData source, int srcX, int srcY, int width,
+      int height, int dstX, int dstY) {
+    transferRegion(source, srcX, srcY, width, height, dstX, dstY, true);
+  }
+
+  /**
+   * Copies or blends a region of the supplied raster data into this raster data, one pixel at a
+   * time. Pixels are visited in the reverse order along an axis if the source is this raster data
+   * and the region moves in the positive direction along that axis.
+   *
+   * @param source the raster data that the pixels will be read from.
+   * @param srcX   the x-coordinate of the upper left corner of the region in the source.
+   * @param srcY   the y-coordinate of the upper left corner of the region in the source.
+   * @param width  the width of the region.
+   * @param height the height of the region.
+   * @param dstX   the x-coordinate of the upper left corner of the region in this raster data.
+   * @param dstY   the y-coordinate of the upper left corner of the region in this raster data.
+   * @param blend  {@code true} if the pixels should be blended; {@code false} if they should be
+   *               replaced.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  private void transferRegion(IReadOnlyRasterData source, int srcX, int srcY, int width,
+      int height, int dstX, int dstY, boolean blend) {
+    Objects.requireNonNull(source);
+
+    int left = (int) Math.max(0, Math.max(-(long) srcX, -(long) dstX));
+    int top = (int) Math.max(0, Math.max(-(long) srcY, -(long) dstY));
+    int right = (int) Math.min(width,
+        Math.min((long) source.getWidth() - srcX, (long) getWidth() - dstX));
+    int bottom = (int) Math.min(height,
+        Math.min((long) source.getHeight() - srcY, (long) getHeight() - dstY));
+
+    boolean isReversedX = (source == this) && (dstX > srcX);
+    boolean isReversedY = (source == this) && (dstY > srcY);
+    for (int i = top; i < bottom; i++) {
+      int row = isReversedY ? (bottom - 1 - (i - top)) : i;
+      for (int j = left; j < right; j++) {
+        int col = isReversedX ? (right - 1 - (j - left)) : j;
+        int argb = source.getArgb(srcX + col, srcY + row);
+        if (blend) {
+          argb = RasterDataUtils.blend(argb, getArgb(dstX + col, dstY + row));
+        }
+        setArgb(dstX + col, dstY + row, argb);
+      }
     }
   }
 
@@ -166,6 +255,51 @@ final class RasterDataImpl implements IRasterData {
     return pixels.get(y).get(x);
   }
 
+  @Override
+  public int getArgb(int x, int y) {
+    return getPixel(x, y).getColor().toArgb();
+  }
+
+  @Override
+  public void readRegion(int x, int y, int width, int height, int[] destination, int offset,
+      int scanlineStride) {
+    RasterDataUtils.ensureValidRegion(getWidth(), getHeight(), x, y, width, height, destination,
+        offset, scanlineStride);
+    for (int row = 0; row < height; row++) {
+      List<IPixel> pixelRow = pixels.get(y + row);
+      int rowOffset = offset + (row * scanlineStride);
+      for (int col = 0; col < width; col++) {
+        destination[rowOffset + col] = pixelRow.get(x + col).getColor().toArgb();
+      }
+    }
+  }
+
+  /**
+   * Replaces the recorded changes and the version of this raster data with those of the supplied
+   * raster data, which must have the same size. Used to continue the history of raster data that
+   * has been copied.
+   *
+   * @param rasterData the raster data whose changes will be copied.
+   */
+  void copyChanges(RasterDataImpl rasterData) {
+    changeTracker.copyFrom(rasterData.changeTracker, rasterData);
+  }
+
+  @Override
+  public long getVersion() {
+    return changeTracker.getVersion();
+  }
+
+  @Override
+  public boolean continues(IReadOnlyRasterData rasterData, long version) {
+    return (rasterData == this) || changeTracker.continues(rasterData, version);
+  }
+
+  @Override
+  public void visitChangedRegions(long version, IRegionConsumer consumer) {
+    changeTracker.visitChangedRegions(version, consumer);
+  }
+
   @Override
   public int getWidth() {
     return pixels.get(0).size();
@@ -0,0 +1,33 @@
+package chalmers.pimp.model.pixeldata;
+
+/**
+ * The {@code RasterDataType} enum provides values that represent the different ways that raster
+ * data can be stored.
+ *
+ * @see RasterDataFactory
+ */
+public enum RasterDataType {
+  /**
+   * The value that represents raster data where every pixel is stored as a separate pixel object.
+   * This representation is very memory intensive and is mostly kept for compatibility.
+   */
+  OBJECT,
+
+  /**
+   * The value that represents raster data where all pixels are stored in a single array of packed
+   * ARGB integers. Pixel objects are only created on demand.
+   */
+  PACKED,
+
+  /**
+   * The value that represents raster data where the pixels are split into tiles of packed ARGB
+   * integers. Tiles are shared between copies and are only copied when they are written to.
+   */
+  TILED,
+
+  /**
+   * The value that represents raster data where the pixels are stored as packed ARGB integers in a
+   * memory-mapped scratch file, outside of the Java heap. Intended for very large canvases.
+   */
+  MAPPED
+}
@@ -0,0 +1,183 @@
+package chalmers.pimp.model.pixeldata;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * The {@code RasterDataUtils} class provides utilities shared by the implementations of the {@code
+ * IRasterData} interface.
+ *
+ * @see IRasterData
+ */
+final class RasterDataUtils {
+
+  /**
+   * The max width of a raster data instance.
+   */
+  static final int MAX_WIDTH = 100_000;
+
+  /**
+   * The max height of a raster data instance.
+   */
+  static final int MAX_HEIGHT = 100_000;
+
+  private RasterDataUtils() {
+  }
+
+  /**
+   * Ensures that the supplied dimensions are valid for a raster data instance.
+   *
+   * @param width  the width that will be checked.
+   * @param height the height that will be checked.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero, or if
+   *                                   any of them exceed their max value.
+   */
+  static void ensureValidDimensions(int width, int height) {
+    if ((width <= 0) || (width > MAX_WIDTH) || (height <= 0) || (height > MAX_HEIGHT)) {
+      throw new IndexOutOfBoundsException("Bad dimensions: (" + width + "x" + height + ")");
+    }
+  }
+
+  /**
+   * Ensures that the specified region is contained in a raster of the specified size, and that the
+   * supplied array is large enough to hold the region.
+   *
+   * @param rasterWidth    the width of the raster.
+   * @param rasterHeight   the height of the raster.
+   * @param x              the x-coordinate of the region.
+   * @param y              the y-coordinate of the region.
+   * @param width          the width of the region.
+   * @param height         the height of the region.
+   * @param array          the array that will be used to hold the region.
+   * @param offset         the index of the first pixel in the array.
+   * @param scanlineStride the distance between the start of two consecutive rows in the array.
+   * @throws NullPointerException      if the supplied array is {@code null}.
+   * @throws IndexOutOfBoundsException if the region or the array is out-of-bounds.
+   */
+  static void ensureValidRegion(int rasterWidth, int rasterHeight, int x, int y, int width,
+      int height, int[] array, int offset, int scanlineStride) {
+    Objects.requireNonNull(array);
+
+    if ((x < 0) || (y < 0) || (width < 0) || (height < 0) || (x + width > rasterWidth)
+        || (y + height > rasterHeight)) {
+      throw new IndexOutOfBoundsException(
+          "Bad region: (" + x + ", " + y + ", " + width + "x" + height + ")");
+    }
+
+    if ((width > 0) && (height > 0)) {
+      long last = offset + ((long) (height - 1) * scanlineStride) + width;
+      if ((offset < 0) || (scanlineStride < width) || (last > array.length)) {
+        throw new IndexOutOfBoundsException("Array too small for region: " + array.length);
+      }
+    }
+  }
+
+  /**
+   * Ensures that the supplied raster data instances have the same size.
+   *
+   * @param first  the first raster data instance.
+   * @param second the second raster data instance.
+   * @throws IllegalArgumentException if the raster data instances don't have the same size.
+   */
+  static void ensureSameSize(IReadOnlyRasterData first, IReadOnlyRasterData second) {
+    if ((first.getWidth() != second.getWidth()) || (first.getHeight() != second.getHeight())) {
+      throw new IllegalArgumentException("Raster data sizes differ!");
+    }
+  }
+
+  /**
+   * Blends the supplied source color on top of the supplied destination color, using the
+   * source-over operator. Both colors are packed, non-premultiplied ARGB integers.
+   *
+   * @param src the packed ARGB value of the color on top.
+   * @param dst the packed ARGB value of the color below.
+   * @return the packed ARGB value of the blended color.
+   */
+  static int blend(int src, int dst) {
+    int srcAlpha = src >>> 24;
+    if (srcAlpha == 0xFF) {
+      return src;
+    } else if (srcAlpha == 0) {
+      return dst;
+    }
+
+    // Weights are scaled by 255 * 255, to avoid rounding the intermediate alpha values
+    int srcWeight = srcAlpha * 0xFF;
+    int dstWeight = (dst >>> 24) * (0xFF - srcAlpha);
+    int totalWeight = srcWeight + dstWeight;
+
+    int alpha = (totalWeight + 127) / 0xFF;
+    int red = blendChannel(src >> 16, dst >> 16, srcWeight, dstWeight, totalWeight);
+    int green = blendChannel(src >> 8, dst >> 8, srcWeight, dstWeight, totalWeight);
+    int blue = blendChannel(src, dst, srcWeight, dstWeight, totalWeight);
+
+    return (alpha << 24) | (red << 16) | (green << 8) | blue;
+  }
+
+  /**
+   * Computes the weighted average of the lowest byte of the supplied values.
+   *
+   * @param src         the source value, only the lowest byte is used.
+   * @param dst         the destination value, only the lowest byte is used.
+   * @param srcWeight   the weight of the source value.
+   * @param dstWeight   the weight of the destination value.
+   * @param totalWeight the sum of the weights, larger than zero.
+   * @return the weighted average, in the range [0, 255].
+   */
+  private static int blendChannel(int src, int dst, int srcWeight, int dstWeight,
+      int totalWeight) {
+    int sum = ((src & 0xFF) * srcWeight) + ((dst & 0xFF) * dstWeight);
+    return (sum + (totalWeight / 2)) / totalWeight;
+  }
+
+  /**
+   * Writes the supplied array to the supplied output, as its length followed by its elements. A
+   * {@code null} array is written as the length {@code -1}.
+   *
+   * @param output the output that the array will be written to.
+   * @param array  the array that will be written, may be {@code null}.
+   * @throws IOException if the array couldn't be written.
+   */
+  static void writeArray(DataOutput output, int[] array) throws IOException {
+    if (array == null) {
+      output.writeInt(-1);
+    } else {
+      output.writeInt(array.length);
+      for (int value : array) {
+        output.writeInt(value);
+      }
+    }
+  }
+
+  /**
+   * Reads an array that was written with {@link RasterDataUtils#writeArray(DataOutput, int[])}.
+   *
+   * @param input the input that the array will be read from.
+   * @return the read array; {@code null} if a {@code null} array was written.
+   * @throws IOException if the array couldn't be read.
+   */
+  static int[] readArray(DataInput input) throws IOException {
+    int length = input.readInt();
+    if (length == -1) {
+      return null;
+    }
+
+    int[] array = new int[length];
+    for (int i = 0; i < length; i++) {
+      array[i] = input.readInt();
+    }
+    return array;
+  }
+
+  /**
+   * Returns the approximate amount of heap memory used by the supplied array.
+   *
+   * @param array the array, may be {@code null}.
+   * @return the approximate size of the array, in bytes.
+   */
+  static long sizeOf(int[] array) {
+    return (array == null) ? 0 : 16L + ((long) array.length * Integer.BYTES);
+  }
+}
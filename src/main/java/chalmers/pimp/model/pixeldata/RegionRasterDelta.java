@@ -0,0 +1,179 @@
+package chalmers.pimp.model.pixeldata;
+
+import chalmers.pimp.model.Rect;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The {@code RegionRasterDelta} class is an implementation of the {@code IRasterDelta} interface
+ * that stores the smallest rectangular region that contains all of the changed pixels.
+ *
+ * @see IRasterDelta
+ */
+final class RegionRasterDelta implements IRasterDelta {
+
+  private final int x;
+  private final int y;
+  private final int width;
+  private final int height;
+  private final int[] beforePixels;
+  private final int[] afterPixels;
+
+  /**
+   * Creates an empty region raster delta, which doesn't affect any pixels.
+   */
+  RegionRasterDelta() {
+    x = 0;
+    y = 0;
+    width = 0;
+    height = 0;
+    beforePixels = new int[0];
+    afterPixels = new int[0];
+  }
+
+  /**
+   * @param before the raster data that represents the state before the edit.
+   * @param after  the raster data that represents the state after the edit.
+   * @throws NullPointerException if any arguments are {@code null}.
+   */
+  RegionRasterDelta(IReadOnlyRasterData before, IReadOnlyRasterData after) {
+    this(before, 0, 0, after);
+  }
+
+  /**
+   * Creates a region raster delta by only comparing the area of the supplied raster data that is
+   * covered by the supplied state before the edit. The pixels outside of that area are assumed to
+   * be unaffected by the edit.
+   *
+   * @param before  the raster data that represents the state of the area before the edit.
+   * @param beforeX the x-coordinate of the upper left corner of the area.
+   * @param beforeY the y-coordinate of the upper left corner of the area.
+   * @param after   the raster data that represents the state after the edit.
+   * @throws NullPointerException      if any arguments are {@code null}.
+   * @throws IndexOutOfBoundsException if the area isn't contained in the raster data.
+   */
+  RegionRasterDelta(IReadOnlyRasterData before, int beforeX, int beforeY,
+      IReadOnlyRasterData after) {
+    Objects.requireNonNull(before);
+    Objects.requireNonNull(after);
+
+    int areaWidth = before.getWidth();
+    int areaHeight = before.getHeight();
+    int[] beforeRow = new int[areaWidth];
+    int[] afterRow = new int[areaWidth];
+
+    int minX = areaWidth;
+    int minY = areaHeight;
+    int maxX = -1;
+    int maxY = -1;
+
+    for (int row = 0; row < areaHeight; row++) {
+      before.readRegion(0, row, areaWidth, 1, beforeRow, 0, areaWidth);
+      after.readRegion(beforeX, beforeY + row, areaWidth, 1, afterRow, 0, areaWidth);
+
+      int mismatch = Arrays.mismatch(beforeRow, afterRow);
+      if (mismatch != -1) {
+        int last = areaWidth - 1;
+        while (beforeRow[last] == afterRow[last]) {
+          last--;
+        }
+        minX = Math.min(minX, mismatch);
+        maxX = Math.max(maxX, last);
+        minY = Math.min(minY, row);
+        maxY = row;
+      }
+    }
+
+    if (maxY == -1) {
+      x = 0;
+      y = 0;
+      width = 0;
+      height = 0;
+    } else {
+      x = beforeX + minX;
+      y = beforeY + minY;
+      width = (maxX - minX) + 1;
+      height = (maxY - minY) + 1;
+    }
+
+    beforePixels = new int[width * height];
+    afterPixels = new int[width * height];
+    before.readRegion(x - beforeX, y - beforeY, width, height, beforePixels, 0, width);
+    after.readRegion(x, y, width, height, afterPixels, 0, width);
+  }
+
+  /**
+   * Creates a region raster delta by reading it from the supplied input, see {@link
+   * RegionRasterDelta#write(DataOutput)}.
+   *
+   * @param input the input that the delta will be read from.
+   * @throws NullPointerException if the supplied input is {@code null}.
+   * @throws IOException          if the delta couldn't be read.
+   */
+  RegionRasterDelta(DataInput input) throws IOException {
+    x = input.readInt();
+    y = input.readInt();
+    width = input.readInt();
+    height = input.readInt();
+    beforePixels = RasterDataUtils.readArray(input);
+    afterPixels = RasterDataUtils.readArray(input);
+  }
+
+  /**
+   * Writes the supplied pixels to the affected region of the supplied raster data.
+   *
+   * @param rasterData the raster data that will be modified.
+   * @param pixels     the packed ARGB values of the region.
+   */
+  private void writeRegion(IRasterData rasterData, int[] pixels) {
+    Objects.requireNonNull(rasterData);
+    if (pixels.length != 0) {
+      rasterData.writeRegion(x, y, width, height, pixels, 0, width);
+    }
+  }
+
+  @Override
+  public void revert(IRasterData rasterData) {
+    writeRegion(rasterData, beforePixels);
+  }
+
+  @Override
+  public void apply(IRasterData rasterData) {
+    writeRegion(rasterData, afterPixels);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return beforePixels.length == 0;
+  }
+
+  @Override
+  public Rect getBounds() {
+    return new Rect(x, y, width, height);
+  }
+
+  @Override
+  public long getSizeInBytes() {
+    return RasterDataUtils.sizeOf(beforePixels) + RasterDataUtils.sizeOf(afterPixels);
+  }
+
+  /**
+   * Writes the delta to the supplied output.
+   *
+   * @param output the output that the delta will be written to.
+   * @throws NullPointerException if the supplied output is {@code null}.
+   * @throws IOException          if the delta couldn't be written.
+   */
+  void write(DataOutput output) throws IOException {
+    Objects.requireNonNull(output);
+    output.writeInt(x);
+    output.writeInt(y);
+    output.writeInt(width);
+    output.writeInt(height);
+    RasterDataUtils.writeArray(output, beforePixels);
+    RasterDataUtils.writeArray(output, afterPixels);
+  }
+}
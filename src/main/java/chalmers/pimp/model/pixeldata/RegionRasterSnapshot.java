@@ -0,0 +1,116 @@
+package chalmers.pimp.model.pixeldata;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@code RegionRasterSnapshot} class is an implementation of the {@code IRasterSnapshot}
+ * interface for raster data that can't share its storage. The raster is divided into square
+ * cells, and the pixels of a cell are copied the first time that a captured region touches it.
+ * The size of the snapshot, and the work required to create a delta from it, therefore scales with
+ * the edited area rather than with the size of the raster data.
+ *
+ * @see IRasterSnapshot
+ * @see RegionRasterDelta
+ */
+final class RegionRasterSnapshot implements IRasterSnapshot {
+
+  private static final int CELL_SIZE = ChangeTracker.CELL_SIZE;
+
+  private final int width;
+  private final int height;
+  private final int columns;
+  private final Map<Integer, int[]> cells;
+  private int minX;
+  private int minY;
+  private int maxX;
+  private int maxY;
+
+  /**
+   * @param rasterData the raster data that is about to be edited.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  RegionRasterSnapshot(IReadOnlyRasterData rasterData) {
+    Objects.requireNonNull(rasterData);
+    width = rasterData.getWidth();
+    height = rasterData.getHeight();
+    columns = (width + CELL_SIZE - 1) / CELL_SIZE;
+    cells = new HashMap<>();
+    minX = width;
+    minY = height;
+    maxX = 0;
+    maxY = 0;
+  }
+
+  /**
+   * Ensures that the supplied raster data has the same size as the snapshot.
+   *
+   * @param rasterData the raster data that will be checked.
+   * @throws NullPointerException     if the supplied raster data is {@code null}.
+   * @throws IllegalArgumentException if the raster data doesn't have the same size.
+   */
+  private void checkSize(IReadOnlyRasterData rasterData) {
+    Objects.requireNonNull(rasterData);
+    if ((rasterData.getWidth() != width) || (rasterData.getHeight() != height)) {
+      throw new IllegalArgumentException("Raster data sizes differ!");
+    }
+  }
+
+  @Override
+  public void capture(IReadOnlyRasterData rasterData, int x, int y, int width, int height) {
+    checkSize(rasterData);
+
+    int firstX = Math.max(0, x);
+    int firstY = Math.max(0, y);
+    int lastX = Math.min(this.width, x + width) - 1;
+    int lastY = Math.min(this.height, y + height) - 1;
+    if ((lastX < firstX) || (lastY < firstY)) {
+      return;
+    }
+
+    for (int row = firstY / CELL_SIZE; row <= lastY / CELL_SIZE; row++) {
+      for (int col = firstX / CELL_SIZE; col <= lastX / CELL_SIZE; col++) {
+        Integer cell = (row * columns) + col;
+        if (!cells.containsKey(cell)) {
+          int cellX = col * CELL_SIZE;
+          int cellY = row * CELL_SIZE;
+          int cellWidth = Math.min(CELL_SIZE, this.width - cellX);
+          int cellHeight = Math.min(CELL_SIZE, this.height - cellY);
+
+          int[] pixels = new int[cellWidth * cellHeight];
+          rasterData.readRegion(cellX, cellY, cellWidth, cellHeight, pixels, 0, cellWidth);
+          cells.put(cell, pixels);
+
+          minX = Math.min(minX, cellX);
+          minY = Math.min(minY, cellY);
+          maxX = Math.max(maxX, cellX + cellWidth);
+          maxY = Math.max(maxY, cellY + cellHeight);
+        }
+      }
+    }
+  }
+
+  @Override
+  public IRasterDelta createDelta(IRasterData after) {
+    checkSize(after);
+    if (cells.isEmpty()) {
+      return new RegionRasterDelta();
+    }
+
+    // Pixels outside of the captured cells haven't been modified, so they're read from the result
+    var before = new PackedRasterData(maxX - minX, maxY - minY);
+    before.copyRegion(after, minX, minY, maxX - minX, maxY - minY, 0, 0);
+
+    for (Map.Entry<Integer, int[]> entry : cells.entrySet()) {
+      int cellX = (entry.getKey() % columns) * CELL_SIZE;
+      int cellY = (entry.getKey() / columns) * CELL_SIZE;
+      int cellWidth = Math.min(CELL_SIZE, width - cellX);
+      int cellHeight = Math.min(CELL_SIZE, height - cellY);
+      before.writeRegion(cellX - minX, cellY - minY, cellWidth, cellHeight, entry.getValue(), 0,
+          cellWidth);
+    }
+
+    return new RegionRasterDelta(before, minX, minY, after);
+  }
+}
@@ -0,0 +1,346 @@
+package chalmers.pimp.model.pixeldata;
+
+import chalmers.pimp.model.color.IColor;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The {@code TiledRasterData} class is an implementation of the {@code IRasterData} interface that
+ * splits its pixels into square tiles of packed ARGB integers. Tiles that have never been written
+ * to aren't allocated at all, and represent fully transparent pixels.
+ *
+ * <p>Copies of tiled raster data share their tiles with the original raster data. A shared tile is
+ * only copied when either raster data writes to it (copy-on-write), which makes copying a raster
+ * data instance as cheap as copying an array of references.
+ *
+ * @see IRasterData
+ * @see AbstractRasterData
+ */
+final class TiledRasterData extends AbstractRasterData {
+
+  /**
+   * The width and height of a single tile, in pixels.
+   */
+  static final int TILE_SIZE = 64;
+
+  private static final int TILE_SHIFT = 6;
+  private static final int TILE_MASK = TILE_SIZE - 1;
+  private static final int TILE_PIXELS = TILE_SIZE * TILE_SIZE;
+  private static final int[] EMPTY_TILE = new int[TILE_PIXELS];
+
+  private final int tileColumns;
+  private final int tileRows;
+  private final int[][] tiles;
+
+  /**
+   * Indicates which tiles are exclusively owned by this instance, i.e. which tiles can be written
+   * to without first being copied.
+   */
+  private final boolean[] owned;
+
+  /**
+   * Creates a tiled raster data instance with fully transparent pixels.
+   *
+   * @param width  the amount of pixels in width.
+   * @param height the amount of pixels in height.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero.
+   */
+  TiledRasterData(int width, int height) {
+    super(width, height);
+    tileColumns = (width + TILE_MASK) >> TILE_SHIFT;
+    tileRows = (height + TILE_MASK) >> TILE_SHIFT;
+    tiles = new int[tileColumns * tileRows][];
+    owned = new boolean[tiles.length];
+  }
+
+  /**
+   * Creates a tiled raster data instance where all pixels have the supplied color. All tiles share
+   * a single array until they are written to.
+   *
+   * @param width  the amount of pixels in width.
+   * @param height the amount of pixels in height.
+   * @param color  the color of the pixels.
+   * @throws NullPointerException      if the supplied color is {@code null}.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero.
+   */
+  TiledRasterData(int width, int height, IColor color) {
+    this(width, height);
+    int argb = color.toArgb();
+    if (argb != 0) {
+      int[] tile = new int[TILE_PIXELS];
+      Arrays.fill(tile, argb);
+      Arrays.fill(tiles, tile);
+    }
+  }
+
+  /**
+   * Creates a copy of the supplied tiled raster data instance. The tiles are shared between the
+   * two instances, until either of them writes to a tile.
+   *
+   * @param rasterData the raster data instance that will be copied.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  TiledRasterData(TiledRasterData rasterData) {
+    this(rasterData.getWidth(), rasterData.getHeight());
+    System.arraycopy(rasterData.tiles, 0, tiles, 0, tiles.length);
+    Arrays.fill(rasterData.owned, false);
+  }
+
+  /**
+   * Creates a copy of the supplied raster data instance.
+   *
+   * @param rasterData the raster data instance that will be copied.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  TiledRasterData(IReadOnlyRasterData rasterData) {
+    this(rasterData.getWidth(), rasterData.getHeight());
+
+    for (int i = 0; i < tiles.length; i++) {
+      int tileX = getTileX(i);
+      int tileY = getTileY(i);
+      int width = Math.min(TILE_SIZE, getWidth() - tileX);
+      int height = Math.min(TILE_SIZE, getHeight() - tileY);
+
+      int[] tile = new int[TILE_PIXELS];
+      rasterData.readRegion(tileX, tileY, width, height, tile, 0, TILE_SIZE);
+      tiles[i] = tile;
+      owned[i] = true;
+    }
+  }
+
+  /**
+   * Creates a tiled raster data instance, whose pixels are read from the supplied source. The
+   * source writes directly into the tiles that back the raster data, one tile at a time.
+   *
+   * @param width  the amount of pixels in width.
+   * @param height the amount of pixels in height.
+   * @param source the source of the pixels.
+   * @throws NullPointerException      if the supplied source is {@code null}.
+   * @throws IndexOutOfBoundsException if width or height is smaller than or equal to zero.
+   */
+  TiledRasterData(int width, int height, IRegionSource source) {
+    this(width, height);
+    Objects.requireNonNull(source);
+
+    for (int i = 0; i < tiles.length; i++) {
+      int tileX = getTileX(i);
+      int tileY = getTileY(i);
+      int[] tile = new int[TILE_PIXELS];
+      source.read(tileX, tileY, Math.min(TILE_SIZE, width - tileX),
+          Math.min(TILE_SIZE, height - tileY), tile, 0, TILE_SIZE);
+      tiles[i] = tile;
+      owned[i] = true;
+    }
+  }
+
+  /**
+   * Returns the index of the tile that contains the specified pixel.
+   *
+   * @param x the x-coordinate of the pixel.
+   * @param y the y-coordinate of the pixel.
+   * @return the index of the tile that contains the pixel.
+   */
+  private int tileIndexOf(int x, int y) {
+    return ((y >> TILE_SHIFT) * tileColumns) + (x >> TILE_SHIFT);
+  }
+
+  /**
+   * Returns the index of the specified pixel inside of the tile that contains it.
+   *
+   * @param x the x-coordinate of the pixel.
+   * @param y the y-coordinate of the pixel.
+   * @return the index of the pixel in its tile.
+   */
+  private static int pixelIndexOf(int x, int y) {
+    return ((y & TILE_MASK) << TILE_SHIFT) + (x & TILE_MASK);
+  }
+
+  /**
+   * Returns a tile that can be written to, copying or allocating it if necessary.
+   *
+   * @param tileIndex the index of the tile.
+   * @return a tile that is exclusively owned by this instance.
+   */
+  private int[] getWritableTile(int tileIndex) {
+    if (!owned[tileIndex]) {
+      int[] tile = tiles[tileIndex];
+      tiles[tileIndex] = (tile == null) ? new int[TILE_PIXELS] : tile.clone();
+      owned[tileIndex] = true;
+    }
+    return tiles[tileIndex];
+  }
+
+  /**
+   * Returns the amount of tiles in this raster data.
+   *
+   * @return the amount of tiles.
+   */
+  int getTileCount() {
+    return tiles.length;
+  }
+
+  /**
+   * Returns the x-coordinate of the upper left corner of the specified tile.
+   *
+   * @param tileIndex the index of the tile.
+   * @return the x-coordinate of the tile.
+   */
+  int getTileX(int tileIndex) {
+    return (tileIndex % tileColumns) << TILE_SHIFT;
+  }
+
+  /**
+   * Returns the y-coordinate of the upper left corner of the specified tile.
+   *
+   * @param tileIndex the index of the tile.
+   * @return the y-coordinate of the tile.
+   */
+  int getTileY(int tileIndex) {
+    return (tileIndex / tileColumns) << TILE_SHIFT;
+  }
+
+  /**
+   * Returns the specified tile. The returned array must not be modified. Since tiles are copied
+   * before being written to, two raster data instances that return the same array for a tile are
+   * guaranteed to have identical pixels in that tile.
+   *
+   * @param tileIndex the index of the tile.
+   * @return the specified tile; {@code null} if the tile is fully transparent.
+   */
+  int[] getTile(int tileIndex) {
+    return tiles[tileIndex];
+  }
+
+  /**
+   * Replaces the specified tile with the supplied tile. The supplied tile is shared, i.e. it will
+   * be copied before this instance writes to it.
+   *
+   * @param tileIndex the index of the tile.
+   * @param tile      the new tile, may be {@code null} for a fully transparent tile.
+   */
+  void setTile(int tileIndex, int[] tile) {
+    if (tiles[tileIndex] != tile) {
+      int tileX = getTileX(tileIndex);
+      int tileY = getTileY(tileIndex);
+      markChanged(tileX, tileY, Math.min(TILE_SIZE, getWidth() - tileX),
+          Math.min(TILE_SIZE, getHeight() - tileY));
+    }
+    tiles[tileIndex] = tile;
+    owned[tileIndex] = false;
+  }
+
+  /**
+   * Indicates whether or not the pixels of the specified tile are equal to the pixels of the
+   * supplied tile. Pixels outside of the bounds of this raster data are ignored.
+   *
+   * @param tileIndex the index of the tile.
+   * @param other     the tile that will be compared, may be {@code null}.
+   * @return {@code true} if the tiles contain the same pixels; {@code false} otherwise.
+   */
+  private boolean tileEquals(int tileIndex, int[] other) {
+    int[] tile = (tiles[tileIndex] == null) ? EMPTY_TILE : tiles[tileIndex];
+    int[] otherTile = (other == null) ? EMPTY_TILE : other;
+
+    int width = Math.min(TILE_SIZE, getWidth() - getTileX(tileIndex));
+    int height = Math.min(TILE_SIZE, getHeight() - getTileY(tileIndex));
+    for (int row = 0; row < height; row++) {
+      int from = row * TILE_SIZE;
+      if (!Arrays.equals(tile, from, from + width, otherTile, from, from + width)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  int read(int x, int y) {
+    int[] tile = tiles[tileIndexOf(x, y)];
+    return (tile == null) ? 0 : tile[pixelIndexOf(x, y)];
+  }
+
+  @Override
+  void write(int x, int y, int argb) {
+    int tileIndex = tileIndexOf(x, y);
+    if ((tiles[tileIndex] == null) && (argb == 0)) {
+      return;
+    }
+    getWritableTile(tileIndex)[pixelIndexOf(x, y)] = argb;
+  }
+
+  @Override
+  void fill(int x, int y, int length, int argb) {
+    int col = 0;
+    while (col < length) {
+      int dstX = x + col;
+      int span = Math.min(length - col, TILE_SIZE - (dstX & TILE_MASK));
+      int tileIndex = tileIndexOf(dstX, y);
+      if ((tiles[tileIndex] != null) || (argb != 0)) {
+        int from = pixelIndexOf(dstX, y);
+        Arrays.fill(getWritableTile(tileIndex), from, from + span, argb);
+      }
+      col += span;
+    }
+  }
+
+  @Override
+  void write(int x, int y, int[] source, int offset, int length) {
+    int col = 0;
+    while (col < length) {
+      int dstX = x + col;
+      int span = Math.min(length - col, TILE_SIZE - (dstX & TILE_MASK));
+      System.arraycopy(source, offset + col, getWritableTile(tileIndexOf(dstX, y)),
+          pixelIndexOf(dstX, y), span);
+      col += span;
+    }
+  }
+
+  @Override
+  public void readRegion(int x, int y, int width, int height, int[] destination, int offset,
+      int scanlineStride) {
+    RasterDataUtils.ensureValidRegion(getWidth(), getHeight(), x, y, width, height, destination,
+        offset, scanlineStride);
+    for (int row = 0; row < height; row++) {
+      int srcY = y + row;
+      int dstPos = offset + (row * scanlineStride);
+      int col = 0;
+      while (col < width) {
+        int srcX = x + col;
+        int span = Math.min(width - col, TILE_SIZE - (srcX & TILE_MASK));
+        int[] tile = tiles[tileIndexOf(srcX, srcY)];
+        if (tile == null) {
+          Arrays.fill(destination, dstPos + col, dstPos + col + span, 0);
+        } else {
+          System.arraycopy(tile, pixelIndexOf(srcX, srcY), destination, dstPos + col, span);
+        }
+        col += span;
+      }
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getWidth(), getHeight());
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof TiledRasterData)) {
+      return false;
+    }
+    if (object == this) {
+      return true;
+    }
+
+    var rasterData = (TiledRasterData) object;
+    if ((getWidth() != rasterData.getWidth()) || (getHeight() != rasterData.getHeight())) {
+      return false;
+    }
+
+    for (int i = 0; i < tiles.length; i++) {
+      if ((tiles[i] != rasterData.tiles[i]) && !tileEquals(i, rasterData.tiles[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,158 @@
+package chalmers.pimp.model.pixeldata;
+
+import chalmers.pimp.model.Rect;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The {@code TiledRasterDelta} class is an implementation of the {@code IRasterDelta} interface
+ * for tiled raster data. Only the tiles that differ between the two states are stored, and the
+ * tiles are shared with the raster data instances rather than copied.
+ *
+ * @see IRasterDelta
+ * @see TiledRasterData
+ */
+final class TiledRasterDelta implements IRasterDelta {
+
+  private final Rect bounds;
+  private final int[] tileIndices;
+  private final int[][] beforeTiles;
+  private final int[][] afterTiles;
+
+  /**
+   * @param before the raster data that represents the state before the edit.
+   * @param after  the raster data that represents the state after the edit.
+   * @throws NullPointerException if any arguments are {@code null}.
+   */
+  TiledRasterDelta(TiledRasterData before, TiledRasterData after) {
+    Objects.requireNonNull(before);
+    Objects.requireNonNull(after);
+
+    int tileCount = after.getTileCount();
+    int[] indices = new int[tileCount];
+    int count = 0;
+
+    for (int i = 0; i < tileCount; i++) {
+      int[] beforeTile = before.getTile(i);
+      int[] afterTile = after.getTile(i);
+      if ((beforeTile != afterTile) && !Arrays.equals(beforeTile, afterTile)) {
+        indices[count++] = i;
+      }
+    }
+
+    tileIndices = Arrays.copyOf(indices, count);
+    beforeTiles = new int[count][];
+    afterTiles = new int[count][];
+
+    Rect affected = new Rect(0, 0, 0, 0);
+    for (int i = 0; i < count; i++) {
+      int tileIndex = tileIndices[i];
+      int tileX = after.getTileX(tileIndex);
+      int tileY = after.getTileY(tileIndex);
+      affected = affected.union(new Rect(tileX, tileY,
+          Math.min(TiledRasterData.TILE_SIZE, after.getWidth() - tileX),
+          Math.min(TiledRasterData.TILE_SIZE, after.getHeight() - tileY)));
+
+      beforeTiles[i] = before.getTile(tileIndex);
+      afterTiles[i] = after.getTile(tileIndex);
+
+      // The stored tile must be copied before the raster data writes to it again
+      after.setTile(tileIndex, afterTiles[i]);
+    }
+    bounds = affected;
+  }
+
+  /**
+   * Creates a tiled raster delta by reading it from the supplied input, see {@link
+   * TiledRasterDelta#write(DataOutput)}.
+   *
+   * @param input the input that the delta will be read from.
+   * @throws NullPointerException if the supplied input is {@code null}.
+   * @throws IOException          if the delta couldn't be read.
+   */
+  TiledRasterDelta(DataInput input) throws IOException {
+    bounds = new Rect(input.readInt(), input.readInt(), input.readInt(), input.readInt());
+    int count = input.readInt();
+    tileIndices = new int[count];
+    beforeTiles = new int[count][];
+    afterTiles = new int[count][];
+
+    for (int i = 0; i < count; i++) {
+      tileIndices[i] = input.readInt();
+      beforeTiles[i] = RasterDataUtils.readArray(input);
+      afterTiles[i] = RasterDataUtils.readArray(input);
+    }
+  }
+
+  /**
+   * Replaces the affected tiles of the supplied raster data with the supplied tiles.
+   *
+   * @param rasterData the raster data that will be modified.
+   * @param tiles      the tiles that will be used.
+   */
+  private void setTiles(IRasterData rasterData, int[][] tiles) {
+    Objects.requireNonNull(rasterData);
+
+    if (rasterData instanceof TiledRasterData) {
+      var tiledRasterData = (TiledRasterData) rasterData;
+      for (int i = 0; i < tileIndices.length; i++) {
+        tiledRasterData.setTile(tileIndices[i], tiles[i]);
+      }
+    } else {
+      throw new IllegalArgumentException("Tiled raster deltas require tiled raster data!");
+    }
+  }
+
+  @Override
+  public void revert(IRasterData rasterData) {
+    setTiles(rasterData, beforeTiles);
+  }
+
+  @Override
+  public void apply(IRasterData rasterData) {
+    setTiles(rasterData, afterTiles);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return tileIndices.length == 0;
+  }
+
+  @Override
+  public Rect getBounds() {
+    return bounds;
+  }
+
+  @Override
+  public long getSizeInBytes() {
+    long size = RasterDataUtils.sizeOf(tileIndices);
+    for (int i = 0; i < tileIndices.length; i++) {
+      size += RasterDataUtils.sizeOf(beforeTiles[i]) + RasterDataUtils.sizeOf(afterTiles[i]);
+    }
+    return size;
+  }
+
+  /**
+   * Writes the delta to the supplied output.
+   *
+   * @param output the output that the delta will be written to.
+   * @throws NullPointerException if the supplied output is {@code null}.
+   * @throws IOException          if the delta couldn't be written.
+   */
+  void write(DataOutput output) throws IOException {
+    Objects.requireNonNull(output);
+    output.writeInt(bounds.getX());
+    output.writeInt(bounds.getY());
+    output.writeInt(bounds.getWidth());
+    output.writeInt(bounds.getHeight());
+    output.writeInt(tileIndices.length);
+    for (int i = 0; i < tileIndices.length; i++) {
+      output.writeInt(tileIndices[i]);
+      RasterDataUtils.writeArray(output, beforeTiles[i]);
+      RasterDataUtils.writeArray(output, afterTiles[i]);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package chalmers.pimp.model.pixeldata;
+
+import java.util.Objects;
+
+/**
+ * The {@code TiledRasterSnapshot} class is an implementation of the {@code IRasterSnapshot}
+ * interface for tiled raster data. The snapshot is a copy of the raster data, which shares its
+ * tiles with the original until they're modified, so nothing has to be captured.
+ *
+ * @see IRasterSnapshot
+ * @see TiledRasterData
+ */
+final class TiledRasterSnapshot implements IRasterSnapshot {
+
+  private final TiledRasterData rasterData;
+
+  /**
+   * @param rasterData the raster data that is about to be edited.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  TiledRasterSnapshot(TiledRasterData rasterData) {
+    this.rasterData = new TiledRasterData(Objects.requireNonNull(rasterData));
+  }
+
+  @Override
+  public void capture(IReadOnlyRasterData rasterData, int x, int y, int width, int height) {
+    Objects.requireNonNull(rasterData);
+    RasterDataUtils.ensureSameSize(this.rasterData, rasterData);
+  }
+
+  @Override
+  public IRasterDelta createDelta(IRasterData after) {
+    return RasterDataFactory.createRasterDelta(rasterData, after);
+  }
+}
@@ -36,13 +36,11 @@ final class DoodleTool implements ITool {
   @Override
   public void dragged(MouseStatus mouseStatus) {
     Objects.requireNonNull(mouseStatus);
-    model.notifyCanvasUpdateListeners();
-
     int x = model.getViewport().getTranslatedX(mouseStatus.getX());
     int y = model.getViewport().getTranslatedY(mouseStatus.getY());
 
     doodle.addPoint(new Point(x, y));
-    doodle.draw(model.getRenderer(), model.getViewport());
+    model.setPreview(doodle);
   }
 
   @Override
@@ -56,6 +54,7 @@ final class DoodleTool implements ITool {
   public void released(MouseStatus mouseStatus) {
     Objects.requireNonNull(mouseStatus);
 
+    model.setPreview(null);
     model.addLayer(doodle);
   }
 }
@@ -29,9 +29,7 @@ final class ShapeTool implements ITool {
   @Override
   public void dragged(MouseStatus mouseStatus) {
     Objects.requireNonNull(mouseStatus);
-    model.notifyCanvasUpdateListeners();
-    ILayer newShape = createRect(mouseStatus);
-    newShape.draw(model.getRenderer(), model.getViewport());
+    model.setPreview(createRect(mouseStatus));
   }
 
   @Override
@@ -45,6 +43,7 @@ final class ShapeTool implements ITool {
   public void released(MouseStatus mouseStatus) {
     Objects.requireNonNull(mouseStatus);
     ILayer newShape = createRect(mouseStatus);
+    model.setPreview(null);
     model.addLayer(newShape);
   }
 
@@ -0,0 +1,241 @@
+package chalmers.pimp.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The {@code AutosaveDirectory} class manages the autosave journals of the running instances of the
+ * application, see {@link AutosaveService}. Every instance writes to a journal with a unique name,
+ * and holds a lock on a lock file next to it for as long as it's running. A journal whose lock file
+ * isn't locked is left over from an instance that has exited or crashed, and can be recovered.
+ *
+ * <p>Locks are held on behalf of the whole process, so within a single process, the journals of
+ * all open autosave directories are considered to be in use.
+ */
+public final class AutosaveDirectory implements AutoCloseable {
+
+  private static final String JOURNAL_PREFIX = "session-";
+  private static final String JOURNAL_SUFFIX = ".journal";
+  private static final String LOCK_SUFFIX = ".lock";
+
+  private final Path directory;
+  private final Path journal;
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+
+  /**
+   * @param directory   the directory that contains the journals.
+   * @param journal     the journal of this instance.
+   * @param lockChannel the channel of the lock file of the journal.
+   * @param lock        the lock that marks the journal as in use.
+   */
+  private AutosaveDirectory(Path directory, Path journal, FileChannel lockChannel,
+      FileLock lock) {
+    this.directory = directory;
+    this.journal = journal;
+    this.lockChannel = lockChannel;
+    this.lock = lock;
+  }
+
+  /**
+   * Returns the default autosave directory of the current user, which is located in the temporary
+   * directory of the system.
+   *
+   * @return the default autosave directory.
+   */
+  public static Path getDefaultDirectory() {
+    String user = System.getProperty("user.name", "").replaceAll("[^A-Za-z0-9._-]", "_");
+    return Path.of(System.getProperty("java.io.tmpdir"), "pimp-autosave-" + user);
+  }
+
+  /**
+   * Opens the supplied autosave directory, creating it if necessary, and creates a journal for
+   * this instance of the application in it. Leftover journals are pruned, so that only the most
+   * recently modified one is kept for recovery.
+   *
+   * @param directory the directory that contains the journals.
+   * @return the opened autosave directory.
+   * @throws NullPointerException if the supplied directory is {@code null}.
+   * @throws IOException          if the directory, the journal or its lock couldn't be created.
+   */
+  public static AutosaveDirectory open(Path directory) throws IOException {
+    Objects.requireNonNull(directory);
+    Files.createDirectories(directory);
+
+    pruneLeftoverJournals(directory);
+
+    Path journal = Files.createTempFile(directory, JOURNAL_PREFIX, JOURNAL_SUFFIX);
+    FileChannel channel = FileChannel.open(getLockFile(journal), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+    try {
+      FileLock lock = channel.tryLock();
+      if (lock == null) {
+        throw new IOException("The autosave journal is locked: " + journal);
+      }
+      return new AutosaveDirectory(directory, journal, channel, lock);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      Files.deleteIfExists(journal);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the lock file of the supplied journal.
+   *
+   * @param journal the journal.
+   * @return the lock file of the journal.
+   */
+  private static Path getLockFile(Path journal) {
+    return journal.resolveSibling(journal.getFileName() + LOCK_SUFFIX);
+  }
+
+  /**
+   * Indicates whether or not the supplied journal is in use by a running instance of the
+   * application.
+   *
+   * @param journal the journal.
+   * @return {@code true} if the journal is locked; {@code false} otherwise.
+   */
+  private static boolean isLocked(Path journal) {
+    Path lockFile = getLockFile(journal);
+    try {
+      if (!Files.exists(lockFile)) {
+        // The lock file of a journal is created right after the journal, by the same instance
+        return Files.size(journal) == 0;
+      }
+    } catch (IOException e) {
+      return true;
+    }
+
+    try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+      FileLock lock = channel.tryLock();
+      if (lock == null) {
+        return true;
+      }
+      lock.release();
+      return false;
+    } catch (OverlappingFileLockException e) {
+      return true; // locked by this process
+    } catch (IOException e) {
+      return true; // the journal might be in use, so it's left alone
+    }
+  }
+
+  /**
+   * Returns the journals in the supplied directory that aren't in use, the most recently modified
+   * journal first.
+   *
+   * @param directory the directory that contains the journals.
+   * @return the leftover journals.
+   * @throws IOException if the directory couldn't be read.
+   */
+  private static List<Path> findLeftoverJournals(Path directory) throws IOException {
+    List<Path> journals = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+        JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+      for (Path journal : stream) {
+        if (!isLocked(journal)) {
+          journals.add(journal);
+        }
+      }
+    }
+
+    Map<Path, FileTime> times = new HashMap<>();
+    for (Path journal : journals) {
+      times.put(journal, Files.getLastModifiedTime(journal));
+    }
+    journals.sort(Comparator.comparing(times::get, Comparator.reverseOrder()));
+    return journals;
+  }
+
+  /**
+   * Deletes all leftover journals in the supplied directory, except for the most recently modified
+   * one. Journals that can't be deleted are ignored.
+   *
+   * @param directory the directory that contains the journals.
+   * @throws IOException if the directory couldn't be read.
+   */
+  private static void pruneLeftoverJournals(Path directory) throws IOException {
+    List<Path> journals = findLeftoverJournals(directory);
+    for (Path journal : journals.subList(Math.min(1, journals.size()), journals.size())) {
+      delete(journal);
+    }
+  }
+
+  /**
+   * Deletes the supplied journal and its lock file. Failures are ignored.
+   *
+   * @param journal the journal that will be deleted.
+   */
+  private static void delete(Path journal) {
+    try {
+      Files.deleteIfExists(journal);
+      Files.deleteIfExists(getLockFile(journal));
+    } catch (IOException e) {
+      System.err.println("Failed to delete autosave journal! Exception: " + e);
+    }
+  }
+
+  /**
+   * Returns the journal that this instance of the application writes to.
+   *
+   * @return the journal of this instance.
+   */
+  public Path getJournal() {
+    return journal;
+  }
+
+  /**
+   * Returns the most recently modified journal that isn't in use by any running instance of the
+   * application, i.e. the journal of an instance that has exited or crashed.
+   *
+   * @return the leftover journal; {@code null} if there is no leftover journal.
+   * @throws IOException if the directory couldn't be read.
+   */
+  public Path findLeftoverJournal() throws IOException {
+    List<Path> journals = findLeftoverJournals(directory);
+    return journals.isEmpty() ? null : journals.get(0);
+  }
+
+  /**
+   * Deletes the supplied leftover journal, e.g. once it has been recovered. This method has no
+   * effect if the journal is in use.
+   *
+   * @param leftover the leftover journal that will be deleted.
+   * @throws NullPointerException if the supplied journal is {@code null}.
+   */
+  public void deleteLeftoverJournal(Path leftover) {
+    Objects.requireNonNull(leftover);
+    if (!leftover.equals(journal) && !isLocked(leftover)) {
+      delete(leftover);
+    }
+  }
+
+  /**
+   * Releases the lock of the journal of this instance, so that the journal is considered to be
+   * left over. The journal itself is left intact.
+   */
+  @Override
+  public void close() {
+    try {
+      lock.release();
+      lockChannel.close();
+    } catch (IOException e) {
+      System.err.println("Failed to release the autosave journal! Exception: " + e);
+    }
+  }
+}
@@ -0,0 +1,845 @@
+package chalmers.pimp.service;
+
+import chalmers.pimp.model.IModel;
+import chalmers.pimp.model.Rect;
+import chalmers.pimp.model.canvas.ICanvasUpdateListener;
+import chalmers.pimp.model.canvas.LayerUpdateEvent;
+import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.canvas.layer.ILayerUpdateListener;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import chalmers.pimp.model.pixeldata.RasterDataType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code AutosaveService} class protects the document of a model against crashes, by appending
+ * checkpoints of the document to a journal file in the background. A checkpoint only contains what
+ * has changed since the previous checkpoint: the properties of layers that have changed, and the
+ * regions of raster layers that have been modified since the version that was last written, see
+ * {@link IReadOnlyRasterData#getVersion()}. A checkpoint after a single stroke therefore costs a
+ * few kilobytes, regardless of the size of the document.
+ *
+ * <p>The service listens to the updates of the model, and takes a checkpoint a while after the
+ * first update since the previous checkpoint. Checkpoints are captured on the thread that modifies
+ * the model, which only copies the changed pixels, and are written to the journal on a background
+ * thread with a low priority. The pixels of new raster layers are written in full, from a copy of
+ * the layer, which is cheap for tiled raster data.
+ *
+ * <p>A journal may be based on a document file, see {@link AutosaveService#rebase(Path,
+ * Baseline)}, in which case it only contains the changes since the document was opened or saved,
+ * and the document file must be left intact for the journal to be recoverable. The document of a
+ * journal is recovered with {@link AutosaveService#recover(Path)}.
+ */
+public final class AutosaveService implements ICanvasUpdateListener, ILayerUpdateListener,
+    Closeable {
+
+  /**
+   * The default delay between the first update after a checkpoint and the next checkpoint, in
+   * milliseconds.
+   */
+  public static final long DEFAULT_DELAY = 5000;
+
+  private static final int MAGIC = 0x50494D4A; // "PIMJ"
+  private static final int VERSION = 1;
+
+  private static final byte LAYER = 1;
+  private static final byte PIXELS = 2;
+  private static final byte REGION = 3;
+  private static final byte COMMIT = 4;
+
+  private final IModel model;
+  private final Path journal;
+  private final Executor modelExecutor;
+  private final long delay;
+  private final ScheduledThreadPoolExecutor writer;
+
+  /**
+   * The states of the layers as of the latest checkpoint. Only accessed on the model thread.
+   */
+  private Map<IReadOnlyLayer, LayerState> states;
+  private int[] committedIds;
+  private int committedWidth;
+  private int committedHeight;
+  private int nextId;
+  private boolean isScheduled;
+  private boolean isClosed;
+  private volatile boolean hasFailed;
+
+  /**
+   * The stream that writes to the journal. Only accessed on the writer thread.
+   */
+  private DataOutputStream output;
+  private FileChannel channel;
+  private boolean isBroken;
+
+  /**
+   * @param model         the model whose document will be saved.
+   * @param journal       the journal file.
+   * @param modelExecutor the executor that runs tasks on the thread that modifies the model.
+   * @param delay         the delay before a checkpoint is taken, in milliseconds.
+   */
+  private AutosaveService(IModel model, Path journal, Executor modelExecutor, long delay) {
+    this.model = model;
+    this.journal = journal.toAbsolutePath();
+    this.modelExecutor = modelExecutor;
+    this.delay = delay;
+
+    writer = new ScheduledThreadPoolExecutor(1, runnable -> {
+      var thread = new Thread(runnable, "pimp-autosave");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+    restart(null, 0);
+  }
+
+  /**
+   * Starts an autosave service for the supplied model. The journal file is replaced, and the first
+   * checkpoint of the service contains the whole document. This method must be invoked on the
+   * thread that modifies the model.
+   *
+   * @param model         the model whose document will be saved.
+   * @param journal       the journal file.
+   * @param modelExecutor the executor that runs tasks on the thread that modifies the model, e.g.
+   *                      {@code Platform::runLater}.
+   * @param delay         the delay between the first update after a checkpoint and the next
+   *                      checkpoint, in milliseconds.
+   * @return the started autosave service.
+   * @throws NullPointerException     if any references are {@code null}.
+   * @throws IllegalArgumentException if the supplied delay is negative.
+   */
+  public static AutosaveService start(IModel model, Path journal, Executor modelExecutor,
+      long delay) {
+    Objects.requireNonNull(model);
+    Objects.requireNonNull(journal);
+    Objects.requireNonNull(modelExecutor);
+    if (delay < 0) {
+      throw new IllegalArgumentException("Negative delay: " + delay);
+    }
+
+    var service = new AutosaveService(model, journal, modelExecutor, delay);
+    model.addCanvasUpdateListener(service);
+    model.addLayerUpdateListener(service);
+    return service;
+  }
+
+  @Override
+  public void canvasUpdated(Rect area) {
+    scheduleCheckpoint();
+  }
+
+  @Override
+  public void layersUpdated(LayerUpdateEvent event) {
+    scheduleCheckpoint();
+  }
+
+  /**
+   * Schedules a checkpoint, unless one has already been scheduled.
+   */
+  private void scheduleCheckpoint() {
+    if (isScheduled || isClosed) {
+      return;
+    }
+    isScheduled = true;
+    writer.schedule(() -> modelExecutor.execute(this::checkpoint), delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Captures a checkpoint of the document of the model, and appends it to the journal in the
+   * background. Nothing is written if the document hasn't changed since the previous checkpoint.
+   * This method must be invoked on the thread that modifies the model.
+   *
+   * @return a future that completes once the checkpoint, and all checkpoints before it, have been
+   * written to the journal. The future is already completed if the service has been closed.
+   * @throws UncheckedIOException if the model contains a layer that can't be saved.
+   */
+  public Future<?> checkpoint() {
+    isScheduled = false;
+    if (isClosed) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    if (hasFailed) {
+      restart(null, 0);
+    }
+
+    Checkpoint checkpoint = capture();
+    if (checkpoint == null) {
+      return writer.submit(() -> null);
+    }
+    return writer.submit(() -> {
+      try {
+        writeCheckpoint(checkpoint);
+      } catch (IOException | RuntimeException e) {
+        hasFailed = true;
+        throw e;
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Captures the state of the layers of the model, which can be used to base the journal on a
+   * document file that contains the layers. This method must be invoked on the thread that
+   * modifies the model, before the layers are written to the document file.
+   *
+   * @return the current state of the layers of the model.
+   * @throws UncheckedIOException if the model contains a layer that can't be saved.
+   */
+  public Baseline createBaseline() {
+    List<IReadOnlyLayer> layers = new ArrayList<>();
+    List<LayerState> layerStates = new ArrayList<>();
+    for (IReadOnlyLayer layer : model.getLayers()) {
+      var state = new LayerState(layers.size());
+      state.properties = toBytes(layer);
+      if ((layer instanceof IRasterLayer) && ((IRasterLayer) layer).isLoaded()) {
+        state.observe(((IRasterLayer) layer).getPixelData());
+      }
+      layers.add(layer);
+      layerStates.add(state);
+    }
+    return new Baseline(model.getWidth(), model.getHeight(), layers, layerStates);
+  }
+
+  /**
+   * Replaces the journal with a journal that is based on the supplied document file. The supplied
+   * baseline must have been created when the document was opened or saved, and the document must
+   * contain the layers of the baseline, in the same order. Changes made after the baseline was
+   * created are included in the first checkpoint of the new journal, which is captured by this
+   * method. This method must be invoked on the thread that modifies the model.
+   *
+   * @param document the document file that the journal will be based on.
+   * @param baseline the state of the layers that were written to the document file.
+   * @return a future that completes once the first checkpoint of the new journal has been written.
+   * @throws NullPointerException if any arguments are {@code null}.
+   * @throws UncheckedIOException if the model contains a layer that can't be saved.
+   */
+  public Future<?> rebase(Path document, Baseline baseline) {
+    Objects.requireNonNull(document);
+    Objects.requireNonNull(baseline);
+    if (isClosed) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    restart(document.toAbsolutePath().toString(), baseline.layers.size());
+    for (int i = 0; i < baseline.layers.size(); i++) {
+      states.put(baseline.layers.get(i), new LayerState(baseline.states.get(i)));
+      committedIds[i] = i;
+    }
+    nextId = baseline.layers.size();
+    committedWidth = baseline.width;
+    committedHeight = baseline.height;
+    return checkpoint();
+  }
+
+  /**
+   * Replaces the journal with a journal that isn't based on a document file, e.g. after a
+   * document has been recovered from another journal. The first checkpoint of the new journal,
+   * which is captured by this method, contains the whole document. This method must be invoked on
+   * the thread that modifies the model.
+   *
+   * @return a future that completes once the first checkpoint of the new journal has been written.
+   * @throws UncheckedIOException if the model contains a layer that can't be saved.
+   */
+  public Future<?> restart() {
+    if (isClosed) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    restart(null, 0);
+    return checkpoint();
+  }
+
+  /**
+   * Forgets the states of all layers, and replaces the journal in the background.
+   *
+   * @param document       the absolute path of the document that the journal is based on; {@code
+   *                       null} if the journal isn't based on a document.
+   * @param amountOfLayers the amount of layers in the document.
+   */
+  private void restart(String document, int amountOfLayers) {
+    hasFailed = false;
+    states = new IdentityHashMap<>();
+    committedIds = (document == null) ? null : new int[amountOfLayers];
+    nextId = 0;
+
+    String base = Objects.toString(document, "");
+    writer.submit(() -> {
+      try {
+        openJournal(base, amountOfLayers);
+      } catch (IOException | RuntimeException e) {
+        hasFailed = true;
+        throw e;
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Captures the changes since the previous checkpoint.
+   *
+   * @return the captured checkpoint; {@code null} if nothing has changed.
+   */
+  private Checkpoint capture() {
+    Map<IReadOnlyLayer, LayerState> capturedStates = new IdentityHashMap<>();
+    List<IRecord> records = new ArrayList<>();
+    List<Integer> ids = new ArrayList<>();
+
+    for (IReadOnlyLayer layer : model.getLayers()) {
+      LayerState state = states.get(layer);
+      boolean isNew = (state == null);
+      if (isNew) {
+        state = new LayerState(nextId++);
+      }
+      capturedStates.put(layer, state);
+      ids.add(state.id);
+
+      final int id = state.id;
+      byte[] properties = toBytes(layer);
+      if (!Arrays.equals(properties, state.properties)) {
+        state.properties = properties;
+        records.add(output -> {
+          output.writeByte(LAYER);
+          output.writeInt(id);
+          output.writeInt(properties.length);
+          output.write(properties);
+        });
+      }
+
+      if (layer instanceof IRasterLayer) {
+        captureRaster((IRasterLayer) layer, state, isNew, records);
+      }
+    }
+    states = capturedStates;
+
+    int[] layerIds = ids.stream().mapToInt(Integer::intValue).toArray();
+    int width = model.getWidth();
+    int height = model.getHeight();
+    if (records.isEmpty() && Arrays.equals(layerIds, committedIds) && (width == committedWidth)
+        && (height == committedHeight)) {
+      return null;
+    }
+
+    committedIds = layerIds;
+    committedWidth = width;
+    committedHeight = height;
+    return new Checkpoint(records, width, height, layerIds);
+  }
+
+  /**
+   * Captures the pixels of a raster layer that have changed since the previous checkpoint.
+   *
+   * @param layer   the raster layer.
+   * @param state   the state of the raster layer as of the previous checkpoint.
+   * @param isNew   {@code true} if the layer wasn't part of the previous checkpoint.
+   * @param records the records of the checkpoint.
+   */
+  private static void captureRaster(IRasterLayer layer, LayerState state, boolean isNew,
+      List<IRecord> records) {
+    final int id = state.id;
+    if (isNew) {
+      final var copy = (IRasterLayer) layer.clone();
+      records.add(output -> {
+        output.writeByte(PIXELS);
+        output.writeInt(id);
+        RasterDataFactory.writeRasterData(copy.getPixelData(), output);
+      });
+      if (layer.isLoaded()) {
+        state.observe(layer.getPixelData());
+      }
+      return;
+    }
+
+    if (!layer.isLoaded()) {
+      return; // the pixels can't have been modified without being loaded
+    }
+
+    // Pixels that were loaded or copied after the previous checkpoint start at version 0, unless
+    // they continue the history of the pixels of the previous checkpoint
+    IReadOnlyRasterData pixels = layer.getPixelData();
+    long version = pixels.continues(state.pixelData, state.version) ? state.version : 0;
+    pixels.visitChangedRegions(version, (x, y, width, height) -> {
+      final int[] argb = new int[width * height];
+      pixels.readRegion(x, y, width, height, argb, 0, width);
+      records.add(output -> {
+        output.writeByte(REGION);
+        output.writeInt(id);
+        output.writeInt(x);
+        output.writeInt(y);
+        output.writeInt(width);
+        output.writeInt(height);
+        writeInts(argb, output);
+      });
+    });
+    state.observe(pixels);
+  }
+
+  /**
+   * Returns the properties of the supplied layer, as written to documents.
+   *
+   * @param layer the layer.
+   * @return the properties of the layer.
+   * @throws UncheckedIOException if the layer can't be saved.
+   */
+  private static byte[] toBytes(IReadOnlyLayer layer) {
+    try {
+      var bytes = new ByteArrayOutputStream();
+      DocumentService.writeLayer(layer, new DataOutputStream(bytes));
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Replaces the journal with an empty journal. Invoked on the writer thread.
+   *
+   * @param document       the absolute path of the document that the journal is based on, or an
+   *                       empty string.
+   * @param amountOfLayers the amount of layers in the document.
+   * @throws IOException if the journal couldn't be written.
+   */
+  private void openJournal(String document, int amountOfLayers) throws IOException {
+    closeJournal();
+
+    isBroken = false;
+    channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeUTF(document);
+    output.writeInt(amountOfLayers);
+    output.flush();
+    channel.force(false);
+  }
+
+  /**
+   * Closes the journal, if it's open. Invoked on the writer thread.
+   *
+   * @throws IOException if the journal couldn't be closed.
+   */
+  private void closeJournal() throws IOException {
+    if (output != null) {
+      DataOutputStream stream = output;
+      output = null;
+      channel = null;
+      stream.close();
+    }
+  }
+
+  /**
+   * Appends a checkpoint to the journal. The checkpoint ends with a commit record, which is
+   * written last, so a checkpoint that was interrupted by a crash is ignored when the journal is
+   * recovered. Invoked on the writer thread.
+   *
+   * @param checkpoint the checkpoint that will be written.
+   * @throws IOException if the checkpoint couldn't be written.
+   */
+  private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+    if ((output == null) || isBroken) {
+      throw new IOException("The journal isn't writable: " + journal);
+    }
+
+    // Once a checkpoint has failed, nothing is appended until the journal has been replaced
+    isBroken = true;
+    for (IRecord record : checkpoint.records) {
+      record.write(output);
+    }
+
+    output.writeByte(COMMIT);
+    output.writeInt(checkpoint.width);
+    output.writeInt(checkpoint.height);
+    output.writeInt(checkpoint.layerIds.length);
+    for (int id : checkpoint.layerIds) {
+      output.writeInt(id);
+    }
+    output.flush();
+    channel.force(false);
+    isBroken = false;
+  }
+
+  /**
+   * Stops taking checkpoints, and closes the journal once the pending checkpoints have been
+   * written. The journal file is left intact. This method must be invoked on the thread that
+   * modifies the model.
+   */
+  @Override
+  public void close() {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    writer.submit(() -> {
+      closeJournal();
+      return null;
+    });
+    writer.shutdown();
+  }
+
+  /**
+   * Returns the journal file that checkpoints are written to.
+   *
+   * @return the journal file.
+   */
+  public Path getJournal() {
+    return journal;
+  }
+
+  /**
+   * Recovers the document of the latest complete checkpoint in the supplied journal. If the
+   * journal is based on a document file, the document file is opened, and the changes in the
+   * journal are applied to it.
+   *
+   * @param journal the journal file.
+   * @return the recovered document.
+   * @throws NullPointerException if the supplied file is {@code null}.
+   * @throws IOException          if the journal couldn't be read, if it's corrupt, or if it
+   *                              doesn't contain any checkpoints.
+   */
+  public static Document recover(Path journal) throws IOException {
+    Objects.requireNonNull(journal);
+
+    try (var input = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(journal)))) {
+      if ((input.readInt() != MAGIC) || (input.readInt() != VERSION)) {
+        throw new IOException("Not an autosave journal: " + journal);
+      }
+
+      Map<Integer, ILayer> layers = new HashMap<>();
+      Document recovered = null;
+
+      String base = input.readUTF();
+      int amountOfBaseLayers = input.readInt();
+      if (!base.isEmpty()) {
+        recovered = DocumentService.openDocument(Path.of(base));
+        if (recovered.getLayers().size() != amountOfBaseLayers) {
+          throw new IOException("The document of the journal has been modified: " + base);
+        }
+        for (int i = 0; i < amountOfBaseLayers; i++) {
+          layers.put(i, recovered.getLayers().get(i));
+        }
+      }
+
+      List<IRecoveryStep> pending = new ArrayList<>();
+      try {
+        while (true) {
+          byte type;
+          try {
+            type = input.readByte();
+          } catch (EOFException e) {
+            break;
+          }
+
+          if (type == COMMIT) {
+            recovered = readCommit(input, pending, layers);
+            pending.clear();
+          } else {
+            pending.add(readRecord(type, input));
+          }
+        }
+      } catch (EOFException e) {
+        // The latest checkpoint is incomplete, and is ignored
+      }
+
+      if (recovered == null) {
+        throw new IOException("The journal doesn't contain any checkpoints: " + journal);
+      }
+      return recovered;
+    } catch (RuntimeException e) {
+      throw new IOException("Corrupt journal: " + journal, e);
+    }
+  }
+
+  /**
+   * Reads a record of a checkpoint, other than the commit record.
+   *
+   * @param type  the type of the record.
+   * @param input the input that the record is read from.
+   * @return a step that applies the record.
+   * @throws IOException if the record couldn't be read.
+   */
+  private static IRecoveryStep readRecord(byte type, DataInput input) throws IOException {
+    final int id = input.readInt();
+    switch (type) {
+      case LAYER: {
+        final byte[] properties = new byte[input.readInt()];
+        input.readFully(properties);
+        return layers -> {
+          ILayer existing = layers.get(id);
+          var propertiesInput = new DataInputStream(new ByteArrayInputStream(properties));
+          layers.put(id, DocumentService.readLayer(propertiesInput, (width, height, name) -> {
+            if ((existing instanceof IRasterLayer) && (existing.getWidth() == width)
+                && (existing.getHeight() == height)) {
+              return existing;
+            }
+            return LayerFactory.createRasterLayer(width, height);
+          }));
+        };
+      }
+      case PIXELS: {
+        final IRasterData pixels = RasterDataFactory.readRasterData(input);
+        return layers -> getRasterLayer(layers, id).copyRegion(pixels, 0, 0);
+      }
+      case REGION: {
+        final int x = input.readInt();
+        final int y = input.readInt();
+        final int width = input.readInt();
+        final int height = input.readInt();
+        final IRasterData region = RasterDataFactory.createRasterData(RasterDataType.PACKED,
+            width, height);
+        int[] argb = new int[width * height];
+        readInts(input, argb);
+        region.writeRegion(0, 0, width, height, argb, 0, width);
+        return layers -> getRasterLayer(layers, id).copyRegion(region, x, y);
+      }
+      default:
+        throw new IOException("Unknown record type: " + type);
+    }
+  }
+
+  /**
+   * Reads a commit record, applies the records of its checkpoint, and returns the document as of
+   * the commit. Nothing is applied unless the whole commit record could be read.
+   *
+   * @param input   the input that the record is read from.
+   * @param records the records of the checkpoint.
+   * @param layers  the layers of the journal, by their ids. Layers that aren't part of the
+   *                document are removed.
+   * @return the document as of the commit.
+   * @throws IOException if the record couldn't be read, or refers to an unknown layer.
+   */
+  private static Document readCommit(DataInput input, List<IRecoveryStep> records,
+      Map<Integer, ILayer> layers) throws IOException {
+    int width = input.readInt();
+    int height = input.readInt();
+    int[] ids = new int[input.readInt()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = input.readInt();
+    }
+
+    if ((width < 1) || (height < 1)) {
+      throw new IOException("Invalid width or height!");
+    }
+
+    for (IRecoveryStep record : records) {
+      record.apply(layers);
+    }
+
+    List<ILayer> documentLayers = new ArrayList<>(ids.length);
+    Set<Integer> remainingIds = new HashSet<>();
+    for (int id : ids) {
+      ILayer layer = layers.get(id);
+      if (layer == null) {
+        throw new IOException("Unknown layer: " + id);
+      }
+      documentLayers.add(layer);
+      remainingIds.add(id);
+    }
+
+    layers.keySet().retainAll(remainingIds);
+    return new Document(width, height, documentLayers);
+  }
+
+  /**
+   * Returns the raster layer with the specified id.
+   *
+   * @param layers the layers of the journal, by their ids.
+   * @param id     the id of the layer.
+   * @return the raster layer with the specified id.
+   * @throws IOException if there is no raster layer with the specified id.
+   */
+  private static IRasterLayer getRasterLayer(Map<Integer, ILayer> layers, int id)
+      throws IOException {
+    ILayer layer = layers.get(id);
+    if (!(layer instanceof IRasterLayer)) {
+      throw new IOException("Not a raster layer: " + id);
+    }
+    return (IRasterLayer) layer;
+  }
+
+  /**
+   * Writes the supplied integers as bytes.
+   *
+   * @param ints   the integers.
+   * @param output the output that the integers are written to.
+   * @throws IOException if the integers couldn't be written.
+   */
+  private static void writeInts(int[] ints, DataOutput output) throws IOException {
+    ByteBuffer bytes = ByteBuffer.allocate(ints.length * Integer.BYTES);
+    bytes.asIntBuffer().put(ints);
+    output.write(bytes.array());
+  }
+
+  /**
+   * Reads integers that were written by {@link AutosaveService#writeInts(int[], DataOutput)}.
+   *
+   * @param input the input that the integers are read from.
+   * @param ints  the array that the integers are read into.
+   * @throws IOException if the integers couldn't be read.
+   */
+  private static void readInts(DataInput input, int[] ints) throws IOException {
+    byte[] bytes = new byte[ints.length * Integer.BYTES];
+    input.readFully(bytes);
+    ByteBuffer.wrap(bytes).asIntBuffer().get(ints);
+  }
+
+  /**
+   * The {@code Baseline} class represents the state of the layers of a model when they were
+   * written to a document file.
+   *
+   * @see AutosaveService#createBaseline()
+   * @see AutosaveService#rebase(Path, Baseline)
+   */
+  public static final class Baseline {
+
+    private final int width;
+    private final int height;
+    private final List<IReadOnlyLayer> layers;
+    private final List<LayerState> states;
+
+    /**
+     * @param width  the width of the canvas.
+     * @param height the height of the canvas.
+     * @param layers the layers, from the bottom to the top.
+     * @param states the states of the layers.
+     */
+    private Baseline(int width, int height, List<IReadOnlyLayer> layers,
+        List<LayerState> states) {
+      this.width = width;
+      this.height = height;
+      this.layers = layers;
+      this.states = states;
+    }
+  }
+
+  /**
+   * The {@code LayerState} class represents the state of a layer as of the latest checkpoint.
+   */
+  private static final class LayerState {
+
+    private final int id;
+    private byte[] properties;
+    private IReadOnlyRasterData pixelData;
+    private long version;
+
+    /**
+     * @param id the id of the layer in the journal.
+     */
+    private LayerState(int id) {
+      this.id = id;
+    }
+
+    /**
+     * Creates a copy of the supplied layer state.
+     *
+     * @param state the layer state that will be copied.
+     */
+    private LayerState(LayerState state) {
+      id = state.id;
+      properties = state.properties;
+      pixelData = state.pixelData;
+      version = state.version;
+    }
+
+    /**
+     * Records that the supplied pixels have been saved, as of their current version.
+     *
+     * @param pixels the pixels of the layer.
+     */
+    private void observe(IReadOnlyRasterData pixels) {
+      pixelData = pixels;
+      version = pixels.getVersion();
+    }
+  }
+
+  /**
+   * The {@code Checkpoint} class represents the changes of a document that will be appended to the
+   * journal.
+   */
+  private static final class Checkpoint {
+
+    private final List<IRecord> records;
+    private final int width;
+    private final int height;
+    private final int[] layerIds;
+
+    /**
+     * @param records  the records of the changes.
+     * @param width    the width of the canvas.
+     * @param height   the height of the canvas.
+     * @param layerIds the ids of the layers, from the bottom to the top.
+     */
+    private Checkpoint(List<IRecord> records, int width, int height, int[] layerIds) {
+      this.records = records;
+      this.width = width;
+      this.height = height;
+      this.layerIds = layerIds;
+    }
+  }
+
+  /**
+   * The {@code IRecord} interface specifies records of a checkpoint.
+   */
+  private interface IRecord {
+
+    /**
+     * Writes this record to the journal.
+     *
+     * @param output the output that the record is written to.
+     * @throws IOException if the record couldn't be written.
+     */
+    void write(DataOutput output) throws IOException;
+  }
+
+  /**
+   * The {@code IRecoveryStep} interface specifies records that have been read from a journal.
+   */
+  private interface IRecoveryStep {
+
+    /**
+     * Applies this record to the recovered layers.
+     *
+     * @param layers the layers of the journal, by their ids.
+     * @throws IOException if the record refers to an unknown layer.
+     */
+    void apply(Map<Integer, ILayer> layers) throws IOException;
+  }
+}
@@ -0,0 +1,59 @@
+package chalmers.pimp.service;
+
+import chalmers.pimp.model.canvas.layer.ILayer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The {@code Document} class represents a document that has been opened from a file, i.e. the size
+ * of the canvas and its layers.
+ *
+ * @see DocumentService
+ */
+public final class Document {
+
+  private final int width;
+  private final int height;
+  private final List<ILayer> layers;
+
+  /**
+   * @param width  the width of the canvas.
+   * @param height the height of the canvas.
+   * @param layers the layers of the document, from the bottom to the top.
+   * @throws NullPointerException if the supplied list is {@code null}.
+   */
+  Document(int width, int height, List<ILayer> layers) {
+    this.width = width;
+    this.height = height;
+    this.layers = Collections.unmodifiableList(Objects.requireNonNull(layers));
+  }
+
+  /**
+   * Returns the width of the canvas.
+   *
+   * @return the width of the canvas.
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the canvas.
+   *
+   * @return the height of the canvas.
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Returns the layers of the document. The pixels of raster layers are loaded from the file the
+   * first time that they are needed.
+   *
+   * @return an unmodifiable list of the layers, from the bottom to the top.
+   */
+  public List<ILayer> getLayers() {
+    return layers;
+  }
+}
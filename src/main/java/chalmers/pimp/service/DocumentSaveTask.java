@@ -0,0 +1,65 @@
+package chalmers.pimp.service;
+
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javafx.concurrent.Task;
+
+/**
+ * The {@code DocumentSaveTask} class represents the saving of layers to a document file, on a
+ * background thread. The task saves copies of the layers, which are made when the task is created,
+ * so that the layers can be edited while the document is being saved. Cancelling the task
+ * interrupts the save.
+ *
+ * @see DocumentService#saveDocument(int, int, Iterable, java.nio.file.Path,
+ * java.util.function.DoubleConsumer)
+ */
+public final class DocumentSaveTask extends Task<Void> {
+
+  private final int width;
+  private final int height;
+  private final List<IReadOnlyLayer> layers;
+  private final File file;
+
+  /**
+   * @param width  the width of the canvas.
+   * @param height the height of the canvas.
+   * @param layers the layers that will be saved, from the bottom to the top.
+   * @param file   the file that the document will be written to.
+   * @throws IllegalArgumentException if the supplied width/height aren't greater than zero.
+   * @throws NullPointerException     if any references are {@code null}.
+   */
+  public DocumentSaveTask(int width, int height, Iterable<? extends IReadOnlyLayer> layers,
+      File file) {
+    if ((width < 1) || (height < 1)) {
+      throw new IllegalArgumentException("Invalid width or height!");
+    }
+    this.width = width;
+    this.height = height;
+    this.file = Objects.requireNonNull(file);
+
+    this.layers = new ArrayList<>();
+    for (IReadOnlyLayer layer : Objects.requireNonNull(layers)) {
+      this.layers.add(layer.clone());
+    }
+  }
+
+  @Override
+  protected Void call() throws IOException {
+    DocumentService.saveDocument(width, height, layers, file.toPath(),
+        progress -> updateProgress(progress, 1));
+    return null;
+  }
+
+  /**
+   * Returns the file that the document is saved to.
+   *
+   * @return the file that the document is saved to.
+   */
+  public File getFile() {
+    return file;
+  }
+}
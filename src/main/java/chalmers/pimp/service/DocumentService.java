@@ -0,0 +1,502 @@
+package chalmers.pimp.service;
+
+import chalmers.pimp.model.Point;
+import chalmers.pimp.model.canvas.layer.IColorable;
+import chalmers.pimp.model.canvas.layer.IDoodleLayer;
+import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
+import chalmers.pimp.model.canvas.layer.LayerType;
+import chalmers.pimp.model.color.ColorFactory;
+import chalmers.pimp.model.color.IColor;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import javafx.stage.FileChooser;
+import javafx.stage.FileChooser.ExtensionFilter;
+import javafx.stage.Window;
+
+/**
+ * The {@code DocumentService} class is a service for saving and opening documents, i.e. the layers
+ * of a model canvas, in the native file format of the application.
+ *
+ * <p>A document file is a zip archive. The {@code manifest} entry contains the size of the canvas
+ * and the properties of all layers, including the points of doodle layers. The pixels of every
+ * raster layer are stored in an entry of their own, tile by tile, next to a small thumbnail of the
+ * pixels. Opening a document only reads the manifest and the thumbnails, the pixels of a raster
+ * layer are read the first time that the layer is drawn or edited.
+ */
+public final class DocumentService {
+
+  /**
+   * The file extension of document files.
+   */
+  public static final String FILE_EXTENSION = "pimp";
+
+  /**
+   * The max width and height of the thumbnails that are stored for raster layers.
+   */
+  static final int THUMBNAIL_SIZE = 64;
+
+  private static final int MAGIC = 0x50494D50; // "PIMP"
+  private static final int VERSION = 1;
+  private static final String MANIFEST_ENTRY = "manifest";
+
+  private static final byte RASTER = 1;
+  private static final byte RECTANGLE = 2;
+  private static final byte DOODLE = 3;
+
+  /**
+   * The {@code IRasterLayerFactory} interface specifies objects that provide the raster layers of
+   * read documents, given the properties that are stored for every raster layer.
+   */
+  interface IRasterLayerFactory {
+
+    /**
+     * Returns a raster layer with the specified size.
+     *
+     * @param width  the width of the raster layer.
+     * @param height the height of the raster layer.
+     * @param name   the name of the raster layer.
+     * @return a raster layer with the specified size.
+     * @throws IOException if the raster layer couldn't be provided.
+     */
+    ILayer create(int width, int height, String name) throws IOException;
+  }
+
+  private DocumentService() {
+  }
+
+  /**
+   * Creates and returns a file chooser for choosing document files.
+   *
+   * @return a file chooser for choosing document files.
+   */
+  private static FileChooser createFileChooser() {
+    var fileChooser = new FileChooser();
+    fileChooser.getExtensionFilters()
+        .add(new ExtensionFilter("PIMP document", "*." + FILE_EXTENSION));
+    return fileChooser;
+  }
+
+  /**
+   * Lets the user choose a document file to open.
+   *
+   * @param window the parent window of the dialog, may be {@code null}.
+   * @return the chosen file; {@code null} if the user didn't choose a file.
+   */
+  public static File showOpenDialog(Window window) {
+    return createFileChooser().showOpenDialog(window);
+  }
+
+  /**
+   * Lets the user choose the file that a document will be saved to.
+   *
+   * @param window the parent window of the dialog, may be {@code null}.
+   * @return the chosen file; {@code null} if the user didn't choose a file.
+   */
+  public static File showSaveDialog(Window window) {
+    return createFileChooser().showSaveDialog(window);
+  }
+
+  /**
+   * Returns the name of the entry that contains the pixels of the specified layer.
+   *
+   * @param layerIndex the depth index of the layer.
+   * @return the name of the entry.
+   */
+  private static String getPixelsEntry(int layerIndex) {
+    return "layers/" + layerIndex + "/pixels";
+  }
+
+  /**
+   * Returns the name of the entry that contains the thumbnail of the specified layer.
+   *
+   * @param layerIndex the depth index of the layer.
+   * @return the name of the entry.
+   */
+  private static String getThumbnailEntry(int layerIndex) {
+    return "layers/" + layerIndex + "/thumbnail";
+  }
+
+  /**
+   * Saves the supplied layers as a document. This method blocks until the document has been
+   * written, and is intended to be invoked from a background thread. The layers must not be
+   * modified while they are saved. The document is written to a temporary file, which replaces
+   * the supplied file once it's complete, so an existing file is left intact if the save fails or
+   * is interrupted.
+   *
+   * @param width    the width of the canvas.
+   * @param height   the height of the canvas.
+   * @param layers   the layers that will be saved, from the bottom to the top.
+   * @param file     the file that the document will be written to.
+   * @param progress the listener that is notified of the progress of the save, as a value in the
+   *                 range [0, 1]. The listener is invoked on the saving thread.
+   * @throws IllegalArgumentException if the supplied width/height aren't greater than zero.
+   * @throws NullPointerException     if any references are {@code null}.
+   * @throws InterruptedIOException   if the invoking thread was interrupted.
+   * @throws IOException              if the document couldn't be written, or if it contains a
+   *                                  layer that can't be saved.
+   */
+  public static void saveDocument(int width, int height, Iterable<? extends IReadOnlyLayer> layers,
+      Path file, DoubleConsumer progress) throws IOException {
+    if ((width < 1) || (height < 1)) {
+      throw new IllegalArgumentException("Invalid width or height!");
+    }
+    Objects.requireNonNull(layers);
+    Objects.requireNonNull(file);
+    Objects.requireNonNull(progress);
+
+    ensureNotInterrupted();
+
+    List<IReadOnlyLayer> layerList = new ArrayList<>();
+    long totalPixels = 1;
+    for (IReadOnlyLayer layer : layers) {
+      layerList.add(Objects.requireNonNull(layer));
+      if (layer instanceof IRasterLayer) {
+        totalPixels += (long) layer.getWidth() * layer.getHeight();
+      }
+    }
+
+    Path absoluteFile = file.toAbsolutePath();
+    Path temporaryFile = Files.createTempFile(absoluteFile.getParent(),
+        absoluteFile.getFileName().toString(), ".tmp");
+    try {
+      try (var zip = new ZipOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+        var output = new DataOutputStream(zip);
+
+        zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+        writeManifest(output, width, height, layerList);
+        output.flush();
+        zip.closeEntry();
+
+        long savedPixels = 0;
+        for (int i = 0; i < layerList.size(); i++) {
+          if (!(layerList.get(i) instanceof IRasterLayer)) {
+            continue;
+          }
+          ensureNotInterrupted();
+
+          IReadOnlyRasterData pixels = ((IRasterLayer) layerList.get(i)).getPixelData();
+          writeRasterData(zip, output, getThumbnailEntry(i), createThumbnail(pixels));
+          writeRasterData(zip, output, getPixelsEntry(i), pixels);
+
+          savedPixels += (long) pixels.getWidth() * pixels.getHeight();
+          progress.accept((double) savedPixels / totalPixels);
+        }
+      }
+
+      ensureNotInterrupted();
+      replaceFile(temporaryFile, absoluteFile);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(temporaryFile);
+      throw e;
+    }
+
+    progress.accept(1);
+  }
+
+  /**
+   * Writes the manifest of a document.
+   *
+   * @param output the output that the manifest will be written to.
+   * @param width  the width of the canvas.
+   * @param height the height of the canvas.
+   * @param layers the layers of the document.
+   * @throws IOException if the manifest couldn't be written, or if a layer can't be saved.
+   */
+  private static void writeManifest(DataOutputStream output, int width, int height,
+      List<IReadOnlyLayer> layers) throws IOException {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(width);
+    output.writeInt(height);
+    output.writeInt(layers.size());
+
+    for (IReadOnlyLayer layer : layers) {
+      writeLayer(layer, output);
+    }
+  }
+
+  /**
+   * Writes the type and the properties of the supplied layer. The pixels of raster layers aren't
+   * written by this method.
+   *
+   * @param layer  the layer that will be written.
+   * @param output the output that the layer will be written to.
+   * @throws IOException if the layer couldn't be written, or if it can't be saved.
+   */
+  static void writeLayer(IReadOnlyLayer layer, DataOutput output) throws IOException {
+    if (layer instanceof IRasterLayer) {
+      output.writeByte(RASTER);
+    } else if (layer instanceof IDoodleLayer) {
+      output.writeByte(DOODLE);
+    } else if ((layer.getLayerType() == LayerType.SHAPE) && (layer instanceof IColorable)) {
+      output.writeByte(RECTANGLE);
+    } else {
+      throw new IOException("Unsupported layer type: " + layer.getLayerType());
+    }
+
+    output.writeUTF(Objects.toString(layer.getName(), ""));
+    output.writeInt(layer.getX());
+    output.writeInt(layer.getY());
+    output.writeBoolean(layer.isVisible());
+    output.writeInt(layer.getRotation());
+    output.writeDouble(layer.getAlpha());
+
+    if (layer instanceof IRasterLayer) {
+      output.writeInt(layer.getWidth());
+      output.writeInt(layer.getHeight());
+    } else if (layer instanceof IDoodleLayer) {
+      var doodle = (IDoodleLayer) layer;
+      output.writeInt(doodle.getLineWidth());
+      output.writeInt(((IColorable) doodle).getColor().toArgb());
+
+      List<Point> points = doodle.getPoints();
+      output.writeInt(points.size());
+      for (Point point : points) {
+        output.writeInt(point.getX());
+        output.writeInt(point.getY());
+      }
+    } else {
+      output.writeInt(layer.getWidth());
+      output.writeInt(layer.getHeight());
+      output.writeInt(((IColorable) layer).getColor().toArgb());
+    }
+  }
+
+  /**
+   * Writes the supplied raster data as a new entry of a document.
+   *
+   * @param zip        the stream that the document is written to.
+   * @param output     the data output that wraps the stream.
+   * @param entryName  the name of the entry.
+   * @param rasterData the raster data that will be written.
+   * @throws IOException if the raster data couldn't be written.
+   */
+  private static void writeRasterData(ZipOutputStream zip, DataOutputStream output,
+      String entryName, IReadOnlyRasterData rasterData) throws IOException {
+    zip.putNextEntry(new ZipEntry(entryName));
+    RasterDataFactory.writeRasterData(rasterData, output);
+    output.flush();
+    zip.closeEntry();
+  }
+
+  /**
+   * Replaces the target file with the supplied file, atomically if possible.
+   *
+   * @param source the file that will replace the target file.
+   * @param target the file that will be replaced.
+   * @throws IOException if the file couldn't be replaced.
+   */
+  private static void replaceFile(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Creates a thumbnail of the supplied raster data, whose width and height are at most {@link
+   * DocumentService#THUMBNAIL_SIZE}.
+   *
+   * @param rasterData the raster data that the thumbnail will be created from.
+   * @return a thumbnail of the raster data.
+   * @see LayerImageService#createThumbnail(IReadOnlyRasterData, int)
+   */
+  static IRasterData createThumbnail(IReadOnlyRasterData rasterData) {
+    return LayerImageService.createThumbnail(rasterData, THUMBNAIL_SIZE);
+  }
+
+  /**
+   * Opens the supplied document file. Only the manifest and the thumbnails of the document are
+   * read by this method. The pixels of every raster layer are read from the file the first time
+   * that they are needed, so the file should not be modified while the document is open.
+   *
+   * @param file the document file that will be opened.
+   * @return the opened document.
+   * @throws NullPointerException if the supplied file is {@code null}.
+   * @throws IOException          if the file couldn't be read, or isn't a document file.
+   */
+  public static Document openDocument(Path file) throws IOException {
+    Objects.requireNonNull(file);
+    final Path absoluteFile = file.toAbsolutePath();
+
+    try (var zip = new ZipFile(absoluteFile.toFile());
+        var input = openEntry(zip, MANIFEST_ENTRY)) {
+      if ((input.readInt() != MAGIC) || (input.readInt() != VERSION)) {
+        throw new IOException("Not a supported document: " + file);
+      }
+
+      final int width = input.readInt();
+      final int height = input.readInt();
+      final int amountOfLayers = input.readInt();
+      if ((width < 1) || (height < 1) || (amountOfLayers < 0)) {
+        throw new IOException("Corrupt document: " + file);
+      }
+
+      List<ILayer> layers = new ArrayList<>(amountOfLayers);
+      for (int i = 0; i < amountOfLayers; i++) {
+        final int layerIndex = i;
+        layers.add(readLayer(input,
+            (rasterWidth, rasterHeight, name) -> openRasterLayer(zip, absoluteFile, layerIndex,
+                rasterWidth, rasterHeight, name)));
+      }
+      return new Document(width, height, layers);
+    } catch (RuntimeException e) {
+      throw new IOException("Corrupt document: " + file, e);
+    }
+  }
+
+  /**
+   * Reads a layer that was written by {@link DocumentService#writeLayer(IReadOnlyLayer,
+   * DataOutput)}. Raster layers are obtained from the supplied factory, after which the properties
+   * of the layer are applied to them.
+   *
+   * @param input   the input that the layer is read from.
+   * @param factory the factory that provides the raster layers.
+   * @return the read layer.
+   * @throws IOException if the layer couldn't be read.
+   */
+  static ILayer readLayer(DataInput input, IRasterLayerFactory factory) throws IOException {
+    final byte type = input.readByte();
+    final String name = input.readUTF();
+    final int x = input.readInt();
+    final int y = input.readInt();
+    final boolean isVisible = input.readBoolean();
+    final int rotation = input.readInt();
+    final double alpha = input.readDouble();
+
+    ILayer layer;
+    switch (type) {
+      case RASTER: {
+        int width = input.readInt();
+        int height = input.readInt();
+        layer = factory.create(width, height, name);
+        break;
+      }
+      case RECTANGLE: {
+        int width = input.readInt();
+        int height = input.readInt();
+        IColor color = ColorFactory.createColorFromArgb(input.readInt());
+        layer = LayerFactory.createRectangle(x, y, width, height, color);
+        break;
+      }
+      case DOODLE: {
+        int lineWidth = input.readInt();
+        IColor color = ColorFactory.createColorFromArgb(input.readInt());
+        IDoodleLayer doodle = LayerFactory.createDoodle(lineWidth, color);
+
+        int amountOfPoints = input.readInt();
+        for (int i = 0; i < amountOfPoints; i++) {
+          doodle.addPoint(new Point(input.readInt(), input.readInt()));
+        }
+        layer = doodle;
+        break;
+      }
+      default:
+        throw new IOException("Unknown layer type: " + type);
+    }
+
+    layer.setName(name);
+    layer.setX(x);
+    layer.setY(y);
+    layer.setVisible(isVisible);
+    layer.setRotation(rotation);
+    layer.setAlpha(alpha);
+    return layer;
+  }
+
+  /**
+   * Creates a raster layer whose pixels are loaded from a document the first time that they are
+   * needed. The thumbnail of the layer is read immediately.
+   *
+   * @param zip        the opened document file.
+   * @param file       the path of the document file.
+   * @param layerIndex the depth index of the layer.
+   * @param width      the width of the layer.
+   * @param height     the height of the layer.
+   * @param name       the name of the layer.
+   * @return the created raster layer.
+   * @throws IOException if the thumbnail couldn't be read.
+   */
+  private static ILayer openRasterLayer(ZipFile zip, Path file, int layerIndex, int width,
+      int height, String name) throws IOException {
+    IReadOnlyRasterData thumbnail = null;
+    String thumbnailEntry = getThumbnailEntry(layerIndex);
+    if (zip.getEntry(thumbnailEntry) != null) {
+      try (var thumbnailInput = openEntry(zip, thumbnailEntry)) {
+        thumbnail = RasterDataFactory.readRasterData(thumbnailInput);
+      }
+    }
+
+    String pixelsEntry = getPixelsEntry(layerIndex);
+    return LayerFactory.createRasterLayer(width, height, () -> loadRasterData(file, pixelsEntry),
+        thumbnail, name);
+  }
+
+  /**
+   * Loads the raster data stored in the specified entry of a document.
+   *
+   * @param file      the document file.
+   * @param entryName the name of the entry that contains the raster data.
+   * @return the loaded raster data.
+   * @throws IOException if the raster data couldn't be loaded.
+   */
+  private static IRasterData loadRasterData(Path file, String entryName) throws IOException {
+    try (var zip = new ZipFile(file.toFile()); var input = openEntry(zip, entryName)) {
+      return RasterDataFactory.readRasterData(input);
+    }
+  }
+
+  /**
+   * Opens the specified entry of a document for reading.
+   *
+   * @param zip       the opened document file.
+   * @param entryName the name of the entry.
+   * @return a data input that reads the entry.
+   * @throws IOException if the entry doesn't exist or couldn't be opened.
+   */
+  private static DataInputStream openEntry(ZipFile zip, String entryName) throws IOException {
+    ZipEntry entry = zip.getEntry(entryName);
+    if (entry == null) {
+      throw new IOException("Missing document entry: " + entryName);
+    }
+    return new DataInputStream(new BufferedInputStream(zip.getInputStream(entry)));
+  }
+
+  /**
+   * Ensures that the current thread hasn't been interrupted.
+   *
+   * @throws InterruptedIOException if the current thread has been interrupted.
+   */
+  private static void ensureNotInterrupted() throws InterruptedIOException {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new InterruptedIOException("The save was interrupted");
+    }
+  }
+}
@@ -1,23 +1,40 @@
 package chalmers.pimp.service;
 
-import chalmers.pimp.model.IRenderer;
 import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
-import chalmers.pimp.model.viewport.IReadOnlyViewport;
-import chalmers.pimp.model.viewport.ViewportFactory;
-import chalmers.pimp.view.renderer.RendererFactory;
-import java.awt.image.BufferedImage;
+import chalmers.pimp.service.PngEncoder.EncodedStrip;
 import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleConsumer;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
-import javax.imageio.ImageIO;
+import javafx.stage.Window;
 
 /**
  * The {@code ImageExportService} class is a service for exporting the contents of a model canvas to
  * an image.
+ *
+ * <p>Images are exported as PNG files, one horizontal strip at a time. The strips are composited
+ * and compressed in parallel, and written in order as soon as they are done. Only a few strips are
+ * kept in memory at any time, regardless of the size of the canvas.
  */
 public final class ImageExportService {
 
+  /**
+   * The approximate amount of pixels in a single strip.
+   */
+  private static final int STRIP_PIXELS = 1 << 20;
+
   private ImageExportService() {
   }
 
@@ -33,55 +50,120 @@ public final class ImageExportService {
   }
 
   /**
-   * Renders the supplied layers on the supplied image.
+   * Lets the user choose the file that an image will be exported to.
    *
-   * @param img    the image that will be rendered on.
-   * @param layers the layers that will be rendered.
-   * @throws NullPointerException if any references are {@code null}.
+   * @param window the parent window of the dialog, may be {@code null}.
+   * @return the chosen file; {@code null} if the user didn't choose a file.
    */
-  private static void renderToImage(BufferedImage img, Iterable<? extends IReadOnlyLayer> layers) {
-    Objects.requireNonNull(img);
-    Objects.requireNonNull(layers);
-
-    int width = img.getWidth();
-    int height = img.getHeight();
-    IReadOnlyViewport viewport = ViewportFactory.createViewport(0, 0, width, height);
-    IRenderer renderer = RendererFactory.createSwingRenderer(img.createGraphics(), viewport);
+  public static File showExportDialog(Window window) {
+    return createFileChooser().showSaveDialog(window);
+  }
 
-    for (IReadOnlyLayer layer : layers) {
-      layer.draw(renderer, viewport);
-    }
+  /**
+   * Returns the amount of rows in the strips of an image with the supplied width.
+   *
+   * @param width  the width of the image.
+   * @param height the height of the image.
+   * @return the amount of rows in each strip, except for possibly the last one.
+   */
+  static int getStripHeight(int width, int height) {
+    return Math.max(1, Math.min(height, STRIP_PIXELS / width));
   }
 
   /**
-   * Attempts to export the supplied layers into an image. This method has no effect if the
-   * operation is unsuccessful.
+   * Exports the supplied layers as a PNG image. This method blocks until the image has been
+   * written, and is intended to be invoked from a background thread. The layers must not be
+   * modified during the export. The export is aborted as soon as possible if the invoking thread
+   * is interrupted, in which case the partially written file is removed.
    *
-   * @param width  the width of the created image.
-   * @param height the height of the created image.
-   * @param layers the layers that will be used when creating the image.
+   * @param width    the width of the exported image.
+   * @param height   the height of the exported image.
+   * @param layers   the layers that will be exported, from the bottom to the top.
+   * @param file     the file that the image will be written to.
+   * @param progress the listener that is notified of the progress of the export, as a value in
+   *                 the range [0, 1]. The listener is invoked on the exporting thread.
    * @throws IllegalArgumentException if the supplied width/height aren't greater than zero.
    * @throws NullPointerException     if any references are {@code null}.
+   * @throws InterruptedIOException   if the invoking thread was interrupted.
+   * @throws IOException              if the image couldn't be written.
    */
-  public static void exportImage(int width, int height, Iterable<? extends IReadOnlyLayer> layers) {
+  public static void exportPng(int width, int height, Iterable<? extends IReadOnlyLayer> layers,
+      Path file, DoubleConsumer progress) throws IOException {
     if ((width < 1) || (height < 1)) {
       throw new IllegalArgumentException("Invalid width or height!");
     }
     Objects.requireNonNull(layers);
+    Objects.requireNonNull(file);
+    Objects.requireNonNull(progress);
+
+    ensureNotInterrupted();
+
+    final ForkJoinPool pool = ForkJoinPool.commonPool();
+    final int maxPendingStrips = 2 * pool.getParallelism();
+    final int stripHeight = getStripHeight(width, height);
+    final int strips = (height + stripHeight - 1) / stripHeight;
+
+    Deque<CompletableFuture<EncodedStrip>> pending = new ArrayDeque<>(maxPendingStrips);
+    try (var channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      PngEncoder.writeHeader(channel, width, height);
 
-    FileChooser fileChooser = createFileChooser();
-    File file = fileChooser.showSaveDialog(null);
-    if (file == null) {
-      return; // simply return if the user doesn't want to save the content
+      long checksum = 1;
+      int nextStrip = 0;
+      for (int strip = 0; strip < strips; strip++) {
+        while ((nextStrip < strips) && (pending.size() < maxPendingStrips)) {
+          final int y = nextStrip * stripHeight;
+          final int rows = Math.min(stripHeight, height - y);
+          final boolean isLast = (nextStrip == (strips - 1));
+          pending.addLast(CompletableFuture.supplyAsync(() -> {
+            int[] argb = StripCompositor.compositeStrip(layers, width, y, rows);
+            return PngEncoder.encodeStrip(argb, width, rows, isLast);
+          }, pool));
+          nextStrip++;
+        }
+
+        ensureNotInterrupted();
+        EncodedStrip encodedStrip = join(pending.removeFirst());
+        PngEncoder.writeStrip(channel, encodedStrip);
+        checksum = PngEncoder.combineChecksum(checksum, encodedStrip);
+
+        progress.accept((strip + 1.0) / strips);
+      }
+
+      PngEncoder.writeTrailer(channel, checksum);
+    } catch (IOException | RuntimeException e) {
+      pending.forEach(future -> future.cancel(true));
+      Files.deleteIfExists(file);
+      throw e;
     }
+  }
 
-    var img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-    renderToImage(img, layers);
+  /**
+   * Ensures that the current thread hasn't been interrupted.
+   *
+   * @throws InterruptedIOException if the current thread has been interrupted.
+   */
+  private static void ensureNotInterrupted() throws InterruptedIOException {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new InterruptedIOException("The export was interrupted");
+    }
+  }
 
+  /**
+   * Waits for the supplied strip to be encoded.
+   *
+   * @param future the future that represents the encoding of the strip.
+   * @return the encoded strip.
+   * @throws IOException if the strip couldn't be encoded.
+   */
+  private static EncodedStrip join(CompletableFuture<EncodedStrip> future) throws IOException {
     try {
-      ImageIO.write(img, "png", file);
-    } catch (Exception e) {
-      System.err.println("Failed to export image! Exception: " + e);
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException("Failed to encode the image", e.getCause());
     }
   }
-}
\ No newline at end of file
+}
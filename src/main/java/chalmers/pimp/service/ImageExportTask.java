@@ -0,0 +1,64 @@
+package chalmers.pimp.service;
+
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javafx.concurrent.Task;
+
+/**
+ * The {@code ImageExportTask} class represents the export of layers to a PNG file, on a background
+ * thread. The task exports copies of the layers, which are made when the task is created, so that
+ * the layers can be edited while the export is running. Cancelling the task interrupts the export.
+ *
+ * @see ImageExportService#exportPng(int, int, Iterable, java.nio.file.Path,
+ * java.util.function.DoubleConsumer)
+ */
+public final class ImageExportTask extends Task<Void> {
+
+  private final int width;
+  private final int height;
+  private final List<IReadOnlyLayer> layers;
+  private final File file;
+
+  /**
+   * @param width  the width of the exported image.
+   * @param height the height of the exported image.
+   * @param layers the layers that will be exported, from the bottom to the top.
+   * @param file   the file that the image will be written to.
+   * @throws IllegalArgumentException if the supplied width/height aren't greater than zero.
+   * @throws NullPointerException     if any references are {@code null}.
+   */
+  public ImageExportTask(int width, int height, Iterable<? extends IReadOnlyLayer> layers,
+      File file) {
+    if ((width < 1) || (height < 1)) {
+      throw new IllegalArgumentException("Invalid width or height!");
+    }
+    this.width = width;
+    this.height = height;
+    this.file = Objects.requireNonNull(file);
+
+    this.layers = new ArrayList<>();
+    for (IReadOnlyLayer layer : Objects.requireNonNull(layers)) {
+      this.layers.add(layer.clone());
+    }
+  }
+
+  @Override
+  protected Void call() throws IOException {
+    ImageExportService.exportPng(width, height, layers, file.toPath(),
+        progress -> updateProgress(progress, 1));
+    return null;
+  }
+
+  /**
+   * Returns the file that the image is exported to.
+   *
+   * @return the file that the image is exported to.
+   */
+  public File getFile() {
+    return file;
+  }
+}
@@ -1,8 +1,17 @@
 package chalmers.pimp.service;
 
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IRegionSource;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
 import java.util.Objects;
+import java.util.function.DoubleConsumer;
 import javafx.scene.image.Image;
 
 /**
@@ -10,6 +19,12 @@ import javafx.scene.image.Image;
  */
 public final class ImageImportService {
 
+  /**
+   * The share of the total work of an import that is spent decoding the image file, the rest is
+   * spent copying the decoded pixels into raster data.
+   */
+  private static final double DECODE_WORK = 0.8;
+
   private ImageImportService() {
   }
 
@@ -29,4 +44,126 @@ public final class ImageImportService {
       throw new IOException("Failed to load the image at: " + file);
     }
   }
+
+  /**
+   * Imports the image represented by the supplied file as raster data. This method blocks until
+   * the image has been decoded and copied, and is intended to be invoked from a background thread.
+   * The import is aborted as soon as possible if the invoking thread is interrupted.
+   *
+   * @param file     the file that represents the desired image.
+   * @param progress the listener that is notified of the progress of the import, as a value in the
+   *                 range [0, 1]. The listener is invoked on the importing thread.
+   * @return a raster data instance that contains the pixels of the image.
+   * @throws NullPointerException   if any arguments are {@code null}.
+   * @throws InterruptedIOException if the invoking thread was interrupted.
+   * @throws IOException            if the image cannot be loaded.
+   */
+  public static IRasterData importRasterData(File file, DoubleConsumer progress)
+      throws IOException {
+    Objects.requireNonNull(file);
+    Objects.requireNonNull(progress);
+
+    final long fileSize = Math.max(1, Files.size(file.toPath()));
+
+    Image image;
+    try (var input = new ProgressInputStream(Files.newInputStream(file.toPath()), fileSize,
+        progress)) {
+      image = new Image(new BufferedInputStream(input));
+    }
+
+    ensureNotInterrupted();
+    if (image.isError() || (image.getWidth() < 1) || (image.getHeight() < 1)) {
+      throw new IOException("Failed to load the image at: " + file, image.getException());
+    }
+
+    final int width = (int) image.getWidth();
+    final int height = (int) image.getHeight();
+    final long pixels = (long) width * height;
+    final IRegionSource reader = RasterDataService.createRegionSource(image);
+
+    var source = new IRegionSource() {
+      private long copiedPixels;
+
+      @Override
+      public void read(int x, int y, int width, int height, int[] destination, int offset,
+          int scanlineStride) {
+        reader.read(x, y, width, height, destination, offset, scanlineStride);
+        copiedPixels += (long) width * height;
+        progress.accept(DECODE_WORK + (((1 - DECODE_WORK) * copiedPixels) / pixels));
+      }
+    };
+
+    IRasterData rasterData = RasterDataFactory.createRasterData(width, height, source);
+    ensureNotInterrupted();
+    return rasterData;
+  }
+
+  /**
+   * Ensures that the current thread hasn't been interrupted.
+   *
+   * @throws InterruptedIOException if the current thread has been interrupted.
+   */
+  private static void ensureNotInterrupted() throws InterruptedIOException {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new InterruptedIOException("The import was interrupted");
+    }
+  }
+
+  /**
+   * The {@code ProgressInputStream} class is an input stream decorator that reports the share of
+   * the stream that has been read, and that stops reading when the reading thread is interrupted.
+   */
+  private static final class ProgressInputStream extends FilterInputStream {
+
+    private final long size;
+    private final DoubleConsumer progress;
+    private long position;
+
+    /**
+     * @param input    the decorated input stream.
+     * @param size     the total amount of bytes in the input stream.
+     * @param progress the listener that is notified of the amount of read bytes.
+     */
+    ProgressInputStream(InputStream input, long size, DoubleConsumer progress) {
+      super(input);
+      this.size = size;
+      this.progress = progress;
+    }
+
+    /**
+     * Reports that the supplied amount of bytes has been read.
+     *
+     * @param bytes the amount of read bytes, may be negative at the end of the stream.
+     */
+    private void advance(long bytes) {
+      if (bytes > 0) {
+        position += bytes;
+        progress.accept((DECODE_WORK * Math.min(position, size)) / size);
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      ensureNotInterrupted();
+      int value = super.read();
+      advance((value == -1) ? 0 : 1);
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      ensureNotInterrupted();
+      int count = super.read(buffer, offset, length);
+      advance(count);
+      return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+      ensureNotInterrupted();
+      long skipped = super.skip(count);
+      advance(skipped);
+      return skipped;
+    }
+  }
 }
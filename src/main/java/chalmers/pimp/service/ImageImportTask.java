@@ -0,0 +1,42 @@
+package chalmers.pimp.service;
+
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.util.FileUtils;
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+import javafx.concurrent.Task;
+
+/**
+ * The {@code ImageImportTask} class represents the import of an image file as raster data, on a
+ * background thread. The progress of the task is continuously updated while the file is decoded
+ * and copied. Cancelling the task interrupts the import.
+ *
+ * @see ImageImportService#importRasterData(File, java.util.function.DoubleConsumer)
+ */
+public final class ImageImportTask extends Task<IRasterData> {
+
+  private final File file;
+
+  /**
+   * @param file the file that represents the image that will be imported.
+   * @throws NullPointerException if the supplied file is {@code null}.
+   */
+  public ImageImportTask(File file) {
+    this.file = Objects.requireNonNull(file);
+  }
+
+  @Override
+  protected IRasterData call() throws IOException {
+    return ImageImportService.importRasterData(file, progress -> updateProgress(progress, 1));
+  }
+
+  /**
+   * Returns the name of the imported image, i.e. the name of the file without its extension.
+   *
+   * @return the name of the imported image.
+   */
+  public String getImageName() {
+    return FileUtils.getSimpleFileName(file);
+  }
+}
@@ -1,18 +1,25 @@
 package chalmers.pimp.service;
 
-import chalmers.pimp.model.IRenderer;
-import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.Point;
+import chalmers.pimp.model.canvas.layer.IColorable;
+import chalmers.pimp.model.canvas.layer.IDoodleLayer;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
 import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
-import chalmers.pimp.model.viewport.ViewportFactory;
-import chalmers.pimp.view.renderer.RendererFactory;
+import chalmers.pimp.model.pixeldata.DabMask;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import chalmers.pimp.model.pixeldata.RasterDataType;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import javafx.scene.SnapshotParameters;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.image.Image;
-import javafx.scene.image.WritableImage;
+import java.util.concurrent.Callable;
 
 /**
- * The {@code LayerImageService} class is a service that generates a JavaFX image from a layer.
+ * The {@code LayerImageService} class is a service that creates thumbnails of layers. The pixels
+ * of raster layers are downsampled, and vector layers are rasterized at the size of the thumbnail,
+ * so the cost of a thumbnail doesn't depend on the size of the layer. Thumbnails ignore the
+ * position, rotation, opacity and visibility of layers.
  */
 public final class LayerImageService {
 
@@ -20,52 +27,240 @@ public final class LayerImageService {
   }
 
   /**
-   * Returns the preview area size (the width and height of the preview area).
+   * Captures the contents of the supplied layer that are needed to create a thumbnail of it. This
+   * method must be invoked on the thread that modifies the layer, and only copies as much of the
+   * layer as the thumbnail needs. The returned task creates the thumbnail, and may be invoked on
+   * any thread. Raster layers whose pixels haven't been loaded yet are represented by the
+   * thumbnail that they were created with, if any.
    *
-   * @param layer the layer that will be used for the calculation.
-   * @return the preview area size (the width and height of the preview area).
-   * @throws NullPointerException if the supplied layer is {@code null}.
+   * @param layer the layer that the thumbnail will be created of.
+   * @param size  the max width and height of the thumbnail.
+   * @return a task that creates the thumbnail.
+   * @throws NullPointerException     if the supplied layer is {@code null}.
+   * @throws IllegalArgumentException if the supplied size is less than 1.
    */
-  private static int getPreviewAreaSize(IReadOnlyLayer layer) {
+  public static Callable<IReadOnlyRasterData> captureThumbnail(IReadOnlyLayer layer, int size) {
     Objects.requireNonNull(layer);
-    if (layer.getRotation() != 0) {
-      return (int) Math.hypot(layer.getWidth(), layer.getHeight());
+    if (size < 1) {
+      throw new IllegalArgumentException("Invalid thumbnail size: " + size);
+    }
+
+    if (layer instanceof IRasterLayer) {
+      var raster = (IRasterLayer) layer;
+      if (raster.isLoaded()) {
+        SampledRows rows = sampleRows(raster.getPixelData(), size);
+        return () -> downsample(rows);
+      }
+
+      IReadOnlyRasterData thumbnail = raster.getThumbnail();
+      if (thumbnail != null) {
+        return () -> thumbnail;
+      }
+
+      // The copy shares the unloaded pixels, which are loaded by the task instead
+      var copy = (IRasterLayer) raster.clone();
+      return () -> createThumbnail(copy.getPixelData(), size);
+    } else if (layer instanceof IDoodleLayer) {
+      var doodle = (IDoodleLayer) layer;
+      final List<Point> points = new ArrayList<>(doodle.getPoints());
+      final int lineWidth = doodle.getLineWidth();
+      final int argb = ((IColorable) doodle).getColor().toArgb();
+      return () -> drawDoodle(points, lineWidth, argb, size);
     } else {
-      return Math.max(layer.getWidth(), layer.getHeight()) + 10; // creates a small margin
+      final int width = Math.max(1, layer.getWidth());
+      final int height = Math.max(1, layer.getHeight());
+      final int argb = (layer instanceof IColorable) ? ((IColorable) layer).getColor().toArgb()
+          : 0;
+      return () -> fillThumbnail(width, height, argb, size);
     }
   }
 
   /**
-   * Creates a JavaFX Image representing a layer.
+   * Creates a thumbnail of the supplied raster data, whose width and height are at most the
+   * supplied size. Every pixel of the thumbnail is the average of the source pixels that it
+   * covers horizontally, on the row at its vertical center.
    *
-   * @param layer the layer to be converted, the supplied layer will not be mutated.
-   * @return a JavaFX Image of the target layer.
-   * @throws NullPointerException if the supplied layer is {@code null}.
+   * @param rasterData the raster data that the thumbnail will be created of.
+   * @param size       the max width and height of the thumbnail.
+   * @return a thumbnail of the raster data.
+   * @throws NullPointerException     if the supplied raster data is {@code null}.
+   * @throws IllegalArgumentException if the supplied size is less than 1.
    */
-  public static Image getLayerImage(ILayer layer) {
-    Objects.requireNonNull(layer);
-    ILayer copy = layer.clone();
+  public static IRasterData createThumbnail(IReadOnlyRasterData rasterData, int size) {
+    Objects.requireNonNull(rasterData);
+    if (size < 1) {
+      throw new IllegalArgumentException("Invalid thumbnail size: " + size);
+    }
+    return downsample(sampleRows(rasterData, size));
+  }
+
+  /**
+   * Returns the size of a thumbnail of something with the specified size, which preserves the
+   * aspect ratio.
+   *
+   * @param width  the width of the thumbnailed content.
+   * @param height the height of the thumbnailed content.
+   * @param size   the max width and height of the thumbnail.
+   * @return the width and height of the thumbnail.
+   */
+  private static int[] getThumbnailSize(int width, int height, int size) {
+    double scale = Math.min(1.0, (double) size / Math.max(width, height));
+    return new int[]{Math.max(1, (int) Math.round(width * scale)),
+        Math.max(1, (int) Math.round(height * scale))};
+  }
 
-    // Always show the layer so that the preview will be shown.
-    copy.setVisible(true);
+  /**
+   * Copies the rows of the supplied raster data that a thumbnail is created from.
+   *
+   * @param rasterData the raster data.
+   * @param size       the max width and height of the thumbnail.
+   * @return the copied rows.
+   */
+  private static SampledRows sampleRows(IReadOnlyRasterData rasterData, int size) {
+    final int width = rasterData.getWidth();
+    final int height = rasterData.getHeight();
+    final int[] thumbnailSize = getThumbnailSize(width, height, size);
 
-    int size = getPreviewAreaSize(copy);
+    var rows = new SampledRows(width, thumbnailSize[0], thumbnailSize[1]);
+    for (int y = 0; y < rows.thumbnailHeight; y++) {
+      int sourceY = (int) (((y + 0.5) * height) / rows.thumbnailHeight);
+      rasterData.readRegion(0, sourceY, width, 1, rows.argb, y * width, width);
+    }
+    return rows;
+  }
 
-    copy.setX(size);
-    copy.setY(size);
+  /**
+   * Creates a thumbnail from the supplied rows, by averaging the pixels that every pixel of the
+   * thumbnail covers. The color channels are weighted by their alpha values.
+   *
+   * @param rows the rows of the thumbnailed raster data.
+   * @return the thumbnail.
+   */
+  private static IRasterData downsample(SampledRows rows) {
+    IRasterData thumbnail = RasterDataFactory.createRasterData(RasterDataType.PACKED,
+        rows.thumbnailWidth, rows.thumbnailHeight);
 
-    int cropX = copy.getX() - ((size - copy.getWidth()) / 2);
-    int cropY = copy.getY() - ((size - copy.getHeight()) / 2);
-    int width = copy.getX() + size;
-    int height = copy.getY() + size;
+    int[] thumbnailRow = new int[rows.thumbnailWidth];
+    for (int y = 0; y < rows.thumbnailHeight; y++) {
+      int rowStart = y * rows.width;
+      for (int x = 0; x < rows.thumbnailWidth; x++) {
+        int from = (int) (((long) x * rows.width) / rows.thumbnailWidth);
+        int to = Math.max(from + 1, (int) (((long) (x + 1) * rows.width) / rows.thumbnailWidth));
 
-    var canvas = new Canvas(width, height);
-    IRenderer renderer = RendererFactory.createFXRenderer(canvas.getGraphicsContext2D());
-    copy.draw(renderer, ViewportFactory.createViewport(0, 0, width, height));
+        long alpha = 0;
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        for (int i = rowStart + from; i < rowStart + to; i++) {
+          int argb = rows.argb[i];
+          int a = argb >>> 24;
+          alpha += a;
+          red += a * ((argb >> 16) & 0xFF);
+          green += a * ((argb >> 8) & 0xFF);
+          blue += a * (argb & 0xFF);
+        }
 
-    WritableImage image = canvas.snapshot(new SnapshotParameters(), null);
+        if (alpha == 0) {
+          thumbnailRow[x] = 0;
+        } else {
+          int a = (int) (alpha / (to - from));
+          thumbnailRow[x] = (a << 24) | ((int) (red / alpha) << 16) | ((int) (green / alpha) << 8)
+              | (int) (blue / alpha);
+        }
+      }
+      thumbnail.writeRow(y, thumbnailRow);
+    }
+    return thumbnail;
+  }
 
-    // Crops the Image with the layer focused in the middle and a small margin
-    return new WritableImage(image.getPixelReader(), cropX, cropY, size, size);
+  /**
+   * Creates a thumbnail that is filled with a single color.
+   *
+   * @param width  the width of the thumbnailed layer.
+   * @param height the height of the thumbnailed layer.
+   * @param argb   the packed ARGB color of the thumbnail.
+   * @param size   the max width and height of the thumbnail.
+   * @return the thumbnail.
+   */
+  private static IRasterData fillThumbnail(int width, int height, int argb, int size) {
+    int[] thumbnailSize = getThumbnailSize(width, height, size);
+    IRasterData thumbnail = RasterDataFactory.createRasterData(RasterDataType.PACKED,
+        thumbnailSize[0], thumbnailSize[1]);
+    thumbnail.fillRect(0, 0, thumbnailSize[0], thumbnailSize[1], argb);
+    return thumbnail;
+  }
+
+  /**
+   * Creates a thumbnail of a doodle, by stamping a scaled dab along its lines.
+   *
+   * @param points    the points of the doodle.
+   * @param lineWidth the line width of the doodle.
+   * @param argb      the packed ARGB color of the doodle.
+   * @param size      the max width and height of the thumbnail.
+   * @return the thumbnail.
+   */
+  private static IRasterData drawDoodle(List<Point> points, int lineWidth, int argb, int size) {
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+    for (Point point : points) {
+      minX = Math.min(minX, point.getX());
+      minY = Math.min(minY, point.getY());
+      maxX = Math.max(maxX, point.getX());
+      maxY = Math.max(maxY, point.getY());
+    }
+
+    int width = points.isEmpty() ? 1 : (maxX - minX) + (lineWidth * 2);
+    int height = points.isEmpty() ? 1 : (maxY - minY) + (lineWidth * 2);
+    int[] thumbnailSize = getThumbnailSize(Math.max(1, width), Math.max(1, height), size);
+    IRasterData thumbnail = RasterDataFactory.createRasterData(RasterDataType.PACKED,
+        thumbnailSize[0], thumbnailSize[1]);
+    if (points.isEmpty()) {
+      return thumbnail;
+    }
+
+    final double scale = (double) thumbnailSize[0] / Math.max(1, width);
+    final var dab = new DabMask(Math.max(1, (int) Math.round(lineWidth * scale)));
+    Point previous = points.get(0);
+    for (Point point : points) {
+      double fromX = (previous.getX() - minX + lineWidth) * scale;
+      double fromY = (previous.getY() - minY + lineWidth) * scale;
+      double toX = (point.getX() - minX + lineWidth) * scale;
+      double toY = (point.getY() - minY + lineWidth) * scale;
+
+      int steps = (int) Math.ceil(Math.max(Math.abs(toX - fromX), Math.abs(toY - fromY)));
+      for (int step = 0; step <= steps; step++) {
+        double t = (steps == 0) ? 0 : (double) step / steps;
+        dab.stamp(thumbnail, (int) (fromX + ((toX - fromX) * t)),
+            (int) (fromY + ((toY - fromY) * t)), argb);
+      }
+      previous = point;
+    }
+    return thumbnail;
+  }
+
+  /**
+   * The {@code SampledRows} class represents the rows of raster data that a thumbnail is created
+   * from, one row for every row of the thumbnail.
+   */
+  private static final class SampledRows {
+
+    private final int width;
+    private final int thumbnailWidth;
+    private final int thumbnailHeight;
+    private final int[] argb;
+
+    /**
+     * @param width           the width of the rows.
+     * @param thumbnailWidth  the width of the thumbnail.
+     * @param thumbnailHeight the height of the thumbnail, i.e. the amount of rows.
+     */
+    private SampledRows(int width, int thumbnailWidth, int thumbnailHeight) {
+      this.width = width;
+      this.thumbnailWidth = thumbnailWidth;
+      this.thumbnailHeight = thumbnailHeight;
+      argb = new int[width * thumbnailHeight];
+    }
   }
 }
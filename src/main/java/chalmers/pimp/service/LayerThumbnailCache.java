@@ -0,0 +1,169 @@
+package chalmers.pimp.service;
+
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import javafx.scene.image.Image;
+
+/**
+ * The {@code LayerThumbnailCache} class caches thumbnails of layers, keyed by the identity of the
+ * layers and their content versions, see {@link IReadOnlyLayer#getContentVersion()}. A thumbnail
+ * is only created when the contents of its layer have changed since the cached thumbnail was
+ * created. Thumbnails are created on a background executor, see {@link
+ * LayerImageService#captureThumbnail(IReadOnlyLayer, int)}, and are delivered on the thread that
+ * modifies the layers.
+ *
+ * <p>All methods of this class must be invoked on the thread that modifies the layers.
+ */
+public final class LayerThumbnailCache {
+
+  private final int size;
+  private final Executor executor;
+  private final Executor modelExecutor;
+  private final Map<IReadOnlyLayer, Entry> entries;
+
+  /**
+   * @param size          the max width and height of the thumbnails.
+   * @param executor      the executor that creates the thumbnails.
+   * @param modelExecutor the executor that runs tasks on the thread that modifies the layers, e.g.
+   *                      {@code Platform::runLater}.
+   * @throws NullPointerException     if any references are {@code null}.
+   * @throws IllegalArgumentException if the supplied size is less than 1.
+   */
+  public LayerThumbnailCache(int size, Executor executor, Executor modelExecutor) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Invalid thumbnail size: " + size);
+    }
+    this.size = size;
+    this.executor = Objects.requireNonNull(executor);
+    this.modelExecutor = Objects.requireNonNull(modelExecutor);
+    entries = new IdentityHashMap<>();
+  }
+
+  /**
+   * Supplies the thumbnail of the supplied layer to the supplied consumer. A cached thumbnail is
+   * supplied immediately, even if it's out of date. If there is no up-to-date thumbnail, one is
+   * created in the background, and supplied to the consumer once it's done.
+   *
+   * @param layer    the layer.
+   * @param consumer the consumer that will receive the thumbnail.
+   * @throws NullPointerException if any arguments are {@code null}.
+   */
+  public void requestThumbnail(IReadOnlyLayer layer, Consumer<? super Image> consumer) {
+    Objects.requireNonNull(layer);
+    Objects.requireNonNull(consumer);
+
+    final long version = layer.getContentVersion();
+    final Entry entry = entries.computeIfAbsent(layer, key -> new Entry());
+    if (entry.image != null) {
+      consumer.accept(entry.image);
+      if (entry.version == version) {
+        return;
+      }
+    }
+
+    entry.consumers.add(consumer);
+    if (entry.isPending && (entry.pendingVersion == version)) {
+      return;
+    }
+    entry.isPending = true;
+    entry.pendingVersion = version;
+
+    final Callable<IReadOnlyRasterData> thumbnail = LayerImageService.captureThumbnail(layer,
+        size);
+    executor.execute(() -> {
+      Image image;
+      try {
+        image = RasterDataService.toFXImage(thumbnail.call());
+      } catch (Exception e) {
+        System.err.println("Failed to create layer thumbnail! Exception: " + e);
+        image = null;
+      }
+
+      final Image result = image;
+      modelExecutor.execute(() -> complete(layer, entry, version, result));
+    });
+  }
+
+  /**
+   * Stores a created thumbnail, and supplies it to the waiting consumers, unless the thumbnail
+   * has been superseded.
+   *
+   * @param layer   the layer of the thumbnail.
+   * @param entry   the cache entry of the layer.
+   * @param version the content version of the layer that the thumbnail was created of.
+   * @param image   the created thumbnail; {@code null} if it couldn't be created.
+   */
+  private void complete(IReadOnlyLayer layer, Entry entry, long version, Image image) {
+    if ((entries.get(layer) != entry) || !entry.isPending || (entry.pendingVersion != version)) {
+      return;
+    }
+
+    entry.isPending = false;
+    if (image == null) {
+      entry.consumers.clear();
+      return;
+    }
+
+    entry.image = image;
+    entry.version = version;
+    for (Consumer<? super Image> consumer : entry.consumers) {
+      consumer.accept(image);
+    }
+    entry.consumers.clear();
+  }
+
+  /**
+   * Removes the thumbnail of the supplied layer. A pending thumbnail of the layer is discarded once
+   * it's done.
+   *
+   * @param layer the layer whose thumbnail will be removed.
+   */
+  public void remove(IReadOnlyLayer layer) {
+    entries.remove(layer);
+  }
+
+  /**
+   * Removes the thumbnails of all layers, except for the supplied layers.
+   *
+   * @param layers the layers whose thumbnails will be kept.
+   * @throws NullPointerException if the supplied iterable is {@code null}.
+   */
+  public void retainAll(Iterable<? extends IReadOnlyLayer> layers) {
+    Set<IReadOnlyLayer> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (IReadOnlyLayer layer : layers) {
+      retained.add(layer);
+    }
+    entries.keySet().retainAll(retained);
+  }
+
+  /**
+   * Returns the amount of layers that have a cached or pending thumbnail.
+   *
+   * @return the amount of cached layers.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * The {@code Entry} class represents the cached thumbnail of a layer.
+   */
+  private static final class Entry {
+
+    private final List<Consumer<? super Image>> consumers = new ArrayList<>();
+    private Image image;
+    private long version;
+    private boolean isPending;
+    private long pendingVersion;
+  }
+}
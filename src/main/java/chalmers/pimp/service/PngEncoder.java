@@ -0,0 +1,244 @@
+package chalmers.pimp.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The {@code PngEncoder} class provides the building blocks of a PNG encoder that compresses
+ * horizontal strips of an image independently of each other, so that the strips can be compressed
+ * in parallel. Every strip is compressed into a raw deflate segment that ends on a byte boundary,
+ * the segments are then concatenated into a single zlib stream, in the same way as pigz does.
+ *
+ * <p>Images are encoded as 8-bit, non-interlaced RGBA images. Every row uses the "Sub" filter,
+ * since it only depends on the row itself.
+ */
+final class PngEncoder {
+
+  private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9C};
+  private static final int ADLER_BASE = 65521;
+  private static final int BYTES_PER_PIXEL = 4;
+  private static final byte SUB_FILTER = 1;
+
+  private PngEncoder() {
+  }
+
+  /**
+   * The {@code EncodedStrip} class represents a compressed strip of an image.
+   */
+  static final class EncodedStrip {
+
+    private final byte[] data;
+    private final long checksum;
+    private final long length;
+
+    /**
+     * @param data     the compressed bytes of the strip.
+     * @param checksum the Adler-32 checksum of the uncompressed bytes of the strip.
+     * @param length   the amount of uncompressed bytes in the strip.
+     */
+    private EncodedStrip(byte[] data, long checksum, long length) {
+      this.data = data;
+      this.checksum = checksum;
+      this.length = length;
+    }
+  }
+
+  /**
+   * Writes the PNG signature and the header of an image of the specified size, followed by the
+   * zlib header of the image data.
+   *
+   * @param channel the channel that the header will be written to.
+   * @param width   the width of the image.
+   * @param height  the height of the image.
+   * @throws IOException if the header couldn't be written.
+   */
+  static void writeHeader(WritableByteChannel channel, int width, int height) throws IOException {
+    writeFully(channel, ByteBuffer.wrap(SIGNATURE));
+
+    ByteBuffer header = ByteBuffer.allocate(13);
+    header.putInt(width);
+    header.putInt(height);
+    header.put((byte) 8); // Bit depth
+    header.put((byte) 6); // Color type, RGBA
+    header.put((byte) 0); // Compression method, deflate
+    header.put((byte) 0); // Filter method, adaptive
+    header.put((byte) 0); // Interlace method, none
+    writeChunk(channel, "IHDR", header.array());
+
+    writeChunk(channel, "IDAT", ZLIB_HEADER);
+  }
+
+  /**
+   * Encodes a horizontal strip of an image. The strip is filtered and compressed, but not written.
+   *
+   * @param argb   the packed, non-premultiplied ARGB values of the strip.
+   * @param width  the width of the strip.
+   * @param rows   the amount of rows in the strip.
+   * @param isLast {@code true} if the strip is the last strip of the image; {@code false}
+   *               otherwise.
+   * @return the encoded strip.
+   */
+  static EncodedStrip encodeStrip(int[] argb, int width, int rows, boolean isLast) {
+    final int stride = 1 + (width * BYTES_PER_PIXEL);
+    final byte[] filtered = new byte[stride * rows];
+
+    for (int row = 0; row < rows; row++) {
+      int pos = row * stride;
+      filtered[pos++] = SUB_FILTER;
+
+      int previous = 0;
+      for (int col = 0; col < width; col++) {
+        int pixel = argb[(row * width) + col];
+        filtered[pos++] = (byte) ((pixel >> 16) - (previous >> 16));
+        filtered[pos++] = (byte) ((pixel >> 8) - (previous >> 8));
+        filtered[pos++] = (byte) (pixel - previous);
+        filtered[pos++] = (byte) ((pixel >>> 24) - (previous >>> 24));
+        previous = pixel;
+      }
+    }
+
+    var adler = new Adler32();
+    adler.update(filtered);
+
+    return new EncodedStrip(deflate(filtered, isLast), adler.getValue(), filtered.length);
+  }
+
+  /**
+   * Compresses the supplied bytes into a raw deflate segment. Segments that aren't the last one
+   * are flushed to a byte boundary without being finished, so that they can be concatenated.
+   *
+   * @param bytes  the bytes that will be compressed.
+   * @param isLast {@code true} if the segment is the last segment of the stream.
+   * @return the compressed bytes.
+   */
+  private static byte[] deflate(byte[] bytes, boolean isLast) {
+    var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      deflater.setInput(bytes);
+
+      var output = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+      byte[] buffer = new byte[64 * 1024];
+      if (isLast) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          output.write(buffer, 0, deflater.deflate(buffer));
+        }
+      } else {
+        int count;
+        do {
+          count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+          output.write(buffer, 0, count);
+        } while (count == buffer.length);
+      }
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Writes the supplied encoded strip as image data.
+   *
+   * @param channel the channel that the strip will be written to.
+   * @param strip   the strip that will be written.
+   * @throws IOException if the strip couldn't be written.
+   */
+  static void writeStrip(WritableByteChannel channel, EncodedStrip strip) throws IOException {
+    if (strip.data.length > 0) {
+      writeChunk(channel, "IDAT", strip.data);
+    }
+  }
+
+  /**
+   * Writes the zlib trailer of the image data, followed by the end of the image.
+   *
+   * @param channel  the channel that the trailer will be written to.
+   * @param checksum the Adler-32 checksum of all uncompressed image data.
+   * @throws IOException if the trailer couldn't be written.
+   */
+  static void writeTrailer(WritableByteChannel channel, long checksum) throws IOException {
+    writeChunk(channel, "IDAT", ByteBuffer.allocate(4).putInt((int) checksum).array());
+    writeChunk(channel, "IEND", new byte[0]);
+  }
+
+  /**
+   * Returns the Adler-32 checksum of the concatenation of the supplied strip with the data that
+   * precedes it, based on the checksum of the preceding data. The initial checksum is 1.
+   *
+   * @param checksum the Adler-32 checksum of the preceding data.
+   * @param strip    the strip that follows the preceding data.
+   * @return the combined checksum.
+   */
+  static long combineChecksum(long checksum, EncodedStrip strip) {
+    return combineAdler32(checksum, strip.checksum, strip.length);
+  }
+
+  /**
+   * Combines two Adler-32 checksums into the checksum of the concatenated data, like {@code
+   * adler32_combine} in zlib.
+   *
+   * @param first  the checksum of the first sequence of bytes.
+   * @param second the checksum of the second sequence of bytes.
+   * @param length the length of the second sequence of bytes.
+   * @return the checksum of the concatenated sequences.
+   */
+  static long combineAdler32(long first, long second, long length) {
+    final long remainder = length % ADLER_BASE;
+
+    long sum1 = first & 0xFFFF;
+    long sum2 = (remainder * sum1) % ADLER_BASE;
+    sum1 += (second & 0xFFFF) + ADLER_BASE - 1;
+    sum2 += ((first >>> 16) & 0xFFFF) + ((second >>> 16) & 0xFFFF) + ADLER_BASE - remainder;
+
+    sum1 %= ADLER_BASE;
+    sum2 %= ADLER_BASE;
+    return (sum2 << 16) | sum1;
+  }
+
+  /**
+   * Writes a PNG chunk with the supplied type and data.
+   *
+   * @param channel the channel that the chunk will be written to.
+   * @param type    the four letter type of the chunk.
+   * @param data    the data of the chunk.
+   * @throws IOException if the chunk couldn't be written.
+   */
+  private static void writeChunk(WritableByteChannel channel, String type, byte[] data)
+      throws IOException {
+    byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+
+    var crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data);
+
+    ByteBuffer buffer = ByteBuffer.allocate(12 + data.length);
+    buffer.putInt(data.length);
+    buffer.put(typeBytes);
+    buffer.put(data);
+    buffer.putInt((int) crc.getValue());
+    buffer.flip();
+
+    writeFully(channel, buffer);
+  }
+
+  /**
+   * Writes all remaining bytes of the supplied buffer.
+   *
+   * @param channel the channel that the bytes will be written to.
+   * @param buffer  the buffer that contains the bytes.
+   * @throws IOException if the bytes couldn't be written.
+   */
+  private static void writeFully(WritableByteChannel channel, ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -1,17 +1,17 @@
 package chalmers.pimp.service;
 
-import chalmers.pimp.model.color.IColor;
 import chalmers.pimp.model.pixeldata.IRasterData;
-import chalmers.pimp.model.pixeldata.IReadOnlyPixel;
 import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
-import chalmers.pimp.model.pixeldata.PixelFactory;
+import chalmers.pimp.model.pixeldata.IRegionSource;
 import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.nio.IntBuffer;
 import java.util.Objects;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelReader;
 import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
-import javafx.scene.paint.Color;
+import javafx.scene.image.WritablePixelFormat;
 
 /**
  * The {@code RasterDataService} class is a service for converting between JavaFX images and raster
@@ -22,11 +22,20 @@ import javafx.scene.paint.Color;
  */
 public final class RasterDataService {
 
+  /**
+   * The max amount of pixels that are copied to a JavaFX image at a time.
+   */
+  private static final int MAX_BAND_PIXELS = 1 << 20;
+
+  private static final WritablePixelFormat<IntBuffer> ARGB_FORMAT =
+      PixelFormat.getIntArgbInstance();
+
   private RasterDataService() {
   }
 
   /**
-   * Creates a pixel data copy of the supplied JavaFX image.
+   * Creates a pixel data copy of the supplied JavaFX image. The pixels are read in bulk, as packed
+   * ARGB integers, directly into the arrays that back the created pixel data.
    *
    * @param image the image that will be copied.
    * @return a pixel data copy of the supplied JavaFX image.
@@ -38,35 +47,21 @@ public final class RasterDataService {
     final int imageWidth = (int) image.getWidth();
     final int imageHeight = (int) image.getHeight();
 
-    IRasterData rasterData = RasterDataFactory.createRasterData(imageWidth, imageHeight);
-    PixelReader reader = image.getPixelReader();
-
-    for (int row = 0; row < imageHeight; row++) {
-      writeImageRow(rasterData, reader, imageWidth, row);
-    }
-
-    return rasterData;
+    return RasterDataFactory.createRasterData(imageWidth, imageHeight, createRegionSource(image));
   }
 
   /**
-   * Writes a row in the supplied pixel data.
+   * Creates and returns a region source that reads the pixels of the supplied JavaFX image in
+   * bulk, as packed ARGB integers.
    *
-   * @param rasterData the raster data to write to.
-   * @param reader     the pixel reader used to obtain ARGB values from the JavaFX image.
-   * @param imageWidth the width of the JavaFX image.
-   * @param rowIndex   the row index in the JavaFX image.
-   * @throws NullPointerException if any arguments are {@code null}.
+   * @param image the image whose pixels will be read.
+   * @return a region source that reads the pixels of the supplied image.
+   * @throws NullPointerException if the supplied image is {@code null}.
    */
-  private static void writeImageRow(IRasterData rasterData, PixelReader reader, int imageWidth,
-      int rowIndex) {
-    Objects.requireNonNull(rasterData);
-    Objects.requireNonNull(reader);
-    for (int col = 0; col < imageWidth; col++) {
-      Color fxColor = reader.getColor(col, rowIndex);
-      IColor color = ColorConverterService.fxToIColor(fxColor);
-
-      rasterData.setPixel(PixelFactory.createPixel(col, rowIndex, color));
-    }
+  public static IRegionSource createRegionSource(Image image) {
+    final PixelReader reader = Objects.requireNonNull(image).getPixelReader();
+    return (x, y, width, height, destination, offset, scanlineStride) -> reader
+        .getPixels(x, y, width, height, ARGB_FORMAT, destination, offset, scanlineStride);
   }
 
   /**
@@ -74,41 +69,48 @@ public final class RasterDataService {
    *
    * @param pixelData the pixel data that should be converted.
    * @return a JavaFX image based on the supplied pixel data.
-   * @throws NullPointerException if any arguments are {@code null}.d
+   * @throws NullPointerException if any arguments are {@code null}.
    */
-  public static Image toFXImage(IReadOnlyRasterData pixelData) {
+  public static WritableImage toFXImage(IReadOnlyRasterData pixelData) {
     Objects.requireNonNull(pixelData);
 
     var result = new WritableImage(pixelData.getWidth(), pixelData.getHeight());
-    PixelWriter pixelWriter = result.getPixelWriter();
-
-    int yOffset = 0;
-    for (Iterable<? extends IReadOnlyPixel> pixelDataRow : pixelData.getPixels()) {
-      setImagePixelRow(pixelDataRow, pixelWriter, yOffset);
-      yOffset++;
-    }
+    updateFXImage(pixelData, result, 0, 0, pixelData.getWidth(), pixelData.getHeight());
 
     return result;
   }
 
   /**
-   * Copies a row of pixels to the image associated with the supplied pixel writer.
+   * Copies a region of the supplied pixel data to the same region of the supplied JavaFX image.
+   * The pixels are copied in bulk, as packed ARGB integers, in bands of rows in order to limit the
+   * size of the intermediate buffer.
    *
-   * @param pixelDataRow the row of Pixeldata to be copied.
-   * @param pixelWriter  the pixel writer that will be used.
-   * @param rowOffset    The row offset of the affected row.
-   * @throws NullPointerException if any arguments are {@code null}.
+   * @param pixelData the pixel data that will be copied.
+   * @param image     the image that will be updated, must be at least as large as the region.
+   * @param x         the x-coordinate of the upper left corner of the region.
+   * @param y         the y-coordinate of the upper left corner of the region.
+   * @param width     the width of the region.
+   * @param height    the height of the region.
+   * @throws NullPointerException      if any arguments are {@code null}.
+   * @throws IndexOutOfBoundsException if the region isn't contained in the pixel data.
    */
-  private static void setImagePixelRow(Iterable<? extends IReadOnlyPixel> pixelDataRow,
-      PixelWriter pixelWriter, int rowOffset) {
-    Objects.requireNonNull(pixelDataRow);
-    Objects.requireNonNull(pixelWriter);
-
-    int xOffset = 0;
-    for (IReadOnlyPixel pixel : pixelDataRow) {
-      Color fxColor = ColorConverterService.toFXColor(pixel.getColor());
-      pixelWriter.setColor(xOffset, rowOffset, fxColor);
-      xOffset++;
+  public static void updateFXImage(IReadOnlyRasterData pixelData, WritableImage image, int x,
+      int y, int width, int height) {
+    Objects.requireNonNull(pixelData);
+    Objects.requireNonNull(image);
+
+    if ((width <= 0) || (height <= 0)) {
+      return;
+    }
+
+    final int bandHeight = Math.max(1, Math.min(height, MAX_BAND_PIXELS / width));
+    final int[] buffer = new int[width * bandHeight];
+    PixelWriter pixelWriter = image.getPixelWriter();
+
+    for (int row = 0; row < height; row += bandHeight) {
+      int rows = Math.min(bandHeight, height - row);
+      pixelData.readRegion(x, y + row, width, rows, buffer, 0, width);
+      pixelWriter.setPixels(x, y + row, width, rows, ARGB_FORMAT, buffer, 0, width);
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package chalmers.pimp.service;
+
+import chalmers.pimp.model.IRenderer;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import chalmers.pimp.model.pixeldata.RasterDataType;
+import chalmers.pimp.model.viewport.IReadOnlyViewport;
+import chalmers.pimp.model.viewport.ViewportFactory;
+import chalmers.pimp.view.renderer.RendererFactory;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Objects;
+
+/**
+ * The {@code StripCompositor} class composites layers into horizontal strips of a document. The
+ * pixels of raster layers are blended straight from their raster data, other layers are rendered
+ * through a Swing renderer, one strip at a time. Strips can be composited concurrently, since the
+ * layers are only read.
+ */
+final class StripCompositor {
+
+  private StripCompositor() {
+  }
+
+  /**
+   * Composites the supplied layers into a strip of the document. The strip starts out fully
+   * transparent.
+   *
+   * @param layers the layers that will be composited, from the bottom to the top.
+   * @param width  the width of the document.
+   * @param y      the y-coordinate of the first row of the strip.
+   * @param rows   the amount of rows in the strip.
+   * @return the packed, non-premultiplied ARGB values of the strip.
+   * @throws NullPointerException if the supplied layers are {@code null}.
+   */
+  static int[] compositeStrip(Iterable<? extends IReadOnlyLayer> layers, int width, int y,
+      int rows) {
+    Objects.requireNonNull(layers);
+
+    IRasterData strip = RasterDataFactory.createRasterData(RasterDataType.PACKED, width, rows);
+    for (IReadOnlyLayer layer : layers) {
+      if (!layer.isVisible()) {
+        continue;
+      }
+
+      if (layer instanceof IRasterLayer) {
+        IReadOnlyRasterData pixelData = ((IRasterLayer) layer).getPixelData();
+        strip.blitWithAlpha(pixelData, 0, 0, pixelData.getWidth(), pixelData.getHeight(),
+            layer.getX(), layer.getY() - y);
+      } else {
+        strip.blitWithAlpha(renderStrip(layer, width, y, rows), 0, 0, width, rows, 0, 0);
+      }
+    }
+
+    int[] argb = new int[width * rows];
+    strip.readRegion(0, 0, width, rows, argb, 0, width);
+    return argb;
+  }
+
+  /**
+   * Renders the supplied layer into a strip of the document, on a transparent background.
+   *
+   * @param layer the layer that will be rendered.
+   * @param width the width of the document.
+   * @param y     the y-coordinate of the first row of the strip.
+   * @param rows  the amount of rows in the strip.
+   * @return the rendered strip.
+   */
+  private static IReadOnlyRasterData renderStrip(IReadOnlyLayer layer, int width, int y,
+      int rows) {
+    var image = new BufferedImage(width, rows, BufferedImage.TYPE_INT_ARGB);
+
+    Graphics2D graphics = image.createGraphics();
+    try {
+      IReadOnlyViewport viewport = ViewportFactory.createViewport(0, -y, width, rows);
+      IRenderer renderer = RendererFactory.createSwingRenderer(graphics, viewport);
+      layer.draw(renderer, viewport);
+    } finally {
+      graphics.dispose();
+    }
+
+    int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    return RasterDataFactory.createRasterData(RasterDataType.PACKED, width, rows,
+        (x, regionY, regionWidth, regionHeight, destination, offset, scanlineStride) -> {
+          for (int row = 0; row < regionHeight; row++) {
+            System.arraycopy(pixels, ((regionY + row) * width) + x, destination,
+                offset + (row * scanlineStride), regionWidth);
+          }
+        });
+  }
+}
@@ -2,6 +2,7 @@ package chalmers.pimp.view;
 
 import chalmers.pimp.model.IModel;
 import chalmers.pimp.model.IRenderer;
+import chalmers.pimp.model.Rect;
 import chalmers.pimp.model.color.Colors;
 import chalmers.pimp.model.viewport.IReadOnlyViewport;
 import java.util.Objects;
@@ -44,22 +45,28 @@ final class GraphicsHandler {
   }
 
   /**
-   * Renders the transparency grid (a checkerboard).
+   * Renders the part of the transparency grid (a checkerboard) that overlaps the supplied area.
    *
-   * @param vx the viewport x-coordinate.
-   * @param vy the viewport y-coordinate.
+   * @param vx   the viewport x-coordinate.
+   * @param vy   the viewport y-coordinate.
+   * @param area the area of the model canvas that will be covered, in canvas coordinates.
    */
-  private void drawTransparencyGrid(int vx, int vy) {
+  private void drawTransparencyGrid(int vx, int vy, Rect area) {
     int size = 10;
     int nRows = model.getWidth() / size;
     int nCols = model.getHeight() / size;
 
-    for (int row = 0; row < nRows; row++) {
-      for (int col = 0; col < nCols; col++) {
+    int firstRow = Math.max(0, area.getX() / size);
+    int firstCol = Math.max(0, area.getY() / size);
+    int lastRow = Math.min(nRows, (area.getMaxX() + size - 1) / size);
+    int lastCol = Math.min(nCols, (area.getMaxY() + size - 1) / size);
+
+    renderer.setFillColor(Colors.LIGHT_GRAY);
+    for (int row = firstRow; row < lastRow; row++) {
+      for (int col = firstCol; col < lastCol; col++) {
         if ((row % 2 == 0) == (col % 2 == 0)) {
           int x = vx + (row * size);
           int y = vy + (col * size);
-          renderer.setFillColor(Colors.LIGHT_GRAY);
           renderer.fillRect(x, y, size, size);
         }
       }
@@ -118,9 +125,39 @@ final class GraphicsHandler {
     final int modelHeight = model.getHeight();
 
     drawCanvasArea();
-    drawTransparencyGrid(vx, vy);
+    drawTransparencyGrid(vx, vy, new Rect(0, 0, modelWidth, modelHeight));
     model.draw(renderer);
     fillCanvasSurroundingArea(vx, vy, modelWidth, modelHeight);
     drawCanvasShadow(vx, vy, modelWidth, modelHeight);
   }
+
+  /**
+   * Renders the supplied area of the model canvas. Rendering is clipped to the supplied area, and
+   * only the parts of the transparency grid that overlap the area are drawn. The surroundings of
+   * the model canvas are left untouched, since they can't be affected by changes of the canvas.
+   *
+   * @param area the area of the model canvas that will be rendered, in canvas coordinates.
+   * @throws NullPointerException if the supplied area is {@code null}.
+   */
+  void render(Rect area) {
+    Objects.requireNonNull(area);
+
+    final int vx = model.getViewport().getX();
+    final int vy = model.getViewport().getY();
+    final Rect canvasArea = area.intersection(new Rect(0, 0, model.getWidth(), model.getHeight()));
+
+    if (canvasArea.isEmpty()) {
+      return;
+    }
+
+    Rect clip = canvasArea.translate(vx, vy);
+    renderer.setClip(clip.getX(), clip.getY(), clip.getWidth(), clip.getHeight());
+
+    renderer.setFillColor(Colors.WHITE);
+    renderer.fillRect(clip.getX(), clip.getY(), clip.getWidth(), clip.getHeight());
+    drawTransparencyGrid(vx, vy, canvasArea);
+    model.draw(renderer);
+
+    renderer.resetClip();
+  }
 }
\ No newline at end of file
@@ -14,6 +14,28 @@ public interface IView extends ICanvasUpdateListener {
    */
   void repaint();
 
+  /**
+   * Makes the view render at most once per JavaFX pulse. Repaints and canvas updates only mark the
+   * view as dirty, and all updates between two pulses are rendered in a single frame. Before this
+   * method is called, every update is rendered immediately. This method must be called on the
+   * JavaFX application thread.
+   */
+  void startRenderLoop();
+
+  /**
+   * Stops the render loop started by {@link IView#startRenderLoop()}. Subsequent updates are
+   * rendered immediately.
+   */
+  void stopRenderLoop();
+
+  /**
+   * Returns a snapshot of the rendering metrics of the view, e.g. the amount of rendered and
+   * coalesced frames.
+   *
+   * @return a snapshot of the rendering metrics of the view.
+   */
+  RenderStatistics getRenderStatistics();
+
   /**
    * @param renderer the specific renderer the view should use.
    * @throws NullPointerException if the provided renderer is {@code null}.
@@ -0,0 +1,143 @@
+package chalmers.pimp.view;
+
+import java.util.Objects;
+import javafx.animation.AnimationTimer;
+
+/**
+ * The {@code RenderScheduler} class makes sure that a view renders at most once per JavaFX pulse.
+ * Render requests only mark a frame as pending, and the pending frame is rendered on the next
+ * pulse, so that any amount of requests between two pulses result in a single frame.
+ *
+ * <p>Before the scheduler has been started, every request is rendered immediately. This makes the
+ * scheduler usable without a running JavaFX application, e.g. when testing.
+ */
+final class RenderScheduler {
+
+  /**
+   * The expected time between two pulses, in nanoseconds (60 pulses per second).
+   */
+  static final long PULSE_INTERVAL = 1_000_000_000L / 60;
+
+  private final Runnable renderTask;
+  private AnimationTimer timer;
+  private boolean isRunning;
+  private boolean isFramePending;
+  private long lastPulseTime;
+
+  private long renderedFrames;
+  private long coalescedRequests;
+  private long droppedFrames;
+
+  /**
+   * @param renderTask the task that renders a frame.
+   * @throws NullPointerException if the supplied task is {@code null}.
+   */
+  RenderScheduler(Runnable renderTask) {
+    this.renderTask = Objects.requireNonNull(renderTask);
+  }
+
+  /**
+   * Starts rendering pending frames on the JavaFX pulse. This method has no effect if the scheduler
+   * is already running. This method must be called on the JavaFX application thread.
+   */
+  void start() {
+    if (!isRunning) {
+      startManualPulses();
+      timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+          pulse(now);
+        }
+      };
+      timer.start();
+    }
+  }
+
+  /**
+   * Makes requests wait for the next call to {@link RenderScheduler#pulse(long)}, without attaching
+   * the scheduler to the JavaFX pulse. This makes it possible to drive the scheduler from another
+   * source of pulses. This method has no effect if the scheduler is already running.
+   */
+  void startManualPulses() {
+    if (!isRunning) {
+      isRunning = true;
+      lastPulseTime = 0;
+    }
+  }
+
+  /**
+   * Stops the scheduler and renders the pending frame, if there is one. Subsequent requests are
+   * rendered immediately.
+   */
+  void stop() {
+    if (timer != null) {
+      timer.stop();
+      timer = null;
+    }
+    isRunning = false;
+    renderPendingFrame();
+  }
+
+  /**
+   * Indicates whether or not the scheduler is running.
+   *
+   * @return {@code true} if frames are rendered on pulses; {@code false} otherwise.
+   */
+  boolean isRunning() {
+    return isRunning;
+  }
+
+  /**
+   * Requests that a frame is rendered. The frame is rendered on the next pulse if the scheduler is
+   * running, otherwise it's rendered immediately.
+   */
+  void requestFrame() {
+    if (isFramePending) {
+      coalescedRequests++;
+    } else {
+      isFramePending = true;
+    }
+
+    if (!isRunning()) {
+      renderPendingFrame();
+    }
+  }
+
+  /**
+   * Handles a pulse, rendering the pending frame if there is one.
+   *
+   * @param now the time of the pulse, in nanoseconds.
+   */
+  void pulse(long now) {
+    if (isFramePending && (lastPulseTime != 0)) {
+      long elapsed = now - lastPulseTime;
+      long missedPulses = ((elapsed + (PULSE_INTERVAL / 2)) / PULSE_INTERVAL) - 1;
+      if (missedPulses > 0) {
+        droppedFrames += missedPulses;
+      }
+    }
+    lastPulseTime = now;
+
+    renderPendingFrame();
+  }
+
+  /**
+   * Renders the pending frame, if there is one.
+   */
+  private void renderPendingFrame() {
+    if (isFramePending) {
+      isFramePending = false;
+      renderTask.run();
+      renderedFrames++;
+    }
+  }
+
+  /**
+   * Returns a snapshot of the current rendering metrics.
+   *
+   * @return a snapshot of the current rendering metrics.
+   */
+  RenderStatistics getStatistics() {
+    return new RenderStatistics(renderedFrames, coalescedRequests, droppedFrames);
+  }
+}
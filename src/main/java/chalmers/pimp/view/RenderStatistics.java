@@ -0,0 +1,61 @@
+package chalmers.pimp.view;
+
+/**
+ * The {@code RenderStatistics} class is an immutable snapshot of the rendering metrics of a view.
+ *
+ * @see IView#getRenderStatistics()
+ */
+public final class RenderStatistics {
+
+  private final long renderedFrames;
+  private final long coalescedRequests;
+  private final long droppedFrames;
+
+  /**
+   * @param renderedFrames    the amount of rendered frames.
+   * @param coalescedRequests the amount of render requests that were merged into another frame.
+   * @param droppedFrames     the amount of pulses that were missed while a frame was pending.
+   */
+  RenderStatistics(long renderedFrames, long coalescedRequests, long droppedFrames) {
+    this.renderedFrames = renderedFrames;
+    this.coalescedRequests = coalescedRequests;
+    this.droppedFrames = droppedFrames;
+  }
+
+  /**
+   * Returns the amount of frames that have been rendered.
+   *
+   * @return the amount of frames that have been rendered.
+   */
+  public long getRenderedFrames() {
+    return renderedFrames;
+  }
+
+  /**
+   * Returns the amount of render requests that didn't cause a frame of their own, because another
+   * frame was already pending.
+   *
+   * @return the amount of coalesced render requests.
+   */
+  public long getCoalescedRequests() {
+    return coalescedRequests;
+  }
+
+  /**
+   * Returns the amount of pulses that were missed while a frame was pending, i.e. the amount of
+   * frames that the view failed to deliver on time.
+   *
+   * @return the amount of dropped frames.
+   */
+  public long getDroppedFrames() {
+    return droppedFrames;
+  }
+
+  @Override
+  public String toString() {
+    String id = getClass().getSimpleName() + "@" + Integer.toHexString(hashCode());
+    String state = "Rendered: " + renderedFrames + ", Coalesced: " + coalescedRequests
+        + ", Dropped: " + droppedFrames;
+    return "(" + id + " | " + state + ")";
+  }
+}
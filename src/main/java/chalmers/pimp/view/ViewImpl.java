@@ -2,6 +2,7 @@ package chalmers.pimp.view;
 
 import chalmers.pimp.model.IModel;
 import chalmers.pimp.model.IRenderer;
+import chalmers.pimp.model.Rect;
 import java.util.Objects;
 
 /**
@@ -10,26 +11,71 @@ import java.util.Objects;
 final class ViewImpl implements IView {
 
   private final IModel model;
+  private final RenderScheduler renderScheduler;
   private GraphicsHandler graphicsHandler;
 
+  /**
+   * The union of the areas of the canvas that have been damaged since the last frame, {@code null}
+   * if there is no pending damage.
+   */
+  private Rect damagedArea;
+  private boolean isFullRepaintPending;
+
   /**
    * @param model the associated model instance.
    * @throws NullPointerException if any arguments are {@code null}.
    */
   ViewImpl(IModel model) {
     this.model = Objects.requireNonNull(model);
+    renderScheduler = new RenderScheduler(this::renderFrame);
+  }
+
+  /**
+   * Renders a frame. The entire view is rendered if a full repaint is pending, otherwise only the
+   * union of the damaged areas is redrawn. The pending damage is cleared afterwards.
+   */
+  private void renderFrame() {
+    if (graphicsHandler != null) {
+      if (isFullRepaintPending) {
+        graphicsHandler.render();
+      } else if (damagedArea != null) {
+        graphicsHandler.render(damagedArea);
+      }
+    }
+    damagedArea = null;
+    isFullRepaintPending = false;
   }
 
   @Override
-  public void canvasUpdated() {
-    repaint();
+  public void canvasUpdated(Rect area) {
+    if (area == null) {
+      isFullRepaintPending = true;
+      renderScheduler.requestFrame();
+    } else if (!area.isEmpty()) {
+      damagedArea = (damagedArea == null) ? area : damagedArea.union(area);
+      renderScheduler.requestFrame();
+    }
   }
 
   @Override
   public void repaint() {
-    if (graphicsHandler != null) {
-      graphicsHandler.render();
-    }
+    isFullRepaintPending = true;
+    renderScheduler.requestFrame();
+  }
+
+  @Override
+  public void startRenderLoop() {
+    renderScheduler.start();
+  }
+
+  @Override
+  public void stopRenderLoop() {
+    renderScheduler.stop();
+  }
+
+  @Override
+  public RenderStatistics getRenderStatistics() {
+    return renderScheduler.getStatistics();
   }
 
   @Override
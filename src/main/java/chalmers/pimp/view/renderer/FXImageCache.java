@@ -0,0 +1,212 @@
+package chalmers.pimp.view.renderer;
+
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import chalmers.pimp.service.RasterDataService;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+/**
+ * The {@code FXImageCache} class keeps a persistent JavaFX image for every raster data instance
+ * that is drawn. Instead of converting the entire raster data every time that it's drawn, only the
+ * regions that have changed since the image was last synchronized are copied to the image. Drawing
+ * unchanged raster data doesn't require any conversion at all.
+ *
+ * <p>Raster data instances are identified by reference, and they are only weakly referenced by
+ * the cache. An image is kept for as long as its raster data is reachable, rather than up to a
+ * fixed amount of images, so that documents with many layers never have to reconvert any of them.
+ * The images of discarded layers are removed once their raster data has been garbage collected.
+ */
+final class FXImageCache {
+
+  /**
+   * The cached entries, grouped by the identity hash codes of their raster data.
+   */
+  private final Map<Integer, List<Entry>> entries;
+  private final ReferenceQueue<IReadOnlyRasterData> collected;
+  private int size;
+
+  FXImageCache() {
+    entries = new HashMap<>();
+    collected = new ReferenceQueue<>();
+  }
+
+  /**
+   * Returns an up-to-date JavaFX image of the supplied raster data. The image is created the first
+   * time that the raster data is requested, subsequent requests only copy the changed regions.
+   *
+   * @param rasterData the raster data whose image will be returned.
+   * @return an up-to-date JavaFX image of the supplied raster data.
+   * @throws NullPointerException if the supplied raster data is {@code null}.
+   */
+  Image getImage(IReadOnlyRasterData rasterData) {
+    Objects.requireNonNull(rasterData);
+    removeCollectedEntries();
+
+    Entry entry = findEntry(rasterData);
+    if (entry == null) {
+      Entry origin = findOrigin(rasterData);
+      if (origin != null) {
+        remove(origin);
+        entry = new Entry(rasterData, origin, collected);
+      } else {
+        entry = new Entry(rasterData, collected);
+      }
+      add(entry);
+    }
+    entry.update(rasterData);
+
+    return entry.image;
+  }
+
+  /**
+   * Returns the entry associated with the supplied raster data.
+   *
+   * @param rasterData the raster data associated with the desired entry.
+   * @return the associated entry; {@code null} if there is none.
+   */
+  private Entry findEntry(IReadOnlyRasterData rasterData) {
+    List<Entry> bucket = entries.get(System.identityHashCode(rasterData));
+    if (bucket != null) {
+      for (Entry entry : bucket) {
+        if (entry.get() == rasterData) {
+          return entry;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns an entry of raster data that the supplied raster data is a tracked copy of. The image
+   * of such an entry only has to be updated with the changes made to the copy.
+   *
+   * @param rasterData the raster data that may be a tracked copy.
+   * @return the entry of the copied raster data; {@code null} if there is none.
+   */
+  private Entry findOrigin(IReadOnlyRasterData rasterData) {
+    for (List<Entry> bucket : entries.values()) {
+      for (Entry entry : bucket) {
+        IReadOnlyRasterData key = entry.get();
+        if ((key != null) && rasterData.continues(key, entry.version)) {
+          return entry;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds the supplied entry to the cache.
+   *
+   * @param entry the entry that will be added.
+   */
+  private void add(Entry entry) {
+    entries.computeIfAbsent(entry.hash, hash -> new ArrayList<>(1)).add(entry);
+    size++;
+  }
+
+  /**
+   * Removes the supplied entry from the cache, if it's present.
+   *
+   * @param entry the entry that will be removed.
+   */
+  private void remove(Entry entry) {
+    List<Entry> bucket = entries.get(entry.hash);
+    if ((bucket != null) && bucket.remove(entry)) {
+      size--;
+      if (bucket.isEmpty()) {
+        entries.remove(entry.hash);
+      }
+    }
+  }
+
+  /**
+   * Removes the entries whose raster data has been garbage collected.
+   */
+  private void removeCollectedEntries() {
+    Reference<? extends IReadOnlyRasterData> reference = collected.poll();
+    while (reference != null) {
+      remove((Entry) reference);
+      reference = collected.poll();
+    }
+  }
+
+  /**
+   * Returns the amount of cached images.
+   *
+   * @return the amount of cached images.
+   */
+  int size() {
+    removeCollectedEntries();
+    return size;
+  }
+
+  /**
+   * Removes all cached images.
+   */
+  void clear() {
+    entries.clear();
+    size = 0;
+  }
+
+  /**
+   * The {@code Entry} class represents a cached image of a raster data instance, along with the
+   * version of the raster data that the image was last synchronized with. The entry weakly
+   * references the raster data.
+   */
+  private static final class Entry extends WeakReference<IReadOnlyRasterData> {
+
+    private final int hash;
+    private final WritableImage image;
+    private long version;
+
+    /**
+     * @param rasterData the raster data that will be cached.
+     * @param queue      the queue that the entry is enqueued in once the raster data is collected.
+     */
+    Entry(IReadOnlyRasterData rasterData, ReferenceQueue<IReadOnlyRasterData> queue) {
+      super(rasterData, queue);
+      hash = System.identityHashCode(rasterData);
+      version = rasterData.getVersion();
+      image = RasterDataService.toFXImage(rasterData);
+    }
+
+    /**
+     * Creates an entry that takes over the image of an entry of raster data that the supplied
+     * raster data is a tracked copy of.
+     *
+     * @param rasterData the raster data that will be cached.
+     * @param origin     the entry of the copied raster data.
+     * @param queue      the queue that the entry is enqueued in once the raster data is collected.
+     */
+    Entry(IReadOnlyRasterData rasterData, Entry origin,
+        ReferenceQueue<IReadOnlyRasterData> queue) {
+      super(rasterData, queue);
+      hash = System.identityHashCode(rasterData);
+      version = origin.version;
+      image = origin.image;
+    }
+
+    /**
+     * Copies the regions that have changed since the last update to the image.
+     *
+     * @param source the cached raster data.
+     */
+    void update(IReadOnlyRasterData source) {
+      long currentVersion = source.getVersion();
+      if (currentVersion != version) {
+        source.visitChangedRegions(version, (x, y, width, height) -> RasterDataService
+            .updateFXImage(source, image, x, y, width, height));
+        version = currentVersion;
+      }
+    }
+  }
+}
@@ -5,11 +5,9 @@ import chalmers.pimp.model.Point;
 import chalmers.pimp.model.color.IColor;
 import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 import chalmers.pimp.service.ColorConverterService;
-import chalmers.pimp.service.RasterDataService;
 import java.util.Objects;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.effect.BoxBlur;
-import javafx.scene.image.Image;
 import javafx.scene.shape.StrokeLineJoin;
 import javafx.scene.transform.Affine;
 
@@ -22,6 +20,9 @@ final class FXRenderer implements IRenderer {
 
   private final GraphicsContext graphicsContext;
   private final BoxBlur lineBlurEffect;
+  private final FXImageCache imageCache;
+  private boolean isTransformActive;
+  private boolean isClipActive;
 
   /**
    * Creates and returns a FX renderer.
@@ -31,6 +32,7 @@ final class FXRenderer implements IRenderer {
    */
   FXRenderer(GraphicsContext graphicsContext) {
     this.graphicsContext = Objects.requireNonNull(graphicsContext);
+    imageCache = new FXImageCache();
 
     lineBlurEffect = new BoxBlur();
     lineBlurEffect.setWidth(1);
@@ -70,8 +72,7 @@ final class FXRenderer implements IRenderer {
     if (readOnlyPixelData == null) {
       return;
     }
-    Image image = RasterDataService.toFXImage(readOnlyPixelData);
-    graphicsContext.drawImage(image, x, y);
+    graphicsContext.drawImage(imageCache.getImage(readOnlyPixelData), x, y);
   }
 
   @Override
@@ -91,6 +92,7 @@ final class FXRenderer implements IRenderer {
     }
     endTransform();
     graphicsContext.save(); // Save default transform
+    isTransformActive = true;
 
     var rotate = new Affine();
     rotate.appendRotation(rotation, centerPoint.getX(), centerPoint.getY());
@@ -99,7 +101,31 @@ final class FXRenderer implements IRenderer {
 
   @Override
   public void endTransform() {
-    graphicsContext.restore();
+    // Only restore states saved by startTransform, so that an active clip isn't popped
+    if (isTransformActive) {
+      graphicsContext.restore();
+      isTransformActive = false;
+    }
+  }
+
+  @Override
+  public void setClip(int x, int y, int width, int height) {
+    resetClip();
+    graphicsContext.save(); // Save unclipped state
+    isClipActive = true;
+
+    graphicsContext.beginPath();
+    graphicsContext.rect(x, y, width, height);
+    graphicsContext.clip();
+  }
+
+  @Override
+  public void resetClip() {
+    endTransform();
+    if (isClipActive) {
+      graphicsContext.restore();
+      isClipActive = false;
+    }
   }
 
   @Override
@@ -1,6 +1,5 @@
 package chalmers.pimp.view.renderer;
 
-import static chalmers.pimp.service.RasterDataService.toFXImage;
 import static java.awt.RenderingHints.KEY_RENDERING;
 import static java.awt.RenderingHints.VALUE_RENDER_QUALITY;
 
@@ -12,9 +11,9 @@ import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.Objects;
-import javafx.embed.swing.SwingFXUtils;
 
 /**
  * The {@code SwingRenderer} class is an implementation of the {@code IRenderer} interface that uses
@@ -80,7 +79,13 @@ final class SwingRenderer implements IRenderer {
   @Override
   public void drawImage(IReadOnlyRasterData readOnlyPixelData, int x, int y) {
     if (readOnlyPixelData != null) {
-      Image img = SwingFXUtils.fromFXImage(toFXImage(readOnlyPixelData), null);
+      int width = readOnlyPixelData.getWidth();
+      int height = readOnlyPixelData.getHeight();
+
+      var img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      int[] pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+      readOnlyPixelData.readRegion(0, 0, width, height, pixels, 0, width);
+
       graphics.drawImage(img, x, y, null);
     }
   }
@@ -104,6 +109,16 @@ final class SwingRenderer implements IRenderer {
 
   }
 
+  @Override
+  public void setClip(int x, int y, int width, int height) {
+    graphics.setClip(x, y, width, height);
+  }
+
+  @Override
+  public void resetClip() {
+    graphics.setClip(null);
+  }
+
   @Override
   public void setGlobalAlpha(double alpha) {
 
@@ -0,0 +1,132 @@
+package chalmers.pimp.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PimpBatchTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void parse() {
+    Path file = directory.resolve("script.txt");
+
+    BatchScript script = BatchScript.parse(file, List.of("# Comment", "", "size 10 10",
+        "  rectangle 0 0 5 5 #FF0000  ", "rename 0 A rectangle", "export out.png"));
+    assertEquals(4, script.getAmountOfOperations());
+    assertEquals(file, script.getFile());
+
+    assertThrows(NullPointerException.class, () -> BatchScript.parse(null, List.of()));
+    assertThrows(NullPointerException.class, () -> BatchScript.parse(file, null));
+
+    var e = assertThrows(IllegalArgumentException.class,
+        () -> BatchScript.parse(file, List.of("size 10 10", "paint 1 2")));
+    assertTrue(e.getMessage().startsWith(file + ":2: "));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> BatchScript.parse(file, List.of("size 10")));
+    assertThrows(IllegalArgumentException.class,
+        () -> BatchScript.parse(file, List.of("size 0 10")));
+    assertThrows(IllegalArgumentException.class,
+        () -> BatchScript.parse(file, List.of("move a 1")));
+    assertThrows(IllegalArgumentException.class,
+        () -> BatchScript.parse(file, List.of("rectangle 0 0 1 1 red")));
+    assertThrows(IllegalArgumentException.class,
+        () -> BatchScript.parse(file, List.of("rectangle 0 0 1 1 #12345")));
+  }
+
+  @Test
+  void runScript() throws IOException {
+    var image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+    image.setRGB(1, 1, 0xFF00FF00);
+    ImageIO.write(image, "png", directory.resolve("input.png").toFile());
+
+    Path file = directory.resolve("script.txt");
+    Files.write(file, List.of("size 20 10", "rectangle 0 0 20 10 #0000FF", "import input.png",
+        "select 1", "move 10 5", "rectangle 0 0 1 1", "hide 2", "export out.png"));
+
+    List<Path> exports = BatchScript.parse(file).run();
+    assertEquals(List.of(directory.resolve("out.png")), exports);
+
+    BufferedImage result = ImageIO.read(exports.get(0).toFile());
+    assertEquals(20, result.getWidth());
+    assertEquals(10, result.getHeight());
+    assertEquals(0xFF0000FF, result.getRGB(0, 0));
+    assertEquals(0xFF00FF00, result.getRGB(11, 6));
+    assertEquals(0xFF0000FF, result.getRGB(10, 5));
+  }
+
+  @Test
+  void runDocumentScript() throws IOException {
+    Path file = directory.resolve("save.txt");
+    Files.write(file, List.of("size 30 20", "rectangle 5 5 10 10 #00FF00", "save doc.pimp"));
+    assertEquals(List.of(directory.resolve("doc.pimp")), BatchScript.parse(file).run());
+
+    // The size of the document is used, unless it's overridden
+    Files.write(file, List.of("open doc.pimp", "move 10 0", "export out.png"));
+    BatchScript.parse(file).run();
+
+    BufferedImage result = ImageIO.read(directory.resolve("out.png").toFile());
+    assertEquals(30, result.getWidth());
+    assertEquals(20, result.getHeight());
+    assertEquals(0xFF00FF00, result.getRGB(20, 10));
+    assertEquals(0, result.getRGB(10, 10));
+  }
+
+  @Test
+  void runFailingScript() throws IOException {
+    Path file = directory.resolve("script.txt");
+
+    Files.write(file, List.of("size 10 10", "select 0"));
+    var e = assertThrows(IllegalArgumentException.class, () -> BatchScript.parse(file).run());
+    assertTrue(e.getMessage().startsWith(file + ":2: "));
+
+    Files.write(file, List.of("move 1 1"));
+    assertThrows(IllegalArgumentException.class, () -> BatchScript.parse(file).run());
+
+    Files.write(file, List.of("import missing.png"));
+    assertThrows(IOException.class, () -> BatchScript.parse(file).run());
+  }
+
+  @Test
+  void run() throws IOException {
+    Path first = directory.resolve("first.txt");
+    Path second = directory.resolve("second.txt");
+    Path third = directory.resolve("third.txt");
+    Files.write(first, List.of("size 8 8", "rectangle 0 0 4 4", "export first.png"));
+    Files.write(second, List.of("size 8 8", "export second-a.png", "export second-b.png"));
+    Files.write(third, List.of("remove 0"));
+
+    var out = new ByteArrayOutputStream();
+    var err = new ByteArrayOutputStream();
+    int failures = PimpBatch.run(List.of(first, second, third, directory.resolve("missing")), 2,
+        new PrintStream(out, true), new PrintStream(err, true));
+
+    assertEquals(2, failures);
+    assertTrue(Files.exists(directory.resolve("first.png")));
+    assertTrue(Files.exists(directory.resolve("second-a.png")));
+    assertTrue(Files.exists(directory.resolve("second-b.png")));
+    assertTrue(out.toString().contains("second.txt: wrote 2 file(s)"));
+    assertTrue(err.toString().contains("third.txt: failed"));
+    assertFalse(err.toString().contains("first.txt"));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> PimpBatch.run(List.of(first), 0, System.out, System.err));
+    assertThrows(NullPointerException.class,
+        () -> PimpBatch.run(null, 1, System.out, System.err));
+  }
+}
@@ -1,8 +1,6 @@
 package chalmers.pimp.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,19 +8,10 @@ import org.junit.jupiter.api.Test;
 class LayerMovementTest {
 
   private LayerMovement layerMovement;
-  private ModelMemento modelMemento;
 
   @BeforeEach
   void setUp() {
     layerMovement = new LayerMovement();
-
-    IModel model = ModelFactory.createModel();
-    modelMemento = model.createSnapShot();
-  }
-
-  @Test
-  void start() {
-    assertThrows(NullPointerException.class, () -> layerMovement.start(0, 0, null));
   }
 
   @Test
@@ -33,7 +22,7 @@ class LayerMovementTest {
 
     int initialX = 12;
     int initialY = 912;
-    layerMovement.start(initialX, initialY, modelMemento);
+    layerMovement.start(initialX, initialY);
 
     int x = 8621;
     int y = 7712;
@@ -48,7 +37,7 @@ class LayerMovementTest {
     layerMovement.stop();
 
     // This should have no effect
-    layerMovement.start(0, 0, modelMemento);
+    layerMovement.start(0, 0);
     layerMovement.update(12341, 7183);
 
     assertEquals(0, layerMovement.getDx());
@@ -58,7 +47,7 @@ class LayerMovementTest {
   @Test
   void getDx() {
     int initialX = 912841;
-    layerMovement.start(initialX, 0, modelMemento);
+    layerMovement.start(initialX, 0);
 
     int x = 99124;
 
@@ -69,7 +58,7 @@ class LayerMovementTest {
   @Test
   void getDy() {
     int initialY = -1294;
-    layerMovement.start(0, initialY, modelMemento);
+    layerMovement.start(0, initialY);
 
     int y = 71;
 
@@ -94,11 +83,19 @@ class LayerMovementTest {
   }
 
   @Test
-  void getModelMemento() {
-    assertNull(layerMovement.getModelMemento());
+  void setStartX() {
+    int startX = 8812;
+    layerMovement.setStartX(startX);
+
+    assertEquals(startX, layerMovement.getStartX());
+  }
+
+  @Test
+  void setStartY() {
+    int startY = -3211;
+    layerMovement.setStartY(startY);
 
-    layerMovement.start(0, 0, modelMemento);
-    assertEquals(modelMemento, layerMovement.getModelMemento());
+    assertEquals(startY, layerMovement.getStartY());
   }
 
   @Test
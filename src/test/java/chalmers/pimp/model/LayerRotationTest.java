@@ -5,7 +5,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
-import java.util.Objects;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -22,22 +21,16 @@ class LayerRotationTest {
   void start() {
     Point tempPoint = new Point(143, 321);
     Point tempMousePoint = new Point(1, 1);
-    IModel model = ModelFactory.createModel();
-    ModelMemento tempMemento = model.createSnapShot();
     assertThrows(NullPointerException.class,
-        () -> layerRotation.start(tempPoint, 0, tempMousePoint, null));
+        () -> layerRotation.start(tempPoint, 0, null));
     assertThrows(NullPointerException.class,
-        () -> layerRotation.start(tempPoint, 0, null, tempMemento));
-    assertThrows(NullPointerException.class,
-        () -> layerRotation.start(null, 0, tempMousePoint, tempMemento));
-    assertDoesNotThrow(() -> layerRotation.start(tempPoint, 0, tempMousePoint, tempMemento));
+        () -> layerRotation.start(null, 0, tempMousePoint));
+    assertDoesNotThrow(() -> layerRotation.start(tempPoint, 0, tempMousePoint));
   }
 
   @Test
   void update() {
     Point tempPoint = new Point(143, 321);
-    IModel model = ModelFactory.createModel();
-    ModelMemento tempMemento = model.createSnapShot();
     Point tempMousePoint = new Point(1, 1);
 
     //Should not change the currentDegree, since method starts haven't been called
@@ -45,7 +38,7 @@ class LayerRotationTest {
     assertThrows(NullPointerException.class, () -> layerRotation.update(200, 200));
     assertEquals(tempDeg, layerRotation.getCurrentDegree());
 
-    layerRotation.start(tempPoint, 0, tempMousePoint, tempMemento);
+    layerRotation.start(tempPoint, 0, tempMousePoint);
 
     //Should change the currentDegree
     layerRotation.update(200, 200);
@@ -59,24 +52,19 @@ class LayerRotationTest {
   }
 
   @Test
-  void getModelMemento() {
+  void getBaseDegree() {
     Point tempPoint = new Point(143, 321);
     Point tempMousePoint = new Point(1, 1);
-    IModel model = ModelFactory.createModel();
-    ModelMemento tempMemento = model.createSnapShot();
-    assertThrows(NullPointerException.class,
-        () -> Objects.requireNonNull(layerRotation.getModelMemento()));
-    layerRotation.start(tempPoint, 0, tempMousePoint, tempMemento);
-    assertEquals(tempMemento, layerRotation.getModelMemento());
+    layerRotation.start(tempPoint, 37, tempMousePoint);
+    layerRotation.update(43, 55);
+    assertEquals(37, layerRotation.getBaseDegree());
   }
 
   @Test
   void getCurrentDegree() {
     Point tempPoint = new Point(143, 321);
     Point tempMousePoint = new Point(1, 1);
-    IModel model = ModelFactory.createModel();
-    ModelMemento tempMemento = model.createSnapShot();
-    layerRotation.start(tempPoint, 0, tempMousePoint, tempMemento);
+    layerRotation.start(tempPoint, 0, tempMousePoint);
     layerRotation.update(43, 55);
     assertNotEquals(0, layerRotation.getCurrentDegree());
   }
@@ -85,8 +73,6 @@ class LayerRotationTest {
   void setCurrentDegree() {
     Point tempPoint = new Point(143, 321);
     Point tempMousePoint = new Point(1, 1);
-    IModel model = ModelFactory.createModel();
-    ModelMemento tempMemento = model.createSnapShot();
     assertEquals(0, layerRotation.getCurrentDegree());
     layerRotation.setCurrentDegree(40);
     assertEquals(40, layerRotation.getCurrentDegree());
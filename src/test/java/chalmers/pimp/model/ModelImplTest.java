@@ -6,15 +6,22 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import chalmers.pimp.model.canvas.ICanvasUpdateListener;
 import chalmers.pimp.model.canvas.layer.ILayer;
 import chalmers.pimp.model.canvas.layer.ILayerUpdateListener;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
 import chalmers.pimp.model.canvas.layer.LayerFactory;
 import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.mock.RendererMock;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 import chalmers.pimp.model.pixeldata.PixelFactory;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -75,10 +82,31 @@ class ModelImplTest {
     assertDoesNotThrow(() -> model.setLayerName(-1, temp));
   }
 
+  @Test
+  void setPreview() {
+    int[] updates = {0};
+    model.addCanvasUpdateListener((area) -> updates[0]++);
+
+    var renderer = new RendererMock();
+    model.setPreview((r, viewport) -> r.drawLine(new Point(0, 0), new Point(1, 1)));
+    model.draw(renderer);
+    assertEquals(1, renderer.lines.size());
+    assertEquals(1, updates[0]);
+
+    model.setPreview(null);
+    model.draw(renderer);
+    assertEquals(1, renderer.lines.size());
+    assertEquals(2, updates[0]);
+
+    // Clearing an absent preview shouldn't trigger an update
+    model.setPreview(null);
+    assertEquals(2, updates[0]);
+  }
+
   @Test
   void addCanvasUpdateListener() {
     assertThrows(NullPointerException.class, () -> model.addCanvasUpdateListener(null));
-    ICanvasUpdateListener listener = () -> {
+    ICanvasUpdateListener listener = (area) -> {
     };
     model.addCanvasUpdateListener(listener);
     assertDoesNotThrow(() -> model.addCanvasUpdateListener(listener));
@@ -143,6 +171,37 @@ class ModelImplTest {
     assertThrows(NullPointerException.class, () -> model.addModelSizeListener(null));
   }
 
+  @Test
+  void setDocument() {
+    model.addLayer(LayerFactory.createRasterLayer(10, 10));
+
+    int[] size = new int[2];
+    model.addModelSizeListener((width, height) -> {
+      size[0] = width;
+      size[1] = height;
+    });
+
+    ILayer first = LayerFactory.createRectangle(0, 0, 5, 5);
+    ILayer second = LayerFactory.createRasterLayer(20, 20);
+    model.setDocument(300, 200, List.of(first, second));
+
+    assertEquals(300, model.getWidth());
+    assertEquals(200, model.getHeight());
+    assertEquals(300, size[0]);
+    assertEquals(200, size[1]);
+    assertSame(second, model.getActiveLayer());
+    assertEquals(0, first.getDepthIndex());
+    assertEquals(1, second.getDepthIndex());
+
+    // The history of the previous document is cleared
+    model.undo();
+    assertSame(second, model.getActiveLayer());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> model.setDocument(0, 1, List.of()));
+    assertThrows(NullPointerException.class, () -> model.setDocument(1, 1, null));
+  }
+
   @Test
   void draw() {
     assertThrows(NullPointerException.class, () -> model.draw(null));
@@ -206,6 +265,15 @@ class ModelImplTest {
     assertDoesNotThrow(() -> model.stopMovingActiveLayer());
   }
 
+  @Test
+  void setStrokeSpacing() {
+    assertEquals(Stroke.DEFAULT_SPACING, model.getStrokeSpacing());
+    assertThrows(IllegalArgumentException.class, () -> model.setStrokeSpacing(0));
+
+    model.setStrokeSpacing(50);
+    assertEquals(50, model.getStrokeSpacing());
+  }
+
   @Test
   void startStroke() {
     assertThrows(NullPointerException.class, () -> model.startStroke(null, 0, null));
@@ -345,6 +413,117 @@ class ModelImplTest {
   @Test
   void undo() {
     assertDoesNotThrow(() -> model.undo());
+
+    model.addLayer(LayerFactory.createRasterLayer(100, 100));
+    model.startStroke(PixelFactory.createPixel(20, 20), 5, Colors.RED);
+    model.endStroke(PixelFactory.createPixel(20, 20));
+
+    var layer = (IRasterLayer) model.getActiveLayer();
+    assertEquals(Colors.RED, layer.getPixelData().getPixel(20, 20).getColor());
+
+    model.undo();
+    assertEquals(Colors.TRANSPARENT, layer.getPixelData().getPixel(20, 20).getColor());
+
+    model.undo();
+    assertFalse(model.hasActiveLayer());
+  }
+
+  @Test
+  void transaction() {
+    assertThrows(IllegalStateException.class, () -> model.commitTransaction());
+
+    List<Rect> areas = new ArrayList<>();
+    List<Integer> layerCounts = new ArrayList<>();
+    model.addCanvasUpdateListener(areas::add);
+    model.addLayerUpdateListener(event -> layerCounts.add(event.getAmountOfLayers()));
+
+    model.beginTransaction();
+    model.addLayer(LayerFactory.createRasterLayer(10, 10));
+    model.addLayer(LayerFactory.createRasterLayer(10, 10));
+    model.undo();
+    assertTrue(areas.isEmpty());
+    assertTrue(layerCounts.isEmpty());
+
+    model.commitTransaction();
+    assertEquals(1, areas.size());
+    assertEquals(List.of(1), layerCounts);
+
+    // Compound operations only notify the listeners once
+    areas.clear();
+    layerCounts.clear();
+    model.redo();
+    assertEquals(1, areas.size());
+    assertEquals(List.of(2), layerCounts);
+  }
+
+  @Test
+  void redoStroke() {
+    model.addLayer(LayerFactory.createRasterLayer(100, 100));
+    model.startStroke(PixelFactory.createPixel(10, 50), 5, Colors.RED);
+    model.endStroke(PixelFactory.createPixel(90, 50));
+
+    var layer = (IRasterLayer) model.getActiveLayer();
+    IReadOnlyRasterData after = RasterDataFactory.createRasterData(layer.getPixelData());
+
+    model.undo();
+    assertEquals(Colors.TRANSPARENT, layer.getPixelData().getPixel(50, 50).getColor());
+
+    // Redoing the stroke should restore exactly the same pixels
+    model.redo();
+    assertEquals(after, layer.getPixelData());
+
+    model.undo();
+    model.redo();
+    assertEquals(after, layer.getPixelData());
+  }
+
+  @Test
+  void undoLayerProperties() {
+    model.addLayer(LayerFactory.createRasterLayer(10, 10));
+    String name = model.getLayerName(0);
+
+    model.setLayerName(0, "Foo");
+    model.setLayerVisibility(0, false);
+    assertEquals("Foo", model.getLayerName(0));
+    assertFalse(model.isLayerVisible(0));
+
+    model.undo();
+    assertTrue(model.isLayerVisible(0));
+    assertEquals("Foo", model.getLayerName(0));
+
+    model.undo();
+    assertEquals(name, model.getLayerName(0));
+
+    model.redo();
+    assertEquals("Foo", model.getLayerName(0));
+  }
+
+  @Test
+  void undoRemoveLayer() {
+    model.addLayer(LayerFactory.createRasterLayer(10, 10));
+    model.addLayer(LayerFactory.createRasterLayer(10, 10));
+    model.setLayerName(0, "Bottom");
+
+    model.removeLayer(0);
+    assertEquals(1, countLayers());
+
+    model.undo();
+    assertEquals(2, countLayers());
+    assertEquals("Bottom", model.getLayerName(0));
+    assertEquals(1, model.getActiveLayer().getDepthIndex());
+  }
+
+  /**
+   * Returns the amount of layers in the model.
+   *
+   * @return the amount of layers in the model.
+   */
+  private int countLayers() {
+    int count = 0;
+    for (var layer : model.getLayers()) {
+      count++;
+    }
+    return count;
   }
 
   @Test
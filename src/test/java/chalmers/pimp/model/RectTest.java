@@ -0,0 +1,68 @@
+package chalmers.pimp.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RectTest {
+
+  private Rect rect;
+
+  @BeforeEach
+  void setUp() {
+    rect = new Rect(10, 20, 30, 40);
+  }
+
+  @Test
+  void getMaxXY() {
+    assertEquals(40, rect.getMaxX());
+    assertEquals(60, rect.getMaxY());
+  }
+
+  @Test
+  void isEmpty() {
+    assertFalse(rect.isEmpty());
+    assertTrue(new Rect(0, 0, 0, 10).isEmpty());
+    assertTrue(new Rect(0, 0, 10, -1).isEmpty());
+  }
+
+  @Test
+  void union() {
+    assertThrows(NullPointerException.class, () -> rect.union(null));
+
+    assertEquals(new Rect(0, 0, 40, 60), rect.union(new Rect(0, 0, 5, 5)));
+    assertEquals(rect, rect.union(new Rect(15, 25, 5, 5)));
+
+    // Empty rectangles shouldn't affect the union
+    Rect empty = new Rect(-100, -100, 0, 0);
+    assertSame(rect, rect.union(empty));
+    assertSame(rect, empty.union(rect));
+  }
+
+  @Test
+  void intersection() {
+    assertThrows(NullPointerException.class, () -> rect.intersection(null));
+
+    assertEquals(new Rect(10, 20, 5, 10), rect.intersection(new Rect(0, 0, 15, 30)));
+    assertTrue(rect.intersection(new Rect(100, 100, 5, 5)).isEmpty());
+  }
+
+  @Test
+  void translate() {
+    assertEquals(new Rect(15, 13, 30, 40), rect.translate(5, -7));
+  }
+
+  @Test
+  void equalsTest() {
+    assertNotEquals(null, rect);
+    assertEquals(rect, rect);
+    assertEquals(new Rect(10, 20, 30, 40), rect);
+    assertNotEquals(new Rect(10, 20, 30, 41), rect);
+  }
+}
@@ -0,0 +1,101 @@
+package chalmers.pimp.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import chalmers.pimp.model.pixeldata.DabMask;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StrokeInterpolatorTest {
+
+  private StrokeInterpolator interpolator;
+  private List<Point> dabs;
+
+  @BeforeEach
+  void setUp() {
+    interpolator = new StrokeInterpolator(5);
+    dabs = new ArrayList<>();
+  }
+
+  private void addPoint(int x, int y) {
+    interpolator.addPoint(x, y, (dabX, dabY) -> dabs.add(new Point(dabX, dabY)));
+  }
+
+  @Test
+  void ctor() {
+    assertThrows(IllegalArgumentException.class, () -> new StrokeInterpolator(0.5));
+    assertThrows(IllegalArgumentException.class, () -> new StrokeInterpolator(Double.NaN));
+  }
+
+  @Test
+  void computeSpacing() {
+    assertEquals(5, StrokeInterpolator.computeSpacing(20, 25));
+    assertEquals(1, StrokeInterpolator.computeSpacing(2, 10));
+  }
+
+  @Test
+  void addPoint() {
+    assertThrows(NullPointerException.class, () -> interpolator.addPoint(0, 0, null));
+
+    addPoint(0, 0);
+    assertEquals(List.of(new Point(0, 0)), dabs);
+
+    // A fast movement should be filled in with evenly spaced dabs
+    addPoint(20, 0);
+    assertEquals(List.of(new Point(0, 0), new Point(5, 0), new Point(10, 0), new Point(15, 0),
+        new Point(20, 0)), dabs);
+  }
+
+  @Test
+  void slowMovement() {
+    addPoint(0, 0);
+
+    // Small movements accumulate until the spacing is reached
+    for (int x = 1; x <= 9; x++) {
+      addPoint(x, 0);
+    }
+    assertEquals(List.of(new Point(0, 0), new Point(5, 0)), dabs);
+
+    // Repeated points shouldn't emit any dabs
+    addPoint(9, 0);
+    addPoint(9, 0);
+    assertEquals(2, dabs.size());
+  }
+
+  @Test
+  void ctorMask() {
+    assertThrows(NullPointerException.class, () -> new StrokeInterpolator(1, null));
+  }
+
+  @Test
+  void coveredDabs() {
+    var dense = new StrokeInterpolator(1, new DabMask(5));
+    List<Point> points = new ArrayList<>();
+    dense.addPoint(0, 0, (x, y) -> points.add(new Point(x, y)));
+    dense.addPoint(4, 0, (x, y) -> points.add(new Point(x, y)));
+    assertEquals(5, points.size());
+
+    // Doubling back over the recent dabs shouldn't emit any dabs
+    dense.addPoint(0, 0, (x, y) -> points.add(new Point(x, y)));
+    dense.addPoint(4, 0, (x, y) -> points.add(new Point(x, y)));
+    assertEquals(5, points.size());
+
+    // Dabs that reach beyond the recent dabs should still be emitted
+    dense.addPoint(-2, 0, (x, y) -> points.add(new Point(x, y)));
+    assertEquals(List.of(new Point(-1, 0), new Point(-2, 0)), points.subList(5, 7));
+  }
+
+  @Test
+  void duplicateDabs() {
+    var dense = new StrokeInterpolator(1);
+    List<Point> points = new ArrayList<>();
+    dense.addPoint(0, 0, (x, y) -> points.add(new Point(x, y)));
+
+    // A diagonal step of 1.4 pixels rounds to distinct positions only
+    dense.addPoint(1, 1, (x, y) -> points.add(new Point(x, y)));
+    assertEquals(points.size(), points.stream().distinct().count());
+  }
+}
@@ -1,33 +1,34 @@
 package chalmers.pimp.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import chalmers.pimp.model.canvas.CanvasFactory;
 import chalmers.pimp.model.canvas.ICanvas;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
 import chalmers.pimp.model.color.Colors;
-import chalmers.pimp.model.color.colormodel.ColorModelFactory;
-import chalmers.pimp.model.color.colormodel.ColorModelMemento;
 import chalmers.pimp.model.pixeldata.IPixel;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
 import chalmers.pimp.model.pixeldata.PixelFactory;
-import chalmers.pimp.model.viewport.IViewportModel;
-import chalmers.pimp.model.viewport.ViewportModelFactory;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import chalmers.pimp.model.pixeldata.RasterDataType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class StrokeTest {
 
-  private ModelMemento memento;
+  private ICanvas canvas;
   private Stroke stroke;
 
   @BeforeEach
   void setUp() {
-    ICanvas canvas = CanvasFactory.createCanvas();
-    IViewportModel viewportModel = ViewportModelFactory.createViewportModel();
-    ColorModelMemento colorModel = ColorModelFactory.createColorModel().createSnapShot();
-    memento = new ModelMemento(canvas.createSnapShot(), viewportModel.createSnapShot(), colorModel);
-    stroke = new Stroke(memento, 10, Colors.BLACK);
+    canvas = CanvasFactory.createCanvas();
+    canvas.addLayer(LayerFactory.createRasterLayer(100, 100));
+    stroke = new Stroke(canvas, 10, Colors.BLACK);
   }
 
   @Test
@@ -48,12 +49,78 @@ class StrokeTest {
   }
 
   @Test
-  void getModelMemento() {
-    assertEquals(memento, stroke.getModelMemento());
+  void finish() {
+    assertThrows(NullPointerException.class, () -> stroke.finish(null));
+
+    stroke.updatePixels(canvas, PixelFactory.createPixel(50, 50));
+    IRasterDelta delta = stroke.finish(canvas);
+    assertNotNull(delta);
+    assertFalse(delta.isEmpty());
+
+    var layer = (IRasterLayer) canvas.getActiveLayer();
+    assertEquals(Colors.BLACK, layer.getPixelData().getPixel(50, 50).getColor());
+
+    canvas.revertLayerDelta(stroke.getLayerDepthIndex(), delta);
+    assertEquals(Colors.TRANSPARENT, layer.getPixelData().getPixel(50, 50).getColor());
+
+    canvas.applyLayerDelta(stroke.getLayerDepthIndex(), delta);
+    assertEquals(Colors.BLACK, layer.getPixelData().getPixel(50, 50).getColor());
+
+    // The stroke has already been finished
+    assertNull(stroke.finish(canvas));
+  }
+
+  @Test
+  void finishUnsharedLayer() {
+    canvas.addLayer(LayerFactory.createRasterLayer(
+        RasterDataFactory.createRasterData(RasterDataType.PACKED, 1000, 1000)));
+    var layer = (IRasterLayer) canvas.getActiveLayer();
+    var stroke = new Stroke(canvas, 10, Colors.BLACK);
+
+    stroke.updatePixels(canvas, PixelFactory.createPixel(500, 500));
+    stroke.updatePixels(canvas, PixelFactory.createPixel(520, 500));
+
+    // Only the pixels that the stroke touched are part of the delta
+    IRasterDelta delta = stroke.finish(canvas);
+    assertEquals(new Rect(495, 495, 30, 10), delta.getBounds());
+
+    canvas.revertLayerDelta(stroke.getLayerDepthIndex(), delta);
+    assertEquals(Colors.TRANSPARENT, layer.getPixelData().getPixel(500, 500).getColor());
+    assertEquals(Colors.TRANSPARENT, layer.getPixelData().getPixel(520, 500).getColor());
+
+    canvas.applyLayerDelta(stroke.getLayerDepthIndex(), delta);
+    assertEquals(Colors.BLACK, layer.getPixelData().getPixel(520, 500).getColor());
+  }
+
+  @Test
+  void interpolation() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new Stroke(canvas, 10, Colors.BLACK, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> new Stroke(canvas, 0, Colors.BLACK));
+
+    stroke.updatePixels(canvas, PixelFactory.createPixel(10, 50));
+    stroke.updatePixels(canvas, PixelFactory.createPixel(90, 50));
+
+    // The gap between the two points should have been filled in
+    var layer = (IRasterLayer) canvas.getActiveLayer();
+    for (int x = 10; x <= 90; x++) {
+      assertEquals(Colors.BLACK, layer.getPixelData().getPixel(x, 50).getColor());
+    }
+
+    // With a diameter of 10 and the default spacing, dabs are 2.5 pixels apart
+    assertEquals(33, stroke.getAmountOfDabs());
+  }
+
+  @Test
+  void getLayerDepthIndex() {
+    assertEquals(0, stroke.getLayerDepthIndex());
+    assertEquals(-1, new Stroke(CanvasFactory.createCanvas(), 10, Colors.BLACK)
+        .getLayerDepthIndex());
   }
 
   @Test
   void getPixels() {
     assertNotNull(stroke.getPixels());
   }
-}
\ No newline at end of file
+}
@@ -9,10 +9,17 @@ import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import chalmers.pimp.model.Rect;
 import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
 import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
 import chalmers.pimp.model.canvas.layer.LayerFactory;
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.pixeldata.DabMask;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 import chalmers.pimp.model.pixeldata.PixelFactory;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.util.ArrayList;
 import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -210,6 +217,20 @@ class CanvasImplTest {
   @Test
   void restore() {
     assertThrows(NullPointerException.class, () -> canvas.restore(null));
+
+    canvas.addLayer(defaultLayer);
+    CanvasMemento memento = canvas.createSnapShot();
+
+    canvas.setActiveLayerX(30);
+    canvas.setLayerName(0, "Moved");
+    canvas.restore(memento);
+    assertEquals(12, canvas.getActiveLayer().getX());
+    assertNotEquals("Moved", canvas.getActiveLayer().getName());
+
+    // Restoring a memento doesn't consume it
+    canvas.setActiveLayerX(40);
+    canvas.restore(memento);
+    assertEquals(12, canvas.getActiveLayer().getX());
   }
 
   @Test
@@ -232,4 +253,117 @@ class CanvasImplTest {
     assertEquals(canvas.getAmountOfLayers(), copy.getAmountOfLayers());
     assertEquals(canvas.getActiveLayer().getDepthIndex(), copy.getActiveLayer().getDepthIndex());
   }
-}
\ No newline at end of file
+
+  @Test
+  void canvasUpdateArea() {
+    var areas = new ArrayList<Rect>();
+    canvas.addCanvasUpdateListener(areas::add);
+    canvas.addLayer(defaultLayer);
+
+    areas.clear();
+    canvas.setActiveLayerPixel(PixelFactory.createPixel(3, 4));
+    assertEquals(new Rect(15, 88, 1, 1), areas.get(0));
+
+    // The area should be restricted to the bounds of the layer
+    areas.clear();
+    canvas.setActiveLayerPixels(10, 80, RasterDataFactory.createRasterData(5, 5));
+    assertEquals(new Rect(12, 84, 3, 1), areas.get(0));
+
+    areas.clear();
+    canvas.moveActiveLayer(10, 0);
+    assertEquals(new Rect(12, 84, 64, 37), areas.get(0));
+
+    areas.clear();
+    canvas.stampActiveLayer(new DabMask(4), 25, 90, Colors.RED);
+    assertEquals(new Rect(23, 88, 4, 4), areas.get(0));
+    assertEquals(Colors.RED, ((IRasterLayer) canvas.getActiveLayer()).getPixelData()
+        .getPixel(3, 4).getColor());
+
+    areas.clear();
+    canvas.setActiveLayerRotation(45);
+    canvas.setActiveLayerPixel(PixelFactory.createPixel(3, 4));
+    assertNull(areas.get(0)); // The area of rotated layers is unknown
+  }
+
+  @Test
+  void bulkEdits() {
+    var areas = new ArrayList<Rect>();
+    canvas.addCanvasUpdateListener(areas::add);
+    canvas.addLayer(defaultLayer);
+    IReadOnlyRasterData pixelData = ((IRasterLayer) canvas.getActiveLayer()).getPixelData();
+
+    areas.clear();
+    canvas.fillActiveLayerRect(0, 0, 20, 90, Colors.RED);
+    assertEquals(new Rect(12, 84, 8, 6), areas.get(0));
+    assertEquals(Colors.RED, pixelData.getPixel(7, 5).getColor());
+    assertEquals(Colors.TRANSPARENT, pixelData.getPixel(8, 5).getColor());
+
+    var source = RasterDataFactory.createRasterData(2, 2, Colors.BLUE);
+    areas.clear();
+    canvas.setActiveLayerPixels(12, 84, source);
+    assertEquals(new Rect(12, 84, 2, 2), areas.get(0));
+    assertEquals(Colors.BLUE, pixelData.getPixel(1, 1).getColor());
+
+    var transparent = RasterDataFactory.createRasterData(4, 4);
+    areas.clear();
+    canvas.blendActiveLayerPixels(12, 84, transparent);
+    assertEquals(new Rect(12, 84, 4, 4), areas.get(0));
+    assertEquals(Colors.BLUE, pixelData.getPixel(1, 1).getColor());
+    assertEquals(Colors.RED, pixelData.getPixel(2, 2).getColor());
+
+    assertThrows(NullPointerException.class, () -> canvas.blendActiveLayerPixels(0, 0, null));
+    assertThrows(NullPointerException.class, () -> canvas.fillActiveLayerRect(0, 0, 1, 1, null));
+  }
+
+  @Test
+  void transaction() {
+    assertThrows(IllegalStateException.class, () -> canvas.commitTransaction());
+
+    var areas = new ArrayList<Rect>();
+    var events = new ArrayList<LayerUpdateEvent>();
+    canvas.addCanvasUpdateListener(areas::add);
+    canvas.addLayerUpdateListener(events::add);
+
+    canvas.beginTransaction();
+    canvas.addLayer(defaultLayer);
+
+    canvas.beginTransaction();
+    canvas.addLayer(createLayer(0, 0, 10, 10));
+    canvas.commitTransaction();
+
+    assertEquals(0, areas.size());
+    assertEquals(0, events.size());
+
+    canvas.commitTransaction();
+    assertEquals(1, areas.size());
+    assertEquals(1, events.size());
+    assertEquals(2, events.get(0).getAmountOfLayers());
+    assertThrows(IllegalStateException.class, () -> canvas.commitTransaction());
+
+    // The updated areas are merged
+    areas.clear();
+    canvas.beginTransaction();
+    canvas.notifyCanvasUpdateListeners(new Rect(0, 0, 2, 2));
+    canvas.notifyCanvasUpdateListeners(new Rect(10, 10, 2, 2));
+    canvas.commitTransaction();
+    assertEquals(1, areas.size());
+    assertEquals(new Rect(0, 0, 12, 12), areas.get(0));
+
+    // An update of the entire canvas covers all other updates
+    areas.clear();
+    canvas.beginTransaction();
+    canvas.notifyCanvasUpdateListeners(new Rect(0, 0, 2, 2));
+    canvas.notifyCanvasUpdateListeners();
+    canvas.commitTransaction();
+    assertEquals(1, areas.size());
+    assertNull(areas.get(0));
+
+    // Transactions without updates don't notify the listeners
+    areas.clear();
+    events.clear();
+    canvas.beginTransaction();
+    canvas.commitTransaction();
+    assertEquals(0, areas.size());
+    assertEquals(0, events.size());
+  }
+}
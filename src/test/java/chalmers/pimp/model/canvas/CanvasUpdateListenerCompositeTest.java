@@ -24,7 +24,7 @@ class CanvasUpdateListenerCompositeTest {
    * @return a generic canvas update listener instance, to be used for testing.
    */
   private ICanvasUpdateListener createListener() {
-    return () -> {
+    return (area) -> {
       // do nothing when triggered
     };
   }
@@ -54,15 +54,15 @@ class CanvasUpdateListenerCompositeTest {
 
     final int firstTerm = 2;
     final int secondTerm = 5;
-    ICanvasUpdateListener firstListener = () -> canvasUpdatedTestCount += firstTerm;
-    ICanvasUpdateListener secondListener = () -> canvasUpdatedTestCount += secondTerm;
+    ICanvasUpdateListener firstListener = (area) -> canvasUpdatedTestCount += firstTerm;
+    ICanvasUpdateListener secondListener = (area) -> canvasUpdatedTestCount += secondTerm;
 
     final int expectedSum = firstTerm + secondTerm;
 
     composite.add(firstListener);
     composite.add(secondListener);
 
-    composite.canvasUpdated();
+    composite.canvasUpdated(null);
 
     assertEquals(expectedSum, canvasUpdatedTestCount);
   }
@@ -4,13 +4,23 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import chalmers.pimp.model.Rect;
 import chalmers.pimp.model.canvas.layer.ILayer;
 import chalmers.pimp.model.canvas.layer.ILayerUpdateListener;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
 import chalmers.pimp.model.canvas.layer.LayerFactory;
 import chalmers.pimp.model.canvas.layer.LayerType;
+import chalmers.pimp.model.pixeldata.DabMask;
+import chalmers.pimp.model.pixeldata.IRasterDelta;
+import chalmers.pimp.model.pixeldata.IRasterSnapshot;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import chalmers.pimp.model.pixeldata.RasterDataType;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,9 +34,156 @@ class LayerManagerTest {
     manager = new LayerManager();
   }
 
+  /**
+   * Registers a listener that stores the events it receives in the supplied list.
+   *
+   * @param events the list that will receive the events.
+   */
+  private void recordEvents(List<LayerUpdateEvent> events) {
+    manager.addLayerUpdateListener(events::add);
+  }
+
   @Test
   void notifyListeners() {
+    ILayer raster = LayerFactory.createRasterLayer(100, 100);
+    manager.addLayer(raster);
+
+    List<LayerUpdateEvent> events = new ArrayList<>();
+    recordEvents(events);
+
+    // Changes of the same property, or the pixels, of a layer are merged
+    manager.stampActiveLayer(new DabMask(5), 10, 10, 0xFFFFFFFF);
+    manager.fillActiveLayerRect(40, 40, 100, 100, 0xFFFFFFFF);
+    manager.setLayerName(0, "Name");
+    manager.setLayerName(0, "Other name");
+    manager.setLayerVisibility(0, false);
+    manager.moveActiveLayer(5, 5);
+    manager.moveActiveLayer(5, 5);
+    assertTrue(events.isEmpty());
+
+    manager.notifyListeners();
+    assertEquals(1, events.size());
+    LayerUpdateEvent event = events.get(0);
+    assertFalse(event.isFullUpdate());
+    assertTrue(event.wasVisibilityUpdated());
+
+    List<LayerChange> changes = event.getChanges();
+    assertEquals(4, changes.size());
+    assertEquals(LayerChange.Type.PIXELS_CHANGED, changes.get(0).getType());
+    assertSame(manager.getLayer(0), changes.get(0).getLayer());
+    assertEquals(new Rect(8, 8, 92, 92), changes.get(0).getArea());
+    assertEquals(LayerChange.Property.NAME, changes.get(1).getProperty());
+    assertEquals(LayerChange.Property.VISIBILITY, changes.get(2).getProperty());
+    assertEquals(LayerChange.Property.POSITION, changes.get(3).getProperty());
+
+    // The changes are only described once
+    manager.notifyListeners();
+    assertTrue(events.get(1).getChanges().isEmpty());
+    assertFalse(events.get(1).wasVisibilityUpdated());
+  }
+
+  /**
+   * Fills a small rectangle of a raster layer with the supplied type of raster data, and checks
+   * that reverting and reapplying the edit only reports the supplied area as changed.
+   *
+   * @param type     the type of the raster data of the layer.
+   * @param expected the area that should be reported as changed.
+   */
+  private void assertLayerDeltaArea(RasterDataType type, Rect expected) {
+    manager = new LayerManager();
+    manager.addLayer(LayerFactory.createRasterLayer(RasterDataFactory.createRasterData(type, 200,
+        200)));
+    IRasterLayer layer = (IRasterLayer) manager.getLayer(0);
+    IRasterSnapshot before = RasterDataFactory.createRasterSnapshot(layer.getPixelData());
+
+    before.capture(layer.getPixelData(), 130, 10, 5, 5);
+    manager.fillActiveLayerRect(130, 10, 5, 5, 0xFFFFFFFF);
+    IRasterDelta delta = manager.createLayerDelta(0, before);
+    manager.notifyListeners();
+
+    List<LayerUpdateEvent> events = new ArrayList<>();
+    recordEvents(events);
+
+    manager.revertLayerDelta(0, delta);
+    manager.notifyListeners();
+    manager.applyLayerDelta(0, delta);
+    manager.notifyListeners();
+
+    assertEquals(2, events.size());
+    for (LayerUpdateEvent event : events) {
+      assertFalse(event.isFullUpdate());
+      assertEquals(1, event.getChanges().size());
+      LayerChange change = event.getChanges().get(0);
+      assertEquals(LayerChange.Type.PIXELS_CHANGED, change.getType());
+      assertEquals(expected, change.getArea());
+    }
+  }
 
+  @Test
+  void layerDeltas() {
+    // Tiled deltas cover the changed tiles, other deltas cover the changed pixels
+    assertLayerDeltaArea(RasterDataType.TILED, new Rect(128, 0, 64, 64));
+    assertLayerDeltaArea(RasterDataType.PACKED, new Rect(130, 10, 5, 5));
+  }
+
+  @Test
+  void structuralChanges() {
+    List<LayerUpdateEvent> events = new ArrayList<>();
+    recordEvents(events);
+
+    ILayer first = LayerFactory.createRectangle(0, 0, 10, 10);
+    ILayer second = LayerFactory.createRectangle(0, 0, 20, 20);
+    manager.addLayer(first);
+    manager.insertLayer(0, second);
+    manager.changeDepthIndex(0, 1);
+    manager.removeLayer(0);
+
+    assertEquals(4, events.size());
+    LayerChange inserted = events.get(0).getChanges().get(0);
+    assertEquals(LayerChange.Type.INSERTED, inserted.getType());
+    assertEquals(0, inserted.getIndex());
+    assertSame(first, inserted.getLayer());
+
+    inserted = events.get(1).getChanges().get(0);
+    assertEquals(0, inserted.getIndex());
+    assertSame(second, inserted.getLayer());
+
+    LayerChange moved = events.get(2).getChanges().get(0);
+    assertEquals(LayerChange.Type.MOVED, moved.getType());
+    assertEquals(0, moved.getIndex());
+    assertEquals(1, moved.getTargetIndex());
+    assertSame(second, moved.getLayer());
+
+    LayerChange removed = events.get(3).getChanges().get(0);
+    assertEquals(LayerChange.Type.REMOVED, removed.getType());
+    assertEquals(0, removed.getIndex());
+    assertSame(first, removed.getLayer());
+
+    for (LayerUpdateEvent event : events) {
+      assertEquals(1, event.getChanges().size());
+      assertFalse(event.isFullUpdate());
+    }
+  }
+
+  @Test
+  void fullUpdate() {
+    List<LayerUpdateEvent> events = new ArrayList<>();
+    recordEvents(events);
+
+    manager.setLayers(List.of(LayerFactory.createRectangle(0, 0, 10, 10)));
+    assertTrue(events.get(0).isFullUpdate());
+    assertTrue(events.get(0).getChanges().isEmpty());
+
+    // The first event of a copy is a full update, e.g. when a snapshot is restored
+    var copy = new LayerManager(manager);
+    copy.notifyListeners();
+    assertTrue(events.get(1).isFullUpdate());
+    copy.notifyListeners();
+    assertFalse(events.get(2).isFullUpdate());
+
+    manager.invalidate();
+    manager.notifyListeners();
+    assertTrue(events.get(3).isFullUpdate());
   }
 
   @Test
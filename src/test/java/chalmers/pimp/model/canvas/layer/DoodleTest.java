@@ -1,6 +1,7 @@
 package chalmers.pimp.model.canvas.layer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import chalmers.pimp.model.Point;
 import chalmers.pimp.model.color.ColorFactory;
@@ -159,4 +160,21 @@ class DoodleTest {
 
     assertEquals(doodle.getWidth(), 10 + lineWidth * 2);
   }
-}
\ No newline at end of file
+
+  @Test
+  void contentVersion() {
+    long version = doodle.getContentVersion();
+    doodle.addPoint(new Point(10, 10));
+    assertTrue(doodle.getContentVersion() > version);
+
+    version = doodle.getContentVersion();
+    ((IColorable) doodle).setColor(ColorFactory.createColor(255, 0, 0));
+    assertTrue(doodle.getContentVersion() > version);
+
+    version = doodle.getContentVersion();
+    long transformVersion = doodle.getTransformVersion();
+    doodle.setX(50);
+    assertEquals(version, doodle.getContentVersion());
+    assertTrue(doodle.getTransformVersion() > transformVersion);
+  }
+}
@@ -109,4 +109,35 @@ class LayerDelegateTest {
     assertEquals(delegate, copy);
     assertEquals(copy, delegate);
   }
-}
\ No newline at end of file
+
+  @Test
+  void versions() {
+    assertEquals(0, delegate.getContentVersion());
+    assertEquals(0, delegate.getTransformVersion());
+
+    delegate.incrementContentVersion();
+    assertEquals(1, delegate.getContentVersion());
+    assertEquals(0, delegate.getTransformVersion());
+
+    delegate.move(5, 0);
+    delegate.setY(3);
+    delegate.setRotationDegrees(90);
+    delegate.setAlpha(0.5);
+    assertEquals(4, delegate.getTransformVersion());
+
+    // Setting the current values doesn't change anything
+    delegate.move(0, 0);
+    delegate.setX(5);
+    delegate.setRotationDegrees(450);
+    delegate.setAlpha(0.5);
+    delegate.setName("name");
+    delegate.setVisible(false);
+    delegate.setDepthIndex(2);
+    assertEquals(4, delegate.getTransformVersion());
+    assertEquals(1, delegate.getContentVersion());
+
+    var copy = new LayerDelegate(delegate);
+    assertEquals(1, copy.getContentVersion());
+    assertEquals(4, copy.getTransformVersion());
+  }
+}
@@ -1,10 +1,24 @@
 package chalmers.pimp.model.canvas.layer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IRasterDataLoader;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import chalmers.pimp.model.pixeldata.PixelFactory;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -79,6 +93,54 @@ class RasterTest {
     assertEquals(raster, copy);
   }
 
+  @Test
+  void cloneSharesPixels() {
+    raster.setPixel(PixelFactory.createPixel(1, 1, Colors.RED));
+    IReadOnlyRasterData pixels = raster.getPixelData();
+    var copy = (IRasterLayer) raster.clone();
+    assertSame(pixels, copy.getPixelData());
+
+    // An edited copy switches to a copy of the pixels first
+    copy.setPixel(PixelFactory.createPixel(1, 1, Colors.BLUE));
+    assertNotSame(pixels, copy.getPixelData());
+    assertSame(pixels, raster.getPixelData());
+    assertEquals(Colors.RED, raster.getPixelData().getPixel(1, 1).getColor());
+    assertEquals(Colors.BLUE, copy.getPixelData().getPixel(1, 1).getColor());
+
+    // No other raster shares the pixels of the original anymore, so they're edited in place
+    long version = pixels.getVersion();
+    raster.fillRect(0, 0, 2, 2, Colors.GREEN.toArgb());
+    assertSame(pixels, raster.getPixelData());
+    assertTrue(pixels.getVersion() > version);
+
+    // An edited original switches to a copy that continues the version, the shared pixels are
+    // never modified
+    var secondCopy = (IRasterLayer) raster.clone();
+    var thirdCopy = (IRasterLayer) secondCopy.clone();
+    version = pixels.getVersion();
+    raster.setPixel(PixelFactory.createPixel(1, 1, Colors.RED));
+    assertNotSame(pixels, raster.getPixelData());
+    assertTrue(raster.getPixelData().getVersion() > version);
+    assertEquals(version, pixels.getVersion());
+    assertEquals(Colors.RED, raster.getPixelData().getPixel(1, 1).getColor());
+    assertEquals(Colors.GREEN, pixels.getPixel(1, 1).getColor());
+    assertSame(pixels, secondCopy.getPixelData());
+    assertSame(pixels, thirdCopy.getPixelData());
+  }
+
+  @Test
+  void discardedCopiesDontSharePixels() {
+    IReadOnlyRasterData pixels = raster.getPixelData();
+    var copy = new WeakReference<>(raster.clone());
+    for (int i = 0; (i < 50) && (copy.get() != null); i++) {
+      System.gc();
+    }
+    assumeTrue(copy.get() == null, "The copy wasn't collected");
+
+    raster.setPixel(PixelFactory.createPixel(1, 1, Colors.RED));
+    assertSame(pixels, raster.getPixelData());
+  }
+
   @Test
   void equalsTest() {
     var copy = raster.clone();
@@ -149,4 +211,70 @@ class RasterTest {
   void getLayerType() {
     assertEquals(raster.getLayerType(), LayerType.RASTER);
   }
-}
\ No newline at end of file
+
+  @Test
+  void lazyLoading() {
+    IRasterData pixels = RasterDataFactory.createRasterData(30, 20);
+    pixels.setArgb(5, 6, 0xFF00FF00);
+    IRasterData thumbnail = RasterDataFactory.createRasterData(3, 2);
+
+    int[] loads = new int[1];
+    IRasterDataLoader loader = () -> {
+      loads[0]++;
+      return pixels;
+    };
+
+    var lazy = (IRasterLayer) LayerFactory.createRasterLayer(30, 20, loader, thumbnail, "Lazy");
+    assertEquals("Lazy", lazy.getName());
+    assertEquals(30, lazy.getWidth());
+    assertEquals(20, lazy.getHeight());
+    assertSame(thumbnail, lazy.getThumbnail());
+
+    // Copies share the source, so the pixels are only loaded once
+    var copy = (IRasterLayer) lazy.clone();
+    assertSame(thumbnail, copy.getThumbnail());
+    assertEquals(0, loads[0]);
+
+    assertFalse(copy.isLoaded());
+    assertEquals(0xFF00FF00, copy.getPixelData().getArgb(5, 6));
+    assertTrue(copy.isLoaded());
+    assertNull(copy.getThumbnail());
+    assertSame(thumbnail, lazy.getThumbnail());
+    assertFalse(lazy.isLoaded());
+
+    copy.fillRect(0, 0, 30, 20, 0);
+    assertEquals(0xFF00FF00, lazy.getPixelData().getArgb(5, 6));
+    assertEquals(0, copy.getPixelData().getArgb(5, 6));
+    assertEquals(1, loads[0]);
+
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> LayerFactory.createRasterLayer(0, 20, loader, null, "Empty"));
+    assertThrows(NullPointerException.class,
+        () -> LayerFactory.createRasterLayer(30, 20, null, null, "Null"));
+
+    // The loaded pixels must have the expected size
+    IRasterLayer wrongSize = (IRasterLayer) LayerFactory.createRasterLayer(10, 10, loader, null,
+        "Wrong size");
+    assertThrows(UncheckedIOException.class, wrongSize::getPixelData);
+  }
+
+  @Test
+  void contentVersion() {
+    long version = raster.getContentVersion();
+    raster.fillRect(0, 0, 5, 5, 0xFFFFFFFF);
+    assertTrue(raster.getContentVersion() > version);
+
+    version = raster.getContentVersion();
+    long transformVersion = raster.getTransformVersion();
+    raster.move(1, 1);
+    assertEquals(version, raster.getContentVersion());
+    assertTrue(raster.getTransformVersion() > transformVersion);
+
+    // Loading the pixels of a raster doesn't modify its contents
+    IRasterLayer lazy = (IRasterLayer) LayerFactory.createRasterLayer(10, 10,
+        () -> RasterDataFactory.createRasterData(10, 10), null, "Lazy");
+    version = lazy.getContentVersion();
+    lazy.getPixelData();
+    assertEquals(version, lazy.getContentVersion());
+  }
+}
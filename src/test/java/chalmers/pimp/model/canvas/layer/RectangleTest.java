@@ -2,6 +2,7 @@ package chalmers.pimp.model.canvas.layer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import chalmers.pimp.model.color.ColorFactory;
 import org.junit.jupiter.api.BeforeEach;
@@ -65,4 +66,18 @@ class RectangleTest {
     rectangle.setName(setName);
     assertEquals(setName, rectangle.getName());
   }
-}
\ No newline at end of file
+
+  @Test
+  void contentVersion() {
+    long version = rectangle.getContentVersion();
+    ((IColorable) rectangle).setColor(ColorFactory.createColor(255, 0, 0));
+    assertTrue(rectangle.getContentVersion() > version);
+
+    version = rectangle.getContentVersion();
+    long transformVersion = rectangle.getTransformVersion();
+    rectangle.setRotation(45);
+    rectangle.setAlpha(0.5);
+    assertEquals(version, rectangle.getContentVersion());
+    assertEquals(transformVersion + 2, rectangle.getTransformVersion());
+  }
+}
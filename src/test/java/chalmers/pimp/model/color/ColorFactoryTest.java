@@ -1,5 +1,6 @@
 package chalmers.pimp.model.color;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import org.junit.jupiter.api.Test;
@@ -11,4 +12,14 @@ class ColorFactoryTest {
     IColor color = ColorFactory.createColor(10, 10, 10, 1);
     assertNotNull(color);
   }
-}
\ No newline at end of file
+
+  @Test
+  void createColorFromArgb() {
+    IColor color = ColorFactory.createColorFromArgb(0x80FF4010);
+    assertEquals(0x80, color.getAlpha());
+    assertEquals(0xFF, color.getRed());
+    assertEquals(0x40, color.getGreen());
+    assertEquals(0x10, color.getBlue());
+    assertEquals(0x80FF4010, color.toArgb());
+  }
+}
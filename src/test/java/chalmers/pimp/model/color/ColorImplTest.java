@@ -65,4 +65,10 @@ class ColorImplTest {
     colorImpl = colorImpl.setAlpha(256);
     assertEquals(colorImpl.getAlpha(), 255);
   }
-}
\ No newline at end of file
+
+  @Test
+  void toArgb() {
+    assertEquals(0xC8000000, colorImpl.toArgb());
+    assertEquals(0xFF0A141E, new ColorImpl(10, 20, 30, 255).toArgb());
+  }
+}
@@ -0,0 +1,82 @@
+package chalmers.pimp.model.command;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CommandJournalTest {
+
+  @TempDir
+  Path directory;
+
+  private CommandJournal journal;
+
+  @BeforeEach
+  void setUp() {
+    journal = new CommandJournal(directory);
+  }
+
+  @Test
+  void constructorTest() {
+    assertThrows(NullPointerException.class, () -> new CommandJournal(null));
+  }
+
+  @Test
+  void storeAndLoadTest() {
+    assertThrows(NullPointerException.class, () -> journal.store(null));
+    assertThrows(NullPointerException.class, () -> journal.load(null));
+
+    byte[] zeros = new byte[100_000];
+    byte[] noise = new byte[5_000];
+    new Random(42).nextBytes(noise);
+
+    var first = journal.store(zeros);
+    var second = journal.store(noise);
+
+    // Compressible data should take up much less space than its original size
+    assertTrue(journal.getSize() < (zeros.length / 10) + (noise.length * 2));
+
+    assertArrayEquals(noise, journal.load(second));
+    assertArrayEquals(zeros, journal.load(first));
+  }
+
+  @Test
+  void releaseTest() {
+    assertThrows(NullPointerException.class, () -> journal.release(null));
+
+    byte[] noise = new byte[5_000];
+    new Random(42).nextBytes(noise);
+
+    var first = journal.store(noise);
+    var second = journal.store(noise);
+    long size = journal.getSize();
+
+    // The space of released entries should be reused
+    journal.release(first);
+    assertEquals(size, journal.getSize());
+    var third = journal.store(noise);
+    assertEquals(size, journal.getSize());
+    assertArrayEquals(noise, journal.load(third));
+    assertArrayEquals(noise, journal.load(second));
+
+    // The file should shrink when its tail is released
+    journal.release(second);
+    assertTrue(journal.getSize() < size);
+    journal.release(third);
+    assertEquals(0, journal.getSize());
+  }
+
+  @Test
+  void clearTest() {
+    journal.store(new byte[1_000]);
+    journal.clear();
+    assertEquals(0, journal.getSize());
+  }
+}
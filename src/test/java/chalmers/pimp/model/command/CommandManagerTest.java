@@ -1,8 +1,17 @@
 package chalmers.pimp.model.command;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.color.IColor;
+import chalmers.pimp.model.color.colormodel.ColorModelFactory;
+import chalmers.pimp.model.color.colormodel.IColorModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -49,4 +58,205 @@ class CommandManagerTest {
     final int expected = before + 1;
     assertEquals(expected, command.getExecutedAmount());
   }
-}
\ No newline at end of file
+
+  @Test
+  void byteBudget() {
+    assertThrows(IllegalArgumentException.class, () -> new CommandManager(-1));
+    assertThrows(IllegalArgumentException.class, () -> commandManager.setByteBudget(-1));
+
+    commandManager.setByteBudget(10_000);
+    assertEquals(10_000, commandManager.getByteBudget());
+
+    var commands = new ArrayList<MockCommand>();
+    for (int i = 0; i < 10; i++) {
+      var mock = new MockCommand(4_000);
+      commands.add(mock);
+      commandManager.insertCommand(mock);
+    }
+
+    // The oldest commands should have been offloaded, rather than discarded
+    assertTrue(commandManager.getSizeInBytes() <= 10_000);
+    assertTrue(commands.get(0).isOffloaded());
+    assertFalse(commands.get(9).isOffloaded());
+
+    for (int i = 0; i < 10; i++) {
+      commandManager.undo();
+    }
+    for (MockCommand mock : commands) {
+      assertEquals(1, mock.getRevertedAmount());
+      assertFalse(mock.isOffloaded() && mock.canOffload());
+    }
+    assertTrue(commandManager.getSizeInBytes() <= 10_000);
+
+    // The redo stack follows the same policy
+    for (int i = 0; i < 10; i++) {
+      commandManager.redo();
+    }
+    for (MockCommand mock : commands) {
+      assertEquals(1, mock.getExecutedAmount());
+    }
+  }
+
+  /**
+   * Inserts ten commands with the same incompressible payload in the command manager.
+   *
+   * @param manager the command manager.
+   * @return the inserted commands.
+   */
+  private static List<MockCommand> insertNoise(CommandManager manager) {
+    var noise = new byte[4_000];
+    new Random(42).nextBytes(noise);
+
+    var commands = new ArrayList<MockCommand>();
+    for (int i = 0; i < 10; i++) {
+      var mock = new MockCommand(noise.clone());
+      commands.add(mock);
+      manager.insertCommand(mock);
+    }
+    return commands;
+  }
+
+  @Test
+  void journalReuse() {
+    commandManager.setByteBudget(10_000);
+    insertNoise(commandManager);
+    long size = commandManager.getJournalSize();
+    assertTrue(size > 0);
+
+    // Loading and offloading the same commands over and over shouldn't grow the journal
+    for (int cycle = 0; cycle < 20; cycle++) {
+      for (int i = 0; i < 10; i++) {
+        commandManager.undo();
+        assertTrue(commandManager.getJournalSize() <= size);
+      }
+      for (int i = 0; i < 10; i++) {
+        commandManager.redo();
+        assertTrue(commandManager.getJournalSize() <= size);
+      }
+    }
+  }
+
+  @Test
+  void diskBudget() {
+    assertThrows(IllegalArgumentException.class, () -> commandManager.setDiskBudget(-1));
+
+    commandManager.setByteBudget(10_000);
+    commandManager.setDiskBudget(20_000);
+    assertEquals(20_000, commandManager.getDiskBudget());
+
+    List<MockCommand> commands = insertNoise(commandManager);
+    assertTrue(commandManager.getJournalSize() <= 20_000);
+
+    // The oldest commands should have been discarded to make room in the journal
+    for (int cycle = 0; cycle < 20; cycle++) {
+      for (int i = 0; i < 10; i++) {
+        commandManager.undo();
+        assertTrue(commandManager.getJournalSize() <= 20_000);
+      }
+      for (int i = 0; i < 10; i++) {
+        commandManager.redo();
+        assertTrue(commandManager.getJournalSize() <= 20_000);
+      }
+    }
+    assertEquals(0, commands.get(0).getRevertedAmount());
+    assertEquals(20, commands.get(9).getRevertedAmount());
+
+    commandManager.setDiskBudget(0);
+    assertEquals(0, commandManager.getJournalSize());
+  }
+
+  @Test
+  void discardWhenNotOffloadable() {
+    commandManager.setByteBudget(0);
+
+    var first = new MockCommand();
+    var second = new MockCommand();
+    commandManager.insertCommand(first);
+    commandManager.insertCommand(second);
+
+    // Only the most recent command is kept, since the commands can't be offloaded
+    commandManager.undo();
+    commandManager.undo();
+    assertEquals(0, first.getRevertedAmount());
+    assertEquals(1, second.getRevertedAmount());
+  }
+
+  @Test
+  void clear() {
+    var events = new ArrayList<UndoRedoEvent>();
+    commandManager.addUndoRedoListener(events::add);
+
+    commandManager.insertCommand(command);
+    commandManager.insertCommand(new MockCommand());
+    commandManager.undo();
+
+    commandManager.clear();
+    assertFalse(events.get(events.size() - 1).isUndoable());
+    assertFalse(events.get(events.size() - 1).isRedoable());
+
+    // Nothing is left to undo or redo
+    final int reverted = command.getRevertedAmount();
+    commandManager.undo();
+    commandManager.redo();
+    assertEquals(reverted, command.getRevertedAmount());
+  }
+
+  /**
+   * Changes the color of the supplied color model, and inserts the command in the command manager.
+   *
+   * @param manager    the command manager.
+   * @param colorModel the color model.
+   * @param color      the new color.
+   */
+  private static void changeColor(CommandManager manager, IColorModel colorModel, IColor color) {
+    ICommand changeColor = CommandFactory.createChangeColorCommand(colorModel, color);
+    changeColor.execute();
+    manager.insertCommand(changeColor);
+  }
+
+  @Test
+  void mergeCommands() {
+    long[] time = {0};
+    var manager = new CommandManager(CommandManager.DEFAULT_BYTE_BUDGET, () -> time[0]);
+    IColorModel colorModel = ColorModelFactory.createColorModel();
+    IColor original = colorModel.getColor();
+
+    var events = new ArrayList<UndoRedoEvent>();
+    manager.addUndoRedoListener(events::add);
+
+    // Consecutive color changes in quick succession are merged
+    changeColor(manager, colorModel, Colors.RED);
+    time[0] += CommandManager.MERGE_WINDOW / 2;
+    changeColor(manager, colorModel, Colors.GREEN);
+    time[0] += CommandManager.MERGE_WINDOW / 2;
+    changeColor(manager, colorModel, Colors.BLUE);
+    assertEquals(3, events.size());
+    assertEquals(Colors.BLUE, colorModel.getColor());
+
+    manager.undo();
+    assertEquals(original, colorModel.getColor());
+    assertFalse(events.get(events.size() - 1).isUndoable());
+
+    manager.redo();
+    assertEquals(Colors.BLUE, colorModel.getColor());
+
+    // Commands aren't merged after an undo or redo, or after the time window
+    changeColor(manager, colorModel, Colors.RED);
+    time[0] += CommandManager.MERGE_WINDOW + 1;
+    changeColor(manager, colorModel, Colors.GREEN);
+
+    manager.undo();
+    assertEquals(Colors.RED, colorModel.getColor());
+    manager.undo();
+    assertEquals(Colors.BLUE, colorModel.getColor());
+
+    // Other kinds of commands aren't merged
+    changeColor(manager, colorModel, Colors.GREEN);
+    manager.insertCommand(command);
+    changeColor(manager, colorModel, Colors.RED);
+    manager.undo();
+    manager.undo();
+    assertEquals(1, command.getRevertedAmount());
+    assertEquals(Colors.GREEN, colorModel.getColor());
+  }
+}
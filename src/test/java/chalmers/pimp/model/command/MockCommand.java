@@ -2,9 +2,9 @@ package chalmers.pimp.model.command;
 
 /**
  * The {@code MockCommand} is an implementation of the {@link ICommand} interface, intended for
- * testing only.
+ * testing only. The command pretends to hold a payload of a specific size, which can be offloaded.
  */
-final class MockCommand implements ICommand {
+final class MockCommand implements IOffloadableCommand {
 
   /**
    * The name used by all instances of the {@code MockCommand} class.
@@ -13,9 +13,37 @@ final class MockCommand implements ICommand {
 
   private int nExecuted;
   private int nReverted;
+  private byte[] payload;
+  private CommandJournal journal;
+  private CommandJournal.Entry entry;
 
   MockCommand() {
+    this(0);
+  }
+
+  /**
+   * @param payloadSize the size of the payload of the command, in bytes.
+   */
+  MockCommand(int payloadSize) {
+    this(new byte[payloadSize]);
+  }
+
+  /**
+   * @param payload the payload of the command.
+   */
+  MockCommand(byte[] payload) {
     nExecuted = 0;
+    this.payload = payload;
+  }
+
+  /**
+   * Loads the payload from the journal, if it has been offloaded.
+   */
+  private void load() {
+    if (entry != null) {
+      payload = journal.load(entry);
+      release();
+    }
   }
 
   /**
@@ -38,11 +66,13 @@ final class MockCommand implements ICommand {
 
   @Override
   public void execute() {
+    load();
     ++nExecuted;
   }
 
   @Override
   public void revert() {
+    load();
     ++nReverted;
   }
 
@@ -50,4 +80,37 @@ final class MockCommand implements ICommand {
   public String getName() {
     return NAME;
   }
+
+  @Override
+  public long getSizeInBytes() {
+    return CommandUtils.BASE_SIZE + ((payload != null) ? payload.length : 0);
+  }
+
+  @Override
+  public void offload(CommandJournal journal) {
+    if (payload != null) {
+      entry = journal.store(payload);
+      this.journal = journal;
+      payload = null;
+    }
+  }
+
+  @Override
+  public boolean canOffload() {
+    return payload != null;
+  }
+
+  @Override
+  public boolean isOffloaded() {
+    return entry != null;
+  }
+
+  @Override
+  public void release() {
+    if (entry != null) {
+      journal.release(entry);
+      entry = null;
+      journal = null;
+    }
+  }
 }
@@ -2,6 +2,7 @@ package chalmers.pimp.model.mock;
 
 import chalmers.pimp.model.IRenderer;
 import chalmers.pimp.model.Point;
+import chalmers.pimp.model.Rect;
 import chalmers.pimp.model.color.IColor;
 import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
 import java.util.ArrayList;
@@ -10,9 +11,11 @@ import java.util.List;
 public class RendererMock implements IRenderer {
 
   public final List<Line> lines;
+  public final List<Rect> clips;
 
   public RendererMock() {
     lines = new ArrayList<>();
+    clips = new ArrayList<>();
   }
 
   @Override
@@ -49,6 +52,15 @@ public class RendererMock implements IRenderer {
   public void endTransform() {
   }
 
+  @Override
+  public void setClip(int x, int y, int width, int height) {
+    clips.add(new Rect(x, y, width, height));
+  }
+
+  @Override
+  public void resetClip() {
+  }
+
   @Override
   public void setGlobalAlpha(double alpha) {
   }
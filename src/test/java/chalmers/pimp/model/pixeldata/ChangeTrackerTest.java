@@ -0,0 +1,128 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ChangeTrackerTest {
+
+  private ChangeTracker tracker;
+
+  @BeforeEach
+  void setUp() {
+    tracker = new ChangeTracker(200, 100);
+  }
+
+  private List<int[]> collectChangedRegions(long version) {
+    var regions = new ArrayList<int[]>();
+    tracker.visitChangedRegions(version, (x, y, w, h) -> regions.add(new int[]{x, y, w, h}));
+    return regions;
+  }
+
+  @Test
+  void markChanged() {
+    assertEquals(0, tracker.getVersion());
+    assertTrue(collectChangedRegions(0).isEmpty());
+
+    tracker.markChanged(10, 10);
+    assertEquals(1, tracker.getVersion());
+
+    List<int[]> regions = collectChangedRegions(0);
+    assertEquals(1, regions.size());
+    assertEquals(List.of(0, 0, 64, 64), List.of(regions.get(0)[0], regions.get(0)[1],
+        regions.get(0)[2], regions.get(0)[3]));
+
+    // Nothing has changed since the current version
+    assertTrue(collectChangedRegions(tracker.getVersion()).isEmpty());
+  }
+
+  @Test
+  void visitChangedRegions() {
+    assertThrows(NullPointerException.class, () -> tracker.visitChangedRegions(0, null));
+
+    tracker.markChanged(10, 10);
+    long version = tracker.getVersion();
+
+    // Adjacent cells should be merged and the last cells should be clipped to the bounds
+    tracker.markChanged(100, 70, 100, 30);
+
+    List<int[]> regions = collectChangedRegions(version);
+    assertEquals(1, regions.size());
+
+    int[] region = regions.get(0);
+    assertEquals(64, region[0]);
+    assertEquals(64, region[1]);
+    assertEquals(136, region[2]);
+    assertEquals(36, region[3]);
+
+    assertEquals(2, collectChangedRegions(0).size());
+  }
+
+  @Test
+  void rasterDataVersion() {
+    var rasterData = new TiledRasterData(100, 100);
+    assertEquals(0, rasterData.getVersion());
+
+    rasterData.setArgb(5, 5, 0xFF00FF00);
+    assertEquals(1, rasterData.getVersion());
+
+    // Out-of-bounds writes are ignored
+    rasterData.setArgb(-1, 5, 0xFF00FF00);
+    assertEquals(1, rasterData.getVersion());
+
+    // Sharing an identical tile isn't a change
+    rasterData.setTile(0, rasterData.getTile(0));
+    assertEquals(1, rasterData.getVersion());
+
+    rasterData.setTile(3, new int[TiledRasterData.TILE_SIZE * TiledRasterData.TILE_SIZE]);
+    List<int[]> regions = new ArrayList<>();
+    rasterData.visitChangedRegions(1, (x, y, w, h) -> regions.add(new int[]{x, y, w, h}));
+    assertEquals(1, regions.size());
+    assertEquals(64, regions.get(0)[0]);
+    assertEquals(64, regions.get(0)[1]);
+  }
+
+  @Test
+  void copyVersion() {
+    for (RasterDataType type : RasterDataType.values()) {
+      IRasterData rasterData = RasterDataFactory.createRasterData(type, 100, 100);
+      rasterData.fillRect(10, 10, 80, 80, 0xFF00FF00);
+
+      // Copies start without any changes, regardless of how their pixels were filled
+      IRasterData copy = RasterDataFactory.createRasterData(rasterData);
+      assertEquals(0, copy.getVersion(), type.name());
+      assertEquals(0xFF00FF00, copy.getArgb(50, 50), type.name());
+
+      copy.setArgb(50, 50, 0);
+      List<int[]> regions = new ArrayList<>();
+      copy.visitChangedRegions(0, (x, y, w, h) -> regions.add(new int[]{x, y, w, h}));
+      assertEquals(1, regions.size(), type.name());
+    }
+  }
+
+  @Test
+  void trackedCopyVersion() {
+    for (RasterDataType type : RasterDataType.values()) {
+      IRasterData rasterData = RasterDataFactory.createRasterData(type, 100, 100);
+      rasterData.setArgb(10, 10, 0xFF00FF00);
+      long version = rasterData.getVersion();
+      rasterData.setArgb(90, 90, 0xFF00FF00);
+
+      // Tracked copies continue the version and the changed regions of the original
+      IRasterData copy = RasterDataFactory.createTrackedCopy(rasterData);
+      assertEquals(rasterData.getVersion(), copy.getVersion(), type.name());
+      assertEquals(0xFF00FF00, copy.getArgb(90, 90), type.name());
+
+      List<int[]> regions = new ArrayList<>();
+      copy.visitChangedRegions(version, (x, y, w, h) -> regions.add(new int[]{x, y, w, h}));
+      assertEquals(1, regions.size(), type.name());
+      assertEquals(64, regions.get(0)[0], type.name());
+      assertEquals(64, regions.get(0)[1], type.name());
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class DabMaskTest {
+
+  private static final int ARGB = 0xFF112233;
+
+  @Test
+  void ctor() {
+    assertThrows(IllegalArgumentException.class, () -> new DabMask(0));
+    assertDoesNotThrow(() -> new DabMask(1));
+  }
+
+  @Test
+  void covers() {
+    var single = new DabMask(1);
+    assertTrue(single.covers(0, 0));
+    assertFalse(single.covers(1, 0));
+
+    var dab = new DabMask(10);
+    assertTrue(dab.covers(5, 5));
+    assertTrue(dab.covers(0, 5));
+    assertTrue(dab.covers(9, 4));
+    assertFalse(dab.covers(0, 0)); // The corners aren't part of a circle
+    assertFalse(dab.covers(9, 9));
+    assertFalse(dab.covers(5, 10));
+  }
+
+  @Test
+  void isCoveredBy() {
+    var dab = new DabMask(5);
+    assertThrows(NullPointerException.class, () -> dab.isCoveredBy(0, 0, null, new int[1], 1));
+
+    assertFalse(dab.isCoveredBy(0, 0, new int[0], new int[0], 0));
+    assertTrue(dab.isCoveredBy(3, 4, new int[] {3}, new int[] {4}, 1));
+    assertFalse(dab.isCoveredBy(0, 0, new int[] {1}, new int[] {0}, 1));
+
+    // A dab can be covered by the union of several dabs, even if none of them covers it alone
+    int[] centersX = {-1, 1, 0, 0};
+    int[] centersY = {0, 0, -1, 1};
+    assertTrue(dab.isCoveredBy(0, 0, centersX, centersY, 4));
+    assertFalse(dab.isCoveredBy(0, 0, centersX, centersY, 1));
+  }
+
+  @Test
+  void stamp() {
+    IRasterData rasterData = RasterDataFactory.createRasterData(50, 50);
+    var dab = new DabMask(10);
+
+    assertThrows(NullPointerException.class, () -> dab.stamp(null, 0, 0, ARGB));
+
+    dab.stamp(rasterData, 20, 20, ARGB);
+    int covered = 0;
+    for (int y = 0; y < 50; y++) {
+      for (int x = 0; x < 50; x++) {
+        boolean isCovered = dab.covers(x - 15, y - 15);
+        assertEquals(isCovered ? ARGB : 0, rasterData.getArgb(x, y));
+        if (isCovered) {
+          covered++;
+        }
+      }
+    }
+
+    // The area should roughly match the area of a circle with a radius of 5
+    assertTrue(Math.abs(covered - (Math.PI * 25)) < 10);
+  }
+
+  @Test
+  void stampTranslucent() {
+    IRasterData rasterData = RasterDataFactory.createRasterData(20, 20);
+    rasterData.fillRect(0, 0, 20, 20, 0xFF0000FF);
+    var dab = new DabMask(10);
+
+    // A translucent dab should be blended on top of the pixels below
+    int translucent = 0x80FF0000;
+    dab.stamp(rasterData, 10, 10, translucent);
+    int blended = RasterDataUtils.blend(translucent, 0xFF0000FF);
+    assertEquals(blended, rasterData.getArgb(10, 10));
+    assertEquals(0xFF0000FF, rasterData.getArgb(0, 0));
+
+    // Stamping the dab again should blend on top of the previous dab
+    dab.stamp(rasterData, 10, 10, translucent);
+    assertEquals(RasterDataUtils.blend(translucent, blended), rasterData.getArgb(10, 10));
+
+    // A fully transparent dab shouldn't change anything
+    IRasterData copy = RasterDataFactory.createRasterData(rasterData);
+    dab.stamp(rasterData, 10, 10, 0x00FF0000);
+    assertEquals(copy, RasterDataFactory.createRasterData(rasterData));
+
+    assertDoesNotThrow(() -> dab.stamp(rasterData, 0, 0, translucent));
+    assertDoesNotThrow(() -> dab.stamp(rasterData, 19, 25, translucent));
+    assertEquals(RasterDataUtils.blend(translucent, 0xFF0000FF), rasterData.getArgb(0, 0));
+  }
+
+  @Test
+  void stampOutOfBounds() {
+    IRasterData rasterData = RasterDataFactory.createRasterData(RasterDataType.PACKED, 10, 10);
+    var dab = new DabMask(8);
+
+    assertDoesNotThrow(() -> dab.stamp(rasterData, 0, 0, ARGB));
+    assertDoesNotThrow(() -> dab.stamp(rasterData, 100, -100, ARGB));
+    assertEquals(ARGB, rasterData.getArgb(0, 0));
+    assertEquals(0, rasterData.getArgb(9, 9));
+  }
+}
@@ -0,0 +1,124 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chalmers.pimp.model.color.Colors;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedRasterDataTest {
+
+  @TempDir
+  Path scratchDirectory;
+
+  private MappedRasterData rasterData;
+
+  @BeforeEach
+  void setUp() {
+    // Use tiny chunks, so that the chunk boundaries are exercised
+    rasterData = new MappedRasterData(100, 100, scratchDirectory, 100 * 4 * 7);
+  }
+
+  @Test
+  void constructorTest() throws IOException {
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> new MappedRasterData(0, 0, scratchDirectory));
+    assertThrows(NullPointerException.class, () -> new MappedRasterData(10, 10, null));
+    assertThrows(NullPointerException.class,
+        () -> new MappedRasterData(10, 10, null, scratchDirectory));
+
+    var red = new MappedRasterData(10, 10, Colors.RED, scratchDirectory);
+    assertEquals(Colors.RED, red.getPixel(9, 9).getColor());
+
+    // The scratch files should be removed as soon as they have been mapped
+    try (var files = Files.list(scratchDirectory)) {
+      assertTrue(files.findAny().isEmpty());
+    }
+  }
+
+  @Test
+  void argbTest() {
+    for (int y = 0; y < rasterData.getHeight(); y++) {
+      rasterData.setArgb(y, y, y);
+    }
+    for (int y = 0; y < rasterData.getHeight(); y++) {
+      assertEquals(y, rasterData.getArgb(y, y));
+    }
+
+    assertDoesNotThrow(() -> rasterData.setArgb(100, 0, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> rasterData.getArgb(0, 100));
+  }
+
+  @Test
+  void readRegionTest() {
+    rasterData.setArgb(5, 6, 0xFF000001);
+    rasterData.setArgb(6, 7, 0xFF000002);
+
+    // The region spans two chunks
+    int[] region = new int[4];
+    rasterData.readRegion(5, 6, 2, 2, region, 0, 2);
+    assertArrayEquals(new int[]{0xFF000001, 0, 0, 0xFF000002}, region);
+
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> rasterData.readRegion(99, 99, 2, 2, region, 0, 2));
+  }
+
+  @Test
+  void writeRegionTest() {
+    // The region spans two chunks
+    rasterData.writeRegion(5, 6, 2, 2, new int[]{1, 2, 3, 4}, 0, 2);
+    assertEquals(1, rasterData.getArgb(5, 6));
+    assertEquals(2, rasterData.getArgb(6, 6));
+    assertEquals(3, rasterData.getArgb(5, 7));
+    assertEquals(4, rasterData.getArgb(6, 7));
+
+    rasterData.fillRect(5, 6, 2, 2, 5);
+    assertEquals(5, rasterData.getArgb(6, 7));
+  }
+
+  @Test
+  void equalsTest() {
+    assertNotEquals(null, rasterData);
+    assertEquals(rasterData, rasterData);
+
+    var copy = new MappedRasterData(rasterData, scratchDirectory);
+    assertEquals(rasterData, copy);
+    assertEquals(copy, rasterData);
+    assertEquals(new PackedRasterData(rasterData), new PackedRasterData(copy));
+
+    copy.setArgb(50, 50, 0xFFFFFFFF);
+    assertNotEquals(rasterData, copy);
+  }
+
+  @Test
+  void factoryTest() {
+    long threshold = RasterDataFactory.getMappedThreshold();
+    Path directory = RasterDataFactory.getScratchDirectory();
+    try {
+      RasterDataFactory.setScratchDirectory(scratchDirectory);
+      RasterDataFactory.setMappedThreshold(99);
+
+      assertTrue(RasterDataFactory.createRasterData(10, 10) instanceof MappedRasterData);
+      assertTrue(RasterDataFactory.createRasterData(9, 11) instanceof TiledRasterData);
+      assertTrue(RasterDataFactory.createRasterData(rasterData) instanceof MappedRasterData);
+
+      IRasterData filled = RasterDataFactory.createRasterData(10, 10, rasterData::readRegion);
+      assertTrue(filled instanceof MappedRasterData);
+      assertEquals(new PackedRasterData(10, 10, rasterData::readRegion),
+          new PackedRasterData(filled));
+      assertThrows(IllegalArgumentException.class, () -> RasterDataFactory.setMappedThreshold(-1));
+    } finally {
+      RasterDataFactory.setMappedThreshold(threshold);
+      RasterDataFactory.setScratchDirectory(directory);
+    }
+  }
+}
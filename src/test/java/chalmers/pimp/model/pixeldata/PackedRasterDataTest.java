@@ -0,0 +1,225 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.color.IColor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PackedRasterDataTest {
+
+  private PackedRasterData rasterData;
+
+  @BeforeEach
+  void setUp() {
+    rasterData = new PackedRasterData(100, 100);
+  }
+
+  @Test
+  void constructorTest() {
+    assertThrows(IndexOutOfBoundsException.class, () -> new PackedRasterData(-1, -1));
+    assertThrows(IndexOutOfBoundsException.class, () -> new PackedRasterData(0, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> new PackedRasterData(100_000, 100_000));
+    assertThrows(NullPointerException.class, () -> new PackedRasterData(10, 10, (IColor) null));
+    assertDoesNotThrow(() -> new PackedRasterData(100, 100));
+
+    var red = new PackedRasterData(10, 10, Colors.RED);
+    assertEquals(Colors.RED, red.getPixel(9, 9).getColor());
+  }
+
+  @Test
+  void getPixelsTest() {
+    assertNotNull(rasterData.getPixels());
+
+    int rows = 0;
+    for (Iterable<? extends IReadOnlyPixel> row : rasterData.getPixels()) {
+      int col = 0;
+      for (IReadOnlyPixel pixel : row) {
+        assertEquals(col, pixel.getX());
+        assertEquals(rows, pixel.getY());
+        col++;
+      }
+      assertEquals(rasterData.getWidth(), col);
+      rows++;
+    }
+    assertEquals(rasterData.getHeight(), rows);
+  }
+
+  @Test
+  void setPixelTest() {
+    assertThrows(NullPointerException.class, () -> rasterData.setPixel(null));
+
+    IPixel pixel = PixelFactory.createPixel(4, 7, Colors.BLUE);
+    rasterData.setPixel(pixel);
+    assertEquals(pixel, rasterData.getPixel(4, 7));
+
+    // Out-of-bounds pixels should be ignored
+    assertDoesNotThrow(() -> rasterData.setPixel(PixelFactory.createPixel(100, 0, Colors.RED)));
+  }
+
+  @Test
+  void getPixelTest() {
+    assertDoesNotThrow(() -> rasterData.getPixel(0, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> rasterData.getPixel(0, 100));
+    assertThrows(IndexOutOfBoundsException.class, () -> rasterData.getPixel(100, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> rasterData.getPixel(-1, 0));
+  }
+
+  @Test
+  void argbTest() {
+    int argb = Colors.GREEN.toArgb();
+    rasterData.setArgb(12, 34, argb);
+
+    assertEquals(argb, rasterData.getArgb(12, 34));
+    assertEquals(Colors.GREEN, rasterData.getPixel(12, 34).getColor());
+    assertThrows(IndexOutOfBoundsException.class, () -> rasterData.getArgb(100, 100));
+  }
+
+  @Test
+  void fillRowTest() {
+    rasterData.fillRow(95, 3, 10, 0xFF0000FF);
+    assertEquals(0, rasterData.getArgb(94, 3));
+    assertEquals(0xFF0000FF, rasterData.getArgb(95, 3));
+    assertEquals(0xFF0000FF, rasterData.getArgb(99, 3));
+    assertEquals(0, rasterData.getArgb(0, 4));
+
+    assertDoesNotThrow(() -> rasterData.fillRow(0, -1, 10, 1));
+    assertDoesNotThrow(() -> rasterData.fillRow(-5, 0, Integer.MAX_VALUE, 1));
+    assertEquals(1, rasterData.getArgb(99, 0));
+  }
+
+  @Test
+  void fillRectTest() {
+    rasterData.fillRect(95, 98, 10, 10, 0xFF0000FF);
+    assertEquals(0xFF0000FF, rasterData.getArgb(95, 98));
+    assertEquals(0xFF0000FF, rasterData.getArgb(99, 99));
+    assertEquals(0, rasterData.getArgb(94, 98));
+    assertEquals(0, rasterData.getArgb(95, 97));
+
+    assertDoesNotThrow(() -> rasterData.fillRect(-10, -10, 5, 5, 1));
+    assertDoesNotThrow(() -> rasterData.fillRect(0, 0, -5, -5, 1));
+    assertEquals(0, rasterData.getArgb(0, 0));
+  }
+
+  @Test
+  void writeRegionTest() {
+    int[] region = {1, 2, 3, 4, 5, 6};
+    rasterData.writeRegion(10, 20, 2, 2, region, 1, 3);
+    assertEquals(2, rasterData.getArgb(10, 20));
+    assertEquals(3, rasterData.getArgb(11, 20));
+    assertEquals(5, rasterData.getArgb(10, 21));
+    assertEquals(6, rasterData.getArgb(11, 21));
+
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> rasterData.writeRegion(99, 99, 2, 2, region, 0, 2));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> rasterData.writeRegion(0, 0, 3, 3, region, 0, 3));
+    assertThrows(NullPointerException.class,
+        () -> rasterData.writeRegion(0, 0, 1, 1, null, 0, 1));
+
+    int[] row = new int[100];
+    row[99] = 7;
+    rasterData.writeRow(50, row);
+    assertEquals(7, rasterData.getArgb(99, 50));
+    assertThrows(IndexOutOfBoundsException.class, () -> rasterData.writeRow(50, new int[99]));
+    assertThrows(IndexOutOfBoundsException.class, () -> rasterData.writeRow(100, row));
+  }
+
+  @Test
+  void copyRegionTest() {
+    var source = new PackedRasterData(10, 10, Colors.RED);
+    rasterData.copyRegion(source, 5, 5, 10, 10, 95, -2);
+    assertEquals(Colors.RED.toArgb(), rasterData.getArgb(95, 0));
+    assertEquals(Colors.RED.toArgb(), rasterData.getArgb(99, 2));
+    assertEquals(0, rasterData.getArgb(95, 3));
+    assertEquals(0, rasterData.getArgb(94, 0));
+
+    assertThrows(NullPointerException.class,
+        () -> rasterData.copyRegion(null, 0, 0, 1, 1, 0, 0));
+  }
+
+  @Test
+  void copyOverlappingRegionTest() {
+    for (int i = 0; i < 4; i++) {
+      rasterData.setArgb(i, i, i + 1);
+    }
+
+    // Moves the region both down and to the right, onto itself
+    rasterData.copyRegion(rasterData, 0, 0, 4, 4, 1, 1);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(i + 1, rasterData.getArgb(i + 1, i + 1));
+    }
+    assertEquals(0, rasterData.getArgb(2, 1));
+
+    // Moves the region back up and to the left
+    rasterData.copyRegion(rasterData, 1, 1, 4, 4, 0, 0);
+    for (int i = 0; i < 4; i++) {
+      assertEquals(i + 1, rasterData.getArgb(i, i));
+    }
+  }
+
+  @Test
+  void blitWithAlphaTest() {
+    rasterData.fillRect(0, 0, 2, 1, 0xFF0000FF);
+
+    var source = new PackedRasterData(3, 1);
+    source.setArgb(0, 0, 0x80FF0000);
+    source.setArgb(1, 0, 0x00FF0000);
+    source.setArgb(2, 0, 0xFFFF0000);
+    rasterData.blitWithAlpha(source, 0, 0, 3, 1, 0, 0);
+
+    assertEquals(0xFF80007F, rasterData.getArgb(0, 0));
+    assertEquals(0xFF0000FF, rasterData.getArgb(1, 0));
+    assertEquals(0xFFFF0000, rasterData.getArgb(2, 0));
+
+    // Blending onto a fully transparent pixel keeps the source color
+    rasterData.blitWithAlpha(source, 0, 0, 1, 1, 5, 5);
+    assertEquals(0x80FF0000, rasterData.getArgb(5, 5));
+  }
+
+  @Test
+  void readRegionTest() {
+    rasterData.setArgb(1, 1, 0xFF000001);
+    rasterData.setArgb(2, 2, 0xFF000002);
+
+    int[] region = new int[9];
+    rasterData.readRegion(1, 1, 3, 3, region, 0, 3);
+    assertArrayEquals(new int[]{0xFF000001, 0, 0, 0, 0xFF000002, 0, 0, 0, 0}, region);
+
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> rasterData.readRegion(98, 98, 3, 3, region, 0, 3));
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> rasterData.readRegion(0, 0, 4, 4, region, 0, 4));
+    assertThrows(NullPointerException.class,
+        () -> rasterData.readRegion(0, 0, 1, 1, null, 0, 1));
+  }
+
+  @Test
+  void equalsTest() {
+    assertNotEquals(null, rasterData);
+
+    assertEquals(rasterData, rasterData); // Reflexive
+
+    var copy = new PackedRasterData(rasterData);
+
+    // Symmetric
+    assertEquals(rasterData, copy);
+    assertEquals(copy, rasterData);
+
+    var secondCopy = new PackedRasterData(copy);
+
+    // Transitive
+    assertEquals(rasterData, copy);
+    assertEquals(copy, secondCopy);
+    assertEquals(rasterData, secondCopy);
+
+    copy.setArgb(0, 0, 0xFFFFFFFF);
+    assertNotEquals(rasterData, copy);
+  }
+}
@@ -0,0 +1,77 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chalmers.pimp.model.Rect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RegionRasterDeltaTest {
+
+  private PackedRasterData rasterData;
+  private PackedRasterData before;
+
+  @BeforeEach
+  void setUp() {
+    rasterData = new PackedRasterData(50, 50);
+    rasterData.setArgb(1, 1, 1);
+    before = new PackedRasterData(rasterData);
+  }
+
+  @Test
+  void emptyTest() {
+    assertTrue(new RegionRasterDelta(before, rasterData).isEmpty());
+  }
+
+  @Test
+  void revertAndApplyTest() {
+    rasterData.setArgb(10, 20, 2);
+    rasterData.setArgb(30, 5, 3);
+
+    var delta = new RegionRasterDelta(before, rasterData);
+    assertFalse(delta.isEmpty());
+
+    delta.revert(rasterData);
+    assertEquals(before, rasterData);
+
+    delta.apply(rasterData);
+    assertEquals(2, rasterData.getArgb(10, 20));
+    assertEquals(3, rasterData.getArgb(30, 5));
+    assertEquals(1, rasterData.getArgb(1, 1));
+  }
+
+  @Test
+  void boundsTest() {
+    assertTrue(new RegionRasterDelta(before, rasterData).getBounds().isEmpty());
+
+    rasterData.setArgb(10, 20, 2);
+    rasterData.setArgb(30, 5, 3);
+    assertEquals(new Rect(10, 5, 21, 16), new RegionRasterDelta(before, rasterData).getBounds());
+  }
+
+  @Test
+  void areaTest() {
+    assertTrue(new RegionRasterDelta().isEmpty());
+    assertTrue(new RegionRasterDelta().getBounds().isEmpty());
+
+    // Only the area covered by the state before the edit is compared
+    var area = new PackedRasterData(10, 10);
+    area.copyRegion(rasterData, 20, 10, 10, 10, 0, 0);
+    rasterData.setArgb(25, 12, 2);
+    rasterData.setArgb(45, 45, 3);
+
+    var delta = new RegionRasterDelta(area, 20, 10, rasterData);
+    assertEquals(new Rect(25, 12, 1, 1), delta.getBounds());
+
+    delta.revert(rasterData);
+    assertEquals(0, rasterData.getArgb(25, 12));
+    assertEquals(3, rasterData.getArgb(45, 45));
+  }
+
+  @Test
+  void factoryTest() {
+    assertTrue(RasterDataFactory.createRasterDelta(before, rasterData) instanceof RegionRasterDelta);
+  }
+}
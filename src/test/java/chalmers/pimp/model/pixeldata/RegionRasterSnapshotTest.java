@@ -0,0 +1,72 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chalmers.pimp.model.Rect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RegionRasterSnapshotTest {
+
+  private PackedRasterData rasterData;
+  private PackedRasterData original;
+  private RegionRasterSnapshot snapshot;
+
+  @BeforeEach
+  void setUp() {
+    rasterData = new PackedRasterData(300, 200);
+    rasterData.fillRect(0, 0, 300, 200, 1);
+    original = new PackedRasterData(rasterData);
+    snapshot = new RegionRasterSnapshot(rasterData);
+  }
+
+  @Test
+  void emptyTest() {
+    assertTrue(snapshot.createDelta(rasterData).isEmpty());
+
+    // Regions that are entirely out-of-bounds are ignored
+    snapshot.capture(rasterData, -20, -20, 10, 10);
+    assertTrue(snapshot.createDelta(rasterData).isEmpty());
+  }
+
+  @Test
+  void captureTest() {
+    snapshot.capture(rasterData, 10, 10, 5, 5);
+    rasterData.fillRect(10, 10, 5, 5, 2);
+
+    // The second edit touches both a captured and an uncaptured cell
+    snapshot.capture(rasterData, 60, 130, 10, 10);
+    rasterData.fillRect(60, 130, 10, 10, 3);
+
+    // Capturing a region again doesn't overwrite the pixels from before the edit
+    snapshot.capture(rasterData, 10, 10, 5, 5);
+    rasterData.fillRect(10, 10, 5, 5, 4);
+
+    IRasterDelta delta = snapshot.createDelta(rasterData);
+    assertEquals(new Rect(10, 10, 60, 130), delta.getBounds());
+
+    var edited = new PackedRasterData(rasterData);
+    delta.revert(rasterData);
+    assertEquals(original, rasterData);
+
+    delta.apply(rasterData);
+    assertEquals(edited, rasterData);
+  }
+
+  @Test
+  void sizeTest() {
+    var other = new PackedRasterData(10, 10);
+    assertThrows(NullPointerException.class, () -> snapshot.capture(null, 0, 0, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> snapshot.capture(other, 0, 0, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> snapshot.createDelta(other));
+  }
+
+  @Test
+  void factoryTest() {
+    assertTrue(RasterDataFactory.createRasterSnapshot(rasterData) instanceof RegionRasterSnapshot);
+    assertTrue(RasterDataFactory.createRasterSnapshot(new RasterDataImpl(10, 10))
+        instanceof RegionRasterSnapshot);
+  }
+}
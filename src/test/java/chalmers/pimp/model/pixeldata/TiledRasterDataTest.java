@@ -0,0 +1,198 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.color.IColor;
+import java.io.IOException;
+import java.io.DataOutputStream;
+import java.io.DataInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TiledRasterDataTest {
+
+  private TiledRasterData rasterData;
+
+  @BeforeEach
+  void setUp() {
+    rasterData = new TiledRasterData(150, 100);
+  }
+
+  @Test
+  void constructorTest() {
+    assertThrows(IndexOutOfBoundsException.class, () -> new TiledRasterData(0, 0));
+    assertThrows(NullPointerException.class, () -> new TiledRasterData(10, 10, (IColor) null));
+    assertThrows(NullPointerException.class, () -> new TiledRasterData(null));
+
+    assertEquals(6, rasterData.getTileCount());
+    assertNull(rasterData.getTile(0));
+
+    var red = new TiledRasterData(100, 100, Colors.RED);
+    assertEquals(Colors.RED, red.getPixel(99, 99).getColor());
+    assertEquals(red, new TiledRasterData(new PackedRasterData(red)));
+  }
+
+  @Test
+  void argbTest() {
+    rasterData.setArgb(149, 99, 0xFF123456);
+    rasterData.setArgb(64, 64, 0xFF654321);
+
+    assertEquals(0xFF123456, rasterData.getArgb(149, 99));
+    assertEquals(0xFF654321, rasterData.getArgb(64, 64));
+    assertEquals(0, rasterData.getArgb(63, 63));
+
+    assertDoesNotThrow(() -> rasterData.setArgb(150, 0, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> rasterData.getArgb(150, 0));
+  }
+
+  @Test
+  void readRegionTest() {
+    rasterData.setArgb(63, 63, 1);
+    rasterData.setArgb(64, 64, 2);
+
+    // The region spans four tiles, one of which hasn't been allocated
+    int[] region = new int[4];
+    rasterData.readRegion(63, 63, 2, 2, region, 0, 2);
+    assertArrayEquals(new int[]{1, 0, 0, 2}, region);
+
+    assertEquals(new PackedRasterData(rasterData), new PackedRasterData(rasterData));
+  }
+
+  @Test
+  void fillRowTest() {
+    var copy = new TiledRasterData(rasterData);
+
+    // The run spans three tiles and is clipped to the bounds
+    rasterData.fillRow(-10, 70, 200, 0xFF00FF00);
+    for (int x = 0; x < 150; x++) {
+      assertEquals(0xFF00FF00, rasterData.getArgb(x, 70));
+    }
+    assertEquals(0, rasterData.getArgb(0, 69));
+    assertEquals(0, copy.getArgb(0, 70));
+
+    // Transparent runs shouldn't allocate tiles
+    rasterData.fillRow(0, 0, 150, 0);
+    assertNull(rasterData.getTile(0));
+
+    assertDoesNotThrow(() -> rasterData.fillRow(0, 100, 10, 1));
+    assertDoesNotThrow(() -> rasterData.fillRow(0, 0, -1, 1));
+  }
+
+  @Test
+  void copyOnWriteTest() {
+    rasterData.setArgb(10, 10, 1);
+    var copy = new TiledRasterData(rasterData);
+
+    assertEquals(rasterData, copy);
+    assertSame(rasterData.getTile(0), copy.getTile(0));
+
+    // Writing to the copy must not affect the original
+    copy.setArgb(10, 10, 2);
+    assertNotSame(rasterData.getTile(0), copy.getTile(0));
+    assertEquals(1, rasterData.getArgb(10, 10));
+    assertEquals(2, copy.getArgb(10, 10));
+    assertNotEquals(rasterData, copy);
+
+    // Writing to the original must not affect the copy either
+    var secondCopy = new TiledRasterData(rasterData);
+    rasterData.setArgb(10, 10, 3);
+    assertEquals(1, secondCopy.getArgb(10, 10));
+
+    // Untouched tiles are still shared
+    assertSame(rasterData.getTile(5), secondCopy.getTile(5));
+  }
+
+  @Test
+  void factoryTest() {
+    IRasterData tiled = RasterDataFactory.createRasterData(10, 10);
+    assertEquals(TiledRasterData.class, tiled.getClass());
+    assertEquals(TiledRasterData.class, RasterDataFactory.createRasterData(tiled).getClass());
+  }
+
+  @Test
+  void bulkWriteTest() {
+    var copy = new TiledRasterData(rasterData);
+
+    rasterData.fillRect(60, 60, 10, 10, 0xFF00FF00);
+    assertEquals(0xFF00FF00, rasterData.getArgb(63, 63));
+    assertEquals(0xFF00FF00, rasterData.getArgb(64, 64));
+    assertEquals(0xFF00FF00, rasterData.getArgb(69, 69));
+    assertNull(rasterData.getTile(2));
+
+    int[] row = new int[150];
+    row[63] = 1;
+    row[64] = 2;
+    rasterData.writeRow(0, row);
+    assertEquals(1, rasterData.getArgb(63, 0));
+    assertEquals(2, rasterData.getArgb(64, 0));
+
+    rasterData.copyRegion(rasterData, 60, 60, 10, 10, 140, 90);
+    assertEquals(0xFF00FF00, rasterData.getArgb(140, 90));
+    assertEquals(0xFF00FF00, rasterData.getArgb(149, 99));
+
+    // The copy shared its tiles with the original before the writes
+    assertEquals(0, copy.getArgb(64, 64));
+    assertEquals(0, copy.getArgb(63, 0));
+  }
+
+  @Test
+  void sourceConstructorTest() {
+    IRegionSource source = (x, y, width, height, destination, offset, scanlineStride) -> {
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          destination[offset + (row * scanlineStride) + col] = ((y + row) << 16) | (x + col);
+        }
+      }
+    };
+
+    var tiled = new TiledRasterData(150, 100, source);
+    assertEquals((99 << 16) | 149, tiled.getArgb(149, 99));
+    assertEquals((64 << 16) | 63, tiled.getArgb(63, 64));
+    assertEquals(new PackedRasterData(tiled), new PackedRasterData(150, 100, source));
+
+    assertThrows(NullPointerException.class,
+        () -> new TiledRasterData(10, 10, (IRegionSource) null));
+  }
+
+  @Test
+  void serializationTest() throws IOException {
+    rasterData.setArgb(3, 4, 0xFF112233);
+    rasterData.fillRect(70, 70, 80, 30, 0x80FF0000);
+
+    var bytes = new ByteArrayOutputStream();
+    RasterDataFactory.writeRasterData(rasterData, new DataOutputStream(bytes));
+
+    // Only the three tiles that aren't fully transparent are written
+    final int tilePixels = TiledRasterData.TILE_SIZE * TiledRasterData.TILE_SIZE;
+    assertEquals(8 + 6 + (Integer.BYTES * (tilePixels + (64 * 36) + (22 * 36))), bytes.size());
+
+    var input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    IRasterData copy = RasterDataFactory.readRasterData(input);
+    assertEquals(rasterData, copy);
+    assertNull(((TiledRasterData) copy).getTile(1));
+
+    var packed = new PackedRasterData(5, 3);
+    packed.setArgb(4, 2, 0xFFABCDEF);
+    bytes.reset();
+    RasterDataFactory.writeRasterData(packed, new DataOutputStream(bytes));
+    input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    assertEquals(0xFFABCDEF, RasterDataFactory.readRasterData(input).getArgb(4, 2));
+
+    assertThrows(NullPointerException.class,
+        () -> RasterDataFactory.writeRasterData(null, new DataOutputStream(bytes)));
+    assertThrows(NullPointerException.class,
+        () -> RasterDataFactory.writeRasterData(rasterData, null));
+    assertThrows(IOException.class, () -> RasterDataFactory
+        .readRasterData(new DataInputStream(new ByteArrayInputStream(new byte[8]))));
+  }
+}
@@ -0,0 +1,84 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chalmers.pimp.model.Rect;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TiledRasterDeltaTest {
+
+  private TiledRasterData rasterData;
+  private TiledRasterData before;
+
+  @BeforeEach
+  void setUp() {
+    rasterData = new TiledRasterData(200, 200);
+    rasterData.setArgb(0, 0, 1);
+    before = new TiledRasterData(rasterData);
+  }
+
+  @Test
+  void emptyTest() {
+    assertTrue(new TiledRasterDelta(before, rasterData).isEmpty());
+  }
+
+  @Test
+  void revertAndApplyTest() {
+    rasterData.setArgb(150, 150, 2);
+    var delta = new TiledRasterDelta(before, rasterData);
+    assertFalse(delta.isEmpty());
+
+    // The delta must not be affected by subsequent edits
+    int[] tile = rasterData.getTile(10);
+    rasterData.setArgb(151, 151, 3);
+    assertNotSame(tile, rasterData.getTile(10));
+
+    delta.revert(rasterData);
+    assertEquals(0, rasterData.getArgb(150, 150));
+    assertEquals(0, rasterData.getArgb(151, 151));
+    assertEquals(1, rasterData.getArgb(0, 0));
+    assertSame(before.getTile(0), rasterData.getTile(0));
+
+    delta.apply(rasterData);
+    assertEquals(2, rasterData.getArgb(150, 150));
+    assertEquals(0, rasterData.getArgb(151, 151));
+
+    assertThrows(NullPointerException.class, () -> delta.apply(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> delta.apply(new PackedRasterData(200, 200)));
+  }
+
+  @Test
+  void boundsTest() throws IOException {
+    assertTrue(new TiledRasterDelta(before, rasterData).getBounds().isEmpty());
+
+    // The bounds cover the changed tiles, clipped to the raster data
+    rasterData.setArgb(70, 10, 2);
+    rasterData.setArgb(199, 199, 2);
+    var delta = new TiledRasterDelta(before, rasterData);
+    assertEquals(new Rect(64, 0, 136, 200), delta.getBounds());
+
+    var bytes = new ByteArrayOutputStream();
+    delta.write(new DataOutputStream(bytes));
+    var input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    assertEquals(delta.getBounds(), new TiledRasterDelta(input).getBounds());
+  }
+
+  @Test
+  void factoryTest() {
+    assertTrue(RasterDataFactory.createRasterDelta(before, rasterData) instanceof TiledRasterDelta);
+    assertThrows(IllegalArgumentException.class,
+        () -> RasterDataFactory.createRasterDelta(new TiledRasterData(10, 10), rasterData));
+  }
+}
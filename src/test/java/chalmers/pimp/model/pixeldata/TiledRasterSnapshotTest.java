@@ -0,0 +1,40 @@
+package chalmers.pimp.model.pixeldata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TiledRasterSnapshotTest {
+
+  @Test
+  void createDeltaTest() {
+    var rasterData = new TiledRasterData(200, 200);
+    var snapshot = new TiledRasterSnapshot(rasterData);
+
+    // The snapshot shares its tiles, so the pixels don't have to be captured
+    rasterData.setArgb(150, 150, 2);
+    IRasterDelta delta = snapshot.createDelta(rasterData);
+    assertTrue(delta instanceof TiledRasterDelta);
+
+    delta.revert(rasterData);
+    assertEquals(0, rasterData.getArgb(150, 150));
+    delta.apply(rasterData);
+    assertEquals(2, rasterData.getArgb(150, 150));
+  }
+
+  @Test
+  void sizeTest() {
+    var snapshot = new TiledRasterSnapshot(new TiledRasterData(200, 200));
+    var other = new TiledRasterData(10, 10);
+    assertThrows(IllegalArgumentException.class, () -> snapshot.capture(other, 0, 0, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> snapshot.createDelta(other));
+  }
+
+  @Test
+  void factoryTest() {
+    assertTrue(RasterDataFactory.createRasterSnapshot(new TiledRasterData(10, 10))
+        instanceof TiledRasterSnapshot);
+  }
+}
@@ -0,0 +1,105 @@
+package chalmers.pimp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AutosaveDirectoryTest {
+
+  @TempDir
+  Path directory;
+
+  /**
+   * Opens an autosave directory and closes it right away, which leaves its journal behind as if
+   * the instance had exited. The journal is given the supplied modification time.
+   */
+  private Path createLeftoverJournal(long modifiedMillis) throws IOException {
+    Path journal;
+    try (AutosaveDirectory autosaveDirectory = AutosaveDirectory.open(directory)) {
+      journal = autosaveDirectory.getJournal();
+    }
+    Files.setLastModifiedTime(journal, FileTime.fromMillis(modifiedMillis));
+    return journal;
+  }
+
+  @Test
+  void open() throws IOException {
+    assertThrows(NullPointerException.class, () -> AutosaveDirectory.open(null));
+
+    Path nested = directory.resolve("nested");
+    try (AutosaveDirectory first = AutosaveDirectory.open(nested);
+        AutosaveDirectory second = AutosaveDirectory.open(nested)) {
+      assertTrue(Files.exists(first.getJournal()));
+      assertTrue(Files.exists(second.getJournal()));
+      assertNotEquals(first.getJournal(), second.getJournal());
+      assertEquals(nested, first.getJournal().getParent());
+    }
+  }
+
+  @Test
+  void findLeftoverJournal() throws IOException {
+    try (AutosaveDirectory autosaveDirectory = AutosaveDirectory.open(directory);
+        AutosaveDirectory other = AutosaveDirectory.open(directory)) {
+      // The journals of running instances are in use
+      assertNull(autosaveDirectory.findLeftoverJournal());
+    }
+
+    try (AutosaveDirectory autosaveDirectory = AutosaveDirectory.open(directory)) {
+      Path leftover = autosaveDirectory.findLeftoverJournal();
+      assertTrue(leftover != null && Files.exists(leftover));
+      assertNotEquals(autosaveDirectory.getJournal(), leftover);
+    }
+  }
+
+  @Test
+  void findLeftoverJournalPrefersTheMostRecent() throws IOException {
+    try (AutosaveDirectory autosaveDirectory = AutosaveDirectory.open(directory)) {
+      Path older = createLeftoverJournal(1_000_000);
+      Path newer = createLeftoverJournal(2_000_000);
+
+      assertEquals(newer, autosaveDirectory.findLeftoverJournal());
+      assertTrue(Files.exists(older));
+    }
+  }
+
+  @Test
+  void openPrunesOlderLeftoverJournals() throws IOException {
+    Path older = createLeftoverJournal(1_000_000);
+    Path newer = createLeftoverJournal(2_000_000);
+
+    try (AutosaveDirectory autosaveDirectory = AutosaveDirectory.open(directory)) {
+      assertFalse(Files.exists(older));
+      assertTrue(Files.exists(newer));
+      assertEquals(newer, autosaveDirectory.findLeftoverJournal());
+    }
+  }
+
+  @Test
+  void deleteLeftoverJournal() throws IOException {
+    try (AutosaveDirectory autosaveDirectory = AutosaveDirectory.open(directory);
+        AutosaveDirectory other = AutosaveDirectory.open(directory)) {
+      assertThrows(NullPointerException.class, () -> autosaveDirectory.deleteLeftoverJournal(null));
+
+      // Journals in use are left alone
+      autosaveDirectory.deleteLeftoverJournal(autosaveDirectory.getJournal());
+      autosaveDirectory.deleteLeftoverJournal(other.getJournal());
+      assertTrue(Files.exists(autosaveDirectory.getJournal()));
+      assertTrue(Files.exists(other.getJournal()));
+
+      Path leftover = createLeftoverJournal(1_000_000);
+      autosaveDirectory.deleteLeftoverJournal(leftover);
+      assertFalse(Files.exists(leftover));
+      assertNull(autosaveDirectory.findLeftoverJournal());
+    }
+  }
+}
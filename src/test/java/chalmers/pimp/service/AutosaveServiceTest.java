@@ -0,0 +1,330 @@
+package chalmers.pimp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chalmers.pimp.model.IModel;
+import chalmers.pimp.model.ModelFactory;
+import chalmers.pimp.model.Point;
+import chalmers.pimp.model.canvas.layer.IColorable;
+import chalmers.pimp.model.canvas.layer.IDoodleLayer;
+import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.IReadOnlyLayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AutosaveServiceTest {
+
+  /**
+   * A delay that is long enough for scheduled checkpoints never to interfere with the tests.
+   */
+  private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+  @TempDir
+  Path directory;
+
+  private IModel model;
+  private Path journal;
+  private AutosaveService autosaveService;
+
+  @BeforeEach
+  void setUp() {
+    model = ModelFactory.createModel();
+    journal = directory.resolve("autosave.journal");
+    autosaveService = AutosaveService.start(model, journal, Runnable::run, NEVER);
+  }
+
+  @AfterEach
+  void tearDown() throws ExecutionException, InterruptedException {
+    // Waits for the pending writes, so that the journal isn't modified while it's being deleted
+    autosaveService.checkpoint().get();
+    autosaveService.close();
+  }
+
+  /**
+   * Adds a copy of the supplied layer to the model.
+   *
+   * @param layer the layer that will be added.
+   * @return the layer that was added to the model.
+   */
+  private ILayer addLayer(ILayer layer) {
+    model.addLayer(layer);
+
+    ILayer added = null;
+    for (IReadOnlyLayer modelLayer : model.getLayers()) {
+      added = (ILayer) modelLayer;
+    }
+    return added;
+  }
+
+  /**
+   * Adds a raster layer with a filled rectangle to the model.
+   *
+   * @param width  the width of the raster layer.
+   * @param height the height of the raster layer.
+   * @return the added raster layer.
+   */
+  private IRasterLayer addRaster(int width, int height) {
+    IRasterData pixels = RasterDataFactory.createRasterData(width, height);
+    pixels.fillRect(10, 20, 100, 50, 0xFF336699);
+    return (IRasterLayer) addLayer(LayerFactory.createRasterLayer(pixels, "Background"));
+  }
+
+  @Test
+  void checkpointAndRecover() throws Exception {
+    IRasterLayer raster = addRaster(300, 200);
+    raster.setX(-10);
+
+    IDoodleLayer doodle = LayerFactory.createDoodle(3, Colors.BLUE);
+    doodle.addPoint(new Point(10, 20));
+    doodle.addPoint(new Point(30, 5));
+    doodle = (IDoodleLayer) addLayer(doodle);
+
+    autosaveService.checkpoint().get();
+
+    raster.fillRect(290, 190, 10, 10, 0x80FF0000);
+    doodle.setName("Doodle");
+    ILayer rectangle = LayerFactory.createRectangle(40, 50, 60, 70, Colors.RED);
+    model.addLayer(rectangle);
+    autosaveService.checkpoint().get();
+
+    Document document = AutosaveService.recover(journal);
+    assertEquals(model.getWidth(), document.getWidth());
+    assertEquals(model.getHeight(), document.getHeight());
+    assertEquals(3, document.getLayers().size());
+
+    var recoveredRaster = (IRasterLayer) document.getLayers().get(0);
+    assertEquals("Background", recoveredRaster.getName());
+    assertEquals(-10, recoveredRaster.getX());
+    assertEquals(0xFF336699, recoveredRaster.getPixelData().getArgb(10, 20));
+    assertEquals(0x80FF0000, recoveredRaster.getPixelData().getArgb(299, 199));
+    assertEquals(0, recoveredRaster.getPixelData().getArgb(0, 0));
+
+    var recoveredDoodle = (IDoodleLayer) document.getLayers().get(1);
+    assertEquals("Doodle", recoveredDoodle.getName());
+    assertEquals(doodle.getPoints(), recoveredDoodle.getPoints());
+
+    ILayer recoveredRectangle = document.getLayers().get(2);
+    assertEquals(60, recoveredRectangle.getWidth());
+    assertEquals(Colors.RED.toArgb(), ((IColorable) recoveredRectangle).getColor().toArgb());
+  }
+
+  @Test
+  void checkpointAfterCopy() throws Exception {
+    IRasterLayer raster = addRaster(300, 200);
+    autosaveService.checkpoint().get();
+
+    // Copies borrow the pixels of the layer, which mustn't hide edits from the journal. The edits
+    // are far enough apart not to be journaled as part of the same region.
+    for (int i = 0; i < 2; i++) {
+      raster.fillRect(i * 100, 0, 10, 10, 0xFFFF0000);
+      var copy = (IRasterLayer) raster.clone();
+      raster.fillRect(i * 100, 150, 10, 10, 0xFF00FF00);
+      autosaveService.checkpoint().get();
+
+      assertEquals(0xFFFF0000, copy.getPixelData().getArgb(i * 100, 0));
+      assertEquals(0, copy.getPixelData().getArgb(i * 100, 150));
+    }
+
+    Document document = AutosaveService.recover(journal);
+    IRasterLayer recovered = (IRasterLayer) document.getLayers().get(0);
+    for (int i = 0; i < 2; i++) {
+      assertEquals(0xFFFF0000, recovered.getPixelData().getArgb(i * 100, 0));
+      assertEquals(0xFF00FF00, recovered.getPixelData().getArgb(i * 100, 150));
+    }
+    assertEquals(0xFF336699, recovered.getPixelData().getArgb(10, 20));
+  }
+
+  @Test
+  void incrementalCheckpoints() throws Exception {
+    IRasterLayer raster = addRaster(2048, 2048);
+    autosaveService.checkpoint().get();
+    long fullSize = Files.size(journal);
+    assertTrue(fullSize > 64 * 64 * 4);
+
+    // Nothing is written if nothing has changed
+    autosaveService.checkpoint().get();
+    assertEquals(fullSize, Files.size(journal));
+
+    // Only the modified cell of the raster is written
+    raster.fillRect(1000, 1000, 5, 5, 0xFF00FF00);
+    autosaveService.checkpoint().get();
+    long strokeSize = Files.size(journal) - fullSize;
+    assertTrue(strokeSize > 64 * 64 * 4);
+    assertTrue(strokeSize < (64 * 64 * 4) + 100);
+
+    // Removing a layer only writes a new layer order
+    model.addLayer(LayerFactory.createRectangle(0, 0, 10, 10));
+    autosaveService.checkpoint().get();
+    long size = Files.size(journal);
+    model.removeLayer(1);
+    autosaveService.checkpoint().get();
+    assertTrue(Files.size(journal) - size < 100);
+
+    Document document = AutosaveService.recover(journal);
+    assertEquals(1, document.getLayers().size());
+    var recovered = (IRasterLayer) document.getLayers().get(0);
+    assertEquals(0xFF00FF00, recovered.getPixelData().getArgb(1004, 1004));
+    assertEquals(0xFF336699, recovered.getPixelData().getArgb(109, 69));
+  }
+
+  @Test
+  void rebase() throws Exception {
+    addRaster(300, 200);
+    model.addLayer(LayerFactory.createRectangle(40, 50, 60, 70, Colors.RED));
+
+    Path file = directory.resolve("document.pimp");
+    DocumentService.saveDocument(model.getWidth(), model.getHeight(), model.getLayers(), file,
+        value -> {
+        });
+
+    Document opened = DocumentService.openDocument(file);
+    model.setDocument(opened.getWidth(), opened.getHeight(), opened.getLayers());
+    autosaveService.rebase(file, autosaveService.createBaseline()).get();
+
+    // The journal refers to the document instead of containing its pixels
+    var raster = (IRasterLayer) opened.getLayers().get(0);
+    assertFalse(raster.isLoaded());
+    assertTrue(Files.size(journal) < 1000);
+
+    raster.fillRect(0, 0, 1, 1, 0xFFFFFFFF);
+    opened.getLayers().get(1).setName("Box");
+    autosaveService.checkpoint().get();
+    assertTrue(Files.size(journal) < 64 * 64 * 4 + 1000);
+
+    Document document = AutosaveService.recover(journal);
+    assertEquals(2, document.getLayers().size());
+    var recovered = (IRasterLayer) document.getLayers().get(0);
+    assertEquals(0xFFFFFFFF, recovered.getPixelData().getArgb(0, 0));
+    assertEquals(0xFF336699, recovered.getPixelData().getArgb(10, 20));
+    assertEquals("Box", document.getLayers().get(1).getName());
+
+    // Changes made while the document is saved are part of the first checkpoint
+    AutosaveService.Baseline baseline = autosaveService.createBaseline();
+    DocumentService.saveDocument(model.getWidth(), model.getHeight(), model.getLayers(), file,
+        value -> {
+        });
+    raster.fillRect(299, 199, 1, 1, 0xFF000000);
+    autosaveService.rebase(file, baseline).get();
+
+    recovered = (IRasterLayer) AutosaveService.recover(journal).getLayers().get(0);
+    assertEquals(0xFFFFFFFF, recovered.getPixelData().getArgb(0, 0));
+    assertEquals(0xFF000000, recovered.getPixelData().getArgb(299, 199));
+  }
+
+  @Test
+  void restart() throws Exception {
+    addRaster(300, 200);
+    Path file = directory.resolve("document.pimp");
+    DocumentService.saveDocument(model.getWidth(), model.getHeight(), model.getLayers(), file,
+        value -> {
+        });
+    autosaveService.rebase(file, autosaveService.createBaseline()).get();
+
+    // A restarted journal contains the whole document, instead of referring to the document file
+    Document recovered = AutosaveService.recover(journal);
+    model.setDocument(recovered.getWidth(), recovered.getHeight(), recovered.getLayers());
+    autosaveService.restart().get();
+    Files.delete(file);
+
+    Document document = AutosaveService.recover(journal);
+    assertEquals(1, document.getLayers().size());
+    var raster = (IRasterLayer) document.getLayers().get(0);
+    assertEquals(0xFF336699, raster.getPixelData().getArgb(10, 20));
+  }
+
+  @Test
+  void recoverIncompleteCheckpoint() throws Exception {
+    IRasterLayer raster = addRaster(300, 200);
+    autosaveService.checkpoint().get();
+    long size = Files.size(journal);
+
+    raster.fillRect(0, 0, 1, 1, 0xFFFFFFFF);
+    autosaveService.checkpoint().get();
+    autosaveService.close();
+
+    try (var channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+      channel.truncate(Files.size(journal) - 1);
+    }
+    var recovered = (IRasterLayer) AutosaveService.recover(journal).getLayers().get(0);
+    assertEquals(0, recovered.getPixelData().getArgb(0, 0));
+
+    try (var channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+      channel.truncate(size - 1);
+    }
+    assertThrows(IOException.class, () -> AutosaveService.recover(journal));
+
+    Path file = directory.resolve("not-a-journal");
+    Files.write(file, List.of("Hello world"));
+    assertThrows(IOException.class, () -> AutosaveService.recover(file));
+    assertThrows(NullPointerException.class, () -> AutosaveService.recover(null));
+  }
+
+  @Test
+  void scheduledCheckpoint() throws Exception {
+    autosaveService.close();
+
+    BlockingQueue<Runnable> modelThread = new LinkedBlockingQueue<>();
+    autosaveService = AutosaveService.start(model, journal, modelThread::add, 0);
+
+    // Updates are coalesced into a single checkpoint
+    addRaster(300, 200);
+    model.notifyCanvasUpdateListeners();
+    Runnable checkpoint = modelThread.poll(10, TimeUnit.SECONDS);
+    assertNotNull(checkpoint);
+    assertNull(modelThread.poll(100, TimeUnit.MILLISECONDS));
+
+    checkpoint.run();
+    autosaveService.checkpoint().get();
+    assertEquals(1, AutosaveService.recover(journal).getLayers().size());
+
+    // Updates after a checkpoint schedule another one
+    model.notifyCanvasUpdateListeners();
+    assertNotNull(modelThread.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void start() {
+    assertThrows(NullPointerException.class,
+        () -> AutosaveService.start(null, journal, Runnable::run, NEVER));
+    assertThrows(NullPointerException.class,
+        () -> AutosaveService.start(model, null, Runnable::run, NEVER));
+    assertThrows(NullPointerException.class,
+        () -> AutosaveService.start(model, journal, null, NEVER));
+    assertThrows(IllegalArgumentException.class,
+        () -> AutosaveService.start(model, journal, Runnable::run, -1));
+    assertEquals(journal.toAbsolutePath(), autosaveService.getJournal());
+  }
+
+  @Test
+  void closedService() throws ExecutionException, InterruptedException, IOException {
+    autosaveService.checkpoint().get();
+    long size = Files.size(journal);
+    autosaveService.close();
+
+    addRaster(300, 200);
+    model.notifyCanvasUpdateListeners();
+    assertEquals(size, Files.size(journal));
+  }
+}
@@ -0,0 +1,198 @@
+package chalmers.pimp.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chalmers.pimp.model.Point;
+import chalmers.pimp.model.canvas.layer.IColorable;
+import chalmers.pimp.model.canvas.layer.IDoodleLayer;
+import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
+import chalmers.pimp.model.canvas.layer.LayerType;
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DocumentServiceTest {
+
+  @TempDir
+  Path directory;
+
+  /**
+   * Creates the layers of a document with one layer of each supported type.
+   *
+   * @return the layers of the document.
+   */
+  private static List<ILayer> createLayers() {
+    IRasterData pixels = RasterDataFactory.createRasterData(300, 200);
+    pixels.fillRect(100, 50, 120, 80, 0xFF336699);
+    pixels.setArgb(299, 199, 0x80FF0000);
+    ILayer raster = LayerFactory.createRasterLayer(pixels, "Background");
+    raster.setX(-10);
+    raster.setY(20);
+    raster.setAlpha(0.5);
+
+    ILayer rectangle = LayerFactory.createRectangle(40, 50, 60, 70, Colors.RED);
+    rectangle.setName("Box");
+    rectangle.setVisible(false);
+    rectangle.setRotation(45);
+
+    IDoodleLayer doodle = LayerFactory.createDoodle(3, Colors.BLUE);
+    doodle.addPoint(new Point(10, 20));
+    doodle.addPoint(new Point(30, 5));
+    doodle.setX(200);
+    doodle.setY(100);
+
+    List<ILayer> layers = new ArrayList<>();
+    layers.add(raster);
+    layers.add(rectangle);
+    layers.add(doodle);
+    return layers;
+  }
+
+  @Test
+  void saveAndOpenDocument() throws IOException {
+    Path file = directory.resolve("document.pimp");
+    List<ILayer> layers = createLayers();
+
+    List<Double> progress = new ArrayList<>();
+    DocumentService.saveDocument(640, 480, layers, file, progress::add);
+    assertEquals(1.0, progress.get(progress.size() - 1));
+
+    Document document = DocumentService.openDocument(file);
+    assertEquals(640, document.getWidth());
+    assertEquals(480, document.getHeight());
+    assertEquals(3, document.getLayers().size());
+
+    // The pixels of the raster aren't loaded until they are needed
+    var raster = (IRasterLayer) document.getLayers().get(0);
+    assertEquals("Background", raster.getName());
+    assertEquals(-10, raster.getX());
+    assertEquals(20, raster.getY());
+    assertEquals(0.5, raster.getAlpha());
+    assertEquals(300, raster.getWidth());
+    assertEquals(200, raster.getHeight());
+
+    IReadOnlyRasterData thumbnail = raster.getThumbnail();
+    assertNotNull(thumbnail);
+    assertEquals(DocumentService.THUMBNAIL_SIZE, thumbnail.getWidth());
+    assertEquals(43, thumbnail.getHeight());
+    assertEquals(0xFF336699, thumbnail.getArgb(32, 20));
+
+    IReadOnlyRasterData expected = ((IRasterLayer) layers.get(0)).getPixelData();
+    int[] expectedPixels = new int[300 * 200];
+    expected.readRegion(0, 0, 300, 200, expectedPixels, 0, 300);
+    int[] actualPixels = new int[300 * 200];
+    raster.getPixelData().readRegion(0, 0, 300, 200, actualPixels, 0, 300);
+    assertArrayEquals(expectedPixels, actualPixels);
+    assertNull(raster.getThumbnail());
+
+    ILayer rectangle = document.getLayers().get(1);
+    assertEquals(LayerType.SHAPE, rectangle.getLayerType());
+    assertEquals("Box", rectangle.getName());
+    assertEquals(40, rectangle.getX());
+    assertEquals(50, rectangle.getY());
+    assertEquals(60, rectangle.getWidth());
+    assertEquals(70, rectangle.getHeight());
+    assertEquals(45, rectangle.getRotation());
+    assertFalse(rectangle.isVisible());
+    assertEquals(Colors.RED.toArgb(), ((IColorable) rectangle).getColor().toArgb());
+
+    var doodle = (IDoodleLayer) document.getLayers().get(2);
+    assertEquals(layers.get(2).getX(), doodle.getX());
+    assertEquals(layers.get(2).getY(), doodle.getY());
+    assertEquals(3, doodle.getLineWidth());
+    assertEquals(((IDoodleLayer) layers.get(2)).getPoints(), doodle.getPoints());
+    assertEquals(Colors.BLUE.toArgb(), ((IColorable) doodle).getColor().toArgb());
+  }
+
+  @Test
+  void overwriteOpenDocument() throws IOException {
+    Path file = directory.resolve("document.pimp");
+    DocumentService.saveDocument(640, 480, createLayers(), file, value -> {
+    });
+
+    // Layers that haven't been loaded yet are read from the file that they replace
+    Document document = DocumentService.openDocument(file);
+    DocumentService.saveDocument(640, 480, document.getLayers(), file, value -> {
+    });
+
+    var raster = (IRasterLayer) DocumentService.openDocument(file).getLayers().get(0);
+    assertEquals(0xFF336699, raster.getPixelData().getArgb(100, 50));
+    assertEquals(0x80FF0000, raster.getPixelData().getArgb(299, 199));
+
+    try (var files = Files.list(directory)) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  @Test
+  void saveDocumentErrors() throws IOException {
+    Path file = directory.resolve("document.pimp");
+    List<ILayer> layers = createLayers();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> DocumentService.saveDocument(0, 1, layers, file, value -> {
+        }));
+    assertThrows(NullPointerException.class,
+        () -> DocumentService.saveDocument(1, 1, null, file, value -> {
+        }));
+    assertThrows(NullPointerException.class,
+        () -> DocumentService.saveDocument(1, 1, layers, null, value -> {
+        }));
+
+    DocumentService.saveDocument(640, 480, layers, file, value -> {
+    });
+    byte[] saved = Files.readAllBytes(file);
+
+    // An interrupted save leaves the existing file intact
+    Thread.currentThread().interrupt();
+    try {
+      assertThrows(InterruptedIOException.class,
+          () -> DocumentService.saveDocument(640, 480, List.of(), file, value -> {
+          }));
+    } finally {
+      assertTrue(Thread.interrupted());
+    }
+    assertArrayEquals(saved, Files.readAllBytes(file));
+  }
+
+  @Test
+  void openDocumentErrors() throws IOException {
+    assertThrows(NullPointerException.class, () -> DocumentService.openDocument(null));
+    assertThrows(IOException.class,
+        () -> DocumentService.openDocument(directory.resolve("missing.pimp")));
+
+    Path file = directory.resolve("corrupt.pimp");
+    Files.write(file, new byte[] {1, 2, 3});
+    assertThrows(IOException.class, () -> DocumentService.openDocument(file));
+  }
+
+  @Test
+  void createThumbnail() {
+    IRasterData pixels = RasterDataFactory.createRasterData(10, 200, Colors.RED);
+    IReadOnlyRasterData thumbnail = DocumentService.createThumbnail(pixels);
+    assertEquals(3, thumbnail.getWidth());
+    assertEquals(DocumentService.THUMBNAIL_SIZE, thumbnail.getHeight());
+    assertEquals(Colors.RED.toArgb(), thumbnail.getArgb(2, 63));
+
+    thumbnail = DocumentService.createThumbnail(RasterDataFactory.createRasterData(5, 5));
+    assertEquals(5, thumbnail.getWidth());
+    assertEquals(5, thumbnail.getHeight());
+  }
+}
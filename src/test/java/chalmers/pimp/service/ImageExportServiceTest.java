@@ -1,14 +1,91 @@
 package chalmers.pimp.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ImageExportServiceTest {
 
+  @TempDir
+  Path directory;
+
   @Test
-  void exportImage() {
-    assertThrows(IllegalArgumentException.class, () -> ImageExportService.exportImage(0, 0, null));
-    assertThrows(NullPointerException.class, () -> ImageExportService.exportImage(1, 1, null));
+  void exportPng() throws IOException {
+    Path file = directory.resolve("export.png");
+    List<ILayer> layers = new ArrayList<>();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> ImageExportService.exportPng(0, 0, layers, file, value -> {
+        }));
+    assertThrows(NullPointerException.class,
+        () -> ImageExportService.exportPng(1, 1, null, file, value -> {
+        }));
+    assertThrows(NullPointerException.class,
+        () -> ImageExportService.exportPng(1, 1, layers, null, value -> {
+        }));
+
+    // The canvas is wide enough for the image to be split into several strips
+    final int width = 4100;
+    final int height = 700;
+    assertEquals(255, ImageExportService.getStripHeight(width, height));
+
+    IRasterData rasterData = RasterDataFactory.createRasterData(100, 600, Colors.BLUE);
+    rasterData.setArgb(0, 0, 0x80FF0000);
+    ILayer raster = LayerFactory.createRasterLayer(rasterData);
+    raster.setX(4000);
+    raster.setY(50);
+    layers.add(LayerFactory.createRectangle(3990, 40, 200, 700, Colors.RED));
+    layers.add(raster);
+
+    ILayer hidden = LayerFactory.createRasterLayer(10, 10);
+    hidden.setVisible(false);
+    layers.add(hidden);
+
+    List<Double> progress = new ArrayList<>();
+    ImageExportService.exportPng(width, height, layers, file, progress::add);
+    assertEquals(3, progress.size());
+    assertEquals(1.0, progress.get(2), 1e-9);
+
+    BufferedImage image = ImageIO.read(file.toFile());
+    assertEquals(width, image.getWidth());
+    assertEquals(height, image.getHeight());
+    assertEquals(0, image.getRGB(0, 0));
+    assertEquals(0xFFFF0000, image.getRGB(3995, 45));
+    assertEquals(0xFFFF0000, image.getRGB(4099, 699));
+    assertEquals(0xFF0000FF, image.getRGB(4000, 649));
+    assertEquals(0xFF0000FF, image.getRGB(4099, 300));
+    assertEquals(0xFFFF0000, image.getRGB(4000, 50));
+  }
+
+  @Test
+  void interruptExport() {
+    Path file = directory.resolve("interrupted.png");
+    List<ILayer> layers = List.of(LayerFactory.createRasterLayer(10, 10));
+
+    Thread.currentThread().interrupt();
+    try {
+      assertThrows(InterruptedIOException.class,
+          () -> ImageExportService.exportPng(10, 10, layers, file, value -> {
+          }));
+    } finally {
+      Thread.interrupted();
+    }
+    assertFalse(Files.exists(file));
   }
-}
\ No newline at end of file
+}
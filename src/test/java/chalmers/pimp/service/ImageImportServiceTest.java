@@ -1,14 +1,91 @@
 package chalmers.pimp.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import chalmers.pimp.model.pixeldata.IRasterData;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ImageImportServiceTest {
 
+  @TempDir
+  Path directory;
+
   @Test
   void importImage() {
     // We can't test it more than this, due to limitations with JavaFX
     assertThrows(NullPointerException.class, () -> ImageImportService.importImage(null));
   }
-}
\ No newline at end of file
+
+  /**
+   * Writes a PNG image with a few colored pixels to a temporary file.
+   *
+   * @return the written file.
+   * @throws IOException if the image couldn't be written.
+   */
+  private File writeImage() throws IOException {
+    var image = new BufferedImage(70, 50, BufferedImage.TYPE_INT_ARGB);
+    image.setRGB(0, 0, 0xFF123456);
+    image.setRGB(69, 49, 0x80FF0000);
+
+    File file = directory.resolve("image.png").toFile();
+    ImageIO.write(image, "png", file);
+    return file;
+  }
+
+  @Test
+  void importRasterData() throws IOException {
+    File file = writeImage();
+    List<Double> progress = new ArrayList<>();
+
+    IRasterData rasterData = ImageImportService.importRasterData(file, progress::add);
+    assertEquals(70, rasterData.getWidth());
+    assertEquals(50, rasterData.getHeight());
+    assertEquals(0xFF123456, rasterData.getArgb(0, 0));
+    assertEquals(0x80FF0000, rasterData.getArgb(69, 49));
+
+    assertTrue(progress.size() > 1);
+    assertEquals(1.0, progress.get(progress.size() - 1), 1e-9);
+    for (int i = 1; i < progress.size(); i++) {
+      assertTrue(progress.get(i) >= progress.get(i - 1));
+    }
+
+    assertThrows(NullPointerException.class,
+        () -> ImageImportService.importRasterData(null, value -> {
+        }));
+    assertThrows(NullPointerException.class,
+        () -> ImageImportService.importRasterData(file, null));
+  }
+
+  @Test
+  void importBadRasterData() throws IOException {
+    Path file = Files.writeString(directory.resolve("bad.png"), "Not an image");
+    assertThrows(IOException.class,
+        () -> ImageImportService.importRasterData(file.toFile(), value -> {
+        }));
+  }
+
+  @Test
+  void interruptImport() throws IOException {
+    File file = writeImage();
+    Thread.currentThread().interrupt();
+    try {
+      assertThrows(InterruptedIOException.class,
+          () -> ImageImportService.importRasterData(file, value -> {
+          }));
+    } finally {
+      Thread.interrupted();
+    }
+  }
+}
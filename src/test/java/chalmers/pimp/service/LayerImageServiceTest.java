@@ -0,0 +1,99 @@
+package chalmers.pimp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import chalmers.pimp.model.Point;
+import chalmers.pimp.model.canvas.layer.IDoodleLayer;
+import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
+import chalmers.pimp.model.color.Colors;
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.IReadOnlyRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.Test;
+
+class LayerImageServiceTest {
+
+  @Test
+  void createThumbnail() {
+    IRasterData rasterData = RasterDataFactory.createRasterData(400, 100);
+    rasterData.fillRect(0, 0, 200, 100, 0xFF0000FF);
+    rasterData.fillRect(200, 0, 200, 100, 0x80FF0000);
+
+    IReadOnlyRasterData thumbnail = LayerImageService.createThumbnail(rasterData, 64);
+    assertEquals(64, thumbnail.getWidth());
+    assertEquals(16, thumbnail.getHeight());
+    assertEquals(0xFF0000FF, thumbnail.getArgb(0, 0));
+    assertEquals(0x80FF0000, thumbnail.getArgb(63, 15));
+
+    // Colors are weighted by their alpha values when they are averaged
+    IRasterData stripes = RasterDataFactory.createRasterData(2, 1);
+    stripes.setArgb(0, 0, 0xFFFFFFFF);
+    stripes.setArgb(1, 0, 0x00000000);
+    assertEquals(0x7FFFFFFF, LayerImageService.createThumbnail(stripes, 1).getArgb(0, 0));
+
+    // Small raster data isn't upscaled
+    IReadOnlyRasterData small = LayerImageService.createThumbnail(stripes, 64);
+    assertEquals(2, small.getWidth());
+    assertEquals(1, small.getHeight());
+
+    assertThrows(NullPointerException.class, () -> LayerImageService.createThumbnail(null, 64));
+    assertThrows(IllegalArgumentException.class,
+        () -> LayerImageService.createThumbnail(rasterData, 0));
+  }
+
+  @Test
+  void captureRasterThumbnail() throws Exception {
+    IRasterData pixels = RasterDataFactory.createRasterData(1000, 500);
+    pixels.fillRect(0, 0, 1000, 500, 0xFF00FF00);
+    var raster = (IRasterLayer) LayerFactory.createRasterLayer(pixels, "Raster");
+
+    // The thumbnail reflects the layer as it was when it was captured
+    Callable<IReadOnlyRasterData> task = LayerImageService.captureThumbnail(raster, 64);
+    raster.fillRect(0, 0, 1000, 500, 0xFFFF0000);
+
+    IReadOnlyRasterData thumbnail = task.call();
+    assertEquals(64, thumbnail.getWidth());
+    assertEquals(32, thumbnail.getHeight());
+    assertEquals(0xFF00FF00, thumbnail.getArgb(10, 10));
+
+    // Layers that haven't been loaded are represented by their stored thumbnail
+    IRasterData stored = RasterDataFactory.createRasterData(4, 2);
+    ILayer lazy = LayerFactory.createRasterLayer(1000, 500, () -> pixels, stored, "Lazy");
+    assertSame(stored, LayerImageService.captureThumbnail(lazy, 64).call());
+
+    ILayer lazyWithoutThumbnail = LayerFactory.createRasterLayer(1000, 500, () -> pixels, null,
+        "Lazy");
+    assertEquals(0xFFFF0000,
+        LayerImageService.captureThumbnail(lazyWithoutThumbnail, 64).call().getArgb(5, 5));
+
+    assertThrows(NullPointerException.class, () -> LayerImageService.captureThumbnail(null, 64));
+    assertThrows(IllegalArgumentException.class,
+        () -> LayerImageService.captureThumbnail(raster, 0));
+  }
+
+  @Test
+  void captureVectorThumbnail() throws Exception {
+    ILayer rectangle = LayerFactory.createRectangle(10, 10, 200, 100, Colors.RED);
+    IReadOnlyRasterData thumbnail = LayerImageService.captureThumbnail(rectangle, 64).call();
+    assertEquals(64, thumbnail.getWidth());
+    assertEquals(32, thumbnail.getHeight());
+    assertEquals(Colors.RED.toArgb(), thumbnail.getArgb(63, 31));
+
+    IDoodleLayer doodle = LayerFactory.createDoodle(4, Colors.BLUE);
+    doodle.addPoint(new Point(0, 0));
+    doodle.addPoint(new Point(100, 0));
+    Callable<IReadOnlyRasterData> task = LayerImageService.captureThumbnail(doodle, 64);
+    doodle.addPoint(new Point(100, 100));
+
+    thumbnail = task.call();
+    assertEquals(64, thumbnail.getWidth());
+    assertEquals(5, thumbnail.getHeight());
+    assertEquals(Colors.BLUE.toArgb(), thumbnail.getArgb(32, 2));
+    assertEquals(0, thumbnail.getArgb(0, 0));
+  }
+}
@@ -0,0 +1,123 @@
+package chalmers.pimp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chalmers.pimp.model.canvas.layer.ILayer;
+import chalmers.pimp.model.canvas.layer.IRasterLayer;
+import chalmers.pimp.model.canvas.layer.LayerFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LayerThumbnailCacheTest {
+
+  private Queue<Runnable> backgroundTasks;
+  private LayerThumbnailCache cache;
+
+  @BeforeEach
+  void setUp() {
+    backgroundTasks = new ArrayDeque<>();
+    cache = new LayerThumbnailCache(64, backgroundTasks::add, Runnable::run);
+  }
+
+  /**
+   * Runs all background tasks that have been submitted to the cache.
+   */
+  private void runBackgroundTasks() {
+    while (!backgroundTasks.isEmpty()) {
+      backgroundTasks.remove().run();
+    }
+  }
+
+  @Test
+  void requestThumbnail() {
+    var raster = (IRasterLayer) LayerFactory.createRasterLayer(300, 200);
+    List<Image> images = new ArrayList<>();
+
+    // The thumbnail is created in the background
+    cache.requestThumbnail(raster, images::add);
+    cache.requestThumbnail(raster, images::add);
+    assertEquals(1, backgroundTasks.size());
+    assertTrue(images.isEmpty());
+
+    runBackgroundTasks();
+    assertEquals(2, images.size());
+    Image image = images.get(0);
+    assertEquals(64, (int) image.getWidth());
+    assertEquals(43, (int) image.getHeight());
+
+    // Unchanged layers are served from the cache
+    images.clear();
+    cache.requestThumbnail(raster, images::add);
+    assertTrue(backgroundTasks.isEmpty());
+    assertEquals(List.of(image), images);
+
+    // Modified layers are served the old thumbnail until the new one is done
+    images.clear();
+    raster.fillRect(0, 0, 10, 10, 0xFFFF0000);
+    cache.requestThumbnail(raster, images::add);
+    assertEquals(1, backgroundTasks.size());
+    assertEquals(List.of(image), images);
+
+    runBackgroundTasks();
+    assertEquals(2, images.size());
+    assertNotSame(image, images.get(1));
+  }
+
+  @Test
+  void supersededThumbnail() {
+    var raster = (IRasterLayer) LayerFactory.createRasterLayer(300, 200);
+    List<Image> images = new ArrayList<>();
+
+    cache.requestThumbnail(raster, images::add);
+    raster.fillRect(0, 0, 10, 10, 0xFFFF0000);
+    cache.requestThumbnail(raster, images::add);
+    assertEquals(2, backgroundTasks.size());
+
+    // Only the latest thumbnail is delivered, to both consumers
+    runBackgroundTasks();
+    assertEquals(2, images.size());
+    assertSame(images.get(0), images.get(1));
+    assertEquals(0xFFFF0000, images.get(0).getPixelReader().getArgb(0, 0));
+  }
+
+  @Test
+  void retainAll() {
+    ILayer first = LayerFactory.createRectangle(0, 0, 10, 10);
+    ILayer second = LayerFactory.createRectangle(0, 0, 20, 10);
+    cache.requestThumbnail(first, image -> {
+    });
+    cache.requestThumbnail(second, image -> {
+    });
+    assertEquals(2, cache.size());
+
+    List<Image> images = new ArrayList<>();
+    cache.requestThumbnail(first, images::add);
+    cache.retainAll(List.of(second));
+    assertEquals(1, cache.size());
+
+    // Thumbnails of removed layers are discarded
+    runBackgroundTasks();
+    assertTrue(images.isEmpty());
+  }
+
+  @Test
+  void constructor() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new LayerThumbnailCache(0, Runnable::run, Runnable::run));
+    assertThrows(NullPointerException.class,
+        () -> new LayerThumbnailCache(64, null, Runnable::run));
+    assertThrows(NullPointerException.class,
+        () -> new LayerThumbnailCache(64, Runnable::run, null));
+    assertThrows(NullPointerException.class, () -> cache.requestThumbnail(null, image -> {
+    }));
+  }
+}
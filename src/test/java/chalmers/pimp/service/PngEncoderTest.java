@@ -0,0 +1,32 @@
+package chalmers.pimp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.zip.Adler32;
+import org.junit.jupiter.api.Test;
+
+class PngEncoderTest {
+
+  @Test
+  void combineAdler32() {
+    var random = new Random(42);
+    byte[] first = new byte[100_000];
+    byte[] second = new byte[70_001];
+    random.nextBytes(first);
+    random.nextBytes(second);
+
+    var firstChecksum = new Adler32();
+    firstChecksum.update(first);
+    var secondChecksum = new Adler32();
+    secondChecksum.update(second);
+    var combinedChecksum = new Adler32();
+    combinedChecksum.update(first);
+    combinedChecksum.update(second);
+
+    assertEquals(combinedChecksum.getValue(), PngEncoder
+        .combineAdler32(firstChecksum.getValue(), secondChecksum.getValue(), second.length));
+    assertEquals(firstChecksum.getValue(), PngEncoder.combineAdler32(1, firstChecksum.getValue(),
+        first.length));
+  }
+}
@@ -1,7 +1,10 @@
 package chalmers.pimp.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import chalmers.pimp.model.pixeldata.IRasterData;
+import javafx.scene.image.WritableImage;
 import org.junit.jupiter.api.Test;
 
 class RasterDataServiceTest {
@@ -9,6 +12,19 @@ class RasterDataServiceTest {
   @Test
   void createPixelDataCopy() {
     assertThrows(NullPointerException.class, () -> RasterDataService.createPixelDataCopy(null));
+
+    var image = new WritableImage(100, 70);
+    image.getPixelWriter().setArgb(0, 0, 0xFF123456);
+    image.getPixelWriter().setArgb(99, 69, 0x80FF0000);
+    image.getPixelWriter().setArgb(64, 64, 0xFF00FF00);
+
+    IRasterData copy = RasterDataService.createPixelDataCopy(image);
+    assertEquals(100, copy.getWidth());
+    assertEquals(70, copy.getHeight());
+    assertEquals(0xFF123456, copy.getArgb(0, 0));
+    assertEquals(0x80FF0000, copy.getArgb(99, 69));
+    assertEquals(0xFF00FF00, copy.getArgb(64, 64));
+    assertEquals(0, copy.getArgb(63, 64));
   }
 
   @Test
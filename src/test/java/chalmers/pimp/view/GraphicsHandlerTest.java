@@ -0,0 +1,48 @@
+package chalmers.pimp.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import chalmers.pimp.model.IModel;
+import chalmers.pimp.model.ModelFactory;
+import chalmers.pimp.model.Rect;
+import chalmers.pimp.model.mock.RendererMock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GraphicsHandlerTest {
+
+  private RendererMock renderer;
+  private IModel model;
+  private GraphicsHandler graphicsHandler;
+
+  @BeforeEach
+  void setUp() {
+    renderer = new RendererMock();
+    model = ModelFactory.createModel();
+    graphicsHandler = new GraphicsHandler(renderer, model);
+  }
+
+  @Test
+  void render() {
+    graphicsHandler.render();
+    assertTrue(renderer.clips.isEmpty());
+  }
+
+  @Test
+  void renderArea() {
+    assertThrows(NullPointerException.class, () -> graphicsHandler.render(null));
+
+    int vx = model.getViewport().getX();
+    int vy = model.getViewport().getY();
+
+    graphicsHandler.render(new Rect(10, 20, 30, 40));
+    assertEquals(new Rect(vx + 10, vy + 20, 30, 40), renderer.clips.get(0));
+
+    // Areas outside of the model canvas shouldn't be rendered
+    renderer.clips.clear();
+    graphicsHandler.render(new Rect(-50, -50, 10, 10));
+    assertTrue(renderer.clips.isEmpty());
+  }
+}
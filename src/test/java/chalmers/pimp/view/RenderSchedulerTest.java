@@ -0,0 +1,82 @@
+package chalmers.pimp.view;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RenderSchedulerTest {
+
+  private RenderScheduler scheduler;
+  private int renderCount;
+
+  @BeforeEach
+  void setUp() {
+    renderCount = 0;
+    scheduler = new RenderScheduler(() -> renderCount++);
+  }
+
+  @Test
+  void ctor() {
+    assertThrows(NullPointerException.class, () -> new RenderScheduler(null));
+  }
+
+  @Test
+  void requestFrameWhenStopped() {
+    assertFalse(scheduler.isRunning());
+
+    scheduler.requestFrame();
+    scheduler.requestFrame();
+    assertEquals(2, renderCount);
+    assertEquals(2, scheduler.getStatistics().getRenderedFrames());
+    assertEquals(0, scheduler.getStatistics().getCoalescedRequests());
+  }
+
+  @Test
+  void coalescing() {
+    scheduler.startManualPulses();
+    assertTrue(scheduler.isRunning());
+
+    for (int i = 0; i < 5; i++) {
+      scheduler.requestFrame();
+    }
+    assertEquals(0, renderCount);
+
+    scheduler.pulse(RenderScheduler.PULSE_INTERVAL);
+    assertEquals(1, renderCount);
+
+    // Pulses without pending frames shouldn't render anything
+    scheduler.pulse(2 * RenderScheduler.PULSE_INTERVAL);
+    assertEquals(1, renderCount);
+
+    RenderStatistics statistics = scheduler.getStatistics();
+    assertEquals(1, statistics.getRenderedFrames());
+    assertEquals(4, statistics.getCoalescedRequests());
+    assertEquals(0, statistics.getDroppedFrames());
+  }
+
+  @Test
+  void droppedFrames() {
+    scheduler.startManualPulses();
+    scheduler.pulse(RenderScheduler.PULSE_INTERVAL);
+
+    scheduler.requestFrame();
+    scheduler.pulse(4 * RenderScheduler.PULSE_INTERVAL); // Two pulses were missed
+    assertEquals(2, scheduler.getStatistics().getDroppedFrames());
+  }
+
+  @Test
+  void stop() {
+    scheduler.startManualPulses();
+    scheduler.requestFrame();
+    assertEquals(0, renderCount);
+
+    // The pending frame should be rendered when the scheduler is stopped
+    scheduler.stop();
+    assertFalse(scheduler.isRunning());
+    assertEquals(1, renderCount);
+  }
+}
@@ -0,0 +1,96 @@
+package chalmers.pimp.view.renderer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import chalmers.pimp.model.pixeldata.IRasterData;
+import chalmers.pimp.model.pixeldata.RasterDataFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FXImageCacheTest {
+
+  private FXImageCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new FXImageCache();
+  }
+
+  @Test
+  void getImage() {
+    assertThrows(NullPointerException.class, () -> cache.getImage(null));
+
+    IRasterData rasterData = RasterDataFactory.createRasterData(100, 100);
+    Image image = cache.getImage(rasterData);
+    assertSame(image, cache.getImage(rasterData));
+
+    // Changes should be copied to the cached image
+    rasterData.setArgb(70, 80, 0xFF123456);
+    assertSame(image, cache.getImage(rasterData));
+    assertEquals(0xFF123456, image.getPixelReader().getArgb(70, 80));
+    assertEquals(0, image.getPixelReader().getArgb(0, 0));
+
+    // Equal raster data instances should still have separate images
+    IRasterData copy = RasterDataFactory.createRasterData(rasterData);
+    assertNotSame(image, cache.getImage(copy));
+  }
+
+  @Test
+  void trackedCopy() {
+    IRasterData rasterData = RasterDataFactory.createRasterData(100, 100);
+    rasterData.setArgb(10, 20, 0xFF654321);
+    Image image = cache.getImage(rasterData);
+
+    // A tracked copy continues where the cached image left off
+    IRasterData copy = RasterDataFactory.createTrackedCopy(rasterData);
+    copy.setArgb(70, 80, 0xFF123456);
+    assertSame(image, cache.getImage(copy));
+    assertEquals(0xFF123456, image.getPixelReader().getArgb(70, 80));
+    assertEquals(0xFF654321, image.getPixelReader().getArgb(10, 20));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void manyRasters() {
+    var rasters = new ArrayList<IRasterData>();
+    var images = new ArrayList<Image>();
+    for (int i = 0; i < 100; i++) {
+      IRasterData rasterData = RasterDataFactory.createRasterData(10, 10);
+      rasters.add(rasterData);
+      images.add(cache.getImage(rasterData));
+    }
+    assertEquals(100, cache.size());
+
+    // None of the rasters should have to be converted again
+    for (int i = 0; i < 100; i++) {
+      assertSame(images.get(i), cache.getImage(rasters.get(i)));
+    }
+
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void collectedRasters() {
+    IRasterData rasterData = RasterDataFactory.createRasterData(10, 10);
+    cache.getImage(rasterData);
+
+    var discarded = new WeakReference<>(RasterDataFactory.createRasterData(10, 10));
+    cache.getImage(discarded.get());
+    // Collected references are enqueued asynchronously, so the cache is polled along the way
+    for (int i = 0; (i < 50) && (cache.size() > 1); i++) {
+      System.gc();
+    }
+    assumeTrue(discarded.get() == null);
+
+    // The images of collected raster data should be removed
+    assertEquals(1, cache.size());
+  }
+}